@@ -24,6 +24,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -95,6 +97,74 @@ public class OrganizeImportsOperation implements IWorkspaceRunnable {
 		TypeNameMatch[] chooseImports(TypeNameMatch[][] openChoices, ISourceRange[] ranges);
 	}
 
+	/**
+	 * Caches the types found for unresolved simple type names, so that the operations of a
+	 * bulk run over many compilation units search the type index only once per simple name
+	 * and search scope. The cache is not updated when types are added or removed, so it
+	 * should only be shared by the operations of one run. The operations sharing a cache may
+	 * run concurrently.
+	 *
+	 * @see OrganizeImportsOperation#setTypeNameMatchCache(TypeNameMatchCache)
+	 * @since 1.22
+	 */
+	public static final class TypeNameMatchCache {
+
+		private final Map<String, List<TypeNameMatch>> fMatches= new ConcurrentHashMap<>();
+
+		private final AtomicInteger fHitCount= new AtomicInteger();
+		private final AtomicInteger fMissCount= new AtomicInteger();
+
+		/**
+		 * Creates an empty cache.
+		 */
+		public TypeNameMatchCache() {
+		}
+
+		static String getScopeKey(IJavaProject project, boolean excludeTestCode) {
+			return project.getElementName() + (excludeTestCode ? "/main/" : "/test/"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+
+		List<TypeNameMatch> get(String scopeKey, String simpleName) {
+			List<TypeNameMatch> matches= fMatches.get(scopeKey + simpleName);
+			if (matches != null) {
+				fHitCount.incrementAndGet();
+			} else {
+				fMissCount.incrementAndGet();
+			}
+			return matches;
+		}
+
+		void put(String scopeKey, Collection<String> searchedNames, List<TypeNameMatch> typesFound) {
+			Map<String, List<TypeNameMatch>> bySimpleName= new HashMap<>();
+			for (String name : searchedNames) {
+				bySimpleName.put(name, new ArrayList<>(1));
+			}
+			for (TypeNameMatch match : typesFound) {
+				List<TypeNameMatch> matches= bySimpleName.get(match.getSimpleTypeName());
+				if (matches != null) {
+					matches.add(match);
+				}
+			}
+			for (Entry<String, List<TypeNameMatch>> entry : bySimpleName.entrySet()) {
+				fMatches.putIfAbsent(scopeKey + entry.getKey(), Collections.unmodifiableList(entry.getValue()));
+			}
+		}
+
+		/**
+		 * @return the number of simple names whose types were found in the cache
+		 */
+		public int getHitCount() {
+			return fHitCount.get();
+		}
+
+		/**
+		 * @return the number of simple names whose types had to be searched
+		 */
+		public int getMissCount() {
+			return fMissCount.get();
+		}
+	}
+
 	/**
 	 * Matches unresolvable import declarations (those having associated
 	 * {@link IProblem#ImportNotFound} problems) to unresolved simple names.
@@ -235,18 +305,21 @@ public class OrganizeImportsOperation implements IWorkspaceRunnable {
 		private ScopeAnalyzer fAnalyzer;
 		private boolean fAllowDefaultPackageImports;
 
+		private final TypeNameMatchCache fTypeNameMatchCache;
+
 		private Map<String, UnresolvedTypeData> fUnresolvedTypes;
 		private Set<String> fImportsAdded;
 		private TypeNameMatch[][] fOpenChoices;
 		private SourceRange[] fSourceRanges;
 
 
-		public TypeReferenceProcessor(Set<String> oldSingleImports, Set<String> oldDemandImports, CompilationUnit root, ImportRewrite impStructure, boolean ignoreLowerCaseNames, UnresolvableImportMatcher unresolvableImportMatcher) {
+		public TypeReferenceProcessor(Set<String> oldSingleImports, Set<String> oldDemandImports, CompilationUnit root, ImportRewrite impStructure, boolean ignoreLowerCaseNames, UnresolvableImportMatcher unresolvableImportMatcher, TypeNameMatchCache typeNameMatchCache) {
 			fOldSingleImports= oldSingleImports;
 			fOldDemandImports= oldDemandImports;
 			fImpStructure= impStructure;
 			fDoIgnoreLowerCaseNames= ignoreLowerCaseNames;
 			fUnresolvableImportMatcher= unresolvableImportMatcher;
+			fTypeNameMatchCache= typeNameMatchCache;
 
 			ICompilationUnit cu= impStructure.getCompilationUnit();
 
@@ -352,17 +425,36 @@ public class OrganizeImportsOperation implements IWorkspaceRunnable {
 				if (nUnresolved == 0) {
 					return false;
 				}
-				char[][] allTypes= new char[nUnresolved][];
-				int i= 0;
-				for (String string : fUnresolvedTypes.keySet()) {
-					allTypes[i++]= string.toCharArray();
-				}
 				final ArrayList<TypeNameMatch> typesFound= new ArrayList<>();
 				final IJavaProject project= fCurrPackage.getJavaProject();
 				boolean excludeTestCode= !((IPackageFragmentRoot)fCurrPackage.getParent()).getResolvedClasspathEntry().isTest();
-				IJavaSearchScope scope= SearchEngine.createJavaSearchScope(excludeTestCode, new IJavaElement[] { project }, true);
-				TypeNameMatchCollector collector= new TypeNameMatchCollector(typesFound);
-				new SearchEngine().searchAllTypeNames(null, allTypes, scope, collector, IJavaSearchConstants.WAIT_UNTIL_READY_TO_SEARCH, monitor);
+
+				// only search the names whose types are not known from other compilation units of the run
+				String scopeKey= fTypeNameMatchCache != null ? TypeNameMatchCache.getScopeKey(project, excludeTestCode) : null;
+				List<String> searchedNames= new ArrayList<>(nUnresolved);
+				for (String string : fUnresolvedTypes.keySet()) {
+					List<TypeNameMatch> cached= fTypeNameMatchCache != null ? fTypeNameMatchCache.get(scopeKey, string) : null;
+					if (cached != null) {
+						typesFound.addAll(cached);
+					} else {
+						searchedNames.add(string);
+					}
+				}
+				if (!searchedNames.isEmpty()) {
+					char[][] allTypes= new char[searchedNames.size()][];
+					int i= 0;
+					for (String string : searchedNames) {
+						allTypes[i++]= string.toCharArray();
+					}
+					ArrayList<TypeNameMatch> searchedTypes= new ArrayList<>();
+					IJavaSearchScope scope= SearchEngine.createJavaSearchScope(excludeTestCode, new IJavaElement[] { project }, true);
+					TypeNameMatchCollector collector= new TypeNameMatchCollector(searchedTypes);
+					new SearchEngine().searchAllTypeNames(null, allTypes, scope, collector, IJavaSearchConstants.WAIT_UNTIL_READY_TO_SEARCH, monitor);
+					if (fTypeNameMatchCache != null) {
+						fTypeNameMatchCache.put(scopeKey, searchedNames, searchedTypes);
+					}
+					typesFound.addAll(searchedTypes);
+				}
 
 				boolean is50OrHigher= JavaModelUtil.is50OrHigher(project);
 
@@ -504,6 +596,8 @@ public class OrganizeImportsOperation implements IWorkspaceRunnable {
 
 	private IChooseImportQuery fChooseImportQuery;
 
+	private TypeNameMatchCache fTypeNameMatchCache;
+
 	private int fNumberOfImportsAdded;
 	private int fNumberOfImportsRemoved;
 
@@ -559,6 +653,18 @@ public class OrganizeImportsOperation implements IWorkspaceRunnable {
 		fRestoreExistingImports= restoreExistingImports;
 	}
 
+	/**
+	 * Sets the cache of the types found for unresolved simple names. Operations that run on
+	 * many compilation units of the same projects should share a cache, so that each simple
+	 * name is searched only once. By default no cache is used.
+	 *
+	 * @param cache the cache shared with other operations of the same run, or <code>null</code>
+	 * @since 1.22
+	 */
+	public void setTypeNameMatchCache(TypeNameMatchCache cache) {
+		fTypeNameMatchCache= cache;
+	}
+
 	/**
 	 * Runs the operation.
 	 * @param monitor the progress monitor
@@ -609,7 +715,8 @@ public class OrganizeImportsOperation implements IWorkspaceRunnable {
 				astRoot,
 				importsRewrite,
 				fIgnoreLowerCaseNames,
-				unresolvableImportMatcher);
+				unresolvableImportMatcher,
+				fTypeNameMatchCache);
 
 		Iterator<SimpleName> refIterator= typeReferences.iterator();
 		while (refIterator.hasNext()) {
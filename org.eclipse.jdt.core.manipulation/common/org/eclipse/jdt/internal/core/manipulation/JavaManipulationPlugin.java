@@ -30,7 +30,9 @@ import org.eclipse.core.runtime.Status;
 
 import org.eclipse.jdt.core.manipulation.JavaManipulation;
 
+import org.eclipse.jdt.internal.corext.callhierarchy.CallGraphIndex;
 import org.eclipse.jdt.internal.corext.util.TypeFilter;
+import org.eclipse.jdt.internal.corext.util.TypeNameResolutionCache;
 
 import org.eclipse.jdt.internal.ui.IJavaStatusConstants;
 
@@ -81,6 +83,8 @@ public class JavaManipulationPlugin extends Plugin implements DebugOptionsListen
 
 	@Override
 	public void stop(BundleContext context) throws Exception {
+		CallGraphIndex.shutdown();
+		TypeNameResolutionCache.shutdown();
 		super.stop(context);
 		fgDefault= null;
 
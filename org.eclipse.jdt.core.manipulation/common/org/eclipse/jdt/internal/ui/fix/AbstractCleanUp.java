@@ -61,6 +61,15 @@ public abstract class AbstractCleanUp implements ICleanUp {
 		fOptions= options;
 	}
 
+	/**
+	 * Returns the options that will be used.
+	 *
+	 * @return the options, or <code>null</code> if not set
+	 */
+	public CleanUpOptions getOptions() {
+		return fOptions;
+	}
+
 
 	/*
 	 * @see org.eclipse.jdt.ui.cleanup.ICleanUp#getStepDescriptions()
@@ -0,0 +1,181 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.ui.text;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+
+/**
+ * The types, members and assignability results that chain completion computed for a project.
+ * Shared by all searches in the project and safe for concurrent use.
+ * <p>
+ * Each map holds at most {@link #MAX_ENTRIES} entries and is emptied when it would grow
+ * beyond. All caches are dropped when the Java model reports a structural change, i.e.
+ * anything but an edit inside the bodies of a compilation unit. Since the types of a
+ * project are visible in the projects that require it, a change drops the caches of all
+ * projects.
+ * </p>
+ *
+ * @see ChainFinder
+ */
+public final class ChainCache {
+
+	/**
+	 * The maximum number of entries of each map of a project cache.
+	 */
+	public static final int MAX_ENTRIES= 10000;
+
+	/**
+	 * Flags of a compilation unit delta that do not change its members.
+	 */
+	private static final int BODY_ONLY_FLAGS= IJavaElementDelta.F_CONTENT | IJavaElementDelta.F_FINE_GRAINED | IJavaElementDelta.F_AST_AFFECTED
+			| IJavaElementDelta.F_PRIMARY_RESOURCE | IJavaElementDelta.F_PRIMARY_WORKING_COPY;
+
+	private static final Map<IJavaProject, ChainCache> fgCaches= new ConcurrentHashMap<>();
+
+	private static IElementChangedListener fgListener;
+
+	private final Map<String, IType> fTypes= new ConcurrentHashMap<>();
+
+	private final Map<String, List<IJavaElement>> fMembers= new ConcurrentHashMap<>();
+
+	private final Map<String, Boolean> fAssignable= new ConcurrentHashMap<>();
+
+	private final Map<IJavaElement, ChainElement> fEdges= new ConcurrentHashMap<>();
+
+	private ChainCache() {
+	}
+
+	/**
+	 * Returns the cache of a project.
+	 *
+	 * @param project the project
+	 * @return the cache
+	 */
+	public static ChainCache get(IJavaProject project) {
+		ChainCache cache= fgCaches.get(project);
+		if (cache == null) {
+			addListener();
+			cache= fgCaches.computeIfAbsent(project, p -> new ChainCache());
+		}
+		return cache;
+	}
+
+	private static synchronized void addListener() {
+		if (fgListener == null) {
+			fgListener= ChainCache::elementChanged;
+			JavaCore.addElementChangedListener(fgListener, ElementChangedEvent.POST_CHANGE | ElementChangedEvent.POST_RECONCILE);
+		}
+	}
+
+	/**
+	 * Drops the caches of all projects.
+	 */
+	public static void invalidateAll() {
+		fgCaches.clear();
+	}
+
+	private static void elementChanged(ElementChangedEvent event) {
+		if (!fgCaches.isEmpty() && isStructuralChange(event.getDelta()))
+			invalidateAll();
+	}
+
+	private static boolean isStructuralChange(IJavaElementDelta delta) {
+		int elementType= delta.getElement().getElementType();
+		if (delta.getKind() != IJavaElementDelta.CHANGED)
+			return true;
+		if (elementType == IJavaElement.COMPILATION_UNIT || elementType == IJavaElement.CLASS_FILE) {
+			// edits inside bodies of a reconciled unit report no children
+			return (delta.getFlags() & ~BODY_ONLY_FLAGS) != 0
+					|| (delta.getFlags() & IJavaElementDelta.F_FINE_GRAINED) == 0
+					|| delta.getAffectedChildren().length > 0;
+		}
+		if (elementType > IJavaElement.COMPILATION_UNIT)
+			return true;
+		// F_CONTENT of a container means that non-Java resources changed
+		if ((delta.getFlags() & ~(IJavaElementDelta.F_CHILDREN | IJavaElementDelta.F_CONTENT)) != 0)
+			return true;
+		for (IJavaElementDelta child : delta.getAffectedChildren()) {
+			if (isStructuralChange(child))
+				return true;
+		}
+		return false;
+	}
+
+	private static <K, V> void put(Map<K, V> map, K key, V value) {
+		if (map.size() >= MAX_ENTRIES)
+			map.clear();
+		map.put(key, value);
+	}
+
+	/**
+	 * @param signature a resolved type signature
+	 * @return the type, or <code>null</code> if not cached
+	 */
+	public IType getType(String signature) {
+		return fTypes.get(signature);
+	}
+
+	public void putType(String signature, IType type) {
+		put(fTypes, signature, type);
+	}
+
+	/**
+	 * @param key the type, the receiver type and whether only static members are wanted
+	 * @return the visible fields and methods, or <code>null</code> if not cached
+	 */
+	public List<IJavaElement> getMembers(String key) {
+		return fMembers.get(key);
+	}
+
+	public void putMembers(String key, List<IJavaElement> members) {
+		put(fMembers, key, members);
+	}
+
+	/**
+	 * @param key the type and dimension of a chain element and the expected type and dimension
+	 * @return whether the chain element is assignable, or <code>null</code> if not cached
+	 */
+	public Boolean getAssignable(String key) {
+		return fAssignable.get(key);
+	}
+
+	public void putAssignable(String key, boolean assignable) {
+		put(fAssignable, key, Boolean.valueOf(assignable));
+	}
+
+	/**
+	 * Returns the chain element of a field or method, creating it if needed.
+	 *
+	 * @param member the field or method
+	 * @return the chain element
+	 */
+	public ChainElement getEdge(IJavaElement member) {
+		ChainElement edge= fEdges.get(member);
+		if (edge == null) {
+			edge= new ChainElement(member, false);
+			put(fEdges, member, edge);
+		}
+		return edge;
+	}
+}
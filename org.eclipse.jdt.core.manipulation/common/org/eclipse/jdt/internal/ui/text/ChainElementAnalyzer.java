@@ -12,7 +12,6 @@ package org.eclipse.jdt.internal.ui.text;
 
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -34,8 +33,6 @@ import org.eclipse.jdt.internal.corext.util.JavaModelUtil;
 
 public final class ChainElementAnalyzer {
 
-	private static final Map<String, IType> typeCache= new HashMap<>();
-
 	private static final Predicate<IField> NON_STATIC_FIELDS_ONLY_FILTER = t -> {
 		try {
 			return !Flags.isStatic(t.getFlags());
@@ -268,7 +265,8 @@ public final class ChainElementAnalyzer {
 	}
 
 	public static IType getTypeFromSignature (IJavaProject proj, String typeSig, IType declType) {
-		IType cType= typeCache.get(typeSig);
+		ChainCache cache= ChainCache.get(proj);
+		IType cType= cache.getType(typeSig);
 		if (cType != null) {
 			return cType;
 		}
@@ -285,7 +283,7 @@ public final class ChainElementAnalyzer {
 			res= proj.findType(type);
 			if (res != null) {
 				if (isResolved) {
-					typeCache.put(typeSig, res);
+					cache.putType(typeSig, res);
 				}
 				return res;
 			}
@@ -293,8 +291,8 @@ public final class ChainElementAnalyzer {
 			if (resType != null) {
 				String fqExpectedType= JavaModelUtil.concatenateName(resType[0][0], resType[0][1]);
 				res= proj.findType(fqExpectedType);
-				if (isResolved) {
-					typeCache.put(typeSig, res);
+				if (isResolved && res != null) {
+					cache.putType(typeSig, res);
 				}
 				return res;
 			}
@@ -11,45 +11,104 @@
  */
 package org.eclipse.jdt.internal.ui.text;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IType;
 
 import org.eclipse.jdt.internal.ui.text.ChainElement.ElementType;
 
+/**
+ * Searches chains of field accesses and method calls that yield an expected type.
+ * <p>
+ * The search is breadth-first. All chains of one length are extended in parallel on a pool
+ * shared by all searches, and the results are merged in the order of the chains, so the
+ * chains are found in the same order as by a sequential search. Members, types and
+ * assignability results are shared with later searches through the {@link ChainCache} of
+ * the project.
+ * </p>
+ */
 public class ChainFinder {
 
+	/**
+	 * The maximum number of incomplete chains of one length.
+	 */
+	private static final int MAX_INCOMPLETE_CHAINS= 50000;
+
+	private static ForkJoinPool fgPool;
+
 	private final List<ChainType> expectedTypes;
 
 	private final List<String> excludedTypes;
 
 	private final IType receiverType;
 
-	private final List<Chain> chains= new LinkedList<>();
+	private final ChainCache cache;
 
-	private final Map<IJavaElement, ChainElement> edgeCache= new HashMap<>();
+	private final List<Chain> chains= new CopyOnWriteArrayList<>();
 
-	private final Map<String, List<IJavaElement>> fieldsAndMethodsCache= new HashMap<>();
-
-	private final Map<String, Boolean> assignableCache= new HashMap<>();
+	private volatile Consumer<Chain> chainListener;
 
 	private volatile boolean isCanceled;
 
+	private boolean isParallel= true;
+
 	public ChainFinder(final List<ChainType> expectedTypes, final List<String> excludedTypes,
 			final IType receiverType) {
 		this.expectedTypes= expectedTypes;
 		this.excludedTypes= excludedTypes;
 		this.receiverType= receiverType;
+		this.cache= ChainCache.get(receiverType.getJavaProject());
+	}
+
+	/**
+	 * Returns the pool that runs chain searches. Its threads are daemons and are started on
+	 * demand.
+	 *
+	 * @return the pool
+	 */
+	public static synchronized ForkJoinPool getPool() {
+		if (fgPool == null) {
+			fgPool= new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+		}
+		return fgPool;
+	}
+
+	/**
+	 * Sets a listener that is notified of every chain as soon as it is found. The listener is
+	 * called in the thread of the search.
+	 *
+	 * @param listener the listener, or <code>null</code>
+	 */
+	public void setChainListener(Consumer<Chain> listener) {
+		chainListener= listener;
+	}
+
+	/**
+	 * Sets whether the chains of one length are extended in parallel. The chains are found in
+	 * the same order either way. By default the search is parallel.
+	 *
+	 * @param parallel <code>false</code> to extend the chains in the thread of the search
+	 */
+	public void setParallel(boolean parallel) {
+		isParallel= parallel;
 	}
 
 	public void startChainSearch(final List<ChainElement> entrypoints, final int maxChains, final int minDepth,
 			final int maxDepth) {
 		for (final ChainType expected : expectedTypes) {
+			if (isCanceled) {
+				return;
+			}
 			if (expected != null && !ChainFinder.isFromExcludedType(excludedTypes, expected)) {
 				ChainType expectedType= expected;
 				int expectedDimension= 0;
@@ -66,26 +125,93 @@ public class ChainFinder {
 		isCanceled= true;
 	}
 
+	public boolean isCanceled() {
+		return isCanceled;
+	}
+
+	/**
+	 * The result of visiting an incomplete chain: either the chain is complete, or the chains
+	 * that extend it by one element.
+	 */
+	private static final class Expansion {
+		final boolean complete;
+		final List<List<ChainElement>> extensions;
+
+		Expansion(boolean complete, List<List<ChainElement>> extensions) {
+			this.complete= complete;
+			this.extensions= extensions;
+		}
+	}
+
 	private void searchChainsForExpectedType(final ChainType expectedType, final int expectedDimensions,
 			final List<ChainElement> entrypoints, final int maxChains, final int minDepth, final int maxDepth) {
-		final LinkedList<LinkedList<ChainElement>> incompleteChains= prepareQueue(entrypoints);
+		List<List<ChainElement>> incompleteChains= prepareQueue(entrypoints);
 
 		while (!incompleteChains.isEmpty() && !isCanceled) {
-			final LinkedList<ChainElement> chain= incompleteChains.poll();
-			final ChainElement edge= chain.getLast();
-			if (isValidEndOfChain(edge, expectedType, expectedDimensions)) {
-				if (chain.size() >= minDepth) {
-					chains.add(new Chain(chain, expectedDimensions));
-					if (chains.size() == maxChains) {
-						break;
+			List<Expansion> expansions= expand(incompleteChains, expectedType, expectedDimensions, maxDepth);
+			List<List<ChainElement>> nextChains= new ArrayList<>();
+			for (int i= 0; i < expansions.size() && !isCanceled; i++) {
+				Expansion expansion= expansions.get(i);
+				if (expansion.complete) {
+					List<ChainElement> chain= incompleteChains.get(i);
+					if (chain.size() >= minDepth) {
+						addChain(new Chain(chain, expectedDimensions));
+						if (chains.size() == maxChains) {
+							return;
+						}
 					}
+				} else if (nextChains.size() <= MAX_INCOMPLETE_CHAINS) {
+					nextChains.addAll(expansion.extensions);
 				}
-				continue;
 			}
-			if (chain.size() < maxDepth && incompleteChains.size() <= 50000) {
-				searchDeeper(chain, incompleteChains, edge.getReturnType());
+			incompleteChains= nextChains;
+		}
+	}
+
+	private void addChain(Chain chain) {
+		chains.add(chain);
+		Consumer<Chain> listener= chainListener;
+		if (listener != null) {
+			listener.accept(chain);
+		}
+	}
+
+	/**
+	 * Visits the incomplete chains of one length, in parallel unless disabled.
+	 *
+	 * @param incompleteChains the chains
+	 * @param expectedType the expected type
+	 * @param expectedDimension the expected array dimension
+	 * @param maxDepth the maximum length of a chain
+	 * @return the expansion of each chain, in the order of the chains
+	 */
+	private List<Expansion> expand(final List<List<ChainElement>> incompleteChains, final ChainType expectedType,
+			final int expectedDimension, final int maxDepth) {
+		if (!isParallel) {
+			List<Expansion> expansions= new ArrayList<>(incompleteChains.size());
+			for (List<ChainElement> chain : incompleteChains) {
+				expansions.add(expand(chain, expectedType, expectedDimension, maxDepth));
 			}
+			return expansions;
 		}
+		return getPool().invoke(ForkJoinTask.adapt(() -> incompleteChains.parallelStream()
+				.map(chain -> expand(chain, expectedType, expectedDimension, maxDepth))
+				.collect(Collectors.toList())));
+	}
+
+	private Expansion expand(final List<ChainElement> chain, final ChainType expectedType, final int expectedDimension,
+			final int maxDepth) {
+		if (isCanceled) {
+			return new Expansion(false, Collections.emptyList());
+		}
+		final ChainElement edge= chain.get(chain.size() - 1);
+		if (isValidEndOfChain(edge, expectedType, expectedDimension)) {
+			return new Expansion(true, Collections.emptyList());
+		}
+		if (chain.size() >= maxDepth) {
+			return new Expansion(false, Collections.emptyList());
+		}
+		return new Expansion(false, searchDeeper(chain, edge.getReturnType()));
 	}
 
 	/**
@@ -98,10 +224,10 @@ public class ChainFinder {
 		return chains;
 	}
 
-	private static LinkedList<LinkedList<ChainElement>> prepareQueue(final List<ChainElement> entrypoints) {
-		final LinkedList<LinkedList<ChainElement>> incompleteChains= new LinkedList<>();
+	private static List<List<ChainElement>> prepareQueue(final List<ChainElement> entrypoints) {
+		final List<List<ChainElement>> incompleteChains= new ArrayList<>();
 		for (final ChainElement entrypoint : entrypoints) {
-			final LinkedList<ChainElement> chain= new LinkedList<>();
+			final List<ChainElement> chain= new LinkedList<>();
 			chain.add(entrypoint);
 			incompleteChains.add(chain);
 		}
@@ -134,59 +260,55 @@ public class ChainFinder {
 		if (expectedType.getPrimitiveType() != null) {
 			return expectedType.getPrimitiveType().equals(edge.getReturnType().getPrimitiveType());
 		}
-		Boolean isAssignable= assignableCache.get(edge.toString() + expectedType.toString());
+		final ChainType returnType= edge.getReturnType();
+		final String key= returnType.toString() + '[' + edge.getReturnTypeDimension() + "->" + expectedType.toString() + '[' + expectedDimension; //$NON-NLS-1$
+		Boolean isAssignable= cache.getAssignable(key);
 		if (isAssignable == null) {
-			isAssignable= ChainElementAnalyzer.isAssignable(edge, expectedType.getType(), expectedDimension);
-			assignableCache.put(edge.toString() + expectedType.toString(), isAssignable);
+			isAssignable= Boolean.valueOf(ChainElementAnalyzer.isAssignable(edge, expectedType.getType(), expectedDimension));
+			cache.putAssignable(key, isAssignable.booleanValue());
 		}
-		return isAssignable;
+		return isAssignable.booleanValue();
 	}
 
-	private void searchDeeper(final LinkedList<ChainElement> chain,
-			final List<LinkedList<ChainElement>> incompleteChains, final ChainType currentlyVisitedType) {
+	private List<List<ChainElement>> searchDeeper(final List<ChainElement> chain, final ChainType currentlyVisitedType) {
 		boolean staticOnly= false;
-		if (chain.getLast().getElementType() == ElementType.TYPE) {
+		if (chain.get(chain.size() - 1).getElementType() == ElementType.TYPE) {
 			staticOnly= true;
 		}
 
+		final List<List<ChainElement>> extensions= new ArrayList<>();
 		for (final IJavaElement element : findAllFieldsAndMethods(currentlyVisitedType, staticOnly)) {
-			final ChainElement newEdge= createEdge(element);
+			if (isCanceled) {
+				break;
+			}
+			if (ChainFinder.isFromExcludedType(excludedTypes, element)) {
+				continue;
+			}
+			final ChainElement newEdge= cache.getEdge(element);
 			if (newEdge.getElementType() != null && !chain.contains(newEdge)) {
-				incompleteChains.add(cloneChainAndAppendEdge(chain, newEdge));
+				extensions.add(cloneChainAndAppendEdge(chain, newEdge));
 			}
 		}
+		return extensions;
 	}
 
 	private List<IJavaElement> findAllFieldsAndMethods(final ChainType chainElementType, boolean staticOnly) {
-		List<IJavaElement> cached= fieldsAndMethodsCache.get(chainElementType.toString() + Boolean.toString(staticOnly));
+		final String key= chainElementType.toString() + '/' + staticOnly + '/' + receiverType.getFullyQualifiedName();
+		List<IJavaElement> cached= cache.getMembers(key);
 		if (cached == null) {
-			cached= new LinkedList<>();
 			Collection<IJavaElement> candidates= staticOnly
 					? ChainElementAnalyzer.findAllPublicStaticFieldsAndNonVoidNonPrimitiveStaticMethods(chainElementType, new ChainType(receiverType))
 					: ChainElementAnalyzer.findVisibleInstanceFieldsAndRelevantInstanceMethods(chainElementType, new ChainType(receiverType));
-			for (final IJavaElement e : candidates) {
-				if (!ChainFinder.isFromExcludedType(excludedTypes, e)) {
-					cached.add(e);
-				}
-			}
-			fieldsAndMethodsCache.put(chainElementType.toString() + Boolean.toString(staticOnly), cached);
-		}
-		return cached;
-	}
-
-	private ChainElement createEdge(final IJavaElement member) {
-		ChainElement cached= edgeCache.get(member);
-		if (cached == null) {
-			cached= new ChainElement(member, false);
-			edgeCache.put(member, cached);
+			cached= Collections.unmodifiableList(new ArrayList<>(candidates));
+			cache.putMembers(key, cached);
 		}
 		return cached;
 	}
 
-	private static LinkedList<ChainElement> cloneChainAndAppendEdge(final LinkedList<ChainElement> chain,
+	private static List<ChainElement> cloneChainAndAppendEdge(final List<ChainElement> chain,
 			final ChainElement newEdge) {
-		@SuppressWarnings("unchecked")
-		final LinkedList<ChainElement> chainCopy= (LinkedList<ChainElement>) chain.clone();
+		final List<ChainElement> chainCopy= new ArrayList<>(chain.size() + 1);
+		chainCopy.addAll(chain);
 		chainCopy.add(newEdge);
 		return chainCopy;
 	}
@@ -0,0 +1,845 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.corext.callhierarchy;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.core.runtime.jobs.Job;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.ResourcesPlugin;
+
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.Flags;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IMember;
+import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.ASTRequestor;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.AbstractTypeDeclaration;
+import org.eclipse.jdt.core.dom.ClassInstanceCreation;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.ConstructorInvocation;
+import org.eclipse.jdt.core.dom.CreationReference;
+import org.eclipse.jdt.core.dom.ExpressionMethodReference;
+import org.eclipse.jdt.core.dom.IMethodBinding;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.MethodInvocation;
+import org.eclipse.jdt.core.dom.SuperConstructorInvocation;
+import org.eclipse.jdt.core.dom.SuperMethodInvocation;
+import org.eclipse.jdt.core.dom.SuperMethodReference;
+import org.eclipse.jdt.core.dom.TypeDeclarationStatement;
+import org.eclipse.jdt.core.dom.TypeMethodReference;
+import org.eclipse.jdt.core.search.IJavaSearchScope;
+
+import org.eclipse.jdt.internal.core.manipulation.JavaManipulationPlugin;
+import org.eclipse.jdt.internal.corext.dom.IASTSharedValues;
+import org.eclipse.jdt.internal.corext.util.JavaModelUtil;
+import org.eclipse.jdt.internal.corext.util.SuperTypeHierarchyCache;
+
+/**
+ * An index of the method and constructor invocations and references in the source compilation
+ * units of the workspace, used to answer caller and callee queries of the call hierarchy without
+ * searching.
+ * <p>
+ * The index is built in a background job, updated from Java element deltas and saved in the
+ * state location of the plug-in, so that only changed compilation units are indexed again after
+ * a restart. A reconciled working copy is indexed again right away from the AST of the reconcile.
+ * A structural change of a compilation unit also makes the units that call its members stale.
+ * While any unit is stale, queries return <code>null</code> and the call hierarchy searches.
+ * </p>
+ * <p>
+ * Invocations are indexed under the statically bound method only. A reference search for a
+ * method reports the invocations bound to it, and in addition the invocations bound to the
+ * methods it overrides and, for an abstract or interface method, to its implementations. Callers
+ * are therefore answered only for constructors and for methods of classes which are not abstract
+ * and do not override another method. Callees are answered for methods and constructors
+ * declared in source. Members in class files, fields, types and initializers, as well as
+ * abstract and interface methods whose callees include implementors, are always searched.
+ * </p>
+ * <p>
+ * Only source compilation units are indexed. The callers in the libraries of a search scope are
+ * not answered, see {@link #getLibraryRoots(IJavaSearchScope)}.
+ * </p>
+ */
+public final class CallGraphIndex {
+
+	private static final String INDEX_FILE= "callgraph.index"; //$NON-NLS-1$
+	private static final int INDEX_MAGIC= 0x4a434749;
+	private static final int INDEX_VERSION= 1;
+
+	/** An invocation, reported as caller and as callee */
+	private static final byte INVOCATION= 0;
+	/** A method reference, reported as caller only, like a reference search does */
+	private static final byte REFERENCE= 1;
+	/** A local type declaration, reported as a callee of its constructors only */
+	private static final byte LOCAL_TYPE= 2;
+
+	/**
+	 * An invocation of a member in another member.
+	 */
+	private static final class CallSite {
+		final String fUnit;
+		final String fCaller;
+		final String fCallee;
+		/** The handle identifier of the compilation unit of the called member, or <code>null</code> */
+		final String fCalleeUnit;
+		final int fStart;
+		final int fEnd;
+		final int fLine;
+		final byte fKind;
+
+		CallSite(String unit, String caller, String callee, int start, int end, int line, byte kind) {
+			fUnit= unit;
+			fCaller= caller;
+			fCallee= callee;
+			fCalleeUnit= getUnitHandle(callee);
+			fStart= start;
+			fEnd= end;
+			fLine= line;
+			fKind= kind;
+		}
+	}
+
+	/**
+	 * The invocations in a compilation unit.
+	 */
+	private static final class Unit {
+		final long fStamp;
+		final List<CallSite> fSites;
+
+		Unit(long stamp, List<CallSite> sites) {
+			fStamp= stamp;
+			fSites= sites;
+		}
+	}
+
+	private final class IndexJob extends Job {
+		IndexJob() {
+			super(CallHierarchyMessages.CallGraphIndex_job_name);
+			setSystem(true);
+			setPriority(Job.DECORATE);
+		}
+
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			try {
+				update(monitor);
+			} catch (OperationCanceledException e) {
+				return Status.CANCEL_STATUS;
+			} catch (JavaModelException e) {
+				JavaManipulationPlugin.log(e);
+			}
+			return Status.OK_STATUS;
+		}
+	}
+
+	private final class DeltaListener implements IElementChangedListener {
+		@Override
+		public void elementChanged(ElementChangedEvent event) {
+			IJavaElementDelta delta= event.getDelta();
+			boolean stale= event.getType() == ElementChangedEvent.POST_RECONCILE ? processReconcileDelta(delta) : processDelta(delta);
+			if (stale)
+				fJob.schedule(500);
+		}
+	}
+
+	private static CallGraphIndex fgInstance;
+
+	/** Indexed compilation units by handle identifier */
+	private final Map<String, Unit> fUnits= new HashMap<>();
+	/** Invocations by handle identifier of the called member */
+	private final Map<String, List<CallSite>> fCallers= new HashMap<>();
+	/** Invocations by handle identifier of the calling member */
+	private final Map<String, List<CallSite>> fCallees= new HashMap<>();
+	/** Invocations by handle identifier of the compilation unit of the called member */
+	private final Map<String, List<CallSite>> fCallersByUnit= new HashMap<>();
+	/** Handle identifiers of the compilation units that must be indexed again */
+	private final Set<String> fStaleUnits= new HashSet<>();
+	/** Handle identifiers of the stale compilation units that are being indexed */
+	private final Set<String> fIndexingUnits= new HashSet<>();
+	/** <code>true</code> if the compilation units of the workspace must be collected */
+	private boolean fStaleWorkspace= true;
+	/** <code>true</code> while the compilation units of the workspace are collected */
+	private boolean fCollecting;
+
+	private final IndexJob fJob;
+	private final DeltaListener fListener;
+
+	private CallGraphIndex() {
+		load();
+		fJob= new IndexJob();
+		fListener= new DeltaListener();
+		JavaCore.addElementChangedListener(fListener, ElementChangedEvent.POST_CHANGE | ElementChangedEvent.POST_RECONCILE);
+		fJob.schedule();
+	}
+
+	/**
+	 * Returns the index, creating it and scheduling the indexing of the workspace on first access.
+	 *
+	 * @return the call graph index
+	 */
+	public static synchronized CallGraphIndex getDefault() {
+		if (fgInstance == null)
+			fgInstance= new CallGraphIndex();
+		return fgInstance;
+	}
+
+	/**
+	 * Stops the index and saves it, if it has been created.
+	 */
+	public static synchronized void shutdown() {
+		if (fgInstance == null)
+			return;
+		fgInstance.doShutdown();
+		fgInstance= null;
+	}
+
+	private void doShutdown() {
+		JavaCore.removeElementChangedListener(fListener);
+		fJob.cancel();
+		try {
+			fJob.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		save();
+	}
+
+	/**
+	 * @return <code>true</code> if all compilation units are indexed with their current content
+	 */
+	public synchronized boolean isUpToDate() {
+		return !fStaleWorkspace && !fCollecting && fStaleUnits.isEmpty() && fIndexingUnits.isEmpty();
+	}
+
+	/**
+	 * Indexes the stale compilation units and waits until they are indexed.
+	 *
+	 * @throws InterruptedException if the thread was interrupted while waiting
+	 */
+	public void join() throws InterruptedException {
+		fJob.schedule();
+		fJob.join();
+	}
+
+	/**
+	 * Returns the callers of a member, like a reference search in the given scope would.
+	 *
+	 * @param member the called member
+	 * @param scope the search scope
+	 * @return a map from handle identifier to {@link MethodCall}, or <code>null</code> if the
+	 *         index cannot answer the query, in particular if the scope encloses libraries
+	 */
+	public Map<String, MethodCall> getCallers(IMember member, IJavaSearchScope scope) {
+		try {
+			if (getLibraryRoots(scope).length > 0)
+				return null;
+		} catch (JavaModelException e) {
+			return null;
+		}
+		return getSourceCallers(member, scope);
+	}
+
+	/**
+	 * Returns the callers of a member in the source compilation units of a scope, like a
+	 * reference search in the scope would. The callers in the libraries of the scope are not
+	 * included.
+	 *
+	 * @param member the called member
+	 * @param scope the search scope
+	 * @return a map from handle identifier to {@link MethodCall}, or <code>null</code> if the
+	 *         index cannot answer the query
+	 */
+	public Map<String, MethodCall> getSourceCallers(IMember member, IJavaSearchScope scope) {
+		if (!(member instanceof IMethod) || member.getCompilationUnit() == null)
+			return null;
+		try {
+			if (isPolymorphic((IMethod) member))
+				return null;
+		} catch (JavaModelException e) {
+			return null;
+		}
+		List<CallSite> sites;
+		synchronized (this) {
+			if (!isUpToDate())
+				return null;
+			sites= new ArrayList<>(fCallers.getOrDefault(member.getHandleIdentifier(), List.of()));
+		}
+		CallSearchResultCollector collector= new CallSearchResultCollector();
+		for (CallSite site : sites) {
+			IJavaElement caller= JavaCore.create(site.fCaller);
+			if (site.fKind != LOCAL_TYPE && caller instanceof IMember && scope.encloses(caller))
+				collector.addMember((IMember) caller, (IMember) caller, site.fStart, site.fEnd);
+		}
+		return collector.getCallers();
+	}
+
+	/**
+	 * Returns the library package fragment roots that a scope encloses, one per path. The index
+	 * does not hold their callers.
+	 *
+	 * @param scope the search scope
+	 * @return the binary package fragment roots enclosed by the scope
+	 * @throws JavaModelException if the package fragment roots of a project cannot be accessed
+	 */
+	public static IPackageFragmentRoot[] getLibraryRoots(IJavaSearchScope scope) throws JavaModelException {
+		IWorkspaceRoot workspaceRoot= ResourcesPlugin.getWorkspace().getRoot();
+		IJavaProject[] projects= JavaCore.create(workspaceRoot).getJavaProjects();
+		Map<IPath, IPackageFragmentRoot> libraries= new LinkedHashMap<>();
+		for (IPath path : scope.enclosingProjectsAndJars()) {
+			IResource resource= workspaceRoot.findMember(path);
+			if (resource instanceof IProject) {
+				IJavaProject project= JavaCore.create((IProject) resource);
+				if (!project.exists())
+					continue;
+				for (IPackageFragmentRoot root : project.getPackageFragmentRoots()) {
+					if (root.getKind() == IPackageFragmentRoot.K_BINARY && !libraries.containsKey(root.getPath()) && scope.encloses(root))
+						libraries.put(root.getPath(), root);
+				}
+			} else if (!libraries.containsKey(path)) {
+				// a library of a project that the scope does not enclose
+				for (IJavaProject project : projects) {
+					IPackageFragmentRoot root= project.findPackageFragmentRoot(path);
+					if (root != null && root.getKind() == IPackageFragmentRoot.K_BINARY) {
+						libraries.put(path, root);
+						break;
+					}
+				}
+			}
+		}
+		return libraries.values().toArray(new IPackageFragmentRoot[libraries.size()]);
+	}
+
+	/**
+	 * Tells whether a reference search for a method also reports invocations bound to other
+	 * methods, namely when the method overrides another method, or is abstract or declared in an
+	 * interface and can be implemented.
+	 *
+	 * @param method the method
+	 * @return <code>true</code> if invocations bound to other methods are callers of the method
+	 * @throws JavaModelException if the method or its super types cannot be accessed
+	 */
+	private static boolean isPolymorphic(IMethod method) throws JavaModelException {
+		int flags= method.getFlags();
+		if (method.isConstructor() || Flags.isStatic(flags) || Flags.isPrivate(flags))
+			return false;
+		IType type= method.getDeclaringType();
+		if (Flags.isAbstract(flags) || type.isInterface())
+			return true;
+		// an invocation bound to an overriding method in a subclass is not a caller
+		return SuperTypeHierarchyCache.getMethodOverrideTester(type).findOverriddenMethod(method, true) != null;
+	}
+
+	/**
+	 * Returns the callees of a member, like a {@link CalleeAnalyzerVisitor} would.
+	 *
+	 * @param member the calling member
+	 * @return a map from handle identifier to {@link MethodCall}, or <code>null</code> if the
+	 *         index cannot answer the query
+	 */
+	public Map<String, MethodCall> getCallees(IMember member) {
+		if (!(member instanceof IMethod) || member.getCompilationUnit() == null)
+			return null;
+		try {
+			if (Flags.isAbstract(member.getFlags()) || member.getDeclaringType().isInterface())
+				return null;
+		} catch (JavaModelException e) {
+			return null;
+		}
+		List<CallSite> sites;
+		synchronized (this) {
+			String handle= member.getCompilationUnit().getHandleIdentifier();
+			Unit unit= fUnits.get(handle);
+			if (unit == null || fStaleWorkspace || fCollecting || fStaleUnits.contains(handle) || fIndexingUnits.contains(handle))
+				return null;
+			sites= new ArrayList<>(fCallees.getOrDefault(member.getHandleIdentifier(), List.of()));
+		}
+		CallSearchResultCollector collector= new CallSearchResultCollector();
+		for (CallSite site : sites) {
+			IJavaElement callee= JavaCore.create(site.fCallee);
+			if (site.fKind != REFERENCE && callee instanceof IMember)
+				collector.addMember(member, (IMember) callee, site.fStart, site.fEnd, site.fLine, false);
+		}
+		return collector.getCallers();
+	}
+
+	/**
+	 * Records the compilation units affected by a delta as stale.
+	 *
+	 * @param delta the delta
+	 * @return <code>true</code> if the index became stale
+	 */
+	private synchronized boolean processDelta(IJavaElementDelta delta) {
+		IJavaElement element= delta.getElement();
+		int kind= delta.getKind();
+		int flags= delta.getFlags();
+		switch (element.getElementType()) {
+			case IJavaElement.PACKAGE_FRAGMENT:
+				if (kind != IJavaElementDelta.CHANGED) {
+					// collect the compilation units again
+					fStaleWorkspace= true;
+					return true;
+				}
+				//$FALL-THROUGH$
+			case IJavaElement.JAVA_MODEL:
+			case IJavaElement.JAVA_PROJECT:
+			case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+				if (kind != IJavaElementDelta.CHANGED || (flags & (IJavaElementDelta.F_CLASSPATH_CHANGED | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED
+						| IJavaElementDelta.F_OPENED | IJavaElementDelta.F_CLOSED | IJavaElementDelta.F_ADDED_TO_CLASSPATH
+						| IJavaElementDelta.F_REMOVED_FROM_CLASSPATH | IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED)) != 0) {
+					// bindings anywhere may have changed
+					fStaleWorkspace= true;
+					fStaleUnits.addAll(fUnits.keySet());
+					return true;
+				}
+				boolean stale= false;
+				for (IJavaElementDelta child : delta.getAffectedChildren())
+					stale|= processDelta(child);
+				return stale;
+			case IJavaElement.COMPILATION_UNIT:
+				ICompilationUnit unit= (ICompilationUnit) element;
+				if (!JavaModelUtil.isPrimary(unit))
+					return false;
+				if (kind == IJavaElementDelta.CHANGED && (flags & (IJavaElementDelta.F_CONTENT | IJavaElementDelta.F_CHILDREN | IJavaElementDelta.F_PRIMARY_RESOURCE)) == 0)
+					return false;
+				String handle= unit.getHandleIdentifier();
+				fStaleUnits.add(handle);
+				if (kind != IJavaElementDelta.CHANGED || (flags & IJavaElementDelta.F_FINE_GRAINED) == 0 || hasStructuralChange(delta))
+					markCallersStale(handle);
+				return true;
+			default:
+				return false;
+		}
+	}
+
+	/**
+	 * Indexes a reconciled working copy from the AST of the reconcile, so that typing in an editor
+	 * does not make the index stale. Records the affected compilation units as stale otherwise.
+	 *
+	 * @param delta the reconcile delta
+	 * @return <code>true</code> if the index became stale
+	 */
+	private boolean processReconcileDelta(IJavaElementDelta delta) {
+		IJavaElement element= delta.getElement();
+		CompilationUnit ast= delta.getCompilationUnitAST();
+		if (!(element instanceof ICompilationUnit) || ast == null || !ast.getAST().hasResolvedBindings() || !JavaModelUtil.isPrimary((ICompilationUnit) element))
+			return processDelta(delta);
+		ICompilationUnit unit= (ICompilationUnit) element;
+		String handle= unit.getHandleIdentifier();
+		synchronized (this) {
+			if (fStaleWorkspace || fCollecting || !fUnits.containsKey(handle))
+				return processDelta(delta);
+		}
+		List<CallSite> sites= collectSites(unit, ast, new NullProgressMonitor());
+		synchronized (this) {
+			if ((delta.getFlags() & IJavaElementDelta.F_FINE_GRAINED) == 0 || hasStructuralChange(delta))
+				markCallersStale(handle);
+			if (fIndexingUnits.contains(handle)) {
+				// the index job would replace the sites with those of an older content
+				fStaleUnits.add(handle);
+			} else {
+				removeUnit(handle);
+				// the working copy may not be saved, index it again after a restart
+				addUnit(handle, new Unit(IResource.NULL_STAMP, sites));
+				fStaleUnits.remove(handle);
+			}
+			return !fStaleUnits.isEmpty();
+		}
+	}
+
+	/**
+	 * Records the compilation units that call members of a compilation unit as stale, since their
+	 * invocations may resolve differently.
+	 *
+	 * @param handle the handle identifier of the changed compilation unit
+	 */
+	private void markCallersStale(String handle) {
+		for (CallSite site : fCallersByUnit.getOrDefault(handle, List.of()))
+			fStaleUnits.add(site.fUnit);
+	}
+
+	private static boolean hasStructuralChange(IJavaElementDelta delta) {
+		for (IJavaElementDelta child : delta.getAffectedChildren()) {
+			int kind= child.getKind();
+			if (kind != IJavaElementDelta.CHANGED || (child.getFlags() & (IJavaElementDelta.F_MODIFIERS | IJavaElementDelta.F_SUPER_TYPES)) != 0)
+				return true;
+			if (hasStructuralChange(child))
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Collects the compilation units of the workspace if needed and indexes the stale ones.
+	 *
+	 * @param monitor the progress monitor
+	 * @throws JavaModelException if the Java model cannot be accessed
+	 */
+	private void update(IProgressMonitor monitor) throws JavaModelException {
+		boolean collect;
+		synchronized (this) {
+			collect= fStaleWorkspace;
+			fStaleWorkspace= false;
+			fCollecting= collect;
+		}
+		if (collect) {
+			boolean collected= false;
+			try {
+				collectUnits(monitor);
+				collected= true;
+			} finally {
+				synchronized (this) {
+					fCollecting= false;
+					fStaleWorkspace|= !collected;
+				}
+			}
+		}
+
+		while (true) {
+			Map<IJavaProject, List<ICompilationUnit>> byProject= new LinkedHashMap<>();
+			synchronized (this) {
+				if (fStaleUnits.isEmpty())
+					return;
+				for (String handle : fStaleUnits) {
+					IJavaElement element= JavaCore.create(handle);
+					if (element instanceof ICompilationUnit && element.exists()) {
+						byProject.computeIfAbsent(element.getJavaProject(), p -> new ArrayList<>()).add((ICompilationUnit) element);
+						fIndexingUnits.add(handle);
+					} else {
+						removeUnit(handle);
+					}
+				}
+				fStaleUnits.clear();
+			}
+			try {
+				for (Map.Entry<IJavaProject, List<ICompilationUnit>> entry : byProject.entrySet())
+					index(entry.getKey(), entry.getValue(), monitor);
+			} finally {
+				synchronized (this) {
+					// units without an AST or not indexed because of cancellation
+					fStaleUnits.addAll(fIndexingUnits);
+					fIndexingUnits.clear();
+				}
+			}
+		}
+	}
+
+	private void collectUnits(IProgressMonitor monitor) throws JavaModelException {
+		Set<String> units= new HashSet<>();
+		for (IJavaProject project : JavaCore.create(ResourcesPlugin.getWorkspace().getRoot()).getJavaProjects()) {
+			for (IPackageFragmentRoot root : project.getPackageFragmentRoots()) {
+				if (monitor.isCanceled())
+					throw new OperationCanceledException();
+				if (root.getKind() != IPackageFragmentRoot.K_SOURCE || !project.equals(root.getJavaProject()))
+					continue;
+				for (IJavaElement child : root.getChildren()) {
+					for (ICompilationUnit unit : ((IPackageFragment) child).getCompilationUnits()) {
+						String handle= unit.getHandleIdentifier();
+						units.add(handle);
+						synchronized (this) {
+							Unit indexed= fUnits.get(handle);
+							if (indexed == null || indexed.fStamp == IResource.NULL_STAMP || indexed.fStamp != getStamp(unit))
+								fStaleUnits.add(handle);
+						}
+					}
+				}
+			}
+		}
+		synchronized (this) {
+			for (String handle : new ArrayList<>(fUnits.keySet())) {
+				if (!units.contains(handle))
+					removeUnit(handle);
+			}
+		}
+	}
+
+	private static long getStamp(ICompilationUnit unit) {
+		IResource resource= unit.getResource();
+		if (resource == null || unit.hasUnsavedChanges())
+			return IResource.NULL_STAMP;
+		return resource.getModificationStamp();
+	}
+
+	private void index(IJavaProject project, List<ICompilationUnit> units, IProgressMonitor monitor) {
+		ASTParser parser= ASTParser.newParser(IASTSharedValues.SHARED_AST_LEVEL);
+		parser.setProject(project);
+		parser.setResolveBindings(true);
+		parser.createASTs(units.toArray(new ICompilationUnit[units.size()]), new String[0], new ASTRequestor() {
+			@Override
+			public void acceptAST(ICompilationUnit source, CompilationUnit ast) {
+				if (monitor.isCanceled())
+					throw new OperationCanceledException();
+				long stamp= getStamp(source);
+				List<CallSite> sites= collectSites(source, ast, monitor);
+				synchronized (CallGraphIndex.this) {
+					String handle= source.getHandleIdentifier();
+					removeUnit(handle);
+					addUnit(handle, new Unit(stamp, sites));
+					fIndexingUnits.remove(handle);
+				}
+			}
+		}, SubMonitor.convert(monitor, units.size()));
+	}
+
+	private static List<CallSite> collectSites(ICompilationUnit unit, CompilationUnit ast, IProgressMonitor monitor) {
+		String unitHandle= unit.getHandleIdentifier();
+		List<CallSite> sites= new ArrayList<>();
+		ast.accept(new ASTVisitor() {
+			@Override
+			public boolean visit(MethodInvocation node) {
+				add(node.resolveMethodBinding(), node, node.getStartPosition(), INVOCATION);
+				return true;
+			}
+
+			@Override
+			public boolean visit(SuperMethodInvocation node) {
+				add(node.resolveMethodBinding(), node, node.getStartPosition(), INVOCATION);
+				return true;
+			}
+
+			@Override
+			public boolean visit(ClassInstanceCreation node) {
+				add(node.resolveConstructorBinding(), node, node.getStartPosition(), INVOCATION);
+				return true;
+			}
+
+			@Override
+			public boolean visit(ConstructorInvocation node) {
+				add(node.resolveConstructorBinding(), node, node.getStartPosition(), INVOCATION);
+				return true;
+			}
+
+			@Override
+			public boolean visit(SuperConstructorInvocation node) {
+				add(node.resolveConstructorBinding(), node, node.getStartPosition(), INVOCATION);
+				return true;
+			}
+
+			@Override
+			public boolean visit(ExpressionMethodReference node) {
+				add(node.resolveMethodBinding(), node, node.getStartPosition(), REFERENCE);
+				return true;
+			}
+
+			@Override
+			public boolean visit(SuperMethodReference node) {
+				add(node.resolveMethodBinding(), node, node.getStartPosition(), REFERENCE);
+				return true;
+			}
+
+			@Override
+			public boolean visit(TypeMethodReference node) {
+				add(node.resolveMethodBinding(), node, node.getStartPosition(), REFERENCE);
+				return true;
+			}
+
+			@Override
+			public boolean visit(CreationReference node) {
+				add(node.resolveMethodBinding(), node, node.getStartPosition(), REFERENCE);
+				return true;
+			}
+
+			@Override
+			public boolean visit(TypeDeclarationStatement node) {
+				// a local type is reported as a call of its constructors by its enclosing member
+				AbstractTypeDeclaration declaration= node.getDeclaration();
+				for (Object bodyDeclaration : declaration.bodyDeclarations()) {
+					if (bodyDeclaration instanceof MethodDeclaration && ((MethodDeclaration) bodyDeclaration).isConstructor()) {
+						MethodDeclaration constructor= (MethodDeclaration) bodyDeclaration;
+						add(constructor.resolveBinding(), constructor.getName(), node.getStartPosition() - 1, LOCAL_TYPE);
+					}
+				}
+				return true;
+			}
+
+			private void add(IMethodBinding binding, ASTNode node, int callerPosition, byte kind) {
+				if (binding == null)
+					return;
+				try {
+					IMember callee= CalleeAnalyzerVisitor.getCalledMember(binding, monitor);
+					IJavaElement caller= unit.getElementAt(callerPosition);
+					if (callee == null || !(caller instanceof IMember))
+						return;
+					int start= node.getStartPosition();
+					int line= ast.getLineNumber(start);
+					sites.add(new CallSite(unitHandle, caller.getHandleIdentifier(), callee.getHandleIdentifier(), start, start + node.getLength(), line < 1 ? 1 : line, kind));
+				} catch (JavaModelException e) {
+					// not indexed
+				}
+			}
+
+		});
+		return sites;
+	}
+
+	private void addUnit(String handle, Unit unit) {
+		fUnits.put(handle, unit);
+		for (CallSite site : unit.fSites) {
+			fCallers.computeIfAbsent(site.fCallee, k -> new ArrayList<>()).add(site);
+			fCallees.computeIfAbsent(site.fCaller, k -> new ArrayList<>()).add(site);
+			if (site.fCalleeUnit != null)
+				fCallersByUnit.computeIfAbsent(site.fCalleeUnit, k -> new ArrayList<>()).add(site);
+		}
+	}
+
+	private void removeUnit(String handle) {
+		Unit unit= fUnits.remove(handle);
+		if (unit == null)
+			return;
+		for (CallSite site : unit.fSites) {
+			remove(fCallers, site.fCallee, site);
+			remove(fCallees, site.fCaller, site);
+			if (site.fCalleeUnit != null)
+				remove(fCallersByUnit, site.fCalleeUnit, site);
+		}
+	}
+
+	private static String getUnitHandle(String memberHandle) {
+		IJavaElement member= JavaCore.create(memberHandle);
+		IJavaElement unit= member != null ? member.getAncestor(IJavaElement.COMPILATION_UNIT) : null;
+		return unit != null ? unit.getHandleIdentifier() : null;
+	}
+
+	private static void remove(Map<String, List<CallSite>> sitesByMember, String member, CallSite site) {
+		List<CallSite> sites= sitesByMember.get(member);
+		if (sites == null)
+			return;
+		for (Iterator<CallSite> iterator= sites.iterator(); iterator.hasNext();) {
+			if (iterator.next() == site) {
+				iterator.remove();
+				break;
+			}
+		}
+		if (sites.isEmpty())
+			sitesByMember.remove(member);
+	}
+
+	private static File getIndexFile() {
+		return JavaManipulationPlugin.getDefault().getStateLocation().append(INDEX_FILE).toFile();
+	}
+
+	private synchronized void load() {
+		File file= getIndexFile();
+		if (!file.exists())
+			return;
+		try (DataInputStream in= new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			if (in.readInt() != INDEX_MAGIC || in.readInt() != INDEX_VERSION)
+				return;
+			String[] handles= new String[in.readInt()];
+			for (int i= 0; i < handles.length; i++)
+				handles[i]= in.readUTF();
+			int unitCount= in.readInt();
+			for (int i= 0; i < unitCount; i++) {
+				String unitHandle= handles[in.readInt()];
+				long stamp= in.readLong();
+				List<CallSite> sites= new ArrayList<>();
+				int siteCount= in.readInt();
+				for (int j= 0; j < siteCount; j++)
+					sites.add(new CallSite(unitHandle, handles[in.readInt()], handles[in.readInt()], in.readInt(), in.readInt(), in.readInt(), in.readByte()));
+				addUnit(unitHandle, new Unit(stamp, sites));
+			}
+		} catch (IOException | IndexOutOfBoundsException e) {
+			JavaManipulationPlugin.log(e);
+			fUnits.clear();
+			fCallers.clear();
+			fCallees.clear();
+			fCallersByUnit.clear();
+		}
+	}
+
+	private synchronized void save() {
+		File file= getIndexFile();
+		File temp= new File(file.getPath() + ".tmp"); //$NON-NLS-1$
+		Map<String, Integer> handles= new LinkedHashMap<>();
+		for (Map.Entry<String, Unit> entry : fUnits.entrySet()) {
+			handles.putIfAbsent(entry.getKey(), handles.size());
+			for (CallSite site : entry.getValue().fSites) {
+				handles.putIfAbsent(site.fCaller, handles.size());
+				handles.putIfAbsent(site.fCallee, handles.size());
+			}
+		}
+		try {
+			try (DataOutputStream out= new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+				out.writeInt(INDEX_MAGIC);
+				out.writeInt(INDEX_VERSION);
+				out.writeInt(handles.size());
+				for (String handle : handles.keySet())
+					out.writeUTF(handle);
+				out.writeInt(fUnits.size());
+				for (Map.Entry<String, Unit> entry : fUnits.entrySet()) {
+					Unit unit= entry.getValue();
+					out.writeInt(handles.get(entry.getKey()));
+					// stale units are indexed again after a restart
+					out.writeLong(fStaleUnits.contains(entry.getKey()) ? IResource.NULL_STAMP : unit.fStamp);
+					out.writeInt(unit.fSites.size());
+					for (CallSite site : unit.fSites) {
+						out.writeInt(handles.get(site.fCaller));
+						out.writeInt(handles.get(site.fCallee));
+						out.writeInt(site.fStart);
+						out.writeInt(site.fEnd);
+						out.writeInt(site.fLine);
+						out.writeByte(site.fKind);
+					}
+				}
+			}
+			try {
+				Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		} catch (IOException e) {
+			JavaManipulationPlugin.log(e);
+			temp.delete();
+		}
+	}
+}
@@ -50,6 +50,7 @@ public class CallHierarchyCore {
     private static final String PREF_USE_FILTERS= "PREF_USE_FILTERS"; //$NON-NLS-1$
     private static final String PREF_FILTERS_LIST= "PREF_FILTERS_LIST"; //$NON-NLS-1$
     private static final String PREF_FILTER_TESTCODE= "PREF_FILTER_TESTCODE"; //$NON-NLS-1$
+    private static final String PREF_USE_CALL_GRAPH_INDEX= "PREF_USE_CALL_GRAPH_INDEX"; //$NON-NLS-1$
 
     private String defaultIgnoreFilters= "java.*,javax.*"; //$NON-NLS-1$
 
@@ -73,6 +74,20 @@ public class CallHierarchyCore {
         return Boolean.parseBoolean(JavaManipulation.getPreference(PREF_FILTER_TESTCODE, null));
     }
 
+    public boolean isCallGraphIndexEnabled() {
+        return Boolean.parseBoolean(JavaManipulation.getPreference(PREF_USE_CALL_GRAPH_INDEX, null));
+    }
+
+    /**
+     * @return the call graph index, or <code>null</code> if callers and callees are always searched
+     */
+    public CallGraphIndex getCallGraphIndex() {
+        if (isCallGraphIndexEnabled())
+            return CallGraphIndex.getDefault();
+        CallGraphIndex.shutdown();
+        return null;
+    }
+
     public Collection<IJavaElement> getImplementingMethods(IMethod method) {
         if (isSearchUsingImplementorsEnabled()) {
             IJavaElement[] result= Implementors.getInstance().searchForImplementors(new IJavaElement[] {
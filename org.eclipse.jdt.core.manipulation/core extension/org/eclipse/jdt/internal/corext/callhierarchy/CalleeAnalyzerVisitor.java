@@ -248,18 +248,7 @@ class CalleeAnalyzerVisitor extends HierarchicalASTVisitor {
             if (calledMethodBinding != null) {
                 fProgressMonitor.worked(1);
 
-                ITypeBinding calledTypeBinding = calledMethodBinding.getDeclaringClass();
-                IType calledType = null;
-
-                if (!calledTypeBinding.isAnonymous()) {
-                    calledType = (IType) calledTypeBinding.getJavaElement();
-                } else {
-                    if (!"java.lang.Object".equals(calledTypeBinding.getSuperclass().getQualifiedName())) { //$NON-NLS-1$
-                        calledType= (IType) calledTypeBinding.getSuperclass().getJavaElement();
-                    } else {
-                        calledType = (IType) calledTypeBinding.getInterfaces()[0].getJavaElement();
-                    }
-                }
+                IType calledType = getCalledType(calledMethodBinding);
 
                 IMethod calledMethod = findIncludingSupertypes(calledMethodBinding,
                         calledType, fProgressMonitor);
@@ -305,6 +294,43 @@ class CalleeAnalyzerVisitor extends HierarchicalASTVisitor {
         }
     }
 
+    /**
+     * Returns the type declaring the called method, or the supertype of an anonymous type.
+     *
+     * @param calledMethodBinding the called method binding
+     * @return the called type
+     */
+    static IType getCalledType(IMethodBinding calledMethodBinding) {
+        ITypeBinding calledTypeBinding = calledMethodBinding.getDeclaringClass();
+        if (!calledTypeBinding.isAnonymous()) {
+            return (IType) calledTypeBinding.getJavaElement();
+        }
+        if (!"java.lang.Object".equals(calledTypeBinding.getSuperclass().getQualifiedName())) { //$NON-NLS-1$
+            return (IType) calledTypeBinding.getSuperclass().getJavaElement();
+        }
+        return (IType) calledTypeBinding.getInterfaces()[0].getJavaElement();
+    }
+
+    /**
+     * Returns the member called by an invocation, as reported for invocations by this visitor.
+     *
+     * @param calledMethodBinding the called method binding
+     * @param pm the progress monitor
+     * @return the called method, the type for an implicit default constructor, or <code>null</code>
+     * @throws JavaModelException if the called method cannot be looked up
+     */
+    static IMember getCalledMember(IMethodBinding calledMethodBinding, IProgressMonitor pm) throws JavaModelException {
+        IType calledType = getCalledType(calledMethodBinding);
+        IMethod calledMethod = findIncludingSupertypes(calledMethodBinding, calledType, pm);
+        if (calledMethod != null) {
+            return calledMethod;
+        }
+        if (calledMethodBinding.isConstructor() && calledMethodBinding.getParameterTypes().length == 0) {
+            return calledType;
+        }
+        return null;
+    }
+
     private static IMethod findIncludingSupertypes(IMethodBinding method, IType type, IProgressMonitor pm) throws JavaModelException {
 		IMethod inThisType= Bindings.findMethod(method, type);
 		if (inThisType != null)
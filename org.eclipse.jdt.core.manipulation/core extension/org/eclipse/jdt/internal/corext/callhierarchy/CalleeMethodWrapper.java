@@ -90,6 +90,11 @@ class CalleeMethodWrapper extends MethodWrapper {
 	protected Map<String, MethodCall> findChildren(IProgressMonitor progressMonitor) {
     	IMember member= getMember();
 		if (member.exists()) {
+			CallGraphIndex index= CallHierarchyCore.getDefault().getCallGraphIndex();
+			Map<String, MethodCall> callees= index != null ? index.getCallees(member) : null;
+			if (callees != null)
+				return callees;
+
 			CompilationUnit cu= CallHierarchyCore.getCompilationUnitNode(member, true);
 		    if (progressMonitor != null) {
 		        progressMonitor.worked(5);
@@ -30,6 +30,7 @@ import org.eclipse.jdt.core.IInitializer;
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IMember;
 import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
 import org.eclipse.jdt.core.ISourceRange;
 import org.eclipse.jdt.core.IType;
 import org.eclipse.jdt.core.JavaModelException;
@@ -137,6 +138,21 @@ public class CallerMethodWrapper extends MethodWrapper {
 							SearchUtils.GENERICS_AGNOSTIC_MATCH_RULE);
 				}
 			}
+			if (pattern == null && member instanceof IMethod) {
+				CallGraphIndex index= CallHierarchyCore.getDefault().getCallGraphIndex();
+				Map<String, MethodCall> callers= index != null ? index.getSourceCallers(member, getSearchScope()) : null;
+				if (callers != null) {
+					// the index only holds the source compilation units, the libraries are searched
+					IPackageFragmentRoot[] libraries= CallGraphIndex.getLibraryRoots(getSearchScope());
+					if (libraries.length > 0) {
+						MethodReferencesSearchRequestor libraryRequestor= new MethodReferencesSearchRequestor();
+						new SearchEngine().search(SearchPattern.createPattern(member, IJavaSearchConstants.REFERENCES, SearchUtils.GENERICS_AGNOSTIC_MATCH_RULE),
+								new SearchParticipant[] { SearchEngine.getDefaultSearchParticipant() }, SearchEngine.createJavaSearchScope(libraries), libraryRequestor, monitor);
+						callers.putAll(libraryRequestor.getCallers());
+					}
+					return callers;
+				}
+			}
 			if (pattern == null) {
 				int limitTo= IJavaSearchConstants.REFERENCES;
 				if (member.getElementType() == IJavaElement.FIELD)
@@ -20,18 +20,27 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.ResourcesPlugin;
 
 import org.eclipse.ltk.core.refactoring.RefactoringStatus;
 import org.eclipse.ltk.core.refactoring.RefactoringStatusEntry;
@@ -39,6 +48,7 @@ import org.eclipse.ltk.core.refactoring.RefactoringStatusEntry;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.WorkingCopyOwner;
@@ -49,6 +59,7 @@ import org.eclipse.jdt.core.search.SearchPattern;
 import org.eclipse.jdt.core.search.SearchRequestor;
 
 import org.eclipse.jdt.internal.core.manipulation.util.BasicElementLabels;
+import org.eclipse.jdt.internal.corext.refactoring.util.ConcurrentTasks;
 import org.eclipse.jdt.internal.corext.util.Messages;
 import org.eclipse.jdt.internal.corext.util.SearchUtils;
 
@@ -76,6 +87,152 @@ public final class RefactoringSearchEngine2 {
 		}
 	}
 
+	/**
+	 * Receives the search results of a pipelined search while the search is still running.
+	 *
+	 * @see RefactoringSearchEngine2#searchPattern(ISearchResultGroupConsumer, IProgressMonitor)
+	 * @since 1.22
+	 */
+	public interface ISearchResultGroupConsumer {
+
+		/**
+		 * Accepts the search matches found in one resource. This method is called on the thread
+		 * which started the search, exactly once per resource.
+		 *
+		 * @param group the search matches of one resource
+		 * @throws CoreException if the matches could not be processed, which ends the search
+		 */
+		void accept(SearchResultGroup group) throws CoreException;
+	}
+
+	/** Search requestor for one part of a pipelined search, which collects into the shared collector */
+	private class PartialSearchRequestor extends SearchRequestor {
+
+		/** The shared collector */
+		private final RefactoringSearchMatchCollector fSharedCollector;
+
+		/** The monitor which is canceled when the pipelined search ends */
+		private final IProgressMonitor fMonitor;
+
+		/** The matches accepted in this part */
+		private final List<SearchMatch> fAcceptedMatches= new ArrayList<>();
+
+		public PartialSearchRequestor(final RefactoringSearchMatchCollector collector, final IProgressMonitor monitor) {
+			fSharedCollector= collector;
+			fMonitor= monitor;
+		}
+
+		@Override
+		public final void acceptSearchMatch(final SearchMatch match) throws CoreException {
+			final Object element= match.getElement();
+			if (element instanceof IJavaElement && !fScope.encloses((IJavaElement) element))
+				return;
+			final SearchMatch accepted;
+			synchronized (fSharedCollector) {
+				if (fMonitor.isCanceled())
+					throw new OperationCanceledException();
+				accepted= fSharedCollector.collectSearchMatch(match);
+			}
+			if (accepted != null)
+				fAcceptedMatches.add(accepted);
+		}
+
+		/**
+		 * Returns the matches of this part, grouped and filtered like {@link RefactoringSearchEngine2#getResults()}.
+		 *
+		 * @return the search result groups of this part
+		 */
+		public final List<SearchResultGroup> getGroups() {
+			final Map<IResource, List<SearchMatch>> grouped= new LinkedHashMap<>();
+			synchronized (fSharedCollector) {
+				final Collection<SearchMatch> inaccurate= fSharedCollector.getInaccurateMatches();
+				final Collection<IResource> binary= fSharedCollector.getBinaryResources();
+				for (SearchMatch match : fAcceptedMatches) {
+					if (fInaccurate && inaccurate.contains(match))
+						continue;
+					if (fBinary && binary.contains(match.getResource()))
+						continue;
+					grouped.computeIfAbsent(match.getResource(), key -> new ArrayList<>(4)).add(match);
+				}
+			}
+			final List<SearchResultGroup> result= new ArrayList<>(grouped.size());
+			for (Map.Entry<IResource, List<SearchMatch>> entry : grouped.entrySet()) {
+				final List<SearchMatch> matches= entry.getValue();
+				result.add(new SearchResultGroup(entry.getKey(), matches.toArray(new SearchMatch[matches.size()])));
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * Timings of the stages of the last pipelined search.
+	 *
+	 * @since 1.22
+	 */
+	public static final class PipelineStatistics {
+
+		private final int fPartCount;
+
+		private final int fGroupCount;
+
+		private final long fSearchMillis;
+
+		private final long fFirstGroupMillis;
+
+		private final long fConsumerMillis;
+
+		PipelineStatistics(int partCount, int groupCount, long searchMillis, long firstGroupMillis, long consumerMillis) {
+			fPartCount= partCount;
+			fGroupCount= groupCount;
+			fSearchMillis= searchMillis;
+			fFirstGroupMillis= firstGroupMillis;
+			fConsumerMillis= consumerMillis;
+		}
+
+		/**
+		 * @return the number of parts the search was split into, <code>1</code> if it ran
+		 *         sequentially
+		 */
+		public int getPartCount() {
+			return fPartCount;
+		}
+
+		/**
+		 * @return the number of groups passed to the consumer
+		 */
+		public int getGroupCount() {
+			return fGroupCount;
+		}
+
+		/**
+		 * @return the time from the start of the search until all parts were searched
+		 */
+		public long getSearchMillis() {
+			return fSearchMillis;
+		}
+
+		/**
+		 * @return the time from the start of the search until the first group was passed to the
+		 *         consumer, or <code>-1</code> if nothing was found
+		 */
+		public long getFirstGroupMillis() {
+			return fFirstGroupMillis;
+		}
+
+		/**
+		 * @return the total time spent in the consumer
+		 */
+		public long getConsumerMillis() {
+			return fConsumerMillis;
+		}
+
+		@Override
+		public String toString() {
+			return "parts: " + fPartCount + ", groups: " + fGroupCount + ", search: " + fSearchMillis + "ms, first group: " //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+					+ fFirstGroupMillis + "ms, consumer: " + fConsumerMillis + "ms"; //$NON-NLS-1$ //$NON-NLS-2$
+		}
+	}
+
 	/** Search requestor which only collects compilation units */
 	private class RefactoringCompilationUnitCollector extends RefactoringSearchCollector {
 
@@ -154,6 +311,16 @@ public final class RefactoringSearchEngine2 {
 
 		@Override
 		public final void acceptSearchMatch(final SearchMatch match) throws CoreException {
+			collectSearchMatch(match);
+		}
+
+		/**
+		 * Collects a search match.
+		 *
+		 * @param match the search match
+		 * @return the match accepted by the search requestor, or <code>null</code>
+		 */
+		final SearchMatch collectSearchMatch(final SearchMatch match) {
 			final SearchMatch accepted= fRequestor.acceptSearchMatch(match);
 			if (accepted != null) {
 				fCollectedMatches.add(accepted);
@@ -176,6 +343,7 @@ public final class RefactoringSearchEngine2 {
 					}
 				}
 			}
+			return accepted;
 		}
 
 		@Override
@@ -226,9 +394,15 @@ public final class RefactoringSearchEngine2 {
 	/** The working copy owner, or <code>null</code> */
 	private WorkingCopyOwner fOwner= null;
 
+	/** The number of parts searched at a time by a pipelined search */
+	private int fParallelism= 1;
+
 	/** The search pattern, or <code>null</code> */
 	private SearchPattern fPattern= null;
 
+	/** The timings of the last pipelined search, or <code>null</code> */
+	private PipelineStatistics fPipelineStatistics= null;
+
 	/** The search requestor */
 	private IRefactoringSearchRequestor fRequestor= new DefaultSearchRequestor();
 
@@ -269,6 +443,59 @@ public final class RefactoringSearchEngine2 {
 		fStatus= new RefactoringStatus();
 	}
 
+	/**
+	 * Splits the search scope into one scope for the sources of each enclosed project and, if the
+	 * scope includes libraries, one for these libraries.
+	 *
+	 * @return the partial scopes, or <code>null</code> if the scope cannot be split
+	 * @throws JavaModelException if the classpath of a project cannot be resolved
+	 */
+	private IJavaSearchScope[] createPartialScopes() throws JavaModelException {
+		final IWorkspaceRoot root= ResourcesPlugin.getWorkspace().getRoot();
+		final List<IJavaElement> projects= new ArrayList<>();
+		final List<IPath> libraries= new ArrayList<>();
+		for (IPath path : fScope.enclosingProjectsAndJars()) {
+			if (path.segmentCount() == 1) {
+				final IJavaProject project= JavaCore.create(root.getProject(path.segment(0)));
+				if (project.exists())
+					projects.add(project);
+			} else
+				libraries.add(path);
+		}
+		if (projects.size() < 2)
+			return null;
+		final Map<IPath, IPackageFragmentRoot> covered= new HashMap<>();
+		for (IJavaElement project : projects) {
+			for (IPackageFragmentRoot fragmentRoot : ((IJavaProject) project).getPackageFragmentRoots()) {
+				if (fragmentRoot.getKind() == IPackageFragmentRoot.K_BINARY)
+					covered.putIfAbsent(fragmentRoot.getPath(), fragmentRoot);
+			}
+		}
+		if (!covered.keySet().containsAll(libraries))
+			return null; // a library outside of the enclosed projects would not be searched
+		final IJavaSearchScope[] scopes= new IJavaSearchScope[libraries.isEmpty() ? projects.size() : projects.size() + 1];
+		for (int index= 0; index < projects.size(); index++)
+			scopes[index]= SearchEngine.createJavaSearchScope(new IJavaElement[] { projects.get(index) }, IJavaSearchScope.SOURCES);
+		if (!libraries.isEmpty()) {
+			final IJavaElement[] roots= new IJavaElement[libraries.size()];
+			for (int index= 0; index < roots.length; index++)
+				roots[index]= covered.get(libraries.get(index));
+			scopes[projects.size()]= SearchEngine.createJavaSearchScope(roots, IJavaSearchScope.APPLICATION_LIBRARIES | IJavaSearchScope.SYSTEM_LIBRARIES);
+		}
+		return scopes;
+	}
+
+	/**
+	 * Creates a search engine for the working copy owner or the working copies.
+	 *
+	 * @return the search engine
+	 */
+	private SearchEngine createSearchEngine() {
+		if (fOwner != null)
+			return new SearchEngine(fOwner);
+		return new SearchEngine(fWorkingCopies);
+	}
+
 	/**
 	 * Returns the affected compilation units of the previous search queries.
 	 * <p>
@@ -390,6 +617,29 @@ public final class RefactoringSearchEngine2 {
 		return result;
 	}
 
+	/**
+	 * Returns the search result groups of a completed part of a pipelined search.
+	 *
+	 * @param future the completed part
+	 * @return the search result groups of the part
+	 * @throws CoreException if an error occurred during search
+	 * @throws InterruptedException if the calling thread has been interrupted
+	 */
+	private static List<SearchResultGroup> getPartialResult(final Future<List<SearchResultGroup>> future) throws CoreException, InterruptedException {
+		try {
+			return future.get();
+		} catch (ExecutionException exception) {
+			final Throwable cause= exception.getCause();
+			if (cause instanceof CoreException)
+				throw (CoreException) cause;
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			if (cause instanceof Error)
+				throw (Error) cause;
+			throw new IllegalStateException(cause);
+		}
+	}
+
 	/**
 	 * Returns the search pattern currently used for searching.
 	 *
@@ -399,6 +649,17 @@ public final class RefactoringSearchEngine2 {
 		return fPattern;
 	}
 
+	/**
+	 * Returns the timings of the last pipelined search.
+	 *
+	 * @return the timings, or <code>null</code> if no pipelined search has been performed
+	 * @see #searchPattern(ISearchResultGroupConsumer, IProgressMonitor)
+	 * @since 1.22
+	 */
+	public PipelineStatistics getPipelineStatistics() {
+		return fPipelineStatistics;
+	}
+
 	/**
 	 * Returns the results of the previous search queries.
 	 * <p>
@@ -502,6 +763,117 @@ public final class RefactoringSearchEngine2 {
 		}
 	}
 
+	/**
+	 * Performs the search according to the specified pattern, and passes the found matches to
+	 * the consumer while the search is still running.
+	 * <p>
+	 * With a {@link #setParallelism(int) parallelism} greater than <code>1</code>, the sources of
+	 * each project of the search scope and, if the scope includes them, the libraries of these
+	 * projects are searched as separate parts in parallel. As soon as a part is done, its matches are passed to the
+	 * consumer on the calling thread, so that the consumer can process them while the remaining
+	 * parts are still searched. Otherwise, and if the scope cannot be split by project, the
+	 * matches are passed to the consumer after a sequential search.
+	 * </p>
+	 * <p>
+	 * The consumer receives the same groups as {@link #getResults()} returns afterwards, in no
+	 * particular order. This requires the granularity {@link #GRANULARITY_SEARCH_MATCH} and
+	 * grouping by resource. The timings of the search are available from
+	 * {@link #getPipelineStatistics()} when this method returns.
+	 * </p>
+	 *
+	 * @param consumer the consumer of the found matches
+	 * @param monitor the progress monitor, or <code>null</code>
+	 * @throws CoreException if an error occurs during search, or if the consumer fails
+	 * @since 1.22
+	 */
+	public void searchPattern(final ISearchResultGroupConsumer consumer, IProgressMonitor monitor) throws CoreException {
+		Assert.isNotNull(fPattern);
+		Assert.isNotNull(consumer);
+		Assert.isTrue(fGranularity == GRANULARITY_SEARCH_MATCH && fGrouping);
+		if (monitor == null)
+			monitor= new NullProgressMonitor();
+		final long start= System.nanoTime();
+		long searchEnd= 0;
+		long firstGroup= -1;
+		long consumerTime= 0;
+		int groupCount= 0;
+		final IJavaSearchScope[] scopes= fParallelism > 1 ? createPartialScopes() : null;
+		if (scopes == null) {
+			try {
+				monitor.beginTask("", 2); //$NON-NLS-1$
+				searchPattern(Progress.subMonitor(monitor, 1));
+				searchEnd= System.nanoTime();
+				for (SearchResultGroup group : getGroupedMatches()) {
+					final long before= System.nanoTime();
+					if (firstGroup < 0)
+						firstGroup= before;
+					consumer.accept(group);
+					consumerTime+= System.nanoTime() - before;
+					groupCount++;
+				}
+				monitor.worked(1);
+			} finally {
+				monitor.done();
+				fPipelineStatistics= new PipelineStatistics(1, groupCount, toMillis(searchEnd - start), firstGroup < 0 ? -1 : toMillis(firstGroup - start), toMillis(consumerTime));
+			}
+			return;
+		}
+		final RefactoringSearchMatchCollector collector= (RefactoringSearchMatchCollector) getCollector();
+		final IProgressMonitor partMonitor= new NullProgressMonitor();
+		// the parts report into a separate status, which is merged on this thread, since the consumer may use the status as well
+		final RefactoringStatus status= fStatus;
+		fStatus= new RefactoringStatus();
+		final List<Callable<List<SearchResultGroup>>> parts= new ArrayList<>(scopes.length);
+		for (IJavaSearchScope scope : scopes) {
+			parts.add(() -> {
+				final PartialSearchRequestor requestor= new PartialSearchRequestor(collector, partMonitor);
+				createSearchEngine().search(fPattern, SearchUtils.getDefaultSearchParticipants(), scope, requestor, partMonitor);
+				return requestor.getGroups();
+			});
+		}
+		final ConcurrentTasks<List<SearchResultGroup>> tasks= new ConcurrentTasks<>(parts);
+		try {
+			monitor.beginTask("", scopes.length); //$NON-NLS-1$
+			monitor.setTaskName(RefactoringCoreMessages.RefactoringSearchEngine_searching_occurrences);
+			tasks.start(fParallelism);
+			for (int pending= scopes.length; pending > 0;) {
+				final Future<List<SearchResultGroup>> future= tasks.poll(100, TimeUnit.MILLISECONDS);
+				if (monitor.isCanceled())
+					throw new OperationCanceledException();
+				if (future == null)
+					continue;
+				final List<SearchResultGroup> groups= getPartialResult(future);
+				if (--pending == 0)
+					searchEnd= System.nanoTime();
+				monitor.worked(1);
+				synchronized (collector) {
+					status.merge(fStatus);
+					fStatus= new RefactoringStatus();
+				}
+				for (SearchResultGroup group : groups) {
+					final long before= System.nanoTime();
+					if (firstGroup < 0)
+						firstGroup= before;
+					consumer.accept(group);
+					consumerTime+= System.nanoTime() - before;
+					groupCount++;
+				}
+			}
+		} catch (InterruptedException exception) {
+			Thread.currentThread().interrupt();
+			throw new OperationCanceledException();
+		} finally {
+			partMonitor.setCanceled(true);
+			tasks.cancel();
+			synchronized (collector) {
+				status.merge(fStatus);
+				fStatus= status;
+			}
+			monitor.done();
+			fPipelineStatistics= new PipelineStatistics(scopes.length, groupCount, searchEnd == 0 ? -1 : toMillis(searchEnd - start), firstGroup < 0 ? -1 : toMillis(firstGroup - start), toMillis(consumerTime));
+		}
+	}
+
 	/**
 	 * Performs the search of referenced fields.
 	 *
@@ -663,6 +1035,21 @@ public final class RefactoringSearchEngine2 {
 		fOwner= owner;
 	}
 
+	/**
+	 * Sets the number of parts searched at a time by {@link #searchPattern(ISearchResultGroupConsumer, IProgressMonitor)}.
+	 * <p>
+	 * This method must be called before start searching. The default is <code>1</code>, which
+	 * searches sequentially on the calling thread. The parts are searched on threads shared
+	 * with other refactorings, see {@link ConcurrentTasks}.
+	 *
+	 * @param parallelism the number of parts searched at a time, must be at least <code>1</code>
+	 * @since 1.22
+	 */
+	public void setParallelism(final int parallelism) {
+		Assert.isTrue(parallelism >= 1);
+		fParallelism= parallelism;
+	}
+
 	/**
 	 * Sets the search pattern to be used during search.
 	 * <p>
@@ -747,4 +1134,8 @@ public final class RefactoringSearchEngine2 {
 		Assert.isNotNull(status);
 		fStatus= status;
 	}
+
+	private static long toMillis(final long nanos) {
+		return TimeUnit.NANOSECONDS.toMillis(nanos);
+	}
 }
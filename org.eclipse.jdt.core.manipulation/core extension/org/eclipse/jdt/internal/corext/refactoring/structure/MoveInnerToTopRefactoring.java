@@ -125,6 +125,7 @@ import org.eclipse.jdt.internal.corext.refactoring.JavaRefactoringDescriptorUtil
 import org.eclipse.jdt.internal.corext.refactoring.RefactoringCoreMessages;
 import org.eclipse.jdt.internal.corext.refactoring.RefactoringScopeFactory;
 import org.eclipse.jdt.internal.corext.refactoring.RefactoringSearchEngine2;
+import org.eclipse.jdt.internal.corext.refactoring.RefactoringSearchEngine2.ISearchResultGroupConsumer;
 import org.eclipse.jdt.internal.corext.refactoring.SearchResultGroup;
 import org.eclipse.jdt.internal.corext.refactoring.changes.CreateCompilationUnitChange;
 import org.eclipse.jdt.internal.corext.refactoring.changes.DynamicValidationRefactoringChange;
@@ -153,6 +154,9 @@ public final class MoveInnerToTopRefactoring extends Refactoring {
 	private static final String ATTRIBUTE_FIELD_NAME= "fieldName"; //$NON-NLS-1$
 	private static final String ATTRIBUTE_PARAMETER_NAME= "parameterName"; //$NON-NLS-1$
 
+	/** The number of threads searching for references to the moved type */
+	private static final int SEARCH_PARALLELISM= Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+
 	private static class MemberAccessNodeCollector extends ASTVisitor {
 
 		private final ITypeBinding fCurrentType;
@@ -437,12 +441,6 @@ public final class MoveInnerToTopRefactoring extends Refactoring {
 		}
 	}
 
-	private static Set<ICompilationUnit> getMergedSet(Set<ICompilationUnit> s1, Set<ICompilationUnit> s2) {
-		Set<ICompilationUnit> result= new HashSet<>(s1);
-		result.addAll(s2);
-		return result;
-	}
-
 	private static String[] getParameterNamesOfAllConstructors(IType type) throws JavaModelException {
 		Set<String> result= new HashSet<>();
 		for (IMethod constructor : JavaElementUtil.getAllConstructors(type)) {
@@ -813,12 +811,7 @@ public final class MoveInnerToTopRefactoring extends Refactoring {
 			addTypeParameters(fSourceRewrite.getRoot(), fType, parameters);
 			final ITypeBinding[] bindings= new ITypeBinding[parameters.size()];
 			parameters.values().toArray(bindings);
-			final Map<ICompilationUnit, SearchMatch[]> typeReferences= createTypeReferencesMapping(Progress.subMonitor(monitor, 1), status);
-			Map<ICompilationUnit, SearchMatch[]> constructorReferences= null;
-			if (JdtFlags.isStatic(fType))
-				constructorReferences= new HashMap<>(0);
-			else
-				constructorReferences= createConstructorReferencesMapping(Progress.subMonitor(monitor, 1), status);
+			final Map<ICompilationUnit, SearchMatch[]> constructorReferences= JdtFlags.isStatic(fType) ? new HashMap<>(0) : createConstructorReferencesMapping(Progress.subMonitor(monitor, 1), status);
 			if (fCreateInstanceField) {
 				// must increase visibility of all member types up
 				// to the top level type to allow this
@@ -830,26 +823,23 @@ public final class MoveInnerToTopRefactoring extends Refactoring {
 				}
 			}
 			monitor.worked(1);
-			ICompilationUnit inputCU= fType.getCompilationUnit();
-			for (ICompilationUnit unit : getMergedSet(typeReferences.keySet(), constructorReferences.keySet())) {
-				final CompilationUnitRewrite targetRewrite= getCompilationUnitRewrite(unit);
-				createCompilationUnitRewrite(bindings, targetRewrite, typeReferences, constructorReferences, adjustor.getAdjustments().containsKey(fType), inputCU, unit, false, status, monitor);
-				if (unit.equals(inputCU)) {
-					try {
-						adjustor.setStatus(new RefactoringStatus());
-						adjustor.rewriteVisibility(targetRewrite.getCu(), Progress.subMonitor(monitor, 1));
-					} finally {
-						adjustor.setStatus(status);
-					}
-					fNewSourceOfInputType= createNewSource(targetRewrite, unit);
-					targetRewrite.clearASTAndImportRewrites();
-					createCompilationUnitRewrite(bindings, targetRewrite, typeReferences, constructorReferences, adjustor.getAdjustments().containsKey(fType), inputCU, unit, true, status, monitor);
+			// the type references are rewritten while the search for further references is still running
+			final Map<ICompilationUnit, SearchMatch[]> typeReferences= new HashMap<>();
+			final Set<ICompilationUnit> rewrittenUnits= new HashSet<>();
+			searchTypeReferences(group -> {
+				ICompilationUnit unit= group.getCompilationUnit();
+				if (unit != null) {
+					typeReferences.put(unit, group.getSearchResults());
+					if (rewrittenUnits.add(unit))
+						createUnitChange(manager, adjustor, bindings, typeReferences, constructorReferences, unit, status, monitor);
 				}
-				adjustor.rewriteVisibility(targetRewrite.getCu(), Progress.subMonitor(monitor, 1));
-				manager.manage(unit, targetRewrite.createChange(true));
+			}, Progress.subMonitor(monitor, 1), status);
+			for (ICompilationUnit unit : constructorReferences.keySet()) {
+				if (rewrittenUnits.add(unit))
+					createUnitChange(manager, adjustor, bindings, typeReferences, constructorReferences, unit, status, monitor);
 			}
 			if (fNewSourceOfInputType == null) {
-				fNewSourceOfInputType= createNewSource(fSourceRewrite, inputCU);
+				fNewSourceOfInputType= createNewSource(fSourceRewrite, fType.getCompilationUnit());
 			}
 		} finally {
 			monitor.done();
@@ -857,6 +847,25 @@ public final class MoveInnerToTopRefactoring extends Refactoring {
 		return manager;
 	}
 
+	private void createUnitChange(final TextChangeManager manager, final MemberVisibilityAdjustor adjustor, final ITypeBinding[] bindings, final Map<ICompilationUnit, SearchMatch[]> typeReferences, final Map<ICompilationUnit, SearchMatch[]> constructorReferences, final ICompilationUnit unit, final RefactoringStatus status, final IProgressMonitor monitor) throws CoreException {
+		final ICompilationUnit inputCU= fType.getCompilationUnit();
+		final CompilationUnitRewrite targetRewrite= getCompilationUnitRewrite(unit);
+		createCompilationUnitRewrite(bindings, targetRewrite, typeReferences, constructorReferences, adjustor.getAdjustments().containsKey(fType), inputCU, unit, false, status, monitor);
+		if (unit.equals(inputCU)) {
+			try {
+				adjustor.setStatus(new RefactoringStatus());
+				adjustor.rewriteVisibility(targetRewrite.getCu(), Progress.subMonitor(monitor, 1));
+			} finally {
+				adjustor.setStatus(status);
+			}
+			fNewSourceOfInputType= createNewSource(targetRewrite, unit);
+			targetRewrite.clearASTAndImportRewrites();
+			createCompilationUnitRewrite(bindings, targetRewrite, typeReferences, constructorReferences, adjustor.getAdjustments().containsKey(fType), inputCU, unit, true, status, monitor);
+		}
+		adjustor.rewriteVisibility(targetRewrite.getCu(), Progress.subMonitor(monitor, 1));
+		manager.manage(unit, targetRewrite.createChange(true));
+	}
+
 	private Change createCompilationUnitForMovedType(IProgressMonitor pm) throws CoreException {
 		ICompilationUnit newCuWC= null;
 		try {
@@ -1137,24 +1146,17 @@ public final class MoveInnerToTopRefactoring extends Refactoring {
 		return unit.getSource();
 	}
 
-	private Map<ICompilationUnit, SearchMatch[]> createTypeReferencesMapping(IProgressMonitor pm, RefactoringStatus status) throws JavaModelException {
+	private void searchTypeReferences(ISearchResultGroupConsumer consumer, IProgressMonitor pm, RefactoringStatus status) throws CoreException {
 		SearchPattern pattern= SearchPattern.createPattern(fType, IJavaSearchConstants.ALL_OCCURRENCES, SearchUtils.GENERICS_AGNOSTIC_MATCH_RULE);
 		if (pattern == null) {
-			return Map.of();
+			return;
 		}
 		final RefactoringSearchEngine2 engine= new RefactoringSearchEngine2(pattern);
 		engine.setFiltering(true, true);
 		engine.setScope(RefactoringScopeFactory.create(fType));
 		engine.setStatus(status);
-		engine.searchPattern(Progress.subMonitor(pm, 1));
-		Map<ICompilationUnit, SearchMatch[]> result= new HashMap<>();
-		for (SearchResultGroup group : (SearchResultGroup[]) engine.getResults()) {
-			ICompilationUnit cu= group.getCompilationUnit();
-			if (cu == null)
-				continue;
-			result.put(cu, group.getSearchResults());
-		}
-		return result;
+		engine.setParallelism(SEARCH_PARALLELISM);
+		engine.searchPattern(consumer, Progress.subMonitor(pm, 1));
 	}
 
 	private String getAlignedSourceBlock(final ICompilationUnit unit, final String block) {
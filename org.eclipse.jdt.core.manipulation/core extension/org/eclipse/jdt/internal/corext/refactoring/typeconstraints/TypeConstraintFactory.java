@@ -22,7 +22,40 @@ import org.eclipse.jdt.core.dom.ITypeBinding;
 
 public class TypeConstraintFactory implements ITypeConstraintFactory {
 
-	private Map<ConstraintVariable, Map<ConstraintVariable, Map<ConstraintOperator, SimpleTypeConstraint>>> fSimpleConstraints= new HashMap<>();
+	/**
+	 * The key of a simple type constraint. A single map keyed by the whole triple needs one entry
+	 * per constraint, where nested maps per variable would need up to three.
+	 */
+	private static final class SimpleConstraintKey {
+		private final ConstraintVariable fLeft;
+		private final ConstraintVariable fRight;
+		private final ConstraintOperator fOperator;
+		private final int fHashCode;
+
+		SimpleConstraintKey(ConstraintVariable left, ConstraintVariable right, ConstraintOperator operator) {
+			fLeft= left;
+			fRight= right;
+			fOperator= operator;
+			fHashCode= (31 * left.hashCode() + right.hashCode()) * 31 + operator.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof SimpleConstraintKey))
+				return false;
+			SimpleConstraintKey other= (SimpleConstraintKey) obj;
+			return fHashCode == other.fHashCode && fLeft.equals(other.fLeft) && fRight.equals(other.fRight) && fOperator.equals(other.fOperator);
+		}
+
+		@Override
+		public int hashCode() {
+			return fHashCode;
+		}
+	}
+
+	private Map<SimpleConstraintKey, SimpleTypeConstraint> fSimpleConstraints= new HashMap<>();
 	private Map<ConstraintVariable, Map<String, CompositeOrTypeConstraint>> fOrConstraints= new HashMap<>();
 
 	protected static final boolean PRINT_STATS= false;
@@ -32,34 +65,15 @@ public class TypeConstraintFactory implements ITypeConstraintFactory {
 
 	// Only to be called by the createXXXConstraint() methods
 	private SimpleTypeConstraint createSimpleTypeConstraint(ConstraintVariable v1, ConstraintVariable v2, ConstraintOperator operator) {
-		if (fSimpleConstraints.containsKey(v1)){
-			Map<ConstraintVariable, Map<ConstraintOperator, SimpleTypeConstraint>> m2= fSimpleConstraints.get(v1);
-			if (m2.containsKey(v2)){
-				Map<ConstraintOperator, SimpleTypeConstraint> m3= m2.get(v2);
-				if (m3.containsKey(operator)){
-					if (PRINT_STATS) fNrRetrieved++;
-					if (PRINT_STATS) dumpStats();
-					return m3.get(operator);
-				} else {
-					return storeConstraint(v1, v2, operator, m3);
-				}
-			} else {
-				Map<ConstraintOperator, SimpleTypeConstraint> m3= new HashMap<>();
-				m2.put(v2, m3);
-				return storeConstraint(v1, v2, operator, m3);
-			}
-		} else {
-			Map<ConstraintVariable, Map<ConstraintOperator, SimpleTypeConstraint>> m2= new HashMap<>();
-			fSimpleConstraints.put(v1, m2);
-			Map<ConstraintOperator, SimpleTypeConstraint> m3= new HashMap<>();
-			m2.put(v2, m3);
-			return storeConstraint(v1, v2, operator, m3);
+		SimpleConstraintKey key= new SimpleConstraintKey(v1, v2, operator);
+		SimpleTypeConstraint constraint= fSimpleConstraints.get(key);
+		if (constraint != null) {
+			if (PRINT_STATS) fNrRetrieved++;
+			if (PRINT_STATS) dumpStats();
+			return constraint;
 		}
-	}
-
-	private SimpleTypeConstraint storeConstraint(ConstraintVariable v1, ConstraintVariable v2, ConstraintOperator operator, Map<ConstraintOperator, SimpleTypeConstraint> m3) {
-		SimpleTypeConstraint constraint= new SimpleTypeConstraint(v1, v2, operator);
-		m3.put(operator, constraint);
+		constraint= new SimpleTypeConstraint(v1, v2, operator);
+		fSimpleConstraints.put(key, constraint);
 		if (PRINT_STATS) fNrCreated++;
 		if (PRINT_STATS) dumpStats();
 		return constraint;
@@ -131,6 +131,10 @@ public class TypeEnvironment {
 	 * information was not requested in the constructor.
 	 */
 	private Map<TType, ArrayList<TType>> fSubTypes;
+	/**
+	 * The number of subtypes remembered in {@link #fSubTypes}.
+	 */
+	private int fSubTypeCount;
 	/**
 	 * If <code>true</code>, replace all capture types by their wildcard type.
 	 * @since 3.7
@@ -291,6 +295,18 @@ public class TypeEnvironment {
 		return fSubTypes;
 	}
 
+	/**
+	 * Returns the number of subtypes remembered so far. The number grows whenever a new type
+	 * adds to the known subtypes, so clients that cache the subtypes of a type can use it to
+	 * detect that their cache is stale.
+	 *
+	 * @return the number of remembered subtypes, <code>0</code> if subtypes are not remembered
+	 * @since 1.22
+	 */
+	public int getSubTypeCount() {
+		return fSubTypeCount;
+	}
+
 	private void cacheSubType(TType supertype, TType result) {
 		if (fSubTypes == null)
 			return;
@@ -305,6 +321,7 @@ public class TypeEnvironment {
 			Assert.isTrue(! subtypes.contains(result));
 		}
 		subtypes.add(result);
+		fSubTypeCount++;
 	}
 
 	private void cacheSubTypes(TType[] interfaces, TType result) {
@@ -13,9 +13,10 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.corext.refactoring.typeconstraints.typesets;
 
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Iterator;
-import java.util.LinkedHashSet;
-import java.util.Set;
+import java.util.NoSuchElementException;
 
 import org.eclipse.core.runtime.Assert;
 
@@ -24,8 +25,14 @@ import org.eclipse.jdt.internal.corext.refactoring.typeconstraints.types.TType;
 import org.eclipse.jdt.internal.corext.refactoring.typeconstraints2.TTypes;
 
 /**
- * A type-safe wrapper for {@code Set<TType>} that also adds {@code TType}-specific
+ * A set of {@code TType}s that also adds {@code TType}-specific
  * functionality, e.g. subTypes() and superTypes().
+ * <p>
+ * The members are stored as a bit set over the type indices of the {@link TypeSetEnvironment},
+ * so that intersection and containment are computed a word at a time. The members are iterated
+ * in the order they were added, like the members of a {@link java.util.LinkedHashSet}, since
+ * clients such as the type inference choose the first suitable member.
+ * </p>
  */
 public class EnumeratedTypeSet extends TypeSet {
 	static private int sCount= 0;
@@ -39,9 +46,97 @@ public class EnumeratedTypeSet extends TypeSet {
 	}
 
 	/**
-	 * Set containing the TTypes in this EnumeratedTypeSet.
+	 * The indices of the TTypes in this EnumeratedTypeSet.
 	 */
-	Set<TType> fMembers= new LinkedHashSet<>();
+	BitSet fMembers= new BitSet();
+
+	private static final int[] NO_INDICES= new int[0];
+
+	/**
+	 * The indices of the members in the order they were added. The indices of removed members
+	 * are only dropped when the next member is added, see {@link #fHasRemovedIndices}.
+	 */
+	private int[] fOrder= NO_INDICES;
+	private int fOrderSize;
+	private boolean fHasRemovedIndices;
+
+	/**
+	 * Iterates over the members in the order they were added.
+	 */
+	private final class MemberIterator implements Iterator<TType> {
+		private int fNext= findMember(0);
+		private int fLast= -1;
+
+		@Override
+		public boolean hasNext() {
+			return fNext < fOrderSize;
+		}
+
+		@Override
+		public TType next() {
+			if (fNext >= fOrderSize)
+				throw new NoSuchElementException();
+			fLast= fOrder[fNext];
+			fNext= findMember(fNext + 1);
+			return getTypeSetEnvironment().getType(fLast);
+		}
+
+		@Override
+		public void remove() {
+			if (fLast < 0)
+				throw new IllegalStateException();
+			fMembers.clear(fLast);
+			fHasRemovedIndices= true;
+			fLast= -1;
+		}
+	}
+
+	/**
+	 * @param start the position in {@link #fOrder} to start at
+	 * @return the position of the first member at or after <code>start</code>, or
+	 *         {@link #fOrderSize} if there is none
+	 */
+	private int findMember(int start) {
+		int position= start;
+		while (position < fOrderSize && !fMembers.get(fOrder[position]))
+			position++;
+		return position;
+	}
+
+	/**
+	 * Adds the type with the given index of the environment of this set.
+	 *
+	 * @param index the index
+	 * @return <code>true</code> iff the type was not a member yet
+	 */
+	private boolean addIndex(int index) {
+		if (fMembers.get(index))
+			return false;
+		if (fHasRemovedIndices) {
+			int size= 0;
+			for (int i= 0; i < fOrderSize; i++) {
+				if (fMembers.get(fOrder[i]))
+					fOrder[size++]= fOrder[i];
+			}
+			fOrderSize= size;
+			fHasRemovedIndices= false;
+		}
+		if (fOrderSize == fOrder.length)
+			fOrder= Arrays.copyOf(fOrder, Math.max(4, 2 * fOrderSize));
+		fOrder[fOrderSize++]= index;
+		fMembers.set(index);
+		return true;
+	}
+
+	/**
+	 * Removes the types with the given indices.
+	 *
+	 * @param indices indices of the environment of this set
+	 */
+	private void removeIndices(BitSet indices) {
+		fMembers.andNot(indices);
+		fHasRemovedIndices= true;
+	}
 
 	/**
 	 * Constructs a new EnumeratedTypeSet with the members of Set s in it.
@@ -53,7 +148,7 @@ public class EnumeratedTypeSet extends TypeSet {
 	public EnumeratedTypeSet(Iterator<TType> types, TypeSetEnvironment typeSetEnvironment) {
 		super(typeSetEnvironment);
 		while (types.hasNext()) {
-			fMembers.add(types.next());
+			add(types.next());
 		}
 		sCount++;
 	}
@@ -77,7 +172,7 @@ public class EnumeratedTypeSet extends TypeSet {
 	public EnumeratedTypeSet(TType t, TypeSetEnvironment typeSetEnvironment) {
 		super(typeSetEnvironment);
 		Assert.isNotNull(t);
-		fMembers.add(t);
+		add(t);
 		sCount++;
 	}
 
@@ -92,23 +187,23 @@ public class EnumeratedTypeSet extends TypeSet {
 	@Override
 	public boolean equals(Object o) {
 		if (this == o) return true;
-		if (o instanceof EnumeratedTypeSet) {
+		if (o instanceof EnumeratedTypeSet && isSameEnvironment((EnumeratedTypeSet) o)) {
 			EnumeratedTypeSet other= (EnumeratedTypeSet) o;
 
 			return fMembers.equals(other.fMembers);
 		} else if (o instanceof SingletonTypeSet) {
 			SingletonTypeSet other= (SingletonTypeSet) o;
 
-			return (fMembers.size() == 1) && fMembers.contains(other.anyMember());
+			return (size() == 1) && contains(other.anyMember());
 		} else if (o instanceof TypeSet) {
 			TypeSet other= (TypeSet) o;
 
 			for(Iterator<TType> otherIter= other.iterator(); otherIter.hasNext(); ) {
-				if (!fMembers.contains(otherIter.next()))
+				if (!contains(otherIter.next()))
 					return false;
 			}
-			for (TType tType : fMembers) {
-				if (!other.contains(tType))
+			for (Iterator<TType> iter= iterator(); iter.hasNext(); ) {
+				if (!other.contains(iter.next()))
 					return false;
 			}
 			return true;
@@ -118,7 +213,32 @@ public class EnumeratedTypeSet extends TypeSet {
 
 	@Override
 	public int hashCode() {
-		return 37 + fMembers.hashCode();
+		// Sets of other environments and other kinds of sets can be equal to this set, so the
+		// hash code only depends on the member types, like the one of a java.util.Set.
+		int hashCode= 0;
+		for (Iterator<TType> iter= iterator(); iter.hasNext();)
+			hashCode+= iter.next().hashCode();
+		return hashCode;
+	}
+
+	private boolean isSameEnvironment(EnumeratedTypeSet other) {
+		return getTypeSetEnvironment() == other.getTypeSetEnvironment();
+	}
+
+	/**
+	 * Returns the members of the given set as indices of the environment of the receiver.
+	 *
+	 * @param s the type set
+	 * @return the indices, which must not be modified
+	 */
+	private BitSet getMemberIndices(TypeSet s) {
+		EnumeratedTypeSet ets= s.enumerate();
+		if (isSameEnvironment(ets))
+			return ets.fMembers;
+		BitSet result= new BitSet();
+		for (Iterator<TType> iter= ets.iterator(); iter.hasNext();)
+			result.set(getTypeSetEnvironment().getIndex(iter.next()));
+		return result;
 	}
 
 	/**
@@ -151,9 +271,8 @@ public class EnumeratedTypeSet extends TypeSet {
 				return;
 			// More than an optimization: the universe never contains array types, so
 			// if s2 has array types, the following will retain them, as it should.
-			EnumeratedTypeSet ets2= (EnumeratedTypeSet) s2;
-			fMembers= new LinkedHashSet<>();
-			fMembers.addAll(ets2.fMembers);
+			clear();
+			addAll(s2);
 		} else
 			retainAll(s2);
 	}
@@ -167,7 +286,7 @@ public class EnumeratedTypeSet extends TypeSet {
 		if (isUniverse())
 			return makeClone(); // subtypes(universe) = universe
 
-		if (fMembers.contains(getJavaLangObject()))
+		if (contains(getJavaLangObject()))
 			return getTypeSetEnvironment().getUniverseTypeSet();
 
 		return getTypeSetEnvironment().createSubTypesSet(this);
@@ -200,20 +319,19 @@ public class EnumeratedTypeSet extends TypeSet {
 	public TypeSet makeClone() {
 		EnumeratedTypeSet result= new EnumeratedTypeSet(getTypeSetEnvironment());
 
-		result.fMembers.addAll(fMembers);
+		result.addAll(this);
 		result.initComplete();
 		return result;
 	}
 
 	public int size() {
-		return fMembers.size();
+		return fMembers.cardinality();
 	}
 
 	public void clear() {
-		if (isUniverse())
-			fMembers= new LinkedHashSet<>();
-		else
-			fMembers.clear();
+		fMembers.clear();
+		fOrderSize= 0;
+		fHasRemovedIndices= false;
 	}
 
 	@Override
@@ -222,42 +340,50 @@ public class EnumeratedTypeSet extends TypeSet {
 	}
 
 	public TType[] toArray() {
-		return fMembers.toArray(new TType[fMembers.size()]);
+		TType[] result= new TType[size()];
+		int i= 0;
+		for (Iterator<TType> iter= iterator(); iter.hasNext(); i++)
+			result[i]= iter.next();
+		return result;
 	}
 
 	public boolean add(TType t) {
 		// Doesn't make sense to do here what other methods do (copy-and-modify)
 		Assert.isTrue(!isUniverse(), "Someone's trying to expand the universe!"); //$NON-NLS-1$
-		return fMembers.add(t);
+		return addIndex(getTypeSetEnvironment().getIndex(t));
 	}
 
 	@Override
 	public boolean contains(TType t) {
 		if (isUniverse())
 			return true;
-		return fMembers.contains(t);
+		int index= getTypeSetEnvironment().findIndex(t);
+		return index >= 0 && fMembers.get(index);
 	}
 
 	public boolean remove(TType t) {
-		if (isUniverse())
-			fMembers= cloneSet(fMembers);
-		return fMembers.remove(t);
-	}
-
-	private Set<TType> cloneSet(Set<TType> members) {
-		return new LinkedHashSet<>(members);
+		int index= getTypeSetEnvironment().findIndex(t);
+		if (index < 0 || !fMembers.get(index))
+			return false;
+		fMembers.clear(index);
+		fHasRemovedIndices= true;
+		return true;
 	}
 
 	public boolean addAll(TypeSet s) {
-		if (s instanceof EnumeratedTypeSet) {
-			EnumeratedTypeSet ets= (EnumeratedTypeSet) s;
-
-			return fMembers.addAll(ets.fMembers);
-		} else {
-			EnumeratedTypeSet ets= s.enumerate();
-
-			return fMembers.addAll(ets.fMembers);
+		EnumeratedTypeSet ets= s.enumerate();
+		boolean sameEnvironment= isSameEnvironment(ets);
+		boolean changed= false;
+		// the members are added one at a time to keep the order in which they were added to s
+		for (int i= 0; i < ets.fOrderSize; i++) {
+			int index= ets.fOrder[i];
+			if (!ets.fMembers.get(index))
+				continue;
+			if (!sameEnvironment)
+				index= getTypeSetEnvironment().getIndex(ets.getTypeSetEnvironment().getType(index));
+			changed|= addIndex(index);
 		}
+		return changed;
 	}
 
 	@Override
@@ -276,61 +402,63 @@ public class EnumeratedTypeSet extends TypeSet {
 			return true;
 		if (s.isUniverse())
 			return false;
-		EnumeratedTypeSet ets= s.enumerate();
+		BitSet missing= (BitSet) getMemberIndices(s).clone();
 
-		return fMembers.containsAll(ets.fMembers);
+		missing.andNot(fMembers);
+		return missing.isEmpty();
 	}
 
 	public boolean removeAll(EnumeratedTypeSet s) {
-		if (isUniverse())
-			fMembers= cloneSet(fMembers);
-		return fMembers.removeAll(s.fMembers);
+		int size= size();
+		removeIndices(getMemberIndices(s));
+		return size() != size;
 	}
 
 	public boolean retainAll(TypeSet s) {
 		if (s.isUniverse()) return false;
 
-		EnumeratedTypeSet ets= (EnumeratedTypeSet) s;
-
-		if (isUniverse()) {
-			fMembers= cloneSet(ets.fMembers);
-			return true;
-		} else
-			return fMembers.retainAll(ets.fMembers);
+		int size= size();
+		fMembers.and(getMemberIndices(s));
+		fHasRemovedIndices= true;
+		return size() != size;
 	}
 
 	@Override
 	public boolean isSingleton() {
-		return fMembers.size() == 1;
+		return size() == 1;
 	}
 
 	@Override
 	public TType anyMember() {
-		return fMembers.iterator().next();
+		int position= findMember(0);
+		if (position >= fOrderSize)
+			throw new NoSuchElementException();
+		return getTypeSetEnvironment().getType(fOrder[position]);
 	}
 
 	@Override
 	public TypeSet upperBound() {
-		if (fMembers.size() == 1)
-			return new SingletonTypeSet(fMembers.iterator().next(), getTypeSetEnvironment());
-		if (fMembers.contains(getJavaLangObject()))
+		if (size() == 1)
+			return new SingletonTypeSet(anyMember(), getTypeSetEnvironment());
+		if (contains(getJavaLangObject()))
 			return new SingletonTypeSet(getJavaLangObject(), getTypeSetEnvironment());
 
 		EnumeratedTypeSet result= new EnumeratedTypeSet(getTypeSetEnvironment());
 
 		// Add to result each element of fMembers that has no proper supertype in fMembers
-		result.fMembers.addAll(fMembers);
-		for (TType t : fMembers) {
+		result.addAll(this);
+		for (Iterator<TType> iter= iterator(); iter.hasNext();) {
+			TType t= iter.next();
 			if (t.isArrayType()) {
 				ArrayType at= (ArrayType) t;
 				int numDims= at.getDimensions();
 				for(Iterator<TType> subIter=TTypes.getAllSubTypesIterator(at.getElementType()); subIter.hasNext(); ) {
-					result.fMembers.remove(TTypes.createArrayType(subIter.next(), numDims));
+					TType subType= TTypes.createArrayType(subIter.next(), numDims);
+					if (!subType.equals(at))
+						result.remove(subType);
 				}
 			} else {
-				for (Iterator<TType> iterator= TTypes.getAllSubTypesIterator(t); iterator.hasNext();) {
-					result.fMembers.remove(iterator.next());
-				}
+				result.removeIndices(getTypeSetEnvironment().getSubTypeIndices(t));
 			}
 		}
 		result.initComplete();
@@ -339,19 +467,20 @@ public class EnumeratedTypeSet extends TypeSet {
 
 	@Override
 	public TypeSet lowerBound() {
-		if (fMembers.size() == 1)
-			return new SingletonTypeSet(fMembers.iterator().next(), getTypeSetEnvironment());
+		if (size() == 1)
+			return new SingletonTypeSet(anyMember(), getTypeSetEnvironment());
 
 		EnumeratedTypeSet result= new EnumeratedTypeSet(getTypeSetEnvironment());
 
 		// Add to result each element of fMembers that has no proper subtype in fMembers
-		result.fMembers.addAll(fMembers);
+		result.addAll(this);
 
-		for (TType t : fMembers) {
+		for (Iterator<TType> iter= iterator(); iter.hasNext();) {
+			TType t= iter.next();
 			// java.lang.Object is only in the lower bound if fMembers consists
 			// of only java.lang.Object, but that case is handled above.
 			if (t.equals(getJavaLangObject())) {
-				result.fMembers.remove(t);
+				result.remove(t);
 				continue;
 			}
 
@@ -359,12 +488,10 @@ public class EnumeratedTypeSet extends TypeSet {
 				ArrayType at= (ArrayType) t;
 				int numDims= at.getDimensions();
 				for(Iterator<TType> superIter=TTypes.getAllSuperTypesIterator(at.getElementType()); superIter.hasNext(); ) {
-					result.fMembers.remove(TTypes.createArrayType(superIter.next(), numDims));
+					result.remove(TTypes.createArrayType(superIter.next(), numDims));
 				}
 			} else {
-				for (Iterator<TType> iterator= TTypes.getAllSuperTypesIterator(t); iterator.hasNext();) {
-					result.fMembers.remove(iterator.next());
-				}
+				result.removeIndices(getTypeSetEnvironment().getSuperTypeIndices(t));
 			}
 		}
 		if (result.size() > 0)
@@ -375,31 +502,31 @@ public class EnumeratedTypeSet extends TypeSet {
 
 	@Override
 	public boolean hasUniqueLowerBound() {
-		return fMembers.size() == 1;
+		return size() == 1;
 	}
 
 	@Override
 	public boolean hasUniqueUpperBound() {
-		return fMembers.size() == 1;
+		return size() == 1;
 	}
 
 	@Override
 	public TType uniqueLowerBound() {
-		if (fMembers.size() == 1)
-			return fMembers.iterator().next();
+		if (size() == 1)
+			return anyMember();
 		return null;
 	}
 
 	@Override
 	public TType uniqueUpperBound() {
-		if (fMembers.size() == 1)
-			return fMembers.iterator().next();
+		if (size() == 1)
+			return anyMember();
 		return null;
 	}
 
 	@Override
 	public Iterator<TType> iterator() {
-		return fMembers.iterator();
+		return new MemberIterator();
 	}
 
 	/**
@@ -260,9 +260,9 @@ public class SubTypesSet extends TypeSet {
 					for(Iterator<TType> elemSubIter=TTypes.getAllSubTypesIterator(at.getElementType()); elemSubIter.hasNext(); )
 						fEnumCache.add(TTypes.createArrayType(elemSubIter.next(), numDims));
 				} else {
-					for (Iterator<TType> iterator= TTypes.getAllSubTypesIterator(ub); iterator.hasNext();) {
-						fEnumCache.fMembers.add(iterator.next());
-					}
+					// the type before its subtypes, like TTypes.getAllSubTypesIterator(TType)
+					fEnumCache.add(ub);
+					fEnumCache.addAll(getTypeSetEnvironment().getSubTypes(ub));
 				}
 				fEnumCache.add(ub);
 			}
@@ -199,8 +199,10 @@ public class SuperTypesOfSingleton extends TypeSet {
 				ArrayType at= (ArrayType) fLowerBound;
 				fEnumCache= EnumeratedTypeSet.makeArrayTypesForElements(TTypes.getAllSuperTypesIterator(at.getComponentType()), getTypeSetEnvironment());
 				fEnumCache.add(getJavaLangObject());
-			} else
-				fEnumCache= new EnumeratedTypeSet(TTypes.getAllSuperTypesIterator(fLowerBound), getTypeSetEnvironment());
+			} else {
+				fEnumCache= new EnumeratedTypeSet(getTypeSetEnvironment());
+				fEnumCache.addAll(getTypeSetEnvironment().getSuperTypes(fLowerBound));
+			}
 
 			fEnumCache.add(fLowerBound);
 			fEnumCache.initComplete();
@@ -14,11 +14,17 @@
 
 package org.eclipse.jdt.internal.corext.refactoring.typeconstraints.typesets;
 
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.eclipse.jdt.internal.corext.refactoring.typeconstraints.types.TType;
 import org.eclipse.jdt.internal.corext.refactoring.typeconstraints.types.TypeEnvironment;
+import org.eclipse.jdt.internal.corext.refactoring.typeconstraints2.TTypes;
 
 
 
@@ -33,6 +39,27 @@ public class TypeSetEnvironment {
 	private final Map<TType, SuperTypesOfSingleton> fSuperTypesOfSingletons= new LinkedHashMap<>();//@perf
 	private final Map<Object, SuperTypesSet> fSuperTypesSets= new LinkedHashMap<>();//@perf
 
+	/**
+	 * The types with an index, in the order of their indices. {@link EnumeratedTypeSet}s store
+	 * their members as bits at these indices.
+	 */
+	private final List<TType> fIndexedTypes= new ArrayList<>();
+	private final Map<TType, Integer> fTypeIndices= new HashMap<>();
+
+	private static final int MAX_CLOSURE_CACHE= 1024;
+	/**
+	 * The cached subtypes of a type. The subtypes of a type grow as the type environment creates
+	 * new types, so the cache is cleared whenever {@link TypeEnvironment#getSubTypeCount()}
+	 * differs from {@link #fSubTypeCount}.
+	 */
+	private final Map<TType, EnumeratedTypeSet> fSubTypes= createClosureCache();
+	private int fSubTypeCount;
+	/**
+	 * The cached supertypes of a type. The supertypes of a type are known when the type is
+	 * created and never change.
+	 */
+	private final Map<TType, EnumeratedTypeSet> fSuperTypes= createClosureCache();
+
 	private int fgCommonExprHits= 0;
 	private int fgCommonExprMisses= 0;
 
@@ -42,6 +69,118 @@ public class TypeSetEnvironment {
 		fEmptyTypeSet= new EmptyTypeSet(this);
 	}
 
+	private static Map<TType, EnumeratedTypeSet> createClosureCache() {
+		return new LinkedHashMap<>(MAX_CLOSURE_CACHE, 0.75f, true) {
+			private static final long serialVersionUID= 1L;
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<TType, EnumeratedTypeSet> eldest) {
+				return size() > MAX_CLOSURE_CACHE;
+			}
+		};
+	}
+
+	/**
+	 * Returns the index of the given type, assigning the next free index to a new type.
+	 *
+	 * @param type the type
+	 * @return the dense index of the type in this environment
+	 */
+	public int getIndex(TType type) {
+		Integer index= fTypeIndices.get(type);
+		if (index != null)
+			return index.intValue();
+		int result= fIndexedTypes.size();
+		fIndexedTypes.add(type);
+		fTypeIndices.put(type, Integer.valueOf(result));
+		return result;
+	}
+
+	/**
+	 * @param type the type
+	 * @return the index of the given type, or <code>-1</code> if the type has no index yet
+	 */
+	public int findIndex(TType type) {
+		Integer index= fTypeIndices.get(type);
+		return index != null ? index.intValue() : -1;
+	}
+
+	/**
+	 * @param index an index returned by {@link #getIndex(TType)}
+	 * @return the type with the given index
+	 */
+	public TType getType(int index) {
+		return fIndexedTypes.get(index);
+	}
+
+	/**
+	 * Returns the indices of all proper subtypes of the given type. The result is shared and
+	 * must not be modified.
+	 *
+	 * @param type the type
+	 * @return the indices of the proper subtypes
+	 */
+	public BitSet getSubTypeIndices(TType type) {
+		return getSubTypes(type).fMembers;
+	}
+
+	/**
+	 * Returns all proper subtypes of the given type, in the order of
+	 * {@link TTypes#getAllSubTypesIterator(TType)}. The result is shared and must not be
+	 * modified.
+	 *
+	 * @param type the type
+	 * @return the proper subtypes
+	 */
+	EnumeratedTypeSet getSubTypes(TType type) {
+		int subTypeCount= fTypeEnvironment.getSubTypeCount();
+		if (subTypeCount != fSubTypeCount) {
+			fSubTypes.clear();
+			fSubTypeCount= subTypeCount;
+		}
+		EnumeratedTypeSet result= fSubTypes.get(type);
+		if (result == null) {
+			result= new EnumeratedTypeSet(this);
+			for (Iterator<TType> iter= TTypes.getAllSubTypesIterator(type); iter.hasNext();) {
+				TType subType= iter.next();
+				// the iterator starts with the type itself
+				if (!subType.equals(type))
+					result.add(subType);
+			}
+			// types created meanwhile may be missing, the next call computes the subtypes again
+			if (fTypeEnvironment.getSubTypeCount() == subTypeCount)
+				fSubTypes.put(type, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the indices of all proper supertypes of the given type. The result is shared and
+	 * must not be modified.
+	 *
+	 * @param type the type
+	 * @return the indices of the proper supertypes
+	 */
+	public BitSet getSuperTypeIndices(TType type) {
+		return getSuperTypes(type).fMembers;
+	}
+
+	/**
+	 * Returns all proper supertypes of the given type, in the order of
+	 * {@link TTypes#getAllSuperTypesIterator(TType)}. The result is shared and must not be
+	 * modified.
+	 *
+	 * @param type the type
+	 * @return the proper supertypes
+	 */
+	EnumeratedTypeSet getSuperTypes(TType type) {
+		EnumeratedTypeSet result= fSuperTypes.get(type);
+		if (result == null) {
+			result= new EnumeratedTypeSet(TTypes.getAllSuperTypesIterator(type), this);
+			fSuperTypes.put(type, result);
+		}
+		return result;
+	}
+
 	public TType getJavaLangObject() {
 		return fTypeEnvironment.getJavaLangObject();
 	}
@@ -122,6 +261,7 @@ public class TypeSetEnvironment {
 	public void dumpStats() {
 		System.out.println("Common expression hits:   " + fgCommonExprHits); //$NON-NLS-1$
 		System.out.println("Common expression misses: " + fgCommonExprMisses); //$NON-NLS-1$
+		System.out.println("Indexed types:            " + fIndexedTypes.size()); //$NON-NLS-1$
 	}
 
 }
@@ -116,9 +116,11 @@ public class TypeSetUnion extends TypeSet {
 
 	@Override
 	public EnumeratedTypeSet enumerate() {
-		EnumeratedTypeSet result= fLHS.enumerate();
+		// copy, since the enumerations of the operands may be cached
+		EnumeratedTypeSet result= new EnumeratedTypeSet(getTypeSetEnvironment());
 
-		result.addAll(fRHS.enumerate());
+		result.addAll(fLHS);
+		result.addAll(fRHS);
 		return result;
 	}
 
@@ -28,6 +28,9 @@ public abstract class ConstraintVariable2 {
 
 	protected final TType fType;
 
+	/** The id of this variable in a {@link ConstraintVariableWorkList}, or <code>-1</code> */
+	private int fId= -1;
+
 	/**
 	 * @param type the type
 	 */
@@ -48,6 +51,10 @@ public abstract class ConstraintVariable2 {
 		}
 	}
 
+	int getId() {
+		return fId;
+	}
+
 	public TypeEquivalenceSet getTypeEquivalenceSet() {
 		return fTypeEquivalenceSet;
 	}
@@ -102,6 +109,10 @@ public abstract class ConstraintVariable2 {
 		}
 	}
 
+	void setId(int id) {
+		fId= id;
+	}
+
 	public void setTypeEquivalenceSet(TypeEquivalenceSet set) {
 		fTypeEquivalenceSet= set;
 	}
@@ -0,0 +1,199 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.corext.refactoring.typeconstraints2;
+
+import java.util.BitSet;
+import java.util.Collection;
+
+import org.eclipse.core.runtime.Assert;
+
+/**
+ * The work list of a type constraint solver, holding the constraint variables whose type
+ * estimate has changed and whose constraints remain to be (re-)processed.
+ * <p>
+ * The variables are interned into dense integer ids on first use. The list itself is a
+ * circular queue of ids, and a variable which is already queued is not queued again: processing
+ * a variable reads the current type estimates, so a second entry would not change the result.
+ * </p>
+ *
+ * @since 1.22
+ */
+public final class ConstraintVariableWorkList {
+
+	/** The interned variables, indexed by id */
+	private ConstraintVariable2[] fVariables;
+
+	/** The number of interned variables */
+	private int fVariableCount= 0;
+
+	/** The circular queue of ids */
+	private int[] fQueue;
+
+	/** The index of the first queued id */
+	private int fHead= 0;
+
+	/** The number of queued ids */
+	private int fSize= 0;
+
+	/** The ids of the queued variables */
+	private final BitSet fQueued;
+
+	/** The number of variables taken from the list */
+	private int fProcessedCount= 0;
+
+	/** The number of additions of variables which were already queued */
+	private int fDuplicateCount= 0;
+
+	/**
+	 * Creates a new work list.
+	 *
+	 * @param expectedSize the expected number of distinct variables
+	 */
+	public ConstraintVariableWorkList(int expectedSize) {
+		int capacity= Math.max(16, expectedSize);
+		fVariables= new ConstraintVariable2[capacity];
+		fQueue= new int[capacity];
+		fQueued= new BitSet(capacity);
+	}
+
+	/**
+	 * Returns the id of the given variable, interning it if necessary.
+	 *
+	 * @param variable the constraint variable
+	 * @return the dense id of the variable in this work list
+	 */
+	public int getId(ConstraintVariable2 variable) {
+		Assert.isNotNull(variable);
+		int id= variable.getId();
+		if (id >= 0 && id < fVariableCount && fVariables[id] == variable)
+			return id;
+		if (fVariableCount == fVariables.length) {
+			ConstraintVariable2[] variables= new ConstraintVariable2[fVariableCount * 2];
+			System.arraycopy(fVariables, 0, variables, 0, fVariableCount);
+			fVariables= variables;
+		}
+		id= fVariableCount++;
+		fVariables[id]= variable;
+		variable.setId(id);
+		return id;
+	}
+
+	/**
+	 * @param id the id of a variable
+	 * @return the variable with the given id
+	 */
+	public ConstraintVariable2 getVariable(int id) {
+		Assert.isTrue(id >= 0 && id < fVariableCount);
+		return fVariables[id];
+	}
+
+	/**
+	 * @return the number of interned variables
+	 */
+	public int getVariableCount() {
+		return fVariableCount;
+	}
+
+	/**
+	 * Adds the given variable to the end of the list, unless it is already queued.
+	 *
+	 * @param variable the constraint variable
+	 */
+	public void add(ConstraintVariable2 variable) {
+		int id= getId(variable);
+		if (fQueued.get(id)) {
+			fDuplicateCount++;
+			return;
+		}
+		fQueued.set(id);
+		if (fSize == fQueue.length) {
+			int[] queue= new int[fSize * 2];
+			int tail= fQueue.length - fHead;
+			System.arraycopy(fQueue, fHead, queue, 0, tail);
+			System.arraycopy(fQueue, 0, queue, tail, fHead);
+			fQueue= queue;
+			fHead= 0;
+		}
+		fQueue[(fHead + fSize) % fQueue.length]= id;
+		fSize++;
+	}
+
+	/**
+	 * Adds the given variables to the end of the list, skipping those which are already queued.
+	 *
+	 * @param variables the constraint variables
+	 */
+	public void addAll(ConstraintVariable2[] variables) {
+		for (ConstraintVariable2 variable : variables)
+			add(variable);
+	}
+
+	/**
+	 * Adds the given variables to the end of the list, skipping those which are already queued.
+	 *
+	 * @param variables the constraint variables
+	 */
+	public void addAll(Collection<? extends ConstraintVariable2> variables) {
+		for (ConstraintVariable2 variable : variables)
+			add(variable);
+	}
+
+	/**
+	 * @return <code>true</code> iff no variable is queued
+	 */
+	public boolean isEmpty() {
+		return fSize == 0;
+	}
+
+	/**
+	 * @return the number of queued variables
+	 */
+	public int size() {
+		return fSize;
+	}
+
+	/**
+	 * Removes the first variable from the list.
+	 *
+	 * @return the first queued variable
+	 */
+	public ConstraintVariable2 removeFirst() {
+		Assert.isTrue(fSize > 0);
+		int id= fQueue[fHead];
+		fHead= (fHead + 1) % fQueue.length;
+		fSize--;
+		fQueued.clear(id);
+		fProcessedCount++;
+		return fVariables[id];
+	}
+
+	/**
+	 * @return the number of variables taken from the list so far
+	 */
+	public int getProcessedCount() {
+		return fProcessedCount;
+	}
+
+	/**
+	 * @return the number of additions which were skipped because the variable was already queued
+	 */
+	public int getDuplicateCount() {
+		return fDuplicateCount;
+	}
+
+	@Override
+	public String toString() {
+		return "ConstraintVariableWorkList [variables=" + fVariableCount + ", queued=" + fSize + ", processed=" + fProcessedCount + ", duplicates=" + fDuplicateCount + "]"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+	}
+}
@@ -0,0 +1,166 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.corext.refactoring.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.runtime.Assert;
+
+/**
+ * Runs tasks of a refactoring concurrently on threads shared by all refactorings, so that a
+ * search or a change creation does not start threads of its own.
+ * <p>
+ * At most the given number of tasks run at a time, in the order of the list. Completed tasks
+ * can be polled in the order they complete. {@link #cancel()} keeps the tasks not yet started
+ * from running and waits for the running ones, so that no task is still running when the
+ * refactoring continues.
+ * </p>
+ * <p>
+ * If the tasks are started from one of the shared threads, they are run on the calling thread
+ * by {@link #start(int)}, since waiting for other shared threads could deadlock.
+ * </p>
+ *
+ * @param <V> the type of the task results
+ * @since 1.22
+ */
+public final class ConcurrentTasks<V> {
+
+	/**
+	 * A shared thread.
+	 */
+	private static final class Worker extends Thread {
+		Worker(Runnable runnable) {
+			super(runnable, "Refactoring Worker"); //$NON-NLS-1$
+			setDaemon(true);
+		}
+	}
+
+	/** The number of shared threads */
+	private static final int THREAD_COUNT= Math.max(2, Runtime.getRuntime().availableProcessors());
+
+	private static ExecutorService fgExecutor;
+
+	private final List<FutureTask<V>> fTasks;
+
+	private final BlockingQueue<Future<V>> fCompleted= new LinkedBlockingQueue<>();
+
+	/** The index of the next task to run */
+	private final AtomicInteger fNext= new AtomicInteger();
+
+	private volatile boolean fCanceled;
+
+	/**
+	 * Creates the tasks. They are not started before {@link #start(int)}.
+	 *
+	 * @param tasks the tasks
+	 */
+	public ConcurrentTasks(List<? extends Callable<V>> tasks) {
+		Assert.isNotNull(tasks);
+		fTasks= new ArrayList<>(tasks.size());
+		for (Callable<V> task : tasks)
+			fTasks.add(new FutureTask<>(task));
+	}
+
+	private static synchronized ExecutorService getExecutor() {
+		if (fgExecutor == null) {
+			ThreadPoolExecutor executor= new ThreadPoolExecutor(THREAD_COUNT, THREAD_COUNT, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), Worker::new);
+			executor.allowCoreThreadTimeOut(true);
+			fgExecutor= executor;
+		}
+		return fgExecutor;
+	}
+
+	/**
+	 * @return the number of tasks
+	 */
+	public int size() {
+		return fTasks.size();
+	}
+
+	/**
+	 * Starts running the tasks.
+	 *
+	 * @param parallelism the maximum number of tasks that run at a time, must be at least
+	 *            <code>1</code>
+	 */
+	public void start(int parallelism) {
+		Assert.isTrue(parallelism >= 1);
+		if (Thread.currentThread() instanceof Worker) {
+			runTasks();
+			return;
+		}
+		ExecutorService executor= getExecutor();
+		for (int i= Math.min(parallelism, fTasks.size()); i > 0; i--)
+			executor.execute(this::runTasks);
+	}
+
+	private void runTasks() {
+		for (int index= fNext.getAndIncrement(); index < fTasks.size(); index= fNext.getAndIncrement()) {
+			FutureTask<V> task= fTasks.get(index);
+			if (fCanceled)
+				task.cancel(false);
+			else
+				task.run();
+			fCompleted.add(task);
+		}
+	}
+
+	/**
+	 * Returns the next completed task, waiting if necessary up to the given time.
+	 *
+	 * @param timeout the maximum time to wait
+	 * @param unit the unit of the timeout
+	 * @return the completed task, or <code>null</code> if no task completed in time
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	public Future<V> poll(long timeout, TimeUnit unit) throws InterruptedException {
+		return fCompleted.poll(timeout, unit);
+	}
+
+	/**
+	 * Keeps the tasks not yet started from running and waits until the running tasks are done.
+	 * The running tasks should check a progress monitor which is canceled as well.
+	 */
+	public void cancel() {
+		fCanceled= true;
+		int started= Math.min(fNext.get(), fTasks.size());
+		boolean interrupted= false;
+		for (int i= 0; i < started; i++) {
+			while (true) {
+				try {
+					fTasks.get(i).get();
+					break;
+				} catch (InterruptedException e) {
+					interrupted= true;
+				} catch (ExecutionException | CancellationException e) {
+					break;
+				}
+			}
+		}
+		if (interrupted)
+			Thread.currentThread().interrupt();
+	}
+}
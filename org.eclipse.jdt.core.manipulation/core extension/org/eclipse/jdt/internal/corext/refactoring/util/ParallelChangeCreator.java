@@ -0,0 +1,156 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.corext.refactoring.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.runtime.Assert;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+
+/**
+ * Creates the changes of a refactoring for several compilation units concurrently. Each unit of
+ * work, typically all edits of one compilation unit, is processed by one thread, and the changes
+ * are recorded in a {@link TextChangeManager}, which sorts them independently of the order in
+ * which they were created.
+ * <p>
+ * The units of work run on the threads shared by the refactorings, see {@link ConcurrentTasks}.
+ * If a unit of work fails or the creation is canceled, the units not yet started are skipped
+ * and the running ones are waited for, so that no unit of work is still running when the
+ * creation returns.
+ * </p>
+ *
+ * @since 1.22
+ */
+public final class ParallelChangeCreator {
+
+	/**
+	 * Creates the changes of one unit of work.
+	 *
+	 * @param <T> the type of the units of work
+	 */
+	@FunctionalInterface
+	public interface IUnitChangeCreator<T> {
+
+		/**
+		 * Creates the changes of one unit of work. May be called concurrently for different units.
+		 *
+		 * @param unit the unit of work
+		 * @throws CoreException if the changes cannot be created
+		 */
+		void createChanges(T unit) throws CoreException;
+	}
+
+	/**
+	 * The default number of threads creating changes.
+	 */
+	public static final int DEFAULT_PARALLELISM= Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+
+	private ParallelChangeCreator() {
+	}
+
+	/**
+	 * Creates the changes of the given units of work with {@link #DEFAULT_PARALLELISM} threads.
+	 *
+	 * @param <T> the type of the units of work
+	 * @param units the units of work
+	 * @param creator the creator of the changes of one unit
+	 * @param monitor the progress monitor, or <code>null</code>
+	 * @throws CoreException if the changes of a unit cannot be created
+	 */
+	public static <T> void createChanges(List<T> units, IUnitChangeCreator<T> creator, IProgressMonitor monitor) throws CoreException {
+		createChanges(units, creator, DEFAULT_PARALLELISM, monitor);
+	}
+
+	/**
+	 * Creates the changes of the given units of work. With a parallelism of <code>1</code> or a
+	 * single unit, all units are processed on the calling thread.
+	 *
+	 * @param <T> the type of the units of work
+	 * @param units the units of work
+	 * @param creator the creator of the changes of one unit
+	 * @param parallelism the number of threads, must be at least <code>1</code>
+	 * @param monitor the progress monitor, or <code>null</code>
+	 * @throws CoreException if the changes of a unit cannot be created
+	 */
+	public static <T> void createChanges(List<T> units, IUnitChangeCreator<T> creator, int parallelism, IProgressMonitor monitor) throws CoreException {
+		Assert.isNotNull(units);
+		Assert.isNotNull(creator);
+		Assert.isTrue(parallelism >= 1);
+		if (monitor == null)
+			monitor= new NullProgressMonitor();
+		try {
+			monitor.beginTask("", units.size()); //$NON-NLS-1$
+			if (parallelism == 1 || units.size() < 2) {
+				for (T unit : units) {
+					if (monitor.isCanceled())
+						throw new OperationCanceledException();
+					creator.createChanges(unit);
+					monitor.worked(1);
+				}
+				return;
+			}
+			List<Callable<T>> callables= new ArrayList<>(units.size());
+			for (T unit : units) {
+				callables.add(() -> {
+					creator.createChanges(unit);
+					return unit;
+				});
+			}
+			ConcurrentTasks<T> tasks= new ConcurrentTasks<>(callables);
+			try {
+				tasks.start(parallelism);
+				for (int pending= units.size(); pending > 0;) {
+					Future<T> future= tasks.poll(100, TimeUnit.MILLISECONDS);
+					if (monitor.isCanceled())
+						throw new OperationCanceledException();
+					if (future == null)
+						continue;
+					getResult(future);
+					pending--;
+					monitor.worked(1);
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new OperationCanceledException();
+			} finally {
+				tasks.cancel();
+			}
+		} finally {
+			monitor.done();
+		}
+	}
+
+	private static void getResult(Future<?> future) throws CoreException, InterruptedException {
+		try {
+			future.get();
+		} catch (ExecutionException e) {
+			Throwable cause= e.getCause();
+			if (cause instanceof CoreException)
+				throw (CoreException) cause;
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			if (cause instanceof Error)
+				throw (Error) cause;
+			throw new IllegalStateException(cause);
+		}
+	}
+}
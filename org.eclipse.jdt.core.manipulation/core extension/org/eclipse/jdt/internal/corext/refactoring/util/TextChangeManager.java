@@ -28,10 +28,15 @@ import org.eclipse.jdt.core.refactoring.CompilationUnitChange;
 /**
  * A <code>TextChangeManager</code> manages associations between <code>ICompilationUnit</code>
  * or <code>IFile</code> and <code>TextChange</code> objects.
+ * <p>
+ * The manager is thread-safe, so that the changes of different compilation units can be built
+ * concurrently, see {@link ParallelChangeCreator}. The text changes themselves are not: all edits
+ * of one compilation unit must be added by one thread at a time.
+ * </p>
  */
 public class TextChangeManager {
 
-	private Map<ICompilationUnit, TextChange> fMap= new HashMap<>(10);
+	private final Map<ICompilationUnit, TextChange> fMap= new HashMap<>(10);
 
 	private final boolean fKeepExecutedTextEdits;
 
@@ -50,7 +55,7 @@ public class TextChangeManager {
 	 * @param cu the compilation unit (key)
 	 * @param change the change associated with the compilation unit
 	 */
-	public void manage(ICompilationUnit cu, TextChange change) {
+	public synchronized void manage(ICompilationUnit cu, TextChange change) {
 		fMap.put(cu, change);
 	}
 
@@ -61,7 +66,7 @@ public class TextChangeManager {
 	 * @param cu the compilation unit for which the text buffer change is requested
 	 * @return the text change associated with the given compilation unit.
 	 */
-	public TextChange get(ICompilationUnit cu) {
+	public synchronized TextChange get(ICompilationUnit cu) {
 		TextChange result= fMap.get(cu);
 		if (result == null) {
 			result= new CompilationUnitChange(cu.getElementName(), cu);
@@ -78,23 +83,28 @@ public class TextChangeManager {
 	 * @param unit the key determining the <code>TextChange</code> to be removed.
 	 * @return the removed <code>TextChange</code>.
 	 */
-	public TextChange remove(ICompilationUnit unit) {
+	public synchronized TextChange remove(ICompilationUnit unit) {
 		return fMap.remove(unit);
 	}
 
 	/**
-	 * Returns all text changes managed by this instance.
+	 * Returns all text changes managed by this instance, sorted by the names and then by the paths
+	 * of their compilation units. The order does not depend on the order in which the changes
+	 * were added.
 	 *
 	 * @return all text changes managed by this instance
 	 */
-	public TextChange[] getAllChanges(){
+	public synchronized TextChange[] getAllChanges(){
 		Set<ICompilationUnit> cuSet= fMap.keySet();
 		ICompilationUnit[] cus= cuSet.toArray(new ICompilationUnit[cuSet.size()]);
-		// sort by cu name:
+		// sort by cu name, and by path for cus with the same name:
 		Arrays.sort(cus, (o1, o2) -> {
 			String name1= o1.getElementName();
 			String name2= o2.getElementName();
-			return name1.compareTo(name2);
+			int result= name1.compareTo(name2);
+			if (result != 0)
+				return result;
+			return o1.getPath().toString().compareTo(o2.getPath().toString());
 		});
 
 		TextChange[] textChanges= new TextChange[cus.length];
@@ -109,14 +119,14 @@ public class TextChangeManager {
 	 *
 	 * @return all compilation units managed by this instance
 	 */
-	public ICompilationUnit[] getAllCompilationUnits(){
+	public synchronized ICompilationUnit[] getAllCompilationUnits(){
 		return fMap.keySet().toArray(new ICompilationUnit[fMap.size()]);
 	}
 
 	/**
 	 * Clears all associations between resources and text changes.
 	 */
-	public void clear() {
+	public synchronized void clear() {
 		fMap.clear();
 	}
 
@@ -126,7 +136,7 @@ public class TextChangeManager {
 	 * @param cu the compilation unit
 	 * @return <code>true</code> if any text changes are managed for the specified compilation unit and <code>false</code> otherwise
 	 */
-	public boolean containsChangesIn(ICompilationUnit cu){
+	public synchronized boolean containsChangesIn(ICompilationUnit cu){
 		return fMap.containsKey(cu);
 	}
 }
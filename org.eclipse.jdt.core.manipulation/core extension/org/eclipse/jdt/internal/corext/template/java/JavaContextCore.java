@@ -47,7 +47,6 @@ import org.eclipse.jface.text.templates.TemplateVariableType;
 import org.eclipse.jdt.core.Flags;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IField;
-import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.IMethod;
 import org.eclipse.jdt.core.IType;
@@ -60,11 +59,7 @@ import org.eclipse.jdt.core.dom.rewrite.ImportRewrite;
 import org.eclipse.jdt.core.dom.rewrite.ImportRewrite.ImportRewriteContext;
 import org.eclipse.jdt.core.manipulation.SharedASTProviderCore;
 import org.eclipse.jdt.core.manipulation.TypeKinds;
-import org.eclipse.jdt.core.manipulation.TypeNameMatchCollector;
 import org.eclipse.jdt.core.search.IJavaSearchConstants;
-import org.eclipse.jdt.core.search.IJavaSearchScope;
-import org.eclipse.jdt.core.search.SearchEngine;
-import org.eclipse.jdt.core.search.SearchPattern;
 import org.eclipse.jdt.core.search.TypeNameMatch;
 
 import org.eclipse.jdt.internal.core.manipulation.JavaManipulationPlugin;
@@ -73,6 +68,7 @@ import org.eclipse.jdt.internal.core.manipulation.dom.ASTResolving;
 import org.eclipse.jdt.internal.corext.codemanipulation.ContextSensitiveImportRewriteContext;
 import org.eclipse.jdt.internal.corext.template.java.CompilationUnitCompletion.Variable;
 import org.eclipse.jdt.internal.corext.util.JavaModelUtil;
+import org.eclipse.jdt.internal.corext.util.TypeNameResolutionCache;
 
 import org.eclipse.jdt.internal.ui.text.template.contentassist.MultiVariable;
 
@@ -467,9 +463,8 @@ public class JavaContextCore extends CompilationUnitContext implements IJavaCont
 		try {
 			boolean qualified= type.indexOf('.') != -1;
 			if (!qualified) {
-				IJavaSearchScope searchScope= SearchEngine.createJavaSearchScope(new IJavaElement[] { cu.getJavaProject() });
 				SimpleName nameNode= null;
-				TypeNameMatch[] matches= findAllTypes(type, searchScope, nameNode, null, cu);
+				TypeNameMatch[] matches= findAllTypes(type, nameNode, null, cu);
 				if (matches.length != 1) // only add import if we have a single match
 					return type;
 				type= matches[0].getFullyQualifiedName();
@@ -625,7 +620,7 @@ public class JavaContextCore extends CompilationUnitContext implements IJavaCont
 	/*
 	 * Finds a type by the simple name. From AddImportsOperation
 	 */
-	private TypeNameMatch[] findAllTypes(String simpleTypeName, IJavaSearchScope searchScope, SimpleName nameNode, IProgressMonitor monitor, ICompilationUnit cu) throws JavaModelException {
+	private TypeNameMatch[] findAllTypes(String simpleTypeName, SimpleName nameNode, IProgressMonitor monitor, ICompilationUnit cu) throws JavaModelException {
 		boolean is50OrHigher= JavaModelUtil.is50OrHigher(cu.getJavaProject());
 
 		int typeKinds= TypeKinds.ALL_TYPES;
@@ -633,11 +628,9 @@ public class JavaContextCore extends CompilationUnitContext implements IJavaCont
 			typeKinds= ASTResolving.getPossibleTypeKinds(nameNode, is50OrHigher);
 		}
 
-		ArrayList<TypeNameMatch> typeInfos= new ArrayList<>();
-		TypeNameMatchCollector requestor= new TypeNameMatchCollector(typeInfos);
-		new SearchEngine().searchAllTypeNames(null, 0, simpleTypeName.toCharArray(), SearchPattern.R_EXACT_MATCH | SearchPattern.R_CASE_SENSITIVE, getSearchForConstant(typeKinds), searchScope, requestor, IJavaSearchConstants.FORCE_IMMEDIATE_SEARCH, monitor);
+		TypeNameMatch[] typeInfos= TypeNameResolutionCache.getDefault().findTypes(cu.getJavaProject(), simpleTypeName, IJavaSearchConstants.FORCE_IMMEDIATE_SEARCH, monitor);
 
-		ArrayList<TypeNameMatch> typeRefsFound= new ArrayList<>(typeInfos.size());
+		ArrayList<TypeNameMatch> typeRefsFound= new ArrayList<>(typeInfos.length);
 		for (TypeNameMatch curr : typeInfos) {
 			if (curr.getPackageName().length() > 0) { // do not suggest imports from the default package
 				if (isOfKind(curr, typeKinds, is50OrHigher) && isVisible(curr, cu)) {
@@ -648,23 +641,6 @@ public class JavaContextCore extends CompilationUnitContext implements IJavaCont
 		return typeRefsFound.toArray(new TypeNameMatch[typeRefsFound.size()]);
 	}
 
-	private int getSearchForConstant(int typeKinds) {
-		final int CLASSES= TypeKinds.CLASSES;
-		final int INTERFACES= TypeKinds.INTERFACES;
-		final int ENUMS= TypeKinds.ENUMS;
-		final int ANNOTATIONS= TypeKinds.ANNOTATIONS;
-
-		switch (typeKinds & (CLASSES | INTERFACES | ENUMS | ANNOTATIONS)) {
-			case CLASSES: return IJavaSearchConstants.CLASS;
-			case INTERFACES: return IJavaSearchConstants.INTERFACE;
-			case ENUMS: return IJavaSearchConstants.ENUM;
-			case ANNOTATIONS: return IJavaSearchConstants.ANNOTATION_TYPE;
-			case CLASSES | INTERFACES: return IJavaSearchConstants.CLASS_AND_INTERFACE;
-			case CLASSES | ENUMS: return IJavaSearchConstants.CLASS_AND_ENUM;
-			default: return IJavaSearchConstants.TYPE;
-		}
-	}
-
 	private boolean isOfKind(TypeNameMatch curr, int typeKinds, boolean is50OrHigher) {
 		int flags= curr.getModifiers();
 		if (Flags.isAnnotation(flags)) {
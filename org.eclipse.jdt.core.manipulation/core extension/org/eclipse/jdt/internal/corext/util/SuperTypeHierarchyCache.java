@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2024 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,8 +14,10 @@
 package org.eclipse.jdt.internal.corext.util;
 
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 
@@ -26,18 +28,88 @@ import org.eclipse.jdt.core.JavaModelException;
 
 /**
  * A thread-safe cache for super type hierarchies.
+ * <p>
+ * Lookups go through an index from every type contained in a cached hierarchy to its
+ * cache entry and do not lock. The size of the cache is bounded by the total number of
+ * types in the cached hierarchies; the least recently accessed hierarchies are evicted
+ * first. A hierarchy is removed as soon as it reports a change.
+ * </p>
  */
 // @see JDTUIHelperClasses
 public class SuperTypeHierarchyCache {
 
+	/**
+	 * A snapshot of the statistics of the cache.
+	 */
+	public static final class CacheStatistics {
+
+		private final int fHits;
+		private final int fMisses;
+		private final int fEvictions;
+		private final int fEntries;
+		private final int fWeight;
+
+		private CacheStatistics(int hits, int misses, int evictions, int entries, int weight) {
+			fHits= hits;
+			fMisses= misses;
+			fEvictions= evictions;
+			fEntries= entries;
+			fWeight= weight;
+		}
+
+		/**
+		 * @return the number of requests answered from the cache
+		 */
+		public int getHits() {
+			return fHits;
+		}
+
+		/**
+		 * @return the number of requests that had to build a hierarchy
+		 */
+		public int getMisses() {
+			return fMisses;
+		}
+
+		/**
+		 * @return the number of hierarchies removed to stay within the cache capacity
+		 */
+		public int getEvictions() {
+			return fEvictions;
+		}
+
+		/**
+		 * @return the number of cached hierarchies
+		 */
+		public int getEntryCount() {
+			return fEntries;
+		}
+
+		/**
+		 * @return the total number of types in the cached hierarchies
+		 */
+		public int getWeight() {
+			return fWeight;
+		}
+
+		@Override
+		public String toString() {
+			return "hits: " + fHits + ", misses: " + fMisses + ", evictions: " + fEvictions + ", hierarchies: " + fEntries + ", types: " + fWeight; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+		}
+	}
+
 	private static class HierarchyCacheEntry implements ITypeHierarchyChangedListener {
 
-		private ITypeHierarchy fTypeHierarchy;
-		private long fLastAccess;
+		private final ITypeHierarchy fTypeHierarchy;
+		private final IType[] fTypes;
+		private final Map<IType, MethodOverrideTester> fMethodOverrideTesters;
+		private volatile long fLastAccess;
+		private volatile boolean fDisposed;
 
 		public HierarchyCacheEntry(ITypeHierarchy hierarchy) {
 			fTypeHierarchy= hierarchy;
-			fTypeHierarchy.addTypeHierarchyChangedListener(this);
+			fTypes= hierarchy.getAllTypes();
+			fMethodOverrideTesters= new ConcurrentHashMap<>();
 			markAsAccessed();
 		}
 
@@ -50,6 +122,22 @@ public class SuperTypeHierarchyCache {
 			return fTypeHierarchy;
 		}
 
+		public IType[] getTypes() {
+			return fTypes;
+		}
+
+		public int getWeight() {
+			return Math.max(1, fTypes.length);
+		}
+
+		public MethodOverrideTester getMethodOverrideTester(IType type) {
+			return fMethodOverrideTesters.computeIfAbsent(type, t -> new MethodOverrideTester(t, fTypeHierarchy));
+		}
+
+		public boolean isValid() {
+			return !fDisposed && fTypeHierarchy.exists();
+		}
+
 		public void markAsAccessed() {
 			fLastAccess= System.currentTimeMillis();
 		}
@@ -59,9 +147,10 @@ public class SuperTypeHierarchyCache {
 		}
 
 		public void dispose() {
-			if (fTypeHierarchy != null) {
+			if (!fDisposed) {
+				fDisposed= true;
 				fTypeHierarchy.removeTypeHierarchyChangedListener(this);
-				fTypeHierarchy= null;
+				fMethodOverrideTesters.clear();
 			}
 		}
 
@@ -73,13 +162,20 @@ public class SuperTypeHierarchyCache {
 	}
 
 
-	private static final int CACHE_SIZE= 8;
+	/**
+	 * The maximal number of types in all cached hierarchies.
+	 */
+	private static final int CACHE_WEIGHT= 1024;
+
+	private static final Object fgLock= new Object();
 
-	private static ArrayList<HierarchyCacheEntry> fgHierarchyCache= new ArrayList<>(CACHE_SIZE);
-	private static Map<IType, MethodOverrideTester> fgMethodOverrideTesterCache= new LRUMap<>(CACHE_SIZE);
+	private static final List<HierarchyCacheEntry> fgHierarchyCache= new ArrayList<>(); // guarded by fgLock
+	private static final Map<IType, HierarchyCacheEntry> fgTypeToEntry= new ConcurrentHashMap<>();
+	private static int fgWeight= 0; // guarded by fgLock
 
-	private static int fgCacheHits= 0;
-	private static int fgCacheMisses= 0;
+	private static final AtomicInteger fgCacheHits= new AtomicInteger();
+	private static final AtomicInteger fgCacheMisses= new AtomicInteger();
+	private static final AtomicInteger fgEvictions= new AtomicInteger();
 
 	/**
 	 * Returns a super type hierarchy that contains the given type.
@@ -97,32 +193,7 @@ public class SuperTypeHierarchyCache {
 	}
 
 	public static MethodOverrideTester getMethodOverrideTester(IType type) throws JavaModelException {
-		MethodOverrideTester test= null;
-		synchronized (fgMethodOverrideTesterCache) {
-			test= fgMethodOverrideTesterCache.get(type);
-		}
-		if (test == null) {
-			ITypeHierarchy hierarchy= getTypeHierarchy(type); // don't nest the locks
-			synchronized (fgMethodOverrideTesterCache) {
-				test= fgMethodOverrideTesterCache.get(type); // test again after waiting a long time for 'getTypeHierarchy'
-				if (test == null) {
-					test= new MethodOverrideTester(type, hierarchy);
-					fgMethodOverrideTesterCache.put(type, test);
-				}
-			}
-		}
-		return test;
-	}
-
-	private static void removeMethodOverrideTester(ITypeHierarchy hierarchy) {
-		synchronized (fgMethodOverrideTesterCache) {
-			for (Iterator<MethodOverrideTester> iter= fgMethodOverrideTesterCache.values().iterator(); iter.hasNext();) {
-				MethodOverrideTester curr= iter.next();
-				if (curr.getTypeHierarchy().equals(hierarchy)) {
-					iter.remove();
-				}
-			}
-		}
+		return getHierarchyEntry(type, null).getMethodOverrideTester(type);
 	}
 
 	/**
@@ -138,45 +209,53 @@ public class SuperTypeHierarchyCache {
 	 * @throws JavaModelException if a problem occurs
 	 */
 	public static ITypeHierarchy getTypeHierarchy(IType type, IProgressMonitor progressMonitor) throws JavaModelException {
-		ITypeHierarchy hierarchy= findTypeHierarchyInCache(type);
-		if (hierarchy == null) {
-			fgCacheMisses++;
-			hierarchy= type.newSupertypeHierarchy(progressMonitor);
-			addTypeHierarchyToCache(hierarchy);
+		return getHierarchyEntry(type, progressMonitor).getTypeHierarchy();
+	}
+
+	private static HierarchyCacheEntry getHierarchyEntry(IType type, IProgressMonitor progressMonitor) throws JavaModelException {
+		HierarchyCacheEntry entry= findEntryInCache(type);
+		if (entry == null) {
+			fgCacheMisses.incrementAndGet();
+			entry= addTypeHierarchyToCache(type.newSupertypeHierarchy(progressMonitor));
 		} else {
-			fgCacheHits++;
+			fgCacheHits.incrementAndGet();
 		}
-		return hierarchy;
+		return entry;
 	}
 
-	private static void addTypeHierarchyToCache(ITypeHierarchy hierarchy) {
-		synchronized (fgHierarchyCache) {
-			int nEntries= fgHierarchyCache.size();
-			if (nEntries >= CACHE_SIZE) {
-				// find obsolete entries or remove entry that was least recently accessed
+	private static HierarchyCacheEntry addTypeHierarchyToCache(ITypeHierarchy hierarchy) {
+		HierarchyCacheEntry newEntry= new HierarchyCacheEntry(hierarchy);
+		// register before publishing, so that no change event is missed; a change that
+		// arrives before the entry is published disposes it and makes it invalid
+		hierarchy.addTypeHierarchyChangedListener(newEntry);
+		synchronized (fgLock) {
+			// remove obsolete entries and entries that are subsumed by the new hierarchy
+			for (HierarchyCacheEntry entry : new ArrayList<>(fgHierarchyCache)) {
+				ITypeHierarchy curr= entry.getTypeHierarchy();
+				if (!curr.exists() || hierarchy.contains(curr.getType())) {
+					removeHierarchyEntryFromCache(entry);
+				}
+			}
+
+			fgHierarchyCache.add(newEntry);
+			fgWeight+= newEntry.getWeight();
+			for (IType type : newEntry.getTypes()) {
+				fgTypeToEntry.put(type, newEntry);
+			}
+
+			// remove the entries that were least recently accessed
+			while (fgWeight > CACHE_WEIGHT && fgHierarchyCache.size() > 1) {
 				HierarchyCacheEntry oldest= null;
-				ArrayList<HierarchyCacheEntry> obsoleteHierarchies= new ArrayList<>(CACHE_SIZE);
 				for (HierarchyCacheEntry entry : fgHierarchyCache) {
-					ITypeHierarchy curr= entry.getTypeHierarchy();
-					if (!curr.exists() || hierarchy.contains(curr.getType())) {
-						obsoleteHierarchies.add(entry);
-					} else {
-						if (oldest == null || entry.getLastAccess() < oldest.getLastAccess()) {
-							oldest= entry;
-						}
-					}
-				}
-				if (!obsoleteHierarchies.isEmpty()) {
-					for (HierarchyCacheEntry obsoleteHierarchie : obsoleteHierarchies) {
-						removeHierarchyEntryFromCache(obsoleteHierarchie);
+					if (entry != newEntry && (oldest == null || entry.getLastAccess() < oldest.getLastAccess())) {
+						oldest= entry;
 					}
-				} else if (oldest != null) {
-					removeHierarchyEntryFromCache(oldest);
 				}
+				removeHierarchyEntryFromCache(oldest);
+				fgEvictions.incrementAndGet();
 			}
-			HierarchyCacheEntry newEntry= new HierarchyCacheEntry(hierarchy);
-			fgHierarchyCache.add(newEntry);
 		}
+		return newEntry;
 	}
 
 
@@ -186,34 +265,33 @@ public class SuperTypeHierarchyCache {
 	 * @return <code>true</code> if a hierarchy for the given type is cached
 	 */
 	public static boolean hasInCache(IType type) {
-		return findTypeHierarchyInCache(type) != null;
+		return findEntryInCache(type) != null;
 	}
 
 
-	private static ITypeHierarchy findTypeHierarchyInCache(IType type) {
-		synchronized (fgHierarchyCache) {
-			for (int i= fgHierarchyCache.size() - 1; i>= 0; i--) {
-				HierarchyCacheEntry curr= fgHierarchyCache.get(i);
-				ITypeHierarchy hierarchy= curr.getTypeHierarchy();
-				if (!hierarchy.exists()) {
-					removeHierarchyEntryFromCache(curr);
-				} else {
-					if (hierarchy.contains(type)) {
-						curr.markAsAccessed();
-						return hierarchy;
-					}
-				}
-			}
+	private static HierarchyCacheEntry findEntryInCache(IType type) {
+		HierarchyCacheEntry entry= fgTypeToEntry.get(type);
+		if (entry == null)
+			return null;
+
+		if (!entry.isValid()) {
+			removeHierarchyEntryFromCache(entry);
+			return null;
 		}
-		return null;
+		entry.markAsAccessed();
+		return entry;
 	}
 
 	private static void removeHierarchyEntryFromCache(HierarchyCacheEntry entry) {
-		synchronized (fgHierarchyCache) {
-			removeMethodOverrideTester(entry.getTypeHierarchy());
-			entry.dispose();
-			fgHierarchyCache.remove(entry);
+		synchronized (fgLock) {
+			if (fgHierarchyCache.remove(entry)) {
+				fgWeight-= entry.getWeight();
+				for (IType type : entry.getTypes()) {
+					fgTypeToEntry.remove(type, entry);
+				}
+			}
 		}
+		entry.dispose();
 	}
 
 
@@ -222,7 +300,7 @@ public class SuperTypeHierarchyCache {
 	 * @return Returns a int
 	 */
 	public static int getCacheHits() {
-		return fgCacheHits;
+		return fgCacheHits.get();
 	}
 
 	/**
@@ -230,7 +308,17 @@ public class SuperTypeHierarchyCache {
 	 * @return Returns a int
 	 */
 	public static int getCacheMisses() {
-		return fgCacheMisses;
+		return fgCacheMisses.get();
+	}
+
+	/**
+	 * Returns a snapshot of the cache statistics.
+	 * @return the statistics
+	 */
+	public static CacheStatistics getStatistics() {
+		synchronized (fgLock) {
+			return new CacheStatistics(fgCacheHits.get(), fgCacheMisses.get(), fgEvictions.get(), fgHierarchyCache.size(), fgWeight);
+		}
 	}
 
 	private SuperTypeHierarchyCache() {
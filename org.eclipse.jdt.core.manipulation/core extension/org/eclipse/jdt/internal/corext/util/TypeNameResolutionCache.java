@@ -0,0 +1,382 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.corext.util;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.manipulation.TypeNameMatchCollector;
+import org.eclipse.jdt.core.search.IJavaSearchConstants;
+import org.eclipse.jdt.core.search.IJavaSearchScope;
+import org.eclipse.jdt.core.search.SearchEngine;
+import org.eclipse.jdt.core.search.SearchPattern;
+import org.eclipse.jdt.core.search.TypeNameMatch;
+
+/**
+ * A workspace wide cache of the types found by their simple name, shared by the quick fixes,
+ * the import operations and content assist, which often search the same simple name within
+ * a short time.
+ * <p>
+ * The types are searched case sensitively in a project and its required projects and
+ * libraries, or in the whole workspace. Types of all kinds and visibilities are returned, the
+ * clients filter them. The size of the cache is bounded by the total number of cached types;
+ * the least recently used names are evicted first. Names are removed from the cache when a
+ * Java element delta adds, removes or changes types of these names, and the whole cache is
+ * cleared when classpaths, libraries or packages change.
+ * </p>
+ */
+// @see JDTUIHelperClasses
+public final class TypeNameResolutionCache {
+
+	/**
+	 * A snapshot of the statistics of the cache.
+	 */
+	public static final class CacheStatistics {
+
+		private final long fHits;
+		private final long fMisses;
+		private final long fEvictions;
+		private final long fInvalidations;
+		private final long fHitNanos;
+		private final long fMissNanos;
+		private final int fEntries;
+		private final int fWeight;
+
+		private CacheStatistics(long hits, long misses, long evictions, long invalidations, long hitNanos, long missNanos, int entries, int weight) {
+			fHits= hits;
+			fMisses= misses;
+			fEvictions= evictions;
+			fInvalidations= invalidations;
+			fHitNanos= hitNanos;
+			fMissNanos= missNanos;
+			fEntries= entries;
+			fWeight= weight;
+		}
+
+		/**
+		 * @return the number of lookups answered from the cache
+		 */
+		public long getHits() {
+			return fHits;
+		}
+
+		/**
+		 * @return the number of lookups that searched the type index
+		 */
+		public long getMisses() {
+			return fMisses;
+		}
+
+		/**
+		 * @return the number of names removed to stay within the cache capacity
+		 */
+		public long getEvictions() {
+			return fEvictions;
+		}
+
+		/**
+		 * @return the number of names removed because of Java element changes
+		 */
+		public long getInvalidations() {
+			return fInvalidations;
+		}
+
+		/**
+		 * @return the average time of a lookup answered from the cache, in microseconds
+		 */
+		public long getAverageHitMicros() {
+			return fHits == 0 ? 0 : fHitNanos / fHits / 1000;
+		}
+
+		/**
+		 * @return the average time of a lookup that searched the type index, in microseconds
+		 */
+		public long getAverageMissMicros() {
+			return fMisses == 0 ? 0 : fMissNanos / fMisses / 1000;
+		}
+
+		/**
+		 * @return the number of cached names
+		 */
+		public int getEntryCount() {
+			return fEntries;
+		}
+
+		/**
+		 * @return the total number of cached names and types
+		 */
+		public int getWeight() {
+			return fWeight;
+		}
+
+		@Override
+		public String toString() {
+			return "hits: " + fHits + " (" + getAverageHitMicros() + " us), misses: " + fMisses + " (" + getAverageMissMicros() + " us), evictions: " + fEvictions //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+					+ ", invalidations: " + fInvalidations + ", names: " + fEntries + ", weight: " + fWeight; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		}
+	}
+
+	private final class DeltaListener implements IElementChangedListener {
+		@Override
+		public void elementChanged(ElementChangedEvent event) {
+			processDelta(event.getDelta());
+		}
+	}
+
+	/**
+	 * The maximal total number of cached names and types.
+	 */
+	private static final int CACHE_WEIGHT= 4096;
+
+	private static final TypeNameMatch[] NO_MATCHES= new TypeNameMatch[0];
+
+	private static TypeNameResolutionCache fgInstance;
+
+	/** The types by scope and simple name, in access order, guarded by <code>this</code> */
+	private final LinkedHashMap<String, TypeNameMatch[]> fMatches= new LinkedHashMap<>(64, 0.75f, true);
+
+	/** The total number of cached names and types, guarded by <code>this</code> */
+	private int fWeight;
+
+	/** Incremented on every invalidation, so that results of concurrent searches are dropped */
+	private int fGeneration;
+
+	private final AtomicLong fHits= new AtomicLong();
+	private final AtomicLong fMisses= new AtomicLong();
+	private final AtomicLong fEvictions= new AtomicLong();
+	private final AtomicLong fInvalidations= new AtomicLong();
+	private final AtomicLong fHitNanos= new AtomicLong();
+	private final AtomicLong fMissNanos= new AtomicLong();
+
+	private final DeltaListener fListener;
+
+	private TypeNameResolutionCache() {
+		fListener= new DeltaListener();
+		JavaCore.addElementChangedListener(fListener, ElementChangedEvent.POST_CHANGE | ElementChangedEvent.POST_RECONCILE);
+	}
+
+	/**
+	 * @return the cache shared by all clients
+	 */
+	public static synchronized TypeNameResolutionCache getDefault() {
+		if (fgInstance == null)
+			fgInstance= new TypeNameResolutionCache();
+		return fgInstance;
+	}
+
+	/**
+	 * Stops listening to Java element changes, if the cache has been created.
+	 */
+	public static synchronized void shutdown() {
+		if (fgInstance == null)
+			return;
+		JavaCore.removeElementChangedListener(fgInstance.fListener);
+		fgInstance= null;
+	}
+
+	/**
+	 * Finds the types with the given simple name in a project and the projects and libraries
+	 * it requires, see {@link SearchEngine#createJavaSearchScope(IJavaElement[])}, or in the
+	 * whole workspace.
+	 * <p>
+	 * Results of searches with {@link IJavaSearchConstants#FORCE_IMMEDIATE_SEARCH} are not
+	 * cached, since they may be incomplete while the indexes are built.
+	 * </p>
+	 *
+	 * @param project the project, or <code>null</code> to search the whole workspace
+	 * @param simpleTypeName the simple name of the types
+	 * @param waitingPolicy the waiting policy of the search, see {@link IJavaSearchConstants}
+	 * @param monitor the progress monitor, or <code>null</code>
+	 * @return the types of all kinds and visibilities with the given simple name
+	 * @throws JavaModelException if the search failed
+	 */
+	public TypeNameMatch[] findTypes(IJavaProject project, String simpleTypeName, int waitingPolicy, IProgressMonitor monitor) throws JavaModelException {
+		long start= System.nanoTime();
+		String key= getKey(project, simpleTypeName);
+		int generation;
+		synchronized (this) {
+			TypeNameMatch[] cached= fMatches.get(key);
+			if (cached != null) {
+				fHits.incrementAndGet();
+				fHitNanos.addAndGet(System.nanoTime() - start);
+				return cached;
+			}
+			generation= fGeneration;
+		}
+
+		IJavaSearchScope scope= project != null ? SearchEngine.createJavaSearchScope(new IJavaElement[] { project }) : SearchEngine.createWorkspaceScope();
+		List<TypeNameMatch> typesFound= new ArrayList<>();
+		int matchMode= SearchPattern.R_EXACT_MATCH | SearchPattern.R_CASE_SENSITIVE;
+		new SearchEngine().searchAllTypeNames(null, matchMode, simpleTypeName.toCharArray(), matchMode, IJavaSearchConstants.TYPE, scope, new TypeNameMatchCollector(typesFound), waitingPolicy, monitor);
+		TypeNameMatch[] matches= typesFound.isEmpty() ? NO_MATCHES : typesFound.toArray(new TypeNameMatch[typesFound.size()]);
+
+		if (waitingPolicy != IJavaSearchConstants.FORCE_IMMEDIATE_SEARCH) {
+			synchronized (this) {
+				if (generation == fGeneration && !fMatches.containsKey(key)) {
+					fMatches.put(key, matches);
+					fWeight+= getWeight(matches);
+					evict();
+				}
+			}
+		}
+		fMisses.incrementAndGet();
+		fMissNanos.addAndGet(System.nanoTime() - start);
+		return matches;
+	}
+
+	private static String getKey(IJavaProject project, String simpleTypeName) {
+		return (project != null ? project.getElementName() : "") + '/' + simpleTypeName; //$NON-NLS-1$
+	}
+
+	private static String getSimpleName(String key) {
+		return key.substring(key.indexOf('/') + 1);
+	}
+
+	private static int getWeight(TypeNameMatch[] matches) {
+		return 1 + matches.length;
+	}
+
+	private void evict() {
+		Iterator<TypeNameMatch[]> iterator= fMatches.values().iterator();
+		while (fWeight > CACHE_WEIGHT && fMatches.size() > 1 && iterator.hasNext()) {
+			fWeight-= getWeight(iterator.next());
+			iterator.remove();
+			fEvictions.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Removes all cached types.
+	 */
+	public synchronized void clear() {
+		fInvalidations.addAndGet(fMatches.size());
+		fMatches.clear();
+		fWeight= 0;
+		fGeneration++;
+	}
+
+	private synchronized void invalidate(Set<String> simpleNames, ICompilationUnit unit) {
+		fGeneration++;
+		for (Iterator<Map.Entry<String, TypeNameMatch[]>> iterator= fMatches.entrySet().iterator(); iterator.hasNext();) {
+			Map.Entry<String, TypeNameMatch[]> entry= iterator.next();
+			if (simpleNames.contains(getSimpleName(entry.getKey())) || containsTypeOf(entry.getValue(), unit)) {
+				fWeight-= getWeight(entry.getValue());
+				iterator.remove();
+				fInvalidations.incrementAndGet();
+			}
+		}
+	}
+
+	private static boolean containsTypeOf(TypeNameMatch[] matches, ICompilationUnit unit) {
+		for (TypeNameMatch match : matches) {
+			if (unit.equals(match.getType().getCompilationUnit()))
+				return true;
+		}
+		return false;
+	}
+
+	private void processDelta(IJavaElementDelta delta) {
+		IJavaElement element= delta.getElement();
+		int kind= delta.getKind();
+		int flags= delta.getFlags();
+		switch (element.getElementType()) {
+			case IJavaElement.JAVA_MODEL:
+			case IJavaElement.JAVA_PROJECT:
+			case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+			case IJavaElement.PACKAGE_FRAGMENT:
+				if (kind != IJavaElementDelta.CHANGED || (flags & (IJavaElementDelta.F_CLASSPATH_CHANGED | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED
+						| IJavaElementDelta.F_OPENED | IJavaElementDelta.F_CLOSED | IJavaElementDelta.F_ADDED_TO_CLASSPATH
+						| IJavaElementDelta.F_REMOVED_FROM_CLASSPATH | IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED)) != 0) {
+					clear();
+					return;
+				}
+				for (IJavaElementDelta child : delta.getAffectedChildren())
+					processDelta(child);
+				return;
+			case IJavaElement.COMPILATION_UNIT:
+				ICompilationUnit unit= (ICompilationUnit) element;
+				if (!JavaModelUtil.isPrimary(unit))
+					return;
+				if (kind == IJavaElementDelta.CHANGED) {
+					if ((flags & (IJavaElementDelta.F_CONTENT | IJavaElementDelta.F_CHILDREN | IJavaElementDelta.F_PRIMARY_RESOURCE)) == 0)
+						return;
+					if ((flags & IJavaElementDelta.F_FINE_GRAINED) != 0 && !hasTypeChange(delta))
+						return;
+				}
+				invalidate(unit);
+				return;
+			case IJavaElement.CLASS_FILE:
+				clear();
+				return;
+			default:
+				return;
+		}
+	}
+
+	/**
+	 * Tells whether a fine grained delta adds, removes or renames a type or changes its modifiers.
+	 */
+	private static boolean hasTypeChange(IJavaElementDelta delta) {
+		for (IJavaElementDelta child : delta.getAffectedChildren()) {
+			if (child.getElement().getElementType() != IJavaElement.TYPE)
+				continue;
+			if (child.getKind() != IJavaElementDelta.CHANGED || (child.getFlags() & IJavaElementDelta.F_MODIFIERS) != 0 || hasTypeChange(child))
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Removes the names of the types the compilation unit declares now, and the names found in
+	 * the compilation unit before, which may have been removed or renamed.
+	 */
+	private void invalidate(ICompilationUnit unit) {
+		Set<String> simpleNames= new HashSet<>();
+		simpleNames.add(JavaCore.removeJavaLikeExtension(unit.getElementName()));
+		if (unit.exists()) {
+			try {
+				for (IType type : unit.getAllTypes())
+					simpleNames.add(type.getElementName());
+			} catch (JavaModelException e) {
+				clear();
+				return;
+			}
+		}
+		invalidate(simpleNames, unit);
+	}
+
+	/**
+	 * @return a snapshot of the cache statistics
+	 */
+	public synchronized CacheStatistics getStatistics() {
+		return new CacheStatistics(fHits.get(), fMisses.get(), fEvictions.get(), fInvalidations.get(), fHitNanos.get(), fMissNanos.get(), fMatches.size(), fWeight);
+	}
+}
@@ -23,6 +23,7 @@ import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.ToolFactory;
+import org.eclipse.jdt.core.compiler.CharOperation;
 import org.eclipse.jdt.core.compiler.IScanner;
 import org.eclipse.jdt.core.compiler.ITerminalSymbols;
 import org.eclipse.jdt.core.compiler.InvalidInputException;
@@ -57,6 +58,7 @@ public class RefactoringScanner {
 	}
 
 	private final String fName;
+	private final char[] fNameChars;
 	private final String fQualifier;
 
 	private IScanner fScanner;
@@ -67,13 +69,25 @@ public class RefactoringScanner {
 		Assert.isNotNull(name);
 		Assert.isNotNull(qualifier);
 		fName= name;
+		fNameChars= name.toCharArray();
 		fQualifier= qualifier;
 	}
 
 	public void scan(ICompilationUnit cu)	throws JavaModelException {
-		char[] chars= cu.getBuffer().getCharacters();
+		scan(cu.getBuffer().getCharacters(), cu.getJavaProject());
+	}
+
+	/**
+	 * Scans the contents of a compilation unit. Contents which cannot contain a match are not
+	 * tokenized, see {@link #mayContainMatch(char[])}.
+	 *
+	 * @param chars the contents of the compilation unit
+	 * @param javaProject the project of the compilation unit, or <code>null</code>
+	 */
+	public void scan(char[] chars, IJavaProject javaProject) {
 		fMatches= new HashSet<>();
-		IJavaProject javaProject= cu.getJavaProject();
+		if (!mayContainMatch(chars))
+			return;
         if (javaProject != null) {
             String sourceLevel = javaProject.getOption(JavaCore.COMPILER_SOURCE, true);
             String complianceLevel = javaProject.getOption(JavaCore.COMPILER_COMPLIANCE, true);
@@ -93,6 +107,18 @@ public class RefactoringScanner {
 		fScanner= null;
 	}
 
+	/**
+	 * Tells whether the given contents can contain a match. This is a cheap test which does not
+	 * tokenize the contents: contents which do not contain the name at all cannot contain a
+	 * match in a comment or string.
+	 *
+	 * @param chars the contents
+	 * @return <code>false</code> if the contents cannot contain a match
+	 */
+	public boolean mayContainMatch(char[] chars) {
+		return CharOperation.indexOf(fNameChars, chars, true) != -1;
+	}
+
 	/**
 	 * Scan the given text.
 	 * <p>
@@ -17,13 +17,14 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
-import org.eclipse.core.runtime.OperationCanceledException;
 
 import org.eclipse.core.resources.IFile;
 
@@ -86,6 +87,7 @@ import org.eclipse.jdt.internal.corext.refactoring.structure.CompilationUnitRewr
 import org.eclipse.jdt.internal.corext.refactoring.tagging.IDelegateUpdating;
 import org.eclipse.jdt.internal.corext.refactoring.tagging.IReferenceUpdating;
 import org.eclipse.jdt.internal.corext.refactoring.util.JavaStatusContext;
+import org.eclipse.jdt.internal.corext.refactoring.util.ParallelChangeCreator;
 import org.eclipse.jdt.internal.corext.refactoring.util.ResourceUtil;
 import org.eclipse.jdt.internal.corext.refactoring.util.TextChangeManager;
 import org.eclipse.jdt.internal.corext.util.CollectionsUtil;
@@ -790,65 +792,68 @@ public abstract class RenameMethodProcessor extends JavaRenameProcessor implemen
 	 * @throws CoreException if change creation failed
 	 */
 	protected void addOccurrences(TextChangeManager manager, IProgressMonitor pm, RefactoringStatus status) throws CoreException/*thrown in subtype*/{
-		pm.beginTask("", fOccurrences.length);				 //$NON-NLS-1$
+		// the compilation units are updated concurrently, all occurrences in one unit by the same thread
+		Map<ICompilationUnit, List<SearchResultGroup>> occurrencesByCu= new LinkedHashMap<>();
 		for (SearchResultGroup occurrence : fOccurrences) {
 			ICompilationUnit cu= occurrence.getCompilationUnit();
-			if (cu == null)
-				continue;
-			// Split matches into declaration and non-declaration matches
+			if (cu != null)
+				occurrencesByCu.computeIfAbsent(cu, key -> new ArrayList<>(1)).add(occurrence);
+		}
+		ParallelChangeCreator.createChanges(new ArrayList<>(occurrencesByCu.entrySet()), entry -> {
+			for (SearchResultGroup occurrence : entry.getValue())
+				addOccurrences(manager, entry.getKey(), occurrence);
+		}, pm);
+	}
 
-			List<SearchMatch> declarationsInThisCu= new ArrayList<>();
-			List<SearchMatch> referencesInThisCu= new ArrayList<>();
-			for (SearchMatch result : occurrence.getSearchResults()) {
-				if (result instanceof MethodDeclarationMatch) {
-					declarationsInThisCu.add(result);
-				} else {
-					referencesInThisCu.add(result);
-				}
+	private void addOccurrences(TextChangeManager manager, ICompilationUnit cu, SearchResultGroup occurrence) throws CoreException {
+		// Split matches into declaration and non-declaration matches
+
+		List<SearchMatch> declarationsInThisCu= new ArrayList<>();
+		List<SearchMatch> referencesInThisCu= new ArrayList<>();
+		for (SearchMatch result : occurrence.getSearchResults()) {
+			if (result instanceof MethodDeclarationMatch) {
+				declarationsInThisCu.add(result);
+			} else {
+				referencesInThisCu.add(result);
 			}
-			// First, handle the declarations
-			if (declarationsInThisCu.size() > 0) {
-
-				if (fDelegateUpdating) {
-					// Update with delegates
-					CompilationUnitRewrite rewrite= new CompilationUnitRewrite(cu);
-					rewrite.setResolveBindings(true);
-
-					for (SearchMatch element : declarationsInThisCu) {
-						MethodDeclaration method= ASTNodeSearchUtil.getMethodDeclarationNode((IMethod) element.getElement(), rewrite.getRoot());
-						DelegateCreator creator= new DelegateMethodCreator();
-						creator.setDeclareDeprecated(fDelegateDeprecation);
-						creator.setDeclaration(method);
-						creator.setSourceRewrite(rewrite);
-						creator.setNewElementName(getNewElementName());
-						creator.prepareDelegate();
-						creator.createEdit();
-					}
-					// Need to handle all delegates first as this
-					// creates a completely new change object.
-					TextChange changeForThisCu= rewrite.createChange(true);
-					changeForThisCu.setKeepPreviewEdits(true);
-					manager.manage(cu, changeForThisCu);
-				}
+		}
+		// First, handle the declarations
+		if (declarationsInThisCu.size() > 0) {
+
+			if (fDelegateUpdating) {
+				// Update with delegates
+				CompilationUnitRewrite rewrite= new CompilationUnitRewrite(cu);
+				rewrite.setResolveBindings(true);
 
-				// Update the normal methods
 				for (SearchMatch element : declarationsInThisCu) {
-					simpleUpdate(element, cu, manager.get(cu));
+					MethodDeclaration method= ASTNodeSearchUtil.getMethodDeclarationNode((IMethod) element.getElement(), rewrite.getRoot());
+					DelegateCreator creator= new DelegateMethodCreator();
+					creator.setDeclareDeprecated(fDelegateDeprecation);
+					creator.setDeclaration(method);
+					creator.setSourceRewrite(rewrite);
+					creator.setNewElementName(getNewElementName());
+					creator.prepareDelegate();
+					creator.createEdit();
 				}
+				// Need to handle all delegates first as this
+				// creates a completely new change object.
+				TextChange changeForThisCu= rewrite.createChange(true);
+				changeForThisCu.setKeepPreviewEdits(true);
+				manager.manage(cu, changeForThisCu);
 			}
 
-			// Second, handle references
-			if (fUpdateReferences) {
-				for (SearchMatch element : referencesInThisCu) {
-					simpleUpdate(element, cu, manager.get(cu));
-				}
+			// Update the normal methods
+			for (SearchMatch element : declarationsInThisCu) {
+				simpleUpdate(element, cu, manager.get(cu));
 			}
+		}
 
-			pm.worked(1);
-			if (pm.isCanceled())
-				throw new OperationCanceledException();
+		// Second, handle references
+		if (fUpdateReferences) {
+			for (SearchMatch element : referencesInThisCu) {
+				simpleUpdate(element, cu, manager.get(cu));
+			}
 		}
-		pm.done();
 	}
 
 	private void simpleUpdate(SearchMatch element, ICompilationUnit cu, TextChange textChange) {
@@ -13,17 +13,27 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.corext.refactoring.rename;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
 
 import org.eclipse.core.resources.IContainer;
 import org.eclipse.core.resources.IFile;
@@ -44,11 +54,13 @@ import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.search.IJavaSearchScope;
 import org.eclipse.jdt.core.search.SearchMatch;
 
+import org.eclipse.jdt.internal.core.manipulation.JavaManipulationPlugin;
 import org.eclipse.jdt.internal.corext.refactoring.RefactoringCoreMessages;
 import org.eclipse.jdt.internal.corext.refactoring.SearchResultGroup;
 import org.eclipse.jdt.internal.corext.refactoring.changes.TextChangeCompatibility;
 import org.eclipse.jdt.internal.corext.refactoring.rename.RefactoringScanner.TextMatch;
 import org.eclipse.jdt.internal.corext.refactoring.tagging.ITextUpdating;
+import org.eclipse.jdt.internal.corext.refactoring.util.ConcurrentTasks;
 import org.eclipse.jdt.internal.corext.refactoring.util.TextChangeManager;
 
 import org.eclipse.jdt.internal.ui.util.Progress;
@@ -62,46 +74,88 @@ public class TextMatchUpdater {
 			RefactoringCoreMessages.TextMatchUpdater_textualMatches_name,
 			RefactoringCoreMessages.TextMatchUpdater_textualMatches_description));
 
+	/**
+	 * The number of threads scanning compilation units for textual matches.
+	 */
+	private static final int PARALLELISM= Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+
 	private final IJavaSearchScope fScope;
 	private final TextChangeManager fManager;
 	private final SearchResultGroup[] fReferences;
 	private final boolean fOnlyQualified;
+	private final int fParallelism;
 
-	private final RefactoringScanner fScanner;
+	private final String fCurrentName;
+	private final String fCurrentQualifier;
 	private final String fNewName;
 	private final int fCurrentNameLength;
 
-	private TextMatchUpdater(TextChangeManager manager, IJavaSearchScope scope, String currentName, String currentQualifier, String newName, SearchResultGroup[] references, boolean onlyQualified){
+	private TextMatchUpdater(TextChangeManager manager, IJavaSearchScope scope, String currentName, String currentQualifier, String newName, SearchResultGroup[] references, boolean onlyQualified, int parallelism){
 		Assert.isNotNull(manager);
 		Assert.isNotNull(scope);
 		Assert.isNotNull(references);
+		Assert.isTrue(parallelism >= 1);
 		fManager= manager;
 		fScope= scope;
 		fReferences= references;
 		fOnlyQualified= onlyQualified;
+		fParallelism= parallelism;
 
+		fCurrentName= currentName;
+		fCurrentQualifier= currentQualifier;
 		fNewName= newName;
 		fCurrentNameLength= currentName.length();
-		fScanner= new RefactoringScanner(currentName, currentQualifier);
 	}
 
 	public static void perform(IProgressMonitor pm, IJavaSearchScope scope, String currentName, String currentQualifier, String newName, TextChangeManager manager, SearchResultGroup[] references, boolean onlyQualified) throws JavaModelException{
-		new TextMatchUpdater(manager, scope, currentName, currentQualifier, newName, references, onlyQualified).updateTextMatches(pm);
+		perform(pm, scope, currentName, currentQualifier, newName, manager, references, onlyQualified, PARALLELISM);
+	}
+
+	/**
+	 * Adds the updates of the textual matches to the text change manager.
+	 *
+	 * @param pm the progress monitor
+	 * @param scope the scope to search for textual matches
+	 * @param currentName the current name of the element
+	 * @param currentQualifier the current qualifier of the element
+	 * @param newName the new name of the element
+	 * @param manager the text change manager
+	 * @param references the references, which are not textual matches
+	 * @param onlyQualified whether only qualified matches are updated
+	 * @param parallelism the number of threads scanning the compilation units, must be at least
+	 *            <code>1</code>
+	 * @throws JavaModelException if a compilation unit cannot be read
+	 */
+	public static void perform(IProgressMonitor pm, IJavaSearchScope scope, String currentName, String currentQualifier, String newName, TextChangeManager manager, SearchResultGroup[] references, boolean onlyQualified, int parallelism) throws JavaModelException{
+		new TextMatchUpdater(manager, scope, currentName, currentQualifier, newName, references, onlyQualified, parallelism).updateTextMatches(pm);
 	}
 
 	public static void perform(IProgressMonitor pm, IJavaSearchScope scope, ITextUpdating processor, TextChangeManager manager, SearchResultGroup[] references) throws JavaModelException{
-		new TextMatchUpdater(manager, scope, processor.getCurrentElementName(), processor.getCurrentElementQualifier(), processor.getNewElementName(), references, false).updateTextMatches(pm);
+		new TextMatchUpdater(manager, scope, processor.getCurrentElementName(), processor.getCurrentElementQualifier(), processor.getNewElementName(), references, false, PARALLELISM).updateTextMatches(pm);
 	}
 
 	private void updateTextMatches(IProgressMonitor pm) throws JavaModelException {
 		try{
 			IProject[] projectsInScope= getProjectsInScope();
 
-			pm.beginTask("", projectsInScope.length); //$NON-NLS-1$
-			for (IProject project : projectsInScope) {
-				if (pm.isCanceled())
-					throw new OperationCanceledException();
-				addTextMatches(project, Progress.subMonitor(pm, 1));
+			pm.beginTask("", 10); //$NON-NLS-1$
+			List<ICompilationUnit> units= new ArrayList<>();
+			IProgressMonitor collectMonitor= Progress.subMonitor(pm, 1);
+			try {
+				collectMonitor.beginTask("", projectsInScope.length); //$NON-NLS-1$
+				for (IProject project : projectsInScope) {
+					if (pm.isCanceled())
+						throw new OperationCanceledException();
+					collectCompilationUnits(project, units, Progress.subMonitor(collectMonitor, 1));
+				}
+			} finally {
+				collectMonitor.done();
+			}
+			List<Set<TextMatch>> matches= findTextMatches(units, Progress.subMonitor(pm, 9));
+			for (int i= 0; i < units.size(); i++) {
+				Set<TextMatch> unitMatches= matches.get(i);
+				if (unitMatches != null && !unitMatches.isEmpty())
+					addTextUpdates(units.get(i), unitMatches);
 			}
 		} finally{
 			pm.done();
@@ -121,7 +175,7 @@ public class TextMatchUpdater {
 		return projectsInScope.toArray(new IProject[projectsInScope.size()]);
 	}
 
-	private void addTextMatches(IResource resource, IProgressMonitor pm) throws JavaModelException{
+	private void collectCompilationUnits(IResource resource, List<ICompilationUnit> units, IProgressMonitor pm) throws JavaModelException{
 		try{
 			String task= RefactoringCoreMessages.TextMatchUpdater_searching + resource.getFullPath();
 			if (resource instanceof IFile){
@@ -133,7 +187,7 @@ public class TextMatchUpdater {
 					return;
 				if (! fScope.encloses(element))
 					return;
-				addCuTextMatches((ICompilationUnit) element);
+				units.add((ICompilationUnit) element);
 
 			} else if (resource instanceof IContainer){
 				IResource[] members= ((IContainer) resource).members();
@@ -142,7 +196,7 @@ public class TextMatchUpdater {
 				for (IResource member : members) {
 					if (pm.isCanceled())
 						throw new OperationCanceledException();
-					addTextMatches(member, Progress.subMonitor(pm, 1));
+					collectCompilationUnits(member, units, Progress.subMonitor(pm, 1));
 				}
 			}
 		} catch (JavaModelException e){
@@ -154,15 +208,116 @@ public class TextMatchUpdater {
 		}
 	}
 
-	private void addCuTextMatches(ICompilationUnit cu) throws JavaModelException{
-		fScanner.scan(cu);
-		Set<TextMatch> matches= fScanner.getMatches(); //Set of TextMatch
+	/**
+	 * Scans the compilation units for textual matches which are not references. With more than
+	 * one unit, the units are scanned in parallel on the threads shared by the refactorings, see
+	 * {@link ConcurrentTasks}.
+	 *
+	 * @param units the compilation units to scan
+	 * @param pm the progress monitor
+	 * @return the textual matches of each unit, in the order of the units
+	 * @throws JavaModelException if a unit cannot be read
+	 */
+	private List<Set<TextMatch>> findTextMatches(List<ICompilationUnit> units, IProgressMonitor pm) throws JavaModelException {
+		List<Set<TextMatch>> result= new ArrayList<>(units.size());
+		try {
+			pm.beginTask(RefactoringCoreMessages.TextMatchUpdater_searching, units.size());
+			if (fParallelism == 1 || units.size() < 2) {
+				for (ICompilationUnit unit : units) {
+					if (pm.isCanceled())
+						throw new OperationCanceledException();
+					result.add(findCuTextMatches(unit));
+					pm.worked(1);
+				}
+				return result;
+			}
+			List<Callable<Integer>> callables= new ArrayList<>(units.size());
+			for (int i= 0; i < units.size(); i++) {
+				result.add(null);
+				int index= i;
+				callables.add(() -> {
+					// published to the calling thread by Future#get()
+					result.set(index, findCuTextMatches(units.get(index)));
+					return index;
+				});
+			}
+			ConcurrentTasks<Integer> tasks= new ConcurrentTasks<>(callables);
+			try {
+				tasks.start(fParallelism);
+				for (int pending= units.size(); pending > 0;) {
+					Future<Integer> future= tasks.poll(100, TimeUnit.MILLISECONDS);
+					if (pm.isCanceled())
+						throw new OperationCanceledException();
+					if (future == null)
+						continue;
+					getResult(future);
+					pending--;
+					pm.worked(1);
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new OperationCanceledException();
+			} finally {
+				tasks.cancel();
+			}
+			return result;
+		} finally {
+			pm.done();
+		}
+	}
+
+	private static void getResult(Future<?> future) throws JavaModelException, InterruptedException {
+		try {
+			future.get();
+		} catch (ExecutionException e) {
+			Throwable cause= e.getCause();
+			if (cause instanceof JavaModelException)
+				throw (JavaModelException) cause;
+			if (cause instanceof CoreException)
+				throw new JavaModelException((CoreException) cause);
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			if (cause instanceof Error)
+				throw (Error) cause;
+			throw new IllegalStateException(cause);
+		}
+	}
+
+	private Set<TextMatch> findCuTextMatches(ICompilationUnit cu) throws CoreException {
+		RefactoringScanner scanner= new RefactoringScanner(fCurrentName, fCurrentQualifier);
+		char[] contents= getContents(cu);
+		if (!scanner.mayContainMatch(contents))
+			return null;
+		scanner.scan(contents, cu.getJavaProject());
+		Set<TextMatch> matches= scanner.getMatches(); //Set of TextMatch
 		if (matches.isEmpty())
-			return;
+			return null;
 
 		removeReferences(cu, matches);
-		if (!matches.isEmpty())
-			addTextUpdates(cu, matches);
+		return matches;
+	}
+
+	/**
+	 * Returns the contents of a compilation unit. The file of a unit which is not open is read
+	 * directly, since opening the unit would parse it.
+	 *
+	 * @param cu the compilation unit
+	 * @return the contents of the compilation unit
+	 * @throws CoreException if the contents cannot be read
+	 */
+	private static char[] getContents(ICompilationUnit cu) throws CoreException {
+		IResource resource= cu.getResource();
+		if (cu.isOpen() || cu.isWorkingCopy() || !(resource instanceof IFile))
+			return cu.getBuffer().getCharacters();
+		IFile file= (IFile) resource;
+		try (InputStream stream= file.getContents(true)) {
+			String contents= new String(stream.readAllBytes(), Charset.forName(file.getCharset()));
+			if (!contents.isEmpty() && contents.charAt(0) == '\uFEFF')
+				contents= contents.substring(1); // byte order mark, not part of the buffer
+			return contents.toCharArray();
+		} catch (IOException e) {
+			throw new CoreException(new Status(IStatus.ERROR, JavaManipulationPlugin.getPluginId(), e.getMessage(), e));
+		}
 	}
 
 	private void removeReferences(ICompilationUnit cu, Set<TextMatch> matches) {
@@ -39,6 +39,7 @@ import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.preferences.InstanceScope;
 
 import org.eclipse.jdt.internal.junit.model.JUnitModel;
+import org.eclipse.jdt.internal.junit.model.TestDurationHistory;
 
 /**
  * The plug-in runtime class for the JUnit core plug-in.
@@ -86,6 +87,8 @@ public class JUnitCorePlugin extends Plugin {
 
 	private final JUnitModel fJUnitModel= new JUnitModel();
 
+	private TestDurationHistory fTestDurationHistory;
+
 
 	/**
 	 * List storing the registered test run listeners
@@ -132,6 +135,8 @@ public class JUnitCorePlugin extends Plugin {
 	public void start(BundleContext context) throws Exception {
 		super.start(context);
 		fBundleContext= context;
+		fTestDurationHistory= new TestDurationHistory();
+		fNewTestRunListeners.add(fTestDurationHistory);
 		fJUnitModel.start();
 	}
 
@@ -144,6 +149,7 @@ public class JUnitCorePlugin extends Plugin {
 		try {
 			InstanceScope.INSTANCE.getNode(JUnitCorePlugin.CORE_PLUGIN_ID).flush();
 			fJUnitModel.stop();
+			fTestDurationHistory.dispose();
 		} finally {
 			super.stop(context);
 		}
@@ -168,6 +174,13 @@ public class JUnitCorePlugin extends Plugin {
 		return getDefault().fJUnitModel;
 	}
 
+	/**
+	 * @return the durations and failure rates of the tests of previous runs
+	 */
+	public static TestDurationHistory getTestDurationHistory() {
+		return getDefault().fTestDurationHistory;
+	}
+
 	/**
 	 * Initializes TestRun Listener extensions
 	 * @deprecated to avoid deprecation warning
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2022 IBM Corporation and others.
+ * Copyright (c) 2000, 2024 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -62,6 +62,27 @@ public class JUnitPreferencesConstants {
 	 */
 	public static final String MAX_TEST_RUNS= JUnitCorePlugin.PLUGIN_ID + ".max_test_runs"; //$NON-NLS-1$
 
+	/**
+	 * Boolean preference controlling whether test runs report their results
+	 * with the binary protocol instead of the text protocol.
+	 */
+	public static final String BINARY_PROTOCOL= JUnitCorePlugin.PLUGIN_ID + ".binary_protocol"; //$NON-NLS-1$
+
+	/**
+	 * Maximal time in milliseconds the events of individual tests are held back
+	 * before they are delivered to batch listeners.
+	 */
+	public static final String EVENT_BATCH_INTERVAL= JUnitCorePlugin.PLUGIN_ID + ".event_batch_interval"; //$NON-NLS-1$
+
+	public static final int EVENT_BATCH_INTERVAL_DEFAULT= 100;
+
+	/**
+	 * Number of events of individual tests after which a batch is delivered immediately.
+	 */
+	public static final String EVENT_BATCH_SIZE= JUnitCorePlugin.PLUGIN_ID + ".event_batch_size"; //$NON-NLS-1$
+
+	public static final int EVENT_BATCH_SIZE_DEFAULT= 1000;
+
 	/**
 	 * Javadoc location for JUnit 3
 	 */
@@ -220,4 +241,8 @@ public class JUnitPreferencesConstants {
 	public static void setFilterStack(boolean filter) {
 		InstanceScope.INSTANCE.getNode(JUnitCorePlugin.CORE_PLUGIN_ID).putBoolean(DO_FILTER_STACK, filter);
 	}
+
+	public static boolean getBinaryProtocol() {
+		return Platform.getPreferencesService().getBoolean(JUnitCorePlugin.CORE_PLUGIN_ID, BINARY_PROTOCOL, false, null);
+	}
 }
@@ -42,6 +42,12 @@ public class JUnitLaunchConfigurationConstants {
 
 	public static final String ATTR_PORT= JUnitCorePlugin.PLUGIN_ID+".PORT"; //$NON-NLS-1$
 
+	/**
+	 * Launch attribute with the comma-separated ports of the shards of a sharded test run.
+	 * {@link #ATTR_PORT} is the port of the first shard.
+	 */
+	public static final String ATTR_SHARD_PORTS= JUnitCorePlugin.PLUGIN_ID + ".SHARD_PORTS"; //$NON-NLS-1$
+
 	public static final String ATTR_DONT_ADD_MISSING_JUNIT5_DEPENDENCY= JUnitCorePlugin.PLUGIN_ID + ".DONT_ADD_MISSING_JUNIT5_DEPENDENCY"; //$NON-NLS-1$
 
 	/**
@@ -85,6 +91,19 @@ public class JUnitLaunchConfigurationConstants {
 	 */
 	public static final String ATTR_TEST_UNIQUE_ID= JUnitCorePlugin.PLUGIN_ID + ".TEST_UNIQUE_ID"; //$NON-NLS-1$
 
+	/**
+	 * The number of VMs that run the tests of a container concurrently, or 0 for one VM per
+	 * available processor (applicable to JUnit 5 and above in run mode). Defaults to 1.
+	 */
+	public static final String ATTR_SHARD_COUNT= JUnitCorePlugin.PLUGIN_ID + ".SHARD_COUNT"; //$NON-NLS-1$
+
+	/**
+	 * The order in which tests run, based on previous runs: "shortestFirst", "failFast"
+	 * (highest failure probability per second first), or "" to keep the declaration order.
+	 * Defaults to "".
+	 */
+	public static final String ATTR_TEST_ORDER= JUnitCorePlugin.PLUGIN_ID + ".TEST_ORDER"; //$NON-NLS-1$
+
 	public static ITestKind getTestRunnerKind(ILaunchConfiguration launchConfiguration) {
 		try {
 			String loaderId = launchConfiguration.getAttribute(JUnitLaunchConfigurationConstants.ATTR_TEST_RUNNER_KIND, (String) null);
@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.jdt.internal.junit.model;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * A string that is kept deflated in memory. Used for stack traces and comparison values,
+ * which are large, repetitive, and only read when the user looks at a failure.
+ */
+final class CompressedText {
+
+	/**
+	 * Strings shorter than this are not compressed.
+	 */
+	private static final int MIN_LENGTH= 512;
+
+	private final byte[] fDeflated;
+	private final int fByteLength;
+
+	private CompressedText(byte[] deflated, int byteLength) {
+		fDeflated= deflated;
+		fByteLength= byteLength;
+	}
+
+	/**
+	 * @param text the text, can be <code>null</code>
+	 * @return <code>text</code> itself if it is short, a {@link CompressedText} otherwise
+	 */
+	static Object compress(String text) {
+		if (text == null || text.length() < MIN_LENGTH)
+			return text;
+		byte[] bytes= text.getBytes(StandardCharsets.UTF_8);
+		Deflater deflater= new Deflater(Deflater.BEST_SPEED);
+		try {
+			deflater.setInput(bytes);
+			deflater.finish();
+			ByteArrayOutputStream out= new ByteArrayOutputStream(bytes.length / 4);
+			byte[] buffer= new byte[4096];
+			while (!deflater.finished()) {
+				int count= deflater.deflate(buffer);
+				out.write(buffer, 0, count);
+			}
+			if (out.size() >= bytes.length / 2)
+				return text;
+			return new CompressedText(out.toByteArray(), bytes.length);
+		} finally {
+			deflater.end();
+		}
+	}
+
+	/**
+	 * @param compressed a value returned by {@link #compress(String)}
+	 * @return the original text
+	 */
+	static String expand(Object compressed) {
+		if (!(compressed instanceof CompressedText))
+			return (String) compressed;
+		CompressedText text= (CompressedText) compressed;
+		Inflater inflater= new Inflater();
+		try {
+			inflater.setInput(text.fDeflated);
+			byte[] bytes= new byte[text.fByteLength];
+			int offset= 0;
+			while (offset < bytes.length && !inflater.finished()) {
+				offset+= inflater.inflate(bytes, offset, bytes.length - offset);
+			}
+			return new String(bytes, 0, offset, StandardCharsets.UTF_8);
+		} catch (DataFormatException e) {
+			throw new IllegalStateException(e);
+		} finally {
+			inflater.end();
+		}
+	}
+
+	/**
+	 * Writes a value returned by {@link #compress(String)} without expanding it.
+	 *
+	 * @param out the output
+	 * @param compressed the value, can be <code>null</code>
+	 * @throws IOException if writing fails
+	 */
+	static void write(DataOutput out, Object compressed) throws IOException {
+		if (compressed instanceof CompressedText) {
+			CompressedText text= (CompressedText) compressed;
+			out.writeBoolean(true);
+			out.writeInt(text.fByteLength);
+			out.writeInt(text.fDeflated.length);
+			out.write(text.fDeflated);
+		} else {
+			out.writeBoolean(false);
+			TestRunSessionArchive.writeString(out, (String) compressed);
+		}
+	}
+
+	/**
+	 * Reads a value written by {@link #write(DataOutput, Object)}.
+	 *
+	 * @param in the input
+	 * @return the value, still compressed
+	 */
+	static Object read(ByteBuffer in) {
+		if (in.get() == 0)
+			return TestRunSessionArchive.readString(in);
+		int byteLength= in.getInt();
+		byte[] deflated= new byte[in.getInt()];
+		in.get(deflated);
+		return new CompressedText(deflated, byteLength);
+	}
+}
@@ -0,0 +1,57 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.jdt.internal.junit.model;
+
+import org.eclipse.jdt.internal.junit.model.TestElement.Status;
+
+/**
+ * A test session listener that receives the events of individual tests in batches.
+ * <p>
+ * The events reported by {@link #testAdded(TestElement)}, {@link #testStarted(TestCaseElement)},
+ * {@link #testEnded(TestCaseElement)} and {@link #testFailed(TestElement, Status, String, String, String)}
+ * are not sent to this listener. They are collected and delivered with
+ * {@link #testsChanged(TestSessionEventBatch)} instead. All other events are sent after the
+ * pending batch has been delivered.
+ * </p>
+ */
+public interface ITestSessionBatchListener extends ITestSessionListener {
+
+	/**
+	 * A batch of test events has been collected.
+	 *
+	 * @param batch the events, in the order they occurred
+	 */
+	void testsChanged(TestSessionEventBatch batch);
+
+	@Override
+	default void testAdded(TestElement testElement) {
+		// delivered with testsChanged(..)
+	}
+
+	@Override
+	default void testStarted(TestCaseElement testCaseElement) {
+		// delivered with testsChanged(..)
+	}
+
+	@Override
+	default void testEnded(TestCaseElement testCaseElement) {
+		// delivered with testsChanged(..)
+	}
+
+	@Override
+	default void testFailed(TestElement testElement, Status status, String trace, String expected, String actual) {
+		// delivered with testsChanged(..)
+	}
+}
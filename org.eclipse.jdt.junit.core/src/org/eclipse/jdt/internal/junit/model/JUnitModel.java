@@ -125,17 +125,27 @@ public final class JUnitModel {
 			String portStr= launch.getAttribute(JUnitLaunchConfigurationConstants.ATTR_PORT);
 			if (portStr == null)
 				return;
+			String shardPortsStr= launch.getAttribute(JUnitLaunchConfigurationConstants.ATTR_SHARD_PORTS);
 			try {
-				final int port= Integer.parseInt(portStr);
+				final int[] ports;
+				if (shardPortsStr == null) {
+					ports= new int[] { Integer.parseInt(portStr) };
+				} else {
+					String[] shardPorts= shardPortsStr.split(","); //$NON-NLS-1$
+					ports= new int[shardPorts.length];
+					for (int i= 0; i < shardPorts.length; i++) {
+						ports[i]= Integer.parseInt(shardPorts[i]);
+					}
+				}
 				fTrackedLaunches.remove(launch);
-				connectTestRunner(launch, javaProject, port);
+				connectTestRunner(launch, javaProject, ports);
 			} catch (NumberFormatException e) {
 				return;
 			}
 		}
 
-		private void connectTestRunner(ILaunch launch, IJavaProject javaProject, int port) {
-			TestRunSession testRunSession= new TestRunSession(launch, javaProject, port);
+		private void connectTestRunner(ILaunch launch, IJavaProject javaProject, int[] ports) {
+			TestRunSession testRunSession= new TestRunSession(launch, javaProject, ports);
 			addTestRunSession(testRunSession);
 
 			for (TestRunListener listener : JUnitCorePlugin.getDefault().getNewTestRunListeners()) {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2010 IBM Corporation and others.
+ * Copyright (c) 2007, 2024 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -25,6 +25,8 @@ public class ModelMessages extends NLS {
 	public static String JUnitModel_could_not_write;
 	public static String JUnitModel_importing_from_url;
 	public static String TestRunHandler_lines_read;
+	public static String TestSessionEventBatcher_job_name;
+	public static String TestDurationHistory_save_job_name;
 	static {
 		// initialize resource bundle
 		NLS.initializeMessages(BUNDLE_NAME, ModelMessages.class);
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2018 IBM Corporation and others.
+ * Copyright (c) 2000, 2024 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -16,29 +16,43 @@
 package org.eclipse.jdt.internal.junit.model;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.io.PushbackReader;
-import java.net.ServerSocket;
-import java.net.Socket;
+import java.io.SequenceInputStream;
+import java.net.InetSocketAddress;
 import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 
 import org.eclipse.core.runtime.ISafeRunnable;
 import org.eclipse.core.runtime.SafeRunner;
 
 import org.eclipse.jdt.internal.junit.JUnitCorePlugin;
+import org.eclipse.jdt.internal.junit.runner.BinaryMessageIds;
 import org.eclipse.jdt.internal.junit.runner.MessageIds;
 import org.eclipse.jdt.internal.junit.runner.RemoteTestRunner;
 
 /**
  * The client side of the RemoteTestRunner. Handles the
  * marshaling of the different messages.
+ * <p>
+ * The client understands the text protocol and the binary protocol described in
+ * {@link BinaryMessageIds}. The protocol is detected from the first bytes sent by the runner.
+ * </p>
  */
 public class RemoteTestRunnerClient {
 
+	private static final byte[] BINARY_PROTOCOL_MARKER= (MessageIds.BINARY_PROTOCOL + '\n').getBytes(StandardCharsets.US_ASCII);
+
 	public abstract static class ListenerSafeRunnable implements ISafeRunnable {
 		@Override
 		public void handleException(Throwable exception) {
@@ -89,11 +103,13 @@ public class RemoteTestRunnerClient {
 	            return this;
 	        }
 	        if (message.startsWith(MessageIds.TEST_START)) {
-	            notifyTestStarted(arg);
+	            String s[]= extractTestId(arg);
+	            notifyTestStarted(s[0], s[1]);
 	            return this;
 	        }
 	        if (message.startsWith(MessageIds.TEST_END)) {
-	            notifyTestEnded(arg);
+	            String s[]= extractTestId(arg);
+	            notifyTestEnded(s[0], s[1]);
 	            return this;
 	        }
 	        if (message.startsWith(MessageIds.TEST_ERROR)) {
@@ -230,10 +246,16 @@ public class RemoteTestRunnerClient {
 	private ITestRunListener2[] fListeners;
 
 	/**
-	 * The server socket
+	 * Held while the listeners are informed. The clients of a sharded test run share
+	 * it, so that their listeners see one event at a time.
 	 */
-	private ServerSocket fServerSocket;
-	private Socket fSocket;
+	private Object fListenerLock= new Object();
+
+	/**
+	 * The server socket channel
+	 */
+	private ServerSocketChannel fServerSocket;
+	private SocketChannel fSocket;
 	private int fPort= -1;
 	private PrintWriter fWriter;
 	private PushbackReader fPushbackReader;
@@ -254,6 +276,14 @@ public class RemoteTestRunnerClient {
 	 * The kind of failure of the test that is currently reported as failed
 	 */
 	private int fFailureKind;
+	/**
+	 * The ids of the tests reported in the binary protocol, indexed by their numeric value
+	 */
+	private String[] fTestIds= new String[0];
+	/**
+	 * The last (escaped) names of the tests reported in the binary protocol, indexed by their id
+	 */
+	private String[] fTestNames= new String[0];
 
 	private boolean fDebug= false;
 
@@ -273,14 +303,23 @@ public class RemoteTestRunnerClient {
 			try {
 				if (fDebug)
 					System.out.println("Creating server socket "+fServerPort); //$NON-NLS-1$
-				fServerSocket= new ServerSocket(fServerPort);
-				fSocket= fServerSocket.accept();
-				fPushbackReader= new PushbackReader(new BufferedReader(new InputStreamReader(fSocket.getInputStream(), StandardCharsets.UTF_8)));
-				fWriter= new PrintWriter(new OutputStreamWriter(fSocket.getOutputStream(), StandardCharsets.UTF_8), true);
-				String message;
-				while(fPushbackReader != null && (message= readMessage(fPushbackReader)) != null)
-					receiveMessage(message);
-			} catch (SocketException e) {
+				fServerSocket= ServerSocketChannel.open();
+				fServerSocket.bind(new InetSocketAddress(fServerPort));
+				SocketChannel socket= fServerSocket.accept();
+				fSocket= socket;
+				// use the socket's streams for text, Channels.newInputStream(..) would block concurrent writes
+				fWriter= new PrintWriter(new OutputStreamWriter(socket.socket().getOutputStream(), StandardCharsets.UTF_8), true);
+				byte[] prefix= readProtocolMarker(socket);
+				if (Arrays.equals(prefix, BINARY_PROTOCOL_MARKER)) {
+					readFrames(socket);
+				} else {
+					InputStream in= new SequenceInputStream(new ByteArrayInputStream(prefix), socket.socket().getInputStream());
+					fPushbackReader= new PushbackReader(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+					String message;
+					while(fPushbackReader != null && (message= readMessage(fPushbackReader)) != null)
+						receiveMessage(message);
+				}
+			} catch (SocketException | ClosedChannelException e) {
 				notifyTestRunTerminated();
 			} catch (IOException e) {
 				JUnitCorePlugin.log(e);
@@ -297,8 +336,22 @@ public class RemoteTestRunnerClient {
 	 * @param listeners listeners to inform
 	 * @param port port on which the server socket will be opened
 	 */
-	public synchronized void startListening(ITestRunListener2[] listeners, int port) {
+	public void startListening(ITestRunListener2[] listeners, int port) {
+		startListening(listeners, port, new Object());
+	}
+
+	/**
+	 * Start listening to one shard of a test run. Start a server connection that
+	 * the RemoteTestRunner of the shard can connect to.
+	 *
+	 * @param listeners listeners to inform
+	 * @param port port on which the server socket will be opened
+	 * @param listenerLock lock held while the listeners are informed, shared by
+	 *        the clients of all shards
+	 */
+	public synchronized void startListening(ITestRunListener2[] listeners, int port, Object listenerLock) {
 		fListeners= listeners;
+		fListenerLock= listenerLock;
 		fPort= port;
 		ServerConnection connection= new ServerConnection(port);
 		connection.start();
@@ -315,8 +368,8 @@ public class RemoteTestRunnerClient {
 	}
 
 	public synchronized void stopWaiting() {
-		if (fServerSocket != null  && ! fServerSocket.isClosed() && fSocket == null) {
-			shutDown(); // will throw a SocketException in Threads that wait in ServerSocket#accept()
+		if (fServerSocket != null  && fServerSocket.isOpen() && fSocket == null) {
+			shutDown(); // will throw an AsynchronousCloseException in Threads that wait in ServerSocketChannel#accept()
 		}
 	}
 
@@ -384,7 +437,167 @@ public class RemoteTestRunnerClient {
 	}
 
 	private void receiveMessage(String message) {
-	    fCurrentState= fCurrentState.readMessage(message);
+		synchronized (fListenerLock) {
+			fCurrentState= fCurrentState.readMessage(message);
+		}
+	}
+
+	/**
+	 * Reads the first bytes sent by the runner, until they either match or
+	 * differ from {@link #BINARY_PROTOCOL_MARKER}.
+	 *
+	 * @param channel the channel to read from
+	 * @return the bytes read
+	 * @throws IOException if reading fails
+	 */
+	private static byte[] readProtocolMarker(SocketChannel channel) throws IOException {
+		ByteBuffer buffer= ByteBuffer.allocate(BINARY_PROTOCOL_MARKER.length);
+		while (buffer.hasRemaining()) {
+			int start= buffer.position();
+			if (channel.read(buffer) == -1)
+				break;
+			for (int i= start; i < buffer.position(); i++) {
+				if (buffer.get(i) != BINARY_PROTOCOL_MARKER[i])
+					return Arrays.copyOf(buffer.array(), buffer.position());
+			}
+		}
+		return Arrays.copyOf(buffer.array(), buffer.position());
+	}
+
+	private void readFrames(SocketChannel channel) throws IOException {
+		ByteBuffer header= ByteBuffer.allocate(4);
+		ByteBuffer frame= ByteBuffer.allocate(64 * 1024);
+		while (readFully(channel, header.clear())) {
+			int length= header.getInt(0);
+			if (length > frame.capacity())
+				frame= ByteBuffer.allocate(length);
+			frame.clear().limit(length);
+			if (!readFully(channel, frame))
+				return;
+			frame.flip();
+			while (frame.hasRemaining()) {
+				synchronized (fListenerLock) {
+					readRecord(frame);
+				}
+				if (fSocket == null) // shut down after TEST_STOPPED
+					return;
+			}
+		}
+	}
+
+	private static boolean readFully(SocketChannel channel, ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer) == -1)
+				return false;
+		}
+		return true;
+	}
+
+	private void readRecord(ByteBuffer frame) throws IOException {
+		byte type= frame.get();
+		switch (type) {
+			case BinaryMessageIds.RECORD_TEXT:
+				receiveText(readString(frame));
+				break;
+			case BinaryMessageIds.RECORD_TEST:
+				byte kind= frame.get();
+				int id= readTestId(frame);
+				if (frame.get() != 0)
+					setTestName(id, readString(frame));
+				if (id >= fTestNames.length || fTestNames[id] == null)
+					throw new IOException("Test message without name for test id: " + id); //$NON-NLS-1$
+				String testId= getTestId(id);
+				String testName= fTestNames[id];
+				switch (kind) {
+					case BinaryMessageIds.TEST_START:
+						notifyTestStarted(testId, testName);
+						break;
+					case BinaryMessageIds.TEST_END:
+						notifyTestEnded(testId, testName);
+						break;
+					case BinaryMessageIds.TEST_ERROR:
+					case BinaryMessageIds.TEST_FAILED:
+						fFailedTestId= testId;
+						fFailedTest= testName;
+						fFailureKind= kind == BinaryMessageIds.TEST_ERROR ? ITestRunListener2.STATUS_ERROR : ITestRunListener2.STATUS_FAILURE;
+						break;
+					default:
+						throw new IOException("Unknown test message kind: " + kind); //$NON-NLS-1$
+				}
+				break;
+			case BinaryMessageIds.RECORD_TREE:
+				String treeId= getTestId(readTestId(frame));
+				String name= readString(frame);
+				boolean isSuite= frame.get() != 0;
+				int testCount= frame.getInt();
+				boolean isDynamicTest= frame.get() != 0;
+				String parentId= readString(frame);
+				String displayName= readString(frame);
+				String parameterTypes= readString(frame);
+				String uniqueId= readString(frame);
+				notifyTestTreeEntry(treeId + ',' + RemoteTestRunner.escapeText(name) + ',' + isSuite + ',' + testCount + ',' + isDynamicTest
+						+ ',' + parentId + ',' + RemoteTestRunner.escapeText(displayName) + ',' + RemoteTestRunner.escapeText(parameterTypes)
+						+ ',' + RemoteTestRunner.escapeText(uniqueId));
+				break;
+			default:
+				throw new IOException("Unknown record type: " + type); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Passes a text record to the state machine line by line, like the
+	 * text protocol would have delivered it.
+	 *
+	 * @param message the message of the text record
+	 */
+	private void receiveText(String message) {
+		int start= 0;
+		int length= message.length();
+		for (int i= 0; i < length; i++) {
+			char ch= message.charAt(i);
+			if (ch == '\n' || ch == '\r') {
+				if (ch == '\r' && i + 1 < length && message.charAt(i + 1) == '\n')
+					fLastLineDelimiter= "\r\n"; //$NON-NLS-1$
+				else
+					fLastLineDelimiter= String.valueOf(ch);
+				receiveMessage(message.substring(start, i));
+				i+= fLastLineDelimiter.length() - 1;
+				start= i + 1;
+			}
+		}
+		fLastLineDelimiter= System.lineSeparator();
+		receiveMessage(message.substring(start));
+	}
+
+	private static String readString(ByteBuffer frame) {
+		int length= frame.getInt();
+		String s= new String(frame.array(), frame.arrayOffset() + frame.position(), length, StandardCharsets.UTF_8);
+		frame.position(frame.position() + length);
+		return s;
+	}
+
+	private static int readTestId(ByteBuffer frame) throws IOException {
+		int id= frame.getInt();
+		if (id < 0)
+			throw new IOException("Invalid test id: " + id); //$NON-NLS-1$
+		return id;
+	}
+
+	private String getTestId(int id) {
+		if (id >= fTestIds.length)
+			fTestIds= Arrays.copyOf(fTestIds, Math.max(fTestIds.length * 2, id + 1));
+		String testId= fTestIds[id];
+		if (testId == null) {
+			testId= Integer.toString(id);
+			fTestIds[id]= testId;
+		}
+		return testId;
+	}
+
+	private void setTestName(int id, String testName) {
+		if (id >= fTestNames.length)
+			fTestNames= Arrays.copyOf(fTestNames, Math.max(fTestNames.length * 2, id + 1));
+		fTestNames[id]= testName;
 	}
 
 	private void scanOldReranMessage(String arg) {
@@ -521,29 +734,27 @@ public class RemoteTestRunnerClient {
 		}
 	}
 
-	private void notifyTestEnded(final String test) {
+	private void notifyTestEnded(final String testId, final String testName) {
 		if (JUnitCorePlugin.isStopped())
 			return;
 		for (ITestRunListener2 listener : fListeners) {
 			SafeRunner.run(new ListenerSafeRunnable() {
 				@Override
 				public void run() {
-					String s[]= extractTestId(test);
-					listener.testEnded(s[0], s[1]);
+					listener.testEnded(testId, testName);
 				}
 			});
 		}
 	}
 
-	private void notifyTestStarted(final String test) {
+	private void notifyTestStarted(final String testId, final String testName) {
 		if (JUnitCorePlugin.isStopped())
 			return;
 		for (ITestRunListener2 listener : fListeners) {
 			SafeRunner.run(new ListenerSafeRunnable() {
 				@Override
 				public void run() {
-					String s[]= extractTestId(test);
-					listener.testStarted(s[0], s[1]);
+					listener.testStarted(testId, testName);
 				}
 			});
 		}
@@ -605,13 +816,15 @@ public class RemoteTestRunnerClient {
 		// fix for 77771 RemoteTestRunnerClient doing work after junit shutdown [JUnit]
 		if (JUnitCorePlugin.isStopped())
 			return;
-		for (ITestRunListener2 listener : fListeners) {
-			SafeRunner.run(new ListenerSafeRunnable() {
-				@Override
-				public void run() {
-					listener.testRunTerminated();
-				}
-			});
+		synchronized (fListenerLock) {
+			for (ITestRunListener2 listener : fListeners) {
+				SafeRunner.run(new ListenerSafeRunnable() {
+					@Override
+					public void run() {
+						listener.testRunTerminated();
+					}
+				});
+			}
 		}
 	}
 
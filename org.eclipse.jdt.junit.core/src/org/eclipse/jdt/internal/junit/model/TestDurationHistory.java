@@ -0,0 +1,378 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.junit.model;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+
+import org.eclipse.jdt.junit.TestRunListener;
+import org.eclipse.jdt.junit.model.ITestElement;
+import org.eclipse.jdt.junit.model.ITestElement.ProgressState;
+import org.eclipse.jdt.junit.model.ITestElement.Result;
+import org.eclipse.jdt.junit.model.ITestElementContainer;
+import org.eclipse.jdt.junit.model.ITestRunSession;
+
+import org.eclipse.jdt.internal.junit.JUnitCorePlugin;
+
+/**
+ * The durations and failure rates of the tests of all finished test runs. Used to order
+ * tests and to balance the shards of a sharded test run.
+ * <p>
+ * The history is aggregated per test as a run is finished, so its size and the cost of
+ * a lookup do not grow with the number of runs: the duration is a moving average, and
+ * the numbers of runs and failures decay with every run of the test. The tests that
+ * have not run for the longest time are dropped if there are more than
+ * {@link #MAX_ENTRIES} tests.
+ * </p>
+ * <p>
+ * The history is stored in the file read by
+ * <code>org.eclipse.jdt.internal.junit.runner.TestDurations</code>. The file is rewritten
+ * in the background shortly after a run was recorded, so that finishing a session does not
+ * wait for it. Test runs read a snapshot of the history, which is only written again once
+ * the history has changed.
+ * </p>
+ */
+public class TestDurationHistory extends TestRunListener {
+
+	private static final String FILE_NAME= "testDurations.txt"; //$NON-NLS-1$
+
+	private static final String SNAPSHOT_DIRECTORY= "testDurationSnapshots"; //$NON-NLS-1$
+
+	private static final String HEADER= "# durationMillis\truns\tfailures\ttestName"; //$NON-NLS-1$
+
+	/**
+	 * The maximum number of tests in the history.
+	 */
+	public static final int MAX_ENTRIES= 100000;
+
+	/**
+	 * Weight of the latest run in the moving average of the duration.
+	 */
+	private static final double ALPHA= 0.3;
+
+	/**
+	 * Factor by which the numbers of runs and failures decay with every run.
+	 */
+	private static final double DECAY= 0.9;
+
+	/**
+	 * Delay in milliseconds before the history is saved after a run was recorded.
+	 */
+	private static final long SAVE_DELAY= 1000;
+
+	private static class TestDuration {
+		double fDuration;
+		double fRuns;
+		double fFailures;
+
+		TestDuration(double duration, double runs, double failures) {
+			fDuration= duration;
+			fRuns= runs;
+			fFailures= failures;
+		}
+	}
+
+	private final File fFile;
+
+	/**
+	 * Map from test name to entry, in access order. <code>null</code> until loaded.
+	 */
+	private LinkedHashMap<String, TestDuration> fEntries;
+
+	/**
+	 * The number of runs recorded since the history was loaded.
+	 */
+	private long fModificationCount= 0;
+
+	/**
+	 * <code>true</code> iff runs were recorded since the history was last saved.
+	 */
+	private boolean fDirty= false;
+
+	/**
+	 * The latest snapshot, or <code>null</code>.
+	 */
+	private File fSnapshot;
+
+	/**
+	 * The modification count of the history when {@link #fSnapshot} was written.
+	 */
+	private long fSnapshotModificationCount;
+
+	/**
+	 * The snapshot before {@link #fSnapshot}, or <code>null</code>. Test runs that have
+	 * been launched with it may not have read it yet.
+	 */
+	private File fPreviousSnapshot;
+
+	private final Job fSaveJob;
+
+	/**
+	 * @param file the file that stores the history
+	 */
+	public TestDurationHistory(File file) {
+		fFile= file;
+		fSaveJob= new Job(ModelMessages.TestDurationHistory_save_job_name) {
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				saveIfDirty();
+				return Status.OK_STATUS;
+			}
+		};
+		fSaveJob.setSystem(true);
+	}
+
+	/**
+	 * Creates the history stored in the state location of the JUnit core plug-in.
+	 */
+	public TestDurationHistory() {
+		this(JUnitCorePlugin.getDefault().getStateLocation().append(FILE_NAME).toFile());
+	}
+
+	@Override
+	public void sessionFinished(ITestRunSession session) {
+		Map<String, double[]> run= new HashMap<>();
+		collect(session, run);
+		if (run.isEmpty())
+			return;
+		record(run);
+	}
+
+	/**
+	 * Collects the durations and failures of the completed test cases.
+	 *
+	 * @param container the container to collect
+	 * @param run map from test name to <code>{durationMillis, failed}</code>; the invocations
+	 *        of a parameterized test are summed up
+	 */
+	private static void collect(ITestElementContainer container, Map<String, double[]> run) {
+		for (ITestElement child : container.getChildren()) {
+			if (child instanceof TestCaseElement) {
+				TestCaseElement testCase= (TestCaseElement) child;
+				double time= testCase.getElapsedTimeInSeconds();
+				Result result= testCase.getTestResult(false);
+				if (testCase.getProgressState() != ProgressState.COMPLETED || result == Result.IGNORED || Double.isNaN(time))
+					continue;
+				double[] test= run.computeIfAbsent(testCase.getTestName(), name -> new double[2]);
+				test[0]+= time * 1000;
+				if (result == Result.FAILURE || result == Result.ERROR)
+					test[1]= 1;
+			} else if (child instanceof ITestElementContainer) {
+				collect((ITestElementContainer) child, run);
+			}
+		}
+	}
+
+	/**
+	 * Adds a test run to the history and schedules saving it.
+	 *
+	 * @param run map from test name to <code>{durationMillis, failed}</code>
+	 */
+	public synchronized void record(Map<String, double[]> run) {
+		Map<String, TestDuration> entries= getEntries();
+		for (Map.Entry<String, double[]> test : run.entrySet()) {
+			double duration= test.getValue()[0];
+			double failures= test.getValue()[1];
+			TestDuration entry= entries.get(test.getKey());
+			if (entry == null) {
+				entries.put(test.getKey(), new TestDuration(duration, 1, failures));
+			} else {
+				entry.fDuration= ALPHA * duration + (1 - ALPHA) * entry.fDuration;
+				entry.fRuns= DECAY * entry.fRuns + 1;
+				entry.fFailures= DECAY * entry.fFailures + failures;
+			}
+		}
+		fModificationCount++;
+		fDirty= true;
+		fSaveJob.schedule(SAVE_DELAY);
+	}
+
+	/**
+	 * Saves the recorded runs that have not been saved yet.
+	 */
+	public void flush() {
+		fSaveJob.cancel();
+		saveIfDirty();
+	}
+
+	/**
+	 * Saves the history and deletes the snapshots.
+	 */
+	public synchronized void dispose() {
+		flush();
+		deleteSnapshots();
+	}
+
+	private synchronized void saveIfDirty() {
+		if (!fDirty)
+			return;
+		fDirty= false;
+		try {
+			save();
+		} catch (IOException e) {
+			JUnitCorePlugin.log(e);
+		}
+	}
+
+	/**
+	 * Returns the average duration of a test.
+	 *
+	 * @param testName the name of a test, <code>methodName(className)</code>
+	 * @return the duration in milliseconds, or {@link Double#NaN} if the test has not run
+	 */
+	public synchronized double getDuration(String testName) {
+		TestDuration entry= getEntries().get(testName);
+		return entry == null ? Double.NaN : entry.fDuration;
+	}
+
+	/**
+	 * Returns a snapshot of the history for a test run, so that later runs do not change
+	 * the file while the test run reads it. The snapshot is shared by the test runs until
+	 * the history changes. Only the latest two snapshots are kept: the test runner reads
+	 * the snapshot when it starts.
+	 *
+	 * @return the path of the file, or <code>null</code> if the history is empty or
+	 *         the file cannot be written
+	 */
+	public synchronized String createSnapshot() {
+		if (getEntries().isEmpty())
+			return null;
+		if (fSnapshot != null && fSnapshotModificationCount == fModificationCount && fSnapshot.isFile())
+			return fSnapshot.getAbsolutePath();
+		try {
+			File directory= getSnapshotDirectory();
+			if (fSnapshot == null) {
+				// snapshots of an earlier session
+				deleteSnapshots();
+			}
+			if (!directory.isDirectory())
+				directory.mkdirs();
+			File file= File.createTempFile("testDurations", ".txt", directory); //$NON-NLS-1$ //$NON-NLS-2$
+			write(file);
+			if (fPreviousSnapshot != null)
+				fPreviousSnapshot.delete();
+			fPreviousSnapshot= fSnapshot;
+			fSnapshot= file;
+			fSnapshotModificationCount= fModificationCount;
+			return file.getAbsolutePath();
+		} catch (IOException e) {
+			JUnitCorePlugin.log(e);
+			return null;
+		}
+	}
+
+	private File getSnapshotDirectory() {
+		return new File(fFile.getAbsoluteFile().getParentFile(), SNAPSHOT_DIRECTORY);
+	}
+
+	private void deleteSnapshots() {
+		File[] files= getSnapshotDirectory().listFiles();
+		if (files != null) {
+			for (File file : files)
+				file.delete();
+		}
+		fSnapshot= null;
+		fPreviousSnapshot= null;
+	}
+
+	private LinkedHashMap<String, TestDuration> getEntries() {
+		if (fEntries == null) {
+			fEntries= new LinkedHashMap<String, TestDuration>(16, 0.75f, true) {
+				private static final long serialVersionUID= 1L;
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, TestDuration> eldest) {
+					return size() > MAX_ENTRIES;
+				}
+			};
+			if (fFile.isFile()) {
+				try {
+					load();
+				} catch (IOException e) {
+					JUnitCorePlugin.log(e);
+				}
+			}
+		}
+		return fEntries;
+	}
+
+	private void load() throws IOException {
+		try (BufferedReader reader= Files.newBufferedReader(fFile.toPath(), StandardCharsets.UTF_8)) {
+			String line;
+			while ((line= reader.readLine()) != null) {
+				if (line.isEmpty() || line.charAt(0) == '#')
+					continue;
+				int tab1= line.indexOf('\t');
+				int tab2= line.indexOf('\t', tab1 + 1);
+				int tab3= line.indexOf('\t', tab2 + 1);
+				if (tab1 == -1 || tab2 == -1 || tab3 == -1)
+					continue;
+				try {
+					double duration= Double.parseDouble(line.substring(0, tab1));
+					double runs= Double.parseDouble(line.substring(tab1 + 1, tab2));
+					double failures= Double.parseDouble(line.substring(tab2 + 1, tab3));
+					fEntries.put(line.substring(tab3 + 1), new TestDuration(duration, runs, failures));
+				} catch (NumberFormatException e) {
+					// skip the line
+				}
+			}
+		}
+	}
+
+	private void save() throws IOException {
+		File parent= fFile.getParentFile();
+		if (parent != null && !parent.isDirectory())
+			parent.mkdirs();
+		File temp= new File(fFile.getPath() + ".tmp"); //$NON-NLS-1$
+		write(temp);
+		try {
+			Files.move(temp.toPath(), fFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(temp.toPath(), fFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	private void write(File file) throws IOException {
+		try (BufferedWriter writer= Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+			writer.write(HEADER);
+			writer.newLine();
+			// iterate over the values without touching the access order
+			for (Map.Entry<String, TestDuration> test : fEntries.entrySet()) {
+				TestDuration entry= test.getValue();
+				writer.write(Float.toString((float) entry.fDuration));
+				writer.write('\t');
+				writer.write(Float.toString((float) entry.fRuns));
+				writer.write('\t');
+				writer.write(Float.toString((float) entry.fFailures));
+				writer.write('\t');
+				writer.write(test.getKey());
+				writer.newLine();
+			}
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2017 IBM Corporation and others.
+ * Copyright (c) 2000, 2024 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -21,6 +21,11 @@ import org.eclipse.jdt.junit.model.ITestElement;
 import org.eclipse.jdt.junit.model.ITestElementContainer;
 import org.eclipse.jdt.junit.model.ITestRunSession;
 
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
 import org.eclipse.core.runtime.Assert;
 
 public abstract class TestElement implements ITestElement {
@@ -166,8 +171,31 @@ public abstract class TestElement implements ITestElement {
 
 	}
 
+	/**
+	 * Trace and comparison values of a failed test. Large values are kept compressed.
+	 */
+	private static final class Failure {
+		final Object fTrace;
+		final Object fExpected;
+		final Object fActual;
+
+		Failure(Object trace, Object expected, Object actual) {
+			fTrace= trace;
+			fExpected= expected;
+			fActual= actual;
+		}
+
+		static Failure compress(String trace, String expected, String actual) {
+			return new Failure(CompressedText.compress(trace), CompressedText.compress(expected), CompressedText.compress(actual));
+		}
+	}
+
 	private final TestSuiteElement fParent;
+	/**
+	 * The test id, or <code>null</code> if the id is the number {@link #fNumericId}.
+	 */
 	private final String fId;
+	private final int fNumericId;
 	private String fTestName;
 
 	/**
@@ -185,14 +213,17 @@ public abstract class TestElement implements ITestElement {
 
 	/**
 	 * The unique ID of the test element which can be <code>null</code> as it is applicable to JUnit 5
-	 * and above.
+	 * and above. If {@link #fUniqueIdIsRelative} is set, only the segments after the unique ID of
+	 * the parent are stored.
 	 */
 	private String fUniqueId;
+	private boolean fUniqueIdIsRelative;
 
 	private Status fStatus;
-	private String fTrace;
-	private String fExpected;
-	private String fActual;
+	/**
+	 * The failure, or <code>null</code> if no trace has been reported.
+	 */
+	private Failure fFailure;
 
 	private boolean fAssumptionFailed;
 
@@ -222,7 +253,21 @@ public abstract class TestElement implements ITestElement {
 		Assert.isNotNull(id);
 		Assert.isNotNull(testName);
 		fParent= parent;
-		fId= id;
+		fNumericId= TestElementIndex.toIndex(id);
+		fId= fNumericId >= 0 ? null : id;
+		if (parent != null) {
+			// parameterized and dynamic tests repeat the name and parameter types of their siblings or parent
+			TestElement sibling= parent.getLastChild();
+			testName= share(testName, sibling != null ? sibling.getTestName() : null, parent.getTestName());
+			if (parameterTypes != null)
+				parameterTypes= share(parameterTypes, sibling != null ? sibling.getParameterTypes() : null, parent.getParameterTypes());
+			String parentUniqueId= parent.getUniqueId();
+			if (uniqueId != null && parentUniqueId != null && uniqueId.length() > parentUniqueId.length() + 1
+					&& uniqueId.charAt(parentUniqueId.length()) == '/' && uniqueId.startsWith(parentUniqueId)) {
+				uniqueId= uniqueId.substring(parentUniqueId.length() + 1);
+				fUniqueIdIsRelative= true;
+			}
+		}
 		fTestName= testName;
 		fDisplayName= displayName;
 		fParameterTypes= parameterTypes;
@@ -232,6 +277,22 @@ public abstract class TestElement implements ITestElement {
 			parent.addChild(this);
 	}
 
+	private static String share(String value, String candidate1, String candidate2) {
+		if (value.equals(candidate1))
+			return candidate1;
+		if (value.equals(candidate2))
+			return candidate2;
+		return value;
+	}
+
+	private static String[] share(String[] value, String[] candidate1, String[] candidate2) {
+		if (Arrays.equals(value, candidate1))
+			return candidate1;
+		if (Arrays.equals(value, candidate2))
+			return candidate2;
+		return value;
+	}
+
 	@Override
 	public ProgressState getProgressState() {
 		return getStatus().convertToProgressState();
@@ -262,8 +323,8 @@ public abstract class TestElement implements ITestElement {
 	public FailureTrace getFailureTrace() {
 		Result testResult= getTestResult(false);
 		if (testResult == Result.ERROR || testResult == Result.FAILURE
-				|| (testResult == Result.IGNORED && fTrace != null)) {
-			return new FailureTrace(fTrace, fExpected, fActual);
+				|| (testResult == Result.IGNORED && fFailure != null && fFailure.fTrace != null)) {
+			return new FailureTrace(getTrace(), getExpected(), getActual());
 		}
 		return null;
 	}
@@ -276,7 +337,7 @@ public abstract class TestElement implements ITestElement {
 	}
 
 	public String getId() {
-		return fId;
+		return fId != null ? fId : Integer.toString(fNumericId);
 	}
 
 	public String getTestName() {
@@ -304,13 +365,14 @@ public abstract class TestElement implements ITestElement {
 	}
 
 	public void setStatus(Status status, String trace, String expected, String actual) {
-		if (trace != null && fTrace != null) {
+		String previousTrace= getTrace();
+		if (trace != null && previousTrace != null) {
 			//don't overwrite first trace if same test run logs multiple errors
-			fTrace= fTrace + trace;
+			fFailure= Failure.compress(previousTrace + trace, getExpected(), getActual());
+		} else if (trace != null || expected != null || actual != null) {
+			fFailure= Failure.compress(trace, expected, actual);
 		} else {
-			fTrace= trace;
-			fExpected= expected;
-			fActual= actual;
+			fFailure= null;
 		}
 		setStatus(status);
 	}
@@ -320,19 +382,51 @@ public abstract class TestElement implements ITestElement {
 	}
 
 	public String getTrace() {
-		return fTrace;
+		return fFailure != null ? CompressedText.expand(fFailure.fTrace) : null;
 	}
 
 	public String getExpected() {
-		return fExpected;
+		return fFailure != null ? CompressedText.expand(fFailure.fExpected) : null;
 	}
 
 	public String getActual() {
-		return fActual;
+		return fFailure != null ? CompressedText.expand(fFailure.fActual) : null;
+	}
+
+	/**
+	 * Writes the failure of this element to a session archive. Compressed values are
+	 * written as they are kept in memory.
+	 *
+	 * @param out the archive
+	 * @throws IOException if writing fails
+	 */
+	void writeFailure(DataOutput out) throws IOException {
+		out.writeBoolean(fFailure != null);
+		if (fFailure != null) {
+			CompressedText.write(out, fFailure.fTrace);
+			CompressedText.write(out, fFailure.fExpected);
+			CompressedText.write(out, fFailure.fActual);
+		}
+	}
+
+	/**
+	 * Replaces the failure of this element with one written by {@link #writeFailure(DataOutput)}.
+	 *
+	 * @param in the archive
+	 */
+	void readFailure(ByteBuffer in) {
+		if (in.get() != 0) {
+			Object trace= CompressedText.read(in);
+			Object expected= CompressedText.read(in);
+			Object actual= CompressedText.read(in);
+			fFailure= new Failure(trace, expected, actual);
+		} else {
+			fFailure= null;
+		}
 	}
 
 	public boolean isComparisonFailure() {
-		return fExpected != null && fActual != null;
+		return fFailure != null && fFailure.fExpected != null && fFailure.fActual != null;
 	}
 
 	/**
@@ -341,7 +435,29 @@ public abstract class TestElement implements ITestElement {
 	 * @see org.eclipse.jdt.internal.junit.runner.MessageIds#TEST_IDENTIFIER_MESSAGE_FORMAT
 	 */
 	public String getClassName() {
-		return extractClassName(getTestName());
+		String testName= getTestName();
+		TestSuiteElement parent= getParent();
+		if (parent != null && parent.getParent() != null && isMethodOf(testName, parent.getTestName())) {
+			// share the class name with the suite instead of extracting a copy
+			return parent.getClassName();
+		}
+		return extractClassName(testName);
+	}
+
+	/**
+	 * @param testName the name of a test
+	 * @param className the name of a suite
+	 * @return <code>true</code> iff <code>testName</code> has the form <code>method(className)</code>
+	 */
+	private static boolean isMethodOf(String testName, String className) {
+		int open= testName.length() - className.length() - 2;
+		return open > 0
+				&& testName.charAt(open) == '('
+				&& testName.endsWith(")") //$NON-NLS-1$
+				&& testName.startsWith(className, open + 1)
+				&& className.indexOf('(') == -1
+				&& className.indexOf(')') == -1
+				&& !className.startsWith("["); //$NON-NLS-1$
 	}
 
 	private static String extractClassName(String testNameString) {
@@ -419,6 +535,8 @@ public abstract class TestElement implements ITestElement {
 	 * @return the unique ID of the test, can be <code>null</code>
 	 */
 	public String getUniqueId() {
+		if (fUniqueIdIsRelative)
+			return fParent.getUniqueId() + '/' + fUniqueId;
 		return fUniqueId;
 	}
 
@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.jdt.internal.junit.model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Maps test ids to test elements.
+ * <p>
+ * The test runner numbers the tests consecutively. Such ids are used as index into an
+ * array, which avoids an entry object and a key string per test. Other ids, e.g. from
+ * imported sessions or old runners, are kept in a map.
+ * </p>
+ */
+class TestElementIndex {
+
+	/**
+	 * Numeric ids above <code>2 * size + SPARSE_LIMIT</code> go to the map, so that a
+	 * single large id does not allocate a huge array.
+	 */
+	private static final int SPARSE_LIMIT= 1024;
+
+	private TestElement[] fElements= new TestElement[64];
+	private int fSize;
+	private HashMap<String, TestElement> fOthers;
+
+	void put(String id, TestElement testElement) {
+		int index= toIndex(id);
+		if (index >= 0 && ensureCapacity(index)) {
+			if (fElements[index] == null)
+				fSize++;
+			fElements[index]= testElement;
+			if (fOthers != null)
+				fOthers.remove(id);
+			return;
+		}
+		if (fOthers == null)
+			fOthers= new HashMap<>();
+		fOthers.put(id, testElement);
+	}
+
+	TestElement get(String id) {
+		int index= toIndex(id);
+		if (index >= 0 && index < fElements.length) {
+			TestElement testElement= fElements[index];
+			if (testElement != null)
+				return testElement;
+		}
+		return fOthers == null ? null : fOthers.get(id);
+	}
+
+	private boolean ensureCapacity(int index) {
+		if (index < fElements.length)
+			return true;
+		if (index > 2 * fSize + SPARSE_LIMIT)
+			return false;
+		fElements= Arrays.copyOf(fElements, Math.max(2 * fElements.length, index + 1));
+		return true;
+	}
+
+	/**
+	 * Returns the numeric value of an id that is the canonical decimal representation
+	 * of a non-negative <code>int</code>.
+	 *
+	 * @param id the test id
+	 * @return the value, or <code>-1</code> if <code>id</code> is not such a number
+	 */
+	static int toIndex(String id) {
+		int length= id.length();
+		if (length == 0 || length > 9 || (length > 1 && id.charAt(0) == '0'))
+			return -1;
+		int value= 0;
+		for (int i= 0; i < length; i++) {
+			char c= id.charAt(i);
+			if (c < '0' || c > '9')
+				return -1;
+			value= value * 10 + (c - '0');
+		}
+		return value;
+	}
+}
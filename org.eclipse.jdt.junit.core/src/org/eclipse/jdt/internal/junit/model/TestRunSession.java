@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2018 IBM Corporation and others.
+ * Copyright (c) 2000, 2024 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -16,12 +16,12 @@
 package org.eclipse.jdt.internal.junit.model;
 
 import java.io.File;
+import java.io.IOException;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.List;
 
 import org.eclipse.jdt.junit.model.ITestElement;
@@ -31,6 +31,7 @@ import org.eclipse.jdt.junit.model.ITestRunSession;
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.ListenerList;
+import org.eclipse.core.runtime.Platform;
 
 import org.eclipse.debug.core.DebugPlugin;
 import org.eclipse.debug.core.ILaunch;
@@ -42,6 +43,7 @@ import org.eclipse.jdt.core.IJavaProject;
 
 import org.eclipse.jdt.internal.junit.JUnitCorePlugin;
 import org.eclipse.jdt.internal.junit.JUnitMessages;
+import org.eclipse.jdt.internal.junit.JUnitPreferencesConstants;
 import org.eclipse.jdt.internal.junit.launcher.ITestKind;
 import org.eclipse.jdt.internal.junit.launcher.JUnitLaunchConfigurationConstants;
 import org.eclipse.jdt.internal.junit.model.TestElement.Status;
@@ -67,12 +69,32 @@ public class TestRunSession implements ITestRunSession {
 	private final ITestKind fTestRunnerKind;
 
 	/**
-	 * Test runner client or <code>null</code>.
+	 * Test runner clients, one per shard of the test run, or <code>null</code>.
 	 */
-	private RemoteTestRunnerClient fTestRunnerClient;
+	private RemoteTestRunnerClient[] fTestRunnerClients;
+
+	/**
+	 * Number of shards the test run is split into.
+	 */
+	private final int fShardCount;
+
+	/**
+	 * Number of shards that started and finished their run. The shard counters
+	 * are only accessed while the listener lock of the test runner clients is held.
+	 */
+	private int fStartedShards;
+	private int fFinishedShards;
+	private boolean fShardStopped;
+	private boolean fShardTerminated;
+	private long fShardElapsedTime;
 
 	private final ListenerList<ITestSessionListener> fSessionListeners;
 
+	/**
+	 * Collects the events of individual tests for {@link ITestSessionBatchListener}s.
+	 */
+	private final TestSessionEventBatcher fEventBatcher;
+
 	/**
 	 * The model root, or <code>null</code> if swapped to disk.
 	 */
@@ -84,16 +106,15 @@ public class TestRunSession implements ITestRunSession {
 	private Result fTestResult;
 
 	/**
-	 * Map from testId to testElement.
+	 * The archive of the test tree in the swap file, or <code>null</code> if none has been
+	 * written. The archive of a launched session is written while the tests run.
 	 */
-	private HashMap<String, TestElement> fIdToTest;
+	private TestRunSessionArchive fArchive;
 
 	/**
-	 * The TestSuites for which additional children are expected.
+	 * Map from testId to testElement.
 	 */
-	private List<IncompleteTestSuite> fIncompleteTestSuites;
-
-	private List<IncompleteTestSuite> fFactoryTestSuites;
+	private TestElementIndex fIdToTest;
 
 	/**
 	 * Suite for unrooted test case elements, or <code>null</code>.
@@ -167,16 +188,31 @@ public class TestRunSession implements ITestRunSession {
 		fTestRunnerKind= ITestKind.NULL; //TODO
 
 		fTestRoot= new TestRoot(this);
-		fIdToTest= new HashMap<>();
+		fIdToTest= new TestElementIndex();
 
-		fTestRunnerClient= null;
+		fTestRunnerClients= null;
+		fShardCount= 1;
 
 		fSessionListeners= new ListenerList<>();
+		fEventBatcher= createEventBatcher(fSessionListeners);
 	}
 
 
 	public TestRunSession(ILaunch launch, IJavaProject project, int port) {
+		this(launch, project, new int[] { port });
+	}
+
+	/**
+	 * Creates a session for a launch whose tests run in one or more shards. The
+	 * shards report to their own ports and are merged into one test tree.
+	 *
+	 * @param launch the launch
+	 * @param project the Java project, may be <code>null</code>
+	 * @param ports the ports of the shards
+	 */
+	public TestRunSession(ILaunch launch, IJavaProject project, int[] ports) {
 		Assert.isNotNull(launch);
+		Assert.isLegal(ports.length > 0);
 
 		fLaunch= launch;
 		fProject= project;
@@ -191,28 +227,30 @@ public class TestRunSession implements ITestRunSession {
 		}
 
 		fTestRoot= new TestRoot(this);
-		fIdToTest= new HashMap<>();
-
-		fTestRunnerClient= new RemoteTestRunnerClient();
-		fTestRunnerClient.startListening(new ITestRunListener2[] { new TestSessionNotifier() }, port);
+		fIdToTest= new TestElementIndex();
+
+		fShardCount= ports.length;
+		fTestRunnerClients= new RemoteTestRunnerClient[ports.length];
+		Object listenerLock= new Object();
+		for (int i= 0; i < ports.length; i++) {
+			RemoteTestRunnerClient client= new RemoteTestRunnerClient();
+			fTestRunnerClients[i]= client;
+			client.startListening(new ITestRunListener2[] { new TestSessionNotifier(i) }, ports[i], listenerLock);
+		}
 
 		final ILaunchManager launchManager= DebugPlugin.getDefault().getLaunchManager();
 		launchManager.addLaunchListener(new ILaunchesListener2() {
 			@Override
 			public void launchesTerminated(ILaunch[] launches) {
 				if (Arrays.asList(launches).contains(fLaunch)) {
-					if (fTestRunnerClient != null) {
-						fTestRunnerClient.stopWaiting();
-					}
+					stopWaiting();
 					launchManager.removeLaunchListener(this);
 				}
 			}
 			@Override
 			public void launchesRemoved(ILaunch[] launches) {
 				if (Arrays.asList(launches).contains(fLaunch)) {
-					if (fTestRunnerClient != null) {
-						fTestRunnerClient.stopWaiting();
-					}
+					stopWaiting();
 					launchManager.removeLaunchListener(this);
 				}
 			}
@@ -225,9 +263,27 @@ public class TestRunSession implements ITestRunSession {
 		});
 
 		fSessionListeners= new ListenerList<>();
+		fEventBatcher= createEventBatcher(fSessionListeners);
 		addTestSessionListener(new TestRunListenerAdapter(this));
 	}
 
+	private void stopWaiting() {
+		RemoteTestRunnerClient[] clients= fTestRunnerClients;
+		if (clients != null) {
+			for (RemoteTestRunnerClient client : clients) {
+				client.stopWaiting();
+			}
+		}
+	}
+
+	private static TestSessionEventBatcher createEventBatcher(ListenerList<ITestSessionListener> listeners) {
+		int interval= Platform.getPreferencesService().getInt(JUnitCorePlugin.CORE_PLUGIN_ID, JUnitPreferencesConstants.EVENT_BATCH_INTERVAL,
+				JUnitPreferencesConstants.EVENT_BATCH_INTERVAL_DEFAULT, null);
+		int size= Platform.getPreferencesService().getInt(JUnitCorePlugin.CORE_PLUGIN_ID, JUnitPreferencesConstants.EVENT_BATCH_SIZE,
+				JUnitPreferencesConstants.EVENT_BATCH_SIZE_DEFAULT, null);
+		return new TestSessionEventBatcher(listeners, interval, size);
+	}
+
 	void reset() {
 		fStartedCount= 0;
 		fFailureCount= 0;
@@ -238,7 +294,9 @@ public class TestRunSession implements ITestRunSession {
 
 		fTestRoot= new TestRoot(this);
 		fTestResult= null;
-		fIdToTest= new HashMap<>();
+		fIdToTest= new TestElementIndex();
+		closeArchive();
+		fArchive= null;
 	}
 
 	@Override
@@ -368,18 +426,19 @@ public class TestRunSession implements ITestRunSession {
 		}
 
 		try {
-			File swapFile= getSwapFile();
-
-			JUnitModel.exportTestRunSession(this, swapFile);
+			if (fArchive == null || !fArchive.isComplete()) {
+				closeArchive();
+				fArchive= TestRunSessionArchive.write(fTestRoot, getSwapFile());
+				if (!fArchive.isComplete())
+					return;
+			}
 			fTestResult= fTestRoot.getTestResult(true);
 			fTestRoot= null;
-			fTestRunnerClient= null;
-			fIdToTest= new HashMap<>();
-			fIncompleteTestSuites= null;
-			fFactoryTestSuites= null;
+			fTestRunnerClients= null;
+			fIdToTest= new TestElementIndex();
 			fUnrootedSuite= null;
 
-		} catch (IllegalStateException | CoreException e) {
+		} catch (IllegalStateException | IOException e) {
 			JUnitCorePlugin.log(e);
 		}
 	}
@@ -390,6 +449,7 @@ public class TestRunSession implements ITestRunSession {
 
 
 	public void removeSwapFile() {
+		closeArchive();
 		File swapFile= getSwapFile();
 		if (swapFile.exists())
 			swapFile.delete();
@@ -398,7 +458,7 @@ public class TestRunSession implements ITestRunSession {
 	private File getSwapFile() throws IllegalStateException {
 		File historyDir= JUnitCorePlugin.getHistoryDirectory();
 		String isoTime= new SimpleDateFormat("yyyyMMdd-HHmmss.SSS").format(new Date(getStartTime())); //$NON-NLS-1$
-		String swapFileName= isoTime + ".xml"; //$NON-NLS-1$
+		String swapFileName= isoTime + ".bin"; //$NON-NLS-1$
 		return new File(historyDir, swapFileName);
 	}
 
@@ -407,29 +467,72 @@ public class TestRunSession implements ITestRunSession {
 		if (fTestRoot != null)
 			return;
 
+		fTestRoot= new TestRoot(this);
 		try {
-			JUnitModel.importIntoTestRunSession(getSwapFile(), this);
-		} catch (IllegalStateException | CoreException e) {
+			TestRunSessionArchive.read(getSwapFile(), this, fTestRoot);
+		} catch (IllegalStateException | IOException e) {
 			JUnitCorePlugin.log(e);
 			fTestRoot= new TestRoot(this);
+			fIdToTest= new TestElementIndex();
 			fTestResult= null;
+			fArchive= null;
+		}
+	}
+
+	private void startArchive() {
+		closeArchive();
+		try {
+			fArchive= TestRunSessionArchive.start(getSwapFile());
+		} catch (IllegalStateException | IOException e) {
+			JUnitCorePlugin.log(e);
+			fArchive= null;
 		}
 	}
 
+	private void archiveElement(TestElement testElement) {
+		TestRunSessionArchive archive= fArchive;
+		if (archive != null)
+			archive.elementAdded(testElement);
+	}
+
+	private void archiveState(TestElement testElement) {
+		TestRunSessionArchive archive= fArchive;
+		if (archive != null)
+			archive.stateChanged(testElement);
+	}
+
+	private void finishArchive() {
+		TestRunSessionArchive archive= fArchive;
+		if (archive != null)
+			archive.finish(fTestRoot);
+	}
+
+	private void closeArchive() {
+		TestRunSessionArchive archive= fArchive;
+		if (archive != null)
+			archive.close();
+	}
+
 	public void stopTestRun() {
 		if (isRunning() || ! isKeptAlive())
 			fIsStopped= true;
-		if (fTestRunnerClient != null)
-			fTestRunnerClient.stopTest();
+		RemoteTestRunnerClient[] clients= fTestRunnerClients;
+		if (clients != null) {
+			for (RemoteTestRunnerClient client : clients) {
+				client.stopTest();
+			}
+		}
 	}
 
 	/**
 	 * @return <code>true</code> iff the runtime VM of this test session is still alive
 	 */
 	public boolean isKeptAlive() {
-		if (fTestRunnerClient != null
+		RemoteTestRunnerClient[] clients= fTestRunnerClients;
+		if (clients != null
+				&& clients.length == 1
 				&& fLaunch != null
-				&& fTestRunnerClient.isRunning()
+				&& clients[0].isRunning()
 				&& ILaunchManager.DEBUG_MODE.equals(fLaunch.getLaunchMode())) {
 			ILaunchConfiguration config= fLaunch.getLaunchConfiguration();
 			try {
@@ -467,7 +570,7 @@ public class TestRunSession implements ITestRunSession {
 			} else if (status == Status.FAILURE) {
 				fFailureCount--;
 			}
-			fTestRunnerClient.rerunTest(testId, className, testName);
+			fTestRunnerClients[0].rerunTest(testId, className, testName);
 			return true;
 		}
 		return false;
@@ -477,92 +580,6 @@ public class TestRunSession implements ITestRunSession {
 		return fIdToTest.get(id);
 	}
 
-	private TestElement addTreeEntry(String treeEntry) {
-		// format: testId","testName","isSuite","testcount","isDynamicTest","parentId","displayName","parameterTypes","uniqueId
-		int index0= treeEntry.indexOf(',');
-		String id= treeEntry.substring(0, index0);
-
-		StringBuffer testNameBuffer= new StringBuffer(100);
-		int index1= scanTestName(treeEntry, index0 + 1, testNameBuffer);
-		String testName= testNameBuffer.toString().trim();
-
-		int index2= treeEntry.indexOf(',', index1 + 1);
-		boolean isSuite= "true".equals(treeEntry.substring(index1 + 1, index2)); //$NON-NLS-1$
-
-		int testCount;
-		boolean isDynamicTest;
-		String parentId;
-		String displayName;
-		StringBuffer displayNameBuffer= new StringBuffer(100);
-		String[] parameterTypes;
-		StringBuffer parameterTypesBuffer= new StringBuffer(200);
-		String uniqueId;
-		StringBuffer uniqueIdBuffer= new StringBuffer(200);
-		int index3= treeEntry.indexOf(',', index2 + 1);
-		if (index3 == -1) {
-			testCount= Integer.parseInt(treeEntry.substring(index2 + 1));
-			isDynamicTest= false;
-			parentId= null;
-			displayName= null;
-			parameterTypes= null;
-			uniqueId= null;
-		} else {
-			testCount= Integer.parseInt(treeEntry.substring(index2 + 1, index3));
-
-			int index4= treeEntry.indexOf(',', index3 + 1);
-			isDynamicTest= "true".equals(treeEntry.substring(index3 + 1, index4)); //$NON-NLS-1$
-
-			int index5= treeEntry.indexOf(',', index4 + 1);
-			parentId= treeEntry.substring(index4 + 1, index5);
-			if ("-1".equals(parentId)) { //$NON-NLS-1$
-				parentId= null;
-			}
-
-			int index6= scanTestName(treeEntry, index5 + 1, displayNameBuffer);
-			displayName= displayNameBuffer.toString().trim();
-			if (displayName.equals(testName)) {
-				displayName= null;
-			}
-
-			int index7= scanTestName(treeEntry, index6 + 1, parameterTypesBuffer);
-			String parameterTypesString= parameterTypesBuffer.toString().trim();
-			if (parameterTypesString.isEmpty()) {
-				parameterTypes= null;
-			} else {
-				parameterTypes= parameterTypesString.split(","); //$NON-NLS-1$
-				Arrays.parallelSetAll(parameterTypes, i -> parameterTypes[i].trim());
-			}
-
-			scanTestName(treeEntry, index7 + 1, uniqueIdBuffer);
-			uniqueId= uniqueIdBuffer.toString().trim();
-			if (uniqueId.isEmpty()) {
-				uniqueId= null;
-			}
-		}
-
-		if (isDynamicTest) {
-			if (parentId != null) {
-				for (IncompleteTestSuite suite : fFactoryTestSuites) {
-					if (parentId.equals(suite.fTestSuiteElement.getId())) {
-						return createTestElement(suite.fTestSuiteElement, id, testName, isSuite, testCount, isDynamicTest, displayName, parameterTypes, uniqueId);
-					}
-				}
-			}
-			return createTestElement(getUnrootedSuite(), id, testName, isSuite, testCount, isDynamicTest, displayName, parameterTypes, uniqueId); // should not reach here
-		} else {
-			if (fIncompleteTestSuites.isEmpty()) {
-				return createTestElement(fTestRoot, id, testName, isSuite, testCount, isDynamicTest, displayName, parameterTypes, uniqueId);
-			} else {
-				int suiteIndex= fIncompleteTestSuites.size() - 1;
-				IncompleteTestSuite openSuite= fIncompleteTestSuites.get(suiteIndex);
-				openSuite.fOutstandingChildren--;
-				if (openSuite.fOutstandingChildren <= 0)
-					fIncompleteTestSuites.remove(suiteIndex);
-				return createTestElement(openSuite.fTestSuiteElement, id, testName, isSuite, testCount, isDynamicTest, displayName, parameterTypes, uniqueId);
-			}
-		}
-	}
-
 	public TestElement createTestElement(TestSuiteElement parent, String id, String testName, boolean isSuite, int testCount, boolean isDynamicTest, String displayName, String[] parameterTypes, String uniqueId) {
 		TestElement testElement;
 		if (parameterTypes != null && parameterTypes.length > 1) {
@@ -571,11 +588,6 @@ public class TestRunSession implements ITestRunSession {
 		if (isSuite) {
 			TestSuiteElement testSuiteElement= new TestSuiteElement(parent, id, testName, testCount, displayName, parameterTypes, uniqueId);
 			testElement= testSuiteElement;
-			if (testCount > 0) {
-				fIncompleteTestSuites.add(new IncompleteTestSuite(testSuiteElement, testCount));
-			} else if (fFactoryTestSuites != null) {
-				fFactoryTestSuites.add(new IncompleteTestSuite(testSuiteElement, testCount));
-			}
 		} else {
 			testElement= new TestCaseElement(parent, id, testName, displayName, isDynamicTest, parameterTypes, uniqueId);
 		}
@@ -614,6 +626,7 @@ public class TestRunSession implements ITestRunSession {
 	private TestSuiteElement getUnrootedSuite() {
 		if (fUnrootedSuite == null) {
 			fUnrootedSuite= (TestSuiteElement) createTestElement(fTestRoot, "-2", JUnitMessages.TestRunSession_unrootedTests, true, 0, false, JUnitMessages.TestRunSession_unrootedTests, null, null); //$NON-NLS-1$
+			archiveElement(fUnrootedSuite);
 		}
 		return fUnrootedSuite;
 	}
@@ -625,11 +638,35 @@ public class TestRunSession implements ITestRunSession {
 	 */
 	private class TestSessionNotifier implements ITestRunListener2 {
 
+		/**
+		 * The shard whose events are received.
+		 */
+		private final int fShard;
+
+		/**
+		 * The TestSuites of the shard for which additional children are expected.
+		 */
+		private List<IncompleteTestSuite> fIncompleteTestSuites;
+
+		private List<IncompleteTestSuite> fFactoryTestSuites;
+
+		private boolean fShardFinished;
+
+		public TestSessionNotifier(int shard) {
+			fShard= shard;
+		}
+
 		@Override
 		public void testRunStarted(int testCount) {
 			fIncompleteTestSuites= new ArrayList<>();
 			fFactoryTestSuites= new ArrayList<>();
 
+			if (fStartedShards++ > 0 && fShardCount > 1) {
+				// a further shard joins the running session
+				fTotalCount+= testCount;
+				return;
+			}
+
 			fStartedCount= 0;
 			fIgnoredCount= 0;
 			fFailureCount= 0;
@@ -639,7 +676,9 @@ public class TestRunSession implements ITestRunSession {
 
 			fStartTime= System.currentTimeMillis();
 			fIsRunning= true;
+			startArchive();
 
+			fEventBatcher.flush();
 			for (ITestSessionListener listener : fSessionListeners) {
 				listener.sessionStarted();
 			}
@@ -647,56 +686,197 @@ public class TestRunSession implements ITestRunSession {
 
 		@Override
 		public void testRunEnded(long elapsedTime) {
-			fIsRunning= false;
-
-			for (ITestSessionListener listener : fSessionListeners) {
-				listener.sessionEnded(elapsedTime);
-			}
+			if (finishShard(false, false, elapsedTime))
+				fireSessionFinished();
 		}
 
 		@Override
 		public void testRunStopped(long elapsedTime) {
-			fIsRunning= false;
-			fIsStopped= true;
-
-			for (ITestSessionListener listener : fSessionListeners) {
-				listener.sessionStopped(elapsedTime);
-			}
+			if (finishShard(true, false, elapsedTime))
+				fireSessionFinished();
 		}
 
 		@Override
 		public void testRunTerminated() {
+			if (finishShard(true, true, 0))
+				fireSessionFinished();
+		}
+
+		/**
+		 * Records the end of the shard's run.
+		 *
+		 * @param stopped whether the shard was stopped
+		 * @param terminated whether the shard was terminated
+		 * @param elapsedTime the elapsed time of the shard
+		 * @return <code>true</code> iff the session has finished
+		 */
+		private boolean finishShard(boolean stopped, boolean terminated, long elapsedTime) {
+			if (fShardFinished && fShardCount > 1)
+				return false;
+			fShardFinished= true;
+			fFinishedShards++;
+			fShardStopped|= stopped;
+			fShardTerminated|= terminated;
+			fShardElapsedTime= Math.max(fShardElapsedTime, elapsedTime);
+			return fFinishedShards >= fShardCount;
+		}
+
+		private void fireSessionFinished() {
 			fIsRunning= false;
-			fIsStopped= true;
+			if (fShardStopped)
+				fIsStopped= true;
+			finishArchive();
 
+			fEventBatcher.flush();
 			for (ITestSessionListener listener : fSessionListeners) {
-				listener.sessionTerminated();
+				if (fShardTerminated)
+					listener.sessionTerminated();
+				else if (fShardStopped)
+					listener.sessionStopped(fShardElapsedTime);
+				else
+					listener.sessionEnded(fShardElapsedTime);
+			}
+		}
+
+		/**
+		 * Maps a test id of the shard to the id in the session. The test runner numbers
+		 * the tests of each shard from 1, so numeric ids are interleaved.
+		 *
+		 * @param testId the id sent by the test runner
+		 * @return the id in the session
+		 */
+		private String toSessionId(String testId) {
+			if (fShardCount == 1)
+				return testId;
+			int index= TestElementIndex.toIndex(testId);
+			long sessionIndex= (long) index * fShardCount + fShard;
+			if (index >= 0 && sessionIndex <= Integer.MAX_VALUE)
+				return String.valueOf(sessionIndex);
+			return fShard + ":" + testId; //$NON-NLS-1$
+		}
+
+		private TestElement addTreeEntry(String treeEntry) {
+			// format: testId","testName","isSuite","testcount","isDynamicTest","parentId","displayName","parameterTypes","uniqueId
+			int index0= treeEntry.indexOf(',');
+			String id= toSessionId(treeEntry.substring(0, index0));
+
+			StringBuffer testNameBuffer= new StringBuffer(100);
+			int index1= scanTestName(treeEntry, index0 + 1, testNameBuffer);
+			String testName= testNameBuffer.toString().trim();
+
+			int index2= treeEntry.indexOf(',', index1 + 1);
+			boolean isSuite= "true".equals(treeEntry.substring(index1 + 1, index2)); //$NON-NLS-1$
+
+			int testCount;
+			boolean isDynamicTest;
+			String parentId;
+			String displayName;
+			StringBuffer displayNameBuffer= new StringBuffer(100);
+			String[] parameterTypes;
+			StringBuffer parameterTypesBuffer= new StringBuffer(200);
+			String uniqueId;
+			StringBuffer uniqueIdBuffer= new StringBuffer(200);
+			int index3= treeEntry.indexOf(',', index2 + 1);
+			if (index3 == -1) {
+				testCount= Integer.parseInt(treeEntry.substring(index2 + 1));
+				isDynamicTest= false;
+				parentId= null;
+				displayName= null;
+				parameterTypes= null;
+				uniqueId= null;
+			} else {
+				testCount= Integer.parseInt(treeEntry.substring(index2 + 1, index3));
+
+				int index4= treeEntry.indexOf(',', index3 + 1);
+				isDynamicTest= "true".equals(treeEntry.substring(index3 + 1, index4)); //$NON-NLS-1$
+
+				int index5= treeEntry.indexOf(',', index4 + 1);
+				parentId= treeEntry.substring(index4 + 1, index5);
+				if ("-1".equals(parentId)) { //$NON-NLS-1$
+					parentId= null;
+				} else {
+					parentId= toSessionId(parentId);
+				}
+
+				int index6= scanTestName(treeEntry, index5 + 1, displayNameBuffer);
+				displayName= displayNameBuffer.toString().trim();
+				if (displayName.equals(testName)) {
+					displayName= null;
+				}
+
+				int index7= scanTestName(treeEntry, index6 + 1, parameterTypesBuffer);
+				String parameterTypesString= parameterTypesBuffer.toString().trim();
+				if (parameterTypesString.isEmpty()) {
+					parameterTypes= null;
+				} else {
+					parameterTypes= parameterTypesString.split(","); //$NON-NLS-1$
+					Arrays.parallelSetAll(parameterTypes, i -> parameterTypes[i].trim());
+				}
+
+				scanTestName(treeEntry, index7 + 1, uniqueIdBuffer);
+				uniqueId= uniqueIdBuffer.toString().trim();
+				if (uniqueId.isEmpty()) {
+					uniqueId= null;
+				}
+			}
+
+			TestSuiteElement parent;
+			if (isDynamicTest) {
+				parent= null;
+				if (parentId != null) {
+					for (IncompleteTestSuite suite : fFactoryTestSuites) {
+						if (parentId.equals(suite.fTestSuiteElement.getId())) {
+							parent= suite.fTestSuiteElement;
+							break;
+						}
+					}
+				}
+				if (parent == null)
+					parent= getUnrootedSuite(); // should not reach here
+			} else {
+				if (fIncompleteTestSuites.isEmpty()) {
+					parent= fTestRoot;
+				} else {
+					int suiteIndex= fIncompleteTestSuites.size() - 1;
+					IncompleteTestSuite openSuite= fIncompleteTestSuites.get(suiteIndex);
+					openSuite.fOutstandingChildren--;
+					if (openSuite.fOutstandingChildren <= 0)
+						fIncompleteTestSuites.remove(suiteIndex);
+					parent= openSuite.fTestSuiteElement;
+				}
 			}
+			TestElement testElement= createTestElement(parent, id, testName, isSuite, testCount, isDynamicTest, displayName, parameterTypes, uniqueId);
+			if (isSuite) {
+				if (testCount > 0) {
+					fIncompleteTestSuites.add(new IncompleteTestSuite((TestSuiteElement) testElement, testCount));
+				} else {
+					fFactoryTestSuites.add(new IncompleteTestSuite((TestSuiteElement) testElement, testCount));
+				}
+			}
+			return testElement;
 		}
 
 		@Override
 		public void testTreeEntry(String description) {
 			TestElement testElement= addTreeEntry(description);
 
-			for (ITestSessionListener listener : fSessionListeners) {
-				listener.testAdded(testElement);
-			}
+			fireTestAdded(testElement);
 		}
 
 		private TestElement createUnrootedTestElement(String testId, String testName) {
 			TestSuiteElement unrootedSuite= getUnrootedSuite();
 			TestElement testElement= createTestElement(unrootedSuite, testId, testName, false, 1, false, testName, null, null);
 
-			for (ITestSessionListener listener : fSessionListeners) {
-				listener.testAdded(testElement);
-			}
+			fireTestAdded(testElement);
 
 			return testElement;
 		}
 
 		@Override
 		public void testStarted(String testId, String testName) {
+			testId= toSessionId(testId);
 			if (fStartedCount == 0) {
+				fEventBatcher.flush();
 				for (ITestSessionListener listener : fSessionListeners) {
 					listener.runningBegins();
 				}
@@ -718,12 +898,15 @@ public class TestRunSession implements ITestRunSession {
 			fStartedCount++;
 
 			for (ITestSessionListener listener : fSessionListeners) {
-				listener.testStarted(testCaseElement);
+				if (!(listener instanceof ITestSessionBatchListener))
+					listener.testStarted(testCaseElement);
 			}
+			fEventBatcher.testStarted(testCaseElement);
 		}
 
 		@Override
 		public void testEnded(String testId, String testName) {
+			testId= toSessionId(testId);
 			boolean isIgnored= testName.startsWith(MessageIds.IGNORED_TEST_PREFIX);
 
 			TestElement testElement= getTestElement(testId);
@@ -747,15 +930,19 @@ public class TestRunSession implements ITestRunSession {
 
 			if (testCaseElement.getStatus() == Status.RUNNING)
 				setStatus(testCaseElement, Status.OK);
+			archiveState(testCaseElement);
 
 			for (ITestSessionListener listener : fSessionListeners) {
-				listener.testEnded(testCaseElement);
+				if (!(listener instanceof ITestSessionBatchListener))
+					listener.testEnded(testCaseElement);
 			}
+			fEventBatcher.testEnded(testCaseElement);
 		}
 
 
 		@Override
 		public void testFailed(int statusCode, String testId, String testName, String trace, String expected, String actual) {
+			testId= toSessionId(testId);
 			TestElement testElement= getTestElement(testId);
 			if (testElement == null) {
 				testElement= createUnrootedTestElement(testId, testName);
@@ -771,14 +958,19 @@ public class TestRunSession implements ITestRunSession {
 			}
 
 			registerTestFailureStatus(testElement, status, trace, expected, actual);
+			if (testElement instanceof TestCaseElement)
+				archiveState(testElement);
 
 			for (ITestSessionListener listener : fSessionListeners) {
-				listener.testFailed(testElement, status, trace, expected, actual);
+				if (!(listener instanceof ITestSessionBatchListener))
+					listener.testFailed(testElement, status, trace, expected, actual);
 			}
+			fEventBatcher.testFailed(testElement);
 		}
 
 		@Override
 		public void testReran(String testId, String className, String testName, int statusCode, String trace, String expectedResult, String actualResult) {
+			testId= toSessionId(testId);
 			TestElement testElement= getTestElement(testId);
 			if (testElement == null) {
 				testElement= createUnrootedTestElement(testId, testName);
@@ -790,13 +982,24 @@ public class TestRunSession implements ITestRunSession {
 
 			Status status= Status.convert(statusCode);
 			registerTestFailureStatus(testElement, status, trace, expectedResult, actualResult);
+			archiveState(testElement);
 
+			fEventBatcher.flush();
 			for (ITestSessionListener listener : fSessionListeners) {
 				//TODO: post old & new status?
 				listener.testReran(testCaseElement, status, trace, expectedResult, actualResult);
 			}
 		}
 
+		private void fireTestAdded(TestElement testElement) {
+			archiveElement(testElement);
+			for (ITestSessionListener listener : fSessionListeners) {
+				if (!(listener instanceof ITestSessionBatchListener))
+					listener.testAdded(testElement);
+			}
+			fEventBatcher.testAdded(testElement);
+		}
+
 		private void logUnexpectedTest(String testId, TestElement testElement) {
 			JUnitCorePlugin.log(new Exception("Unexpected TestElement type for testId '" + testId + "': " + testElement)); //$NON-NLS-1$ //$NON-NLS-2$
 		}
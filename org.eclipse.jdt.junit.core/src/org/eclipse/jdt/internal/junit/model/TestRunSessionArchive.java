@@ -0,0 +1,437 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.jdt.internal.junit.model;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import org.eclipse.jdt.junit.model.ITestElement;
+
+import org.eclipse.jdt.internal.junit.JUnitCorePlugin;
+import org.eclipse.jdt.internal.junit.model.TestElement.Status;
+
+/**
+ * Binary archive of the test tree of a {@link TestRunSession}, used to swap a session out of
+ * memory.
+ * <p>
+ * An archive consists of a header and a sequence of records. An element record adds a test
+ * element to its parent, a state record replaces the status, time and failure of an element.
+ * Elements are referenced by their test id. While the tests run, records are appended as tests
+ * are added and end; when the run ends, the states of the suites and of the test cases that
+ * are still running (because the run was stopped) and an end record are written. Swapping out
+ * a finished session therefore only drops the tree.
+ * </p>
+ * <p>
+ * Reading replays the records from a copy of the file in memory. The file is not mapped,
+ * since a mapping can keep it locked until it is garbage collected, and the swap file is
+ * rewritten or deleted while the session lives. Traces and comparison values are copied in
+ * their compressed form and only expanded when they are shown.
+ * </p>
+ * <p>
+ * The format is private to a workbench session. Use
+ * {@link JUnitModel#exportTestRunSession(TestRunSession, File)} to exchange test runs.
+ * </p>
+ */
+final class TestRunSessionArchive {
+
+	private static final int MAGIC= 0x4A555452; // "JUTR"
+	private static final int VERSION= 1;
+
+	private static final byte ELEMENT= 1;
+	private static final byte STATE= 2;
+	private static final byte END= 3;
+
+	// element flags
+	private static final int SUITE= 1;
+	private static final int DYNAMIC_TEST= 2;
+	private static final int SAME_NAME= 4;
+	private static final int SAME_PARAMETER_TYPES= 8;
+	private static final int RELATIVE_UNIQUE_ID= 16;
+
+	// state flags
+	private static final int IGNORED= 1;
+	private static final int ASSUMPTION_FAILED= 2;
+
+	private static final Status[] STATUSES= { Status.OK, Status.ERROR, Status.FAILURE, Status.RUNNING, Status.NOT_RUN,
+			Status.RUNNING_ERROR, Status.RUNNING_FAILURE };
+
+	/**
+	 * The output, or <code>null</code> if the archive has been closed.
+	 */
+	private DataOutputStream fOut;
+
+	/**
+	 * <code>true</code> iff the end record has been written and the tree has not changed since.
+	 */
+	private boolean fComplete;
+
+	/**
+	 * The name and parameter types of the last element record. Parameterized and dynamic tests
+	 * repeat them, so they are only written when they change.
+	 */
+	private String fLastTestName;
+	private String[] fLastParameterTypes;
+
+	private TestRunSessionArchive(File file) throws IOException {
+		fOut= new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 64 * 1024));
+		try {
+			fOut.writeInt(MAGIC);
+			fOut.writeInt(VERSION);
+		} catch (IOException e) {
+			close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Starts an archive that is written while the tests are running.
+	 *
+	 * @param file the archive file
+	 * @return the archive
+	 * @throws IOException if the file cannot be written
+	 */
+	static TestRunSessionArchive start(File file) throws IOException {
+		return new TestRunSessionArchive(file);
+	}
+
+	/**
+	 * Writes a complete archive of a test tree.
+	 *
+	 * @param root the root of the tree
+	 * @param file the archive file
+	 * @return the complete archive
+	 * @throws IOException if the file cannot be written
+	 */
+	static TestRunSessionArchive write(TestRoot root, File file) throws IOException {
+		TestRunSessionArchive archive= new TestRunSessionArchive(file);
+		try {
+			archive.writeElements(root);
+			archive.writeStates(root, false);
+			archive.writeEnd();
+		} finally {
+			archive.close();
+		}
+		return archive;
+	}
+
+	/**
+	 * Appends a test element that has been added to the running session.
+	 *
+	 * @param testElement the new element
+	 */
+	synchronized void elementAdded(TestElement testElement) {
+		if (fOut == null) {
+			fComplete= false;
+			return;
+		}
+		try {
+			writeElement(testElement);
+		} catch (IOException e) {
+			abort(e);
+		}
+	}
+
+	/**
+	 * Appends the state of a test element that has ended, failed, or has been rerun.
+	 *
+	 * @param testElement the changed element
+	 */
+	synchronized void stateChanged(TestElement testElement) {
+		if (fOut == null) {
+			fComplete= false;
+			return;
+		}
+		try {
+			writeState(testElement);
+		} catch (IOException e) {
+			abort(e);
+		}
+	}
+
+	/**
+	 * Writes the states of the suites and of the test cases that have not ended, and completes
+	 * the archive. Changes after this call make the archive incomplete.
+	 *
+	 * @param root the root of the tree
+	 */
+	synchronized void finish(TestRoot root) {
+		if (fOut == null)
+			return;
+		try {
+			writeStates(root, true);
+			writeEnd();
+		} catch (IOException e) {
+			abort(e);
+		} finally {
+			close();
+		}
+	}
+
+	/**
+	 * @return <code>true</code> iff the archive is complete and up to date
+	 */
+	synchronized boolean isComplete() {
+		return fComplete;
+	}
+
+	/**
+	 * Closes the archive without completing it.
+	 */
+	synchronized void close() {
+		if (fOut == null)
+			return;
+		try {
+			fOut.close();
+		} catch (IOException e) {
+			fComplete= false;
+			JUnitCorePlugin.log(e);
+		}
+		fOut= null;
+	}
+
+	private void abort(IOException e) {
+		JUnitCorePlugin.log(e);
+		fComplete= false;
+		close();
+	}
+
+	private void writeElements(TestSuiteElement suite) throws IOException {
+		for (ITestElement child : suite.getChildren()) {
+			TestElement testElement= (TestElement) child;
+			writeElement(testElement);
+			if (testElement instanceof TestSuiteElement)
+				writeElements((TestSuiteElement) testElement);
+		}
+	}
+
+	private void writeElement(TestElement testElement) throws IOException {
+		TestSuiteElement parent= testElement.getParent();
+		String testName= testElement.getTestName();
+		String[] parameterTypes= testElement.getParameterTypes();
+		String uniqueId= testElement.getUniqueId();
+		String parentUniqueId= parent.getUniqueId();
+		int flags= 0;
+		if (testElement instanceof TestSuiteElement)
+			flags|= SUITE;
+		else if (((TestCaseElement) testElement).isDynamicTest())
+			flags|= DYNAMIC_TEST;
+		if (testName.equals(fLastTestName))
+			flags|= SAME_NAME;
+		if (fLastTestName != null && Arrays.equals(parameterTypes, fLastParameterTypes))
+			flags|= SAME_PARAMETER_TYPES;
+		if (uniqueId != null && parentUniqueId != null && uniqueId.length() > parentUniqueId.length() + 1
+				&& uniqueId.charAt(parentUniqueId.length()) == '/' && uniqueId.startsWith(parentUniqueId)) {
+			uniqueId= uniqueId.substring(parentUniqueId.length() + 1);
+			flags|= RELATIVE_UNIQUE_ID;
+		}
+
+		fOut.writeByte(ELEMENT);
+		writeString(fOut, parent instanceof TestRoot ? null : parent.getId());
+		writeString(fOut, testElement.getId());
+		fOut.writeByte(flags);
+		if ((flags & SAME_NAME) == 0)
+			writeString(fOut, testName);
+		writeString(fOut, testElement.getDisplayName());
+		if ((flags & SAME_PARAMETER_TYPES) == 0) {
+			fOut.writeInt(parameterTypes == null ? -1 : parameterTypes.length);
+			if (parameterTypes != null) {
+				for (String parameterType : parameterTypes) {
+					writeString(fOut, parameterType);
+				}
+			}
+		}
+		writeString(fOut, uniqueId);
+		fLastTestName= testName;
+		fLastParameterTypes= parameterTypes;
+	}
+
+	/**
+	 * Writes the states of the descendants of a suite. The state of a suite is written after
+	 * the states of its children, so that reading restores the suite's own status last.
+	 *
+	 * @param suite the suite
+	 * @param suitesOnly <code>true</code> to skip test cases whose state has already been
+	 *   written when they ended
+	 * @throws IOException if writing fails
+	 */
+	private void writeStates(TestSuiteElement suite, boolean suitesOnly) throws IOException {
+		for (ITestElement child : suite.getChildren()) {
+			if (child instanceof TestSuiteElement) {
+				writeStates((TestSuiteElement) child, suitesOnly);
+				writeState((TestElement) child);
+			} else if (!suitesOnly || ((TestElement) child).getStatus().isRunning()) {
+				writeState((TestElement) child);
+			}
+		}
+	}
+
+	private void writeState(TestElement testElement) throws IOException {
+		Status status= testElement instanceof TestSuiteElement
+				? ((TestSuiteElement) testElement).getSuiteStatus()
+				: testElement.getStatus();
+		int flags= 0;
+		if (testElement instanceof TestCaseElement && ((TestCaseElement) testElement).isIgnored())
+			flags|= IGNORED;
+		if (testElement.isAssumptionFailure())
+			flags|= ASSUMPTION_FAILED;
+
+		fOut.writeByte(STATE);
+		writeString(fOut, testElement.getId());
+		fOut.writeByte(indexOf(status));
+		fOut.writeByte(flags);
+		fOut.writeDouble(testElement.getElapsedTimeInSeconds());
+		testElement.writeFailure(fOut);
+	}
+
+	private void writeEnd() throws IOException {
+		fOut.writeByte(END);
+		fOut.flush();
+		fComplete= true;
+	}
+
+	private static int indexOf(Status status) {
+		for (int i= 0; i < STATUSES.length; i++) {
+			if (STATUSES[i] == status)
+				return i;
+		}
+		throw new IllegalArgumentException(status.toString());
+	}
+
+	/**
+	 * Reads a complete archive into a session that has been swapped out.
+	 *
+	 * @param file the archive file
+	 * @param session the session, whose test elements are recreated
+	 * @param root the empty root of the session
+	 * @throws IOException if the file cannot be read, or is not a complete archive
+	 */
+	static void read(File file, TestRunSession session, TestRoot root) throws IOException {
+		try (FileChannel channel= FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			long size= channel.size();
+			if (size > Integer.MAX_VALUE)
+				throw new IOException("Test run archive too large: " + file); //$NON-NLS-1$
+			ByteBuffer in= ByteBuffer.allocate((int) size);
+			while (in.hasRemaining()) {
+				if (channel.read(in) == -1)
+					break;
+			}
+			in.flip();
+			if (in.getInt() != MAGIC || in.getInt() != VERSION)
+				throw new IOException("Not a test run archive: " + file); //$NON-NLS-1$
+			TestElement last= null;
+			while (true) {
+				byte record= in.get();
+				switch (record) {
+				case ELEMENT:
+					last= readElement(in, session, root, last);
+					break;
+				case STATE:
+					readState(in, session);
+					break;
+				case END:
+					return;
+				default:
+					throw new IOException("Corrupt test run archive: " + file); //$NON-NLS-1$
+				}
+			}
+		} catch (BufferUnderflowException e) {
+			throw new IOException("Incomplete test run archive: " + file, e); //$NON-NLS-1$
+		}
+	}
+
+	private static TestElement readElement(ByteBuffer in, TestRunSession session, TestRoot root, TestElement last) throws IOException {
+		String parentId= readString(in);
+		String id= readString(in);
+		int flags= in.get();
+		if (last == null && (flags & (SAME_NAME | SAME_PARAMETER_TYPES)) != 0)
+			throw new IOException("No previous test element: " + id); //$NON-NLS-1$
+		String testName= (flags & SAME_NAME) != 0 ? last.getTestName() : readString(in);
+		String displayName= readString(in);
+		String[] parameterTypes;
+		if ((flags & SAME_PARAMETER_TYPES) != 0) {
+			parameterTypes= last.getParameterTypes();
+		} else {
+			int parameterCount= in.getInt();
+			parameterTypes= null;
+			if (parameterCount >= 0) {
+				parameterTypes= new String[parameterCount];
+				for (int i= 0; i < parameterCount; i++) {
+					parameterTypes[i]= readString(in);
+				}
+			}
+		}
+		String uniqueId= readString(in);
+
+		TestElement parent= parentId == null ? root : session.getTestElement(parentId);
+		if (!(parent instanceof TestSuiteElement))
+			throw new IOException("Unknown parent suite: " + parentId); //$NON-NLS-1$
+		if ((flags & RELATIVE_UNIQUE_ID) != 0)
+			uniqueId= parent.getUniqueId() + '/' + uniqueId;
+		return session.createTestElement((TestSuiteElement) parent, id, testName, (flags & SUITE) != 0, 0, (flags & DYNAMIC_TEST) != 0,
+				displayName, parameterTypes, uniqueId);
+	}
+
+	private static void readState(ByteBuffer in, TestRunSession session) throws IOException {
+		String id= readString(in);
+		TestElement testElement= session.getTestElement(id);
+		if (testElement == null)
+			throw new IOException("Unknown test: " + id); //$NON-NLS-1$
+		int statusIndex= in.get();
+		if (statusIndex < 0 || statusIndex >= STATUSES.length)
+			throw new IOException("Unknown status: " + statusIndex); //$NON-NLS-1$
+		Status status= STATUSES[statusIndex];
+		int flags= in.get();
+		double time= in.getDouble();
+		testElement.readFailure(in);
+
+		if (testElement instanceof TestCaseElement)
+			((TestCaseElement) testElement).setIgnored((flags & IGNORED) != 0);
+		testElement.setAssumptionFailed((flags & ASSUMPTION_FAILED) != 0);
+		if (!status.isNotRun())
+			testElement.setStatus(status);
+		testElement.setElapsedTimeInSeconds(time);
+	}
+
+	static void writeString(DataOutput out, String value) throws IOException {
+		if (value == null) {
+			out.writeInt(-1);
+			return;
+		}
+		byte[] bytes= value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	static String readString(ByteBuffer in) {
+		int length= in.getInt();
+		if (length < 0)
+			return null;
+		if (length > in.remaining())
+			throw new BufferUnderflowException();
+		byte[] bytes= new byte[length];
+		in.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.jdt.internal.junit.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * The test events collected for an {@link ITestSessionBatchListener}.
+ * <p>
+ * The state of the reported elements is already updated when the batch is delivered.
+ * A test that started and ended within the same batch appears in both lists, but only
+ * once in {@link #getChangedTests()}.
+ * </p>
+ */
+public class TestSessionEventBatch {
+
+	private final List<TestElement> fAdded= new ArrayList<>();
+	private final List<TestCaseElement> fStarted= new ArrayList<>();
+	private final List<TestCaseElement> fEnded= new ArrayList<>();
+	private final List<TestElement> fFailed= new ArrayList<>();
+	private final LinkedHashSet<TestElement> fChanged= new LinkedHashSet<>();
+
+	void testAdded(TestElement testElement) {
+		fAdded.add(testElement);
+	}
+
+	void testStarted(TestCaseElement testCaseElement) {
+		fStarted.add(testCaseElement);
+		fChanged.add(testCaseElement);
+	}
+
+	void testEnded(TestCaseElement testCaseElement) {
+		fEnded.add(testCaseElement);
+		fChanged.add(testCaseElement);
+	}
+
+	void testFailed(TestElement testElement) {
+		fFailed.add(testElement);
+		fChanged.add(testElement);
+	}
+
+	/**
+	 * @return the tests that have been added to the plan
+	 */
+	public List<TestElement> getAddedTests() {
+		return Collections.unmodifiableList(fAdded);
+	}
+
+	/**
+	 * @return the tests that have started
+	 */
+	public List<TestCaseElement> getStartedTests() {
+		return Collections.unmodifiableList(fStarted);
+	}
+
+	/**
+	 * @return the tests that have ended
+	 */
+	public List<TestCaseElement> getEndedTests() {
+		return Collections.unmodifiableList(fEnded);
+	}
+
+	/**
+	 * @return the tests that have failed or had an error
+	 */
+	public List<TestElement> getFailedTests() {
+		return Collections.unmodifiableList(fFailed);
+	}
+
+	/**
+	 * @return the tests that have started, ended or failed, each test once
+	 */
+	public Collection<TestElement> getChangedTests() {
+		return Collections.unmodifiableCollection(fChanged);
+	}
+
+	/**
+	 * @return the test that started last, or <code>null</code> if no test started
+	 */
+	public TestCaseElement getLastStartedTest() {
+		return fStarted.isEmpty() ? null : fStarted.get(fStarted.size() - 1);
+	}
+
+	/**
+	 * @return the number of events in this batch
+	 */
+	public int size() {
+		return fAdded.size() + fStarted.size() + fEnded.size() + fFailed.size();
+	}
+}
@@ -0,0 +1,126 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.jdt.internal.junit.model;
+
+import java.util.function.Consumer;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.ListenerList;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+
+/**
+ * Collects the events of individual tests for the {@link ITestSessionBatchListener}s of a
+ * session. A batch is delivered when it reaches the maximal size, when the interval since
+ * its first event has elapsed, or when {@link #flush()} is called.
+ */
+class TestSessionEventBatcher {
+
+	private final ListenerList<ITestSessionListener> fListeners;
+	private final int fMaxBatchSize;
+	private final long fInterval;
+
+	/**
+	 * Serializes the delivery of batches, so that listeners see them in order.
+	 */
+	private final Object fDeliveryLock= new Object();
+
+	/**
+	 * The batch that is being collected, or <code>null</code>. Guarded by <code>this</code>.
+	 */
+	private TestSessionEventBatch fBatch;
+
+	private final Job fDeliveryJob;
+
+	/**
+	 * @param listeners the listeners of the session
+	 * @param interval the maximal time in milliseconds an event is held back
+	 * @param maxBatchSize the number of events after which a batch is delivered immediately
+	 */
+	TestSessionEventBatcher(ListenerList<ITestSessionListener> listeners, long interval, int maxBatchSize) {
+		fListeners= listeners;
+		fInterval= Math.max(0, interval);
+		fMaxBatchSize= Math.max(1, maxBatchSize);
+		fDeliveryJob= new Job(ModelMessages.TestSessionEventBatcher_job_name) {
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				flush();
+				return Status.OK_STATUS;
+			}
+		};
+		fDeliveryJob.setSystem(true);
+	}
+
+	void testAdded(TestElement testElement) {
+		add(batch -> batch.testAdded(testElement));
+	}
+
+	void testStarted(TestCaseElement testCaseElement) {
+		add(batch -> batch.testStarted(testCaseElement));
+	}
+
+	void testEnded(TestCaseElement testCaseElement) {
+		add(batch -> batch.testEnded(testCaseElement));
+	}
+
+	void testFailed(TestElement testElement) {
+		add(batch -> batch.testFailed(testElement));
+	}
+
+	/**
+	 * Delivers the pending batch, if any, in the calling thread.
+	 */
+	void flush() {
+		synchronized (fDeliveryLock) {
+			TestSessionEventBatch batch;
+			synchronized (this) {
+				batch= fBatch;
+				fBatch= null;
+			}
+			if (batch == null)
+				return;
+			for (ITestSessionListener listener : fListeners) {
+				if (listener instanceof ITestSessionBatchListener) {
+					((ITestSessionBatchListener) listener).testsChanged(batch);
+				}
+			}
+		}
+	}
+
+	private void add(Consumer<TestSessionEventBatch> event) {
+		if (!hasBatchListeners())
+			return;
+		boolean full;
+		synchronized (this) {
+			if (fBatch == null) {
+				fBatch= new TestSessionEventBatch();
+				fDeliveryJob.schedule(fInterval);
+			}
+			event.accept(fBatch);
+			full= fBatch.size() >= fMaxBatchSize;
+		}
+		if (full)
+			flush();
+	}
+
+	private boolean hasBatchListeners() {
+		for (ITestSessionListener listener : fListeners) {
+			if (listener instanceof ITestSessionBatchListener)
+				return true;
+		}
+		return false;
+	}
+}
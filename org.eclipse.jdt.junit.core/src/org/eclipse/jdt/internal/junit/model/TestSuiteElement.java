@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2017 IBM Corporation and others.
+ * Copyright (c) 2000, 2024 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -26,11 +26,27 @@ public class TestSuiteElement extends TestElement implements ITestSuiteElement {
 	private List<TestElement> fChildren;
 	private Status fChildrenStatus;
 
+	/**
+	 * The resolved unique ID, or <code>null</code> if not yet computed. The unique IDs of the
+	 * children are stored relative to it.
+	 */
+	private volatile String fResolvedUniqueId;
+
 	public TestSuiteElement(TestSuiteElement parent, String id, String testName, int childrenCount, String displayName, String[] parameterTypes, String uniqueId) {
 		super(parent, id, testName, displayName, parameterTypes, uniqueId);
 		fChildren= new ArrayList<>(childrenCount);
 	}
 
+	@Override
+	public String getUniqueId() {
+		String uniqueId= fResolvedUniqueId;
+		if (uniqueId == null) {
+			uniqueId= super.getUniqueId();
+			fResolvedUniqueId= uniqueId;
+		}
+		return uniqueId;
+	}
+
 	@Override
 	public Result getTestResult(boolean includeChildren) {
 		if (includeChildren) {
@@ -58,6 +74,14 @@ public class TestSuiteElement extends TestElement implements ITestSuiteElement {
 		fChildren.remove(child);
 	}
 
+	/**
+	 * @return the last child, or <code>null</code> if this suite has no children
+	 */
+	TestElement getLastChild() {
+		int size= fChildren.size();
+		return size == 0 ? null : fChildren.get(size - 1);
+	}
+
 	@Override
 	public Status getStatus() {
 		Status suiteStatus= getSuiteStatus();
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2022 IBM Corporation and others.
+ * Copyright (c) 2000, 2024 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -31,6 +31,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.osgi.framework.Bundle;
 import org.osgi.framework.Constants;
@@ -66,6 +67,7 @@ import org.eclipse.jdt.core.JavaModelException;
 
 import org.eclipse.jdt.internal.junit.JUnitCorePlugin;
 import org.eclipse.jdt.internal.junit.JUnitMessages;
+import org.eclipse.jdt.internal.junit.JUnitPreferencesConstants;
 import org.eclipse.jdt.internal.junit.Messages;
 import org.eclipse.jdt.internal.junit.launcher.ITestKind;
 import org.eclipse.jdt.internal.junit.launcher.JUnitLaunchConfigurationConstants;
@@ -95,6 +97,10 @@ public class JUnitLaunchConfigurationDelegate extends AbstractJavaLaunchConfigur
 
 	private boolean fKeepAlive= false;
 	private int fPort;
+	/**
+	 * The ports of the shards of a sharded test run, or <code>null</code>.
+	 */
+	private int[] fShardPorts;
 	private IJavaElement[] fTestElements;
 
 	private static final String DEFAULT= "<default>"; //$NON-NLS-1$
@@ -149,7 +155,15 @@ public class JUnitLaunchConfigurationDelegate extends AbstractJavaLaunchConfigur
 			}
 
 			fKeepAlive= ILaunchManager.DEBUG_MODE.equals(mode) && configuration.getAttribute(JUnitLaunchConfigurationConstants.ATTR_KEEPRUNNING, false);
-			fPort= evaluatePort();
+			fShardPorts= evaluateShardPorts(configuration, mode);
+			if (fShardPorts != null) {
+				fPort= fShardPorts[0];
+				// set before ATTR_PORT, which makes the JUnit model connect to the launch
+				launch.setAttribute(JUnitLaunchConfigurationConstants.ATTR_SHARD_PORTS,
+						Arrays.stream(fShardPorts).mapToObj(String::valueOf).collect(Collectors.joining(","))); //$NON-NLS-1$
+			} else {
+				fPort= evaluatePort();
+			}
 			launch.setAttribute(JUnitLaunchConfigurationConstants.ATTR_PORT, String.valueOf(fPort));
 
 			ITestKind testKind= getTestRunnerKind(configuration);
@@ -283,7 +297,16 @@ public class JUnitLaunchConfigurationDelegate extends AbstractJavaLaunchConfigur
 			monitor.worked(1);
 
 			// Launch the configuration - 1 unit of work
-			runner.run(runConfig, launch, monitor);
+			int[] shardPorts= fShardPorts;
+			if (shardPorts == null) {
+				runner.run(runConfig, launch, monitor);
+			} else {
+				String[] programArguments= runConfig.getProgramArguments();
+				for (int i= 0; i < shardPorts.length && !monitor.isCanceled(); i++) {
+					runConfig.setProgramArguments(getShardArguments(programArguments, i, shardPorts));
+					runner.run(runConfig, launch, monitor);
+				}
+			}
 
 			// check for cancellation
 			if (monitor.isCanceled()) {
@@ -291,6 +314,7 @@ public class JUnitLaunchConfigurationDelegate extends AbstractJavaLaunchConfigur
 			}
 		} finally {
 			fTestElements= null;
+			fShardPorts= null;
 			monitor.done();
 		}
 	}
@@ -303,6 +327,71 @@ public class JUnitLaunchConfigurationDelegate extends AbstractJavaLaunchConfigur
 		return port;
 	}
 
+	/**
+	 * Evaluates the ports of a sharded test run. Only the tests of a container are run in shards,
+	 * and only by JUnit 5 in run mode.
+	 *
+	 * @param configuration the launch configuration
+	 * @param mode the launch mode
+	 * @return the ports of the shards, or <code>null</code> if the tests run in one VM
+	 * @throws CoreException if no free port is available
+	 */
+	private int[] evaluateShardPorts(ILaunchConfiguration configuration, String mode) throws CoreException {
+		int shardCount= configuration.getAttribute(JUnitLaunchConfigurationConstants.ATTR_SHARD_COUNT, 1);
+		if (shardCount == 0)
+			shardCount= Runtime.getRuntime().availableProcessors();
+		if (shardCount <= 1
+				|| fKeepAlive
+				|| !ILaunchManager.RUN_MODE.equals(mode)
+				|| !TestKindRegistry.JUNIT5_TEST_KIND_ID.equals(getTestRunnerKind(configuration).getId())
+				|| configuration.getAttribute(JUnitLaunchConfigurationConstants.ATTR_TEST_CONTAINER, "").isEmpty() //$NON-NLS-1$
+				|| !configuration.getAttribute(JUnitLaunchConfigurationConstants.ATTR_TEST_UNIQUE_ID, "").isEmpty()) { //$NON-NLS-1$
+			return null;
+		}
+		int[] ports= new int[shardCount];
+		for (int i= 0; i < shardCount; i++) {
+			int port;
+			do {
+				port= evaluatePort();
+			} while (contains(ports, i, port));
+			ports[i]= port;
+		}
+		return ports;
+	}
+
+	private static boolean contains(int[] ports, int length, int port) {
+		for (int i= 0; i < length; i++) {
+			if (ports[i] == port)
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the program arguments of one shard of a sharded test run.
+	 *
+	 * @param programArguments the program arguments of the first shard
+	 * @param shard the index of the shard
+	 * @param shardPorts the ports of all shards
+	 * @return the program arguments of the shard
+	 */
+	private static String[] getShardArguments(String[] programArguments, int shard, int[] shardPorts) {
+		String[] arguments= programArguments.clone();
+		for (int i= arguments.length - 2; i >= 0; i--) {
+			if ("-port".equals(arguments[i])) { //$NON-NLS-1$
+				arguments[i + 1]= String.valueOf(shardPorts[shard]);
+				break;
+			}
+		}
+		for (int i= arguments.length - 2; i >= 0; i--) {
+			if ("-shard".equals(arguments[i])) { //$NON-NLS-1$
+				arguments[i + 1]= shard + "/" + shardPorts.length; //$NON-NLS-1$
+				break;
+			}
+		}
+		return arguments;
+	}
+
 	/**
 	 * Performs a check on the launch configuration's attributes. If an attribute contains an invalid value, a {@link CoreException}
 	 * with the error is thrown.
@@ -438,6 +527,14 @@ public class JUnitLaunchConfigurationDelegate extends AbstractJavaLaunchConfigur
 		if (fKeepAlive)
 			programArguments.add(0, "-keepalive"); //$NON-NLS-1$
 
+		if (JUnitPreferencesConstants.getBinaryProtocol())
+			programArguments.add("-binaryprotocol"); //$NON-NLS-1$
+
+		if (fShardPorts != null) {
+			programArguments.add("-shard"); //$NON-NLS-1$
+			programArguments.add("0/" + fShardPorts.length); //$NON-NLS-1$
+		}
+
 		ITestKind testRunnerKind= getTestRunnerKind(configuration);
 
 		programArguments.add("-testLoaderClass"); //$NON-NLS-1$
@@ -496,6 +593,19 @@ public class JUnitLaunchConfigurationDelegate extends AbstractJavaLaunchConfigur
 			programArguments.add(testFailureNames);
 		}
 
+		String testOrder= configuration.getAttribute(JUnitLaunchConfigurationConstants.ATTR_TEST_ORDER, ""); //$NON-NLS-1$
+		if (testOrder.length() > 0 || fShardPorts != null) {
+			String testDurations= JUnitCorePlugin.getTestDurationHistory().createSnapshot();
+			if (testDurations != null) {
+				programArguments.add("-testdurations"); //$NON-NLS-1$
+				programArguments.add(testDurations);
+				if (testOrder.length() > 0) {
+					programArguments.add("-testorder"); //$NON-NLS-1$
+					programArguments.add(testOrder);
+				}
+			}
+		}
+
 		String uniqueId= configuration.getAttribute(JUnitLaunchConfigurationConstants.ATTR_TEST_UNIQUE_ID, ""); //$NON-NLS-1$
 		if (!uniqueId.trim().isEmpty()) {
 			programArguments.add("-uniqueId"); //$NON-NLS-1$
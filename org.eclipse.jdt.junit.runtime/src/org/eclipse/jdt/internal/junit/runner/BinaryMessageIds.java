@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.junit.runner;
+
+/**
+ * Constants of the binary protocol spoken between the RemoteTestRunner and its client
+ * when the runner is started with <code>-binaryprotocol</code>.
+ * <p>
+ * The runner starts the stream with the bytes of {@link MessageIds#BINARY_PROTOCOL}
+ * followed by <code>'\n'</code>. A client that does not see this marker falls back to
+ * the line based text protocol. After the marker, the stream is a sequence of frames:
+ * </p>
+ * <pre>
+ * frame:  int payloadLength, record*
+ * record: byte RECORD_TEXT, string message
+ *       | byte RECORD_TEST, byte kind, int testId, boolean hasName, [string testName]
+ *       | byte RECORD_TREE, int testId, string testName, boolean isSuite, int testCount,
+ *             boolean isDynamicTest, string parentId, string displayName,
+ *             string parameterTypes, string uniqueId
+ * string: int byteLength, UTF-8 bytes
+ * </pre>
+ * <p>
+ * All integers are big-endian. The name of a test is only sent in a {@link #RECORD_TEST}
+ * if it differs from the last name sent for the same test id; the client keeps the last
+ * name per id. Text records carry messages of the text protocol as described in
+ * {@link MessageIds}; a multi-line message such as a stack trace is sent as one record.
+ * </p>
+ *
+ * @see BinaryMessageWriter
+ */
+public class BinaryMessageIds {
+
+	/**
+	 * A message of the text protocol.
+	 */
+	public static final byte RECORD_TEXT= 0;
+	/**
+	 * A test started, ended, failed or had an error.
+	 */
+	public static final byte RECORD_TEST= 1;
+	/**
+	 * An entry of the test tree.
+	 */
+	public static final byte RECORD_TREE= 2;
+
+	/**
+	 * Kind of a {@link #RECORD_TEST}, corresponds to {@link MessageIds#TEST_START}.
+	 */
+	public static final byte TEST_START= 0;
+	/**
+	 * Kind of a {@link #RECORD_TEST}, corresponds to {@link MessageIds#TEST_END}.
+	 */
+	public static final byte TEST_END= 1;
+	/**
+	 * Kind of a {@link #RECORD_TEST}, corresponds to {@link MessageIds#TEST_ERROR}.
+	 */
+	public static final byte TEST_ERROR= 2;
+	/**
+	 * Kind of a {@link #RECORD_TEST}, corresponds to {@link MessageIds#TEST_FAILED}.
+	 */
+	public static final byte TEST_FAILED= 3;
+
+	/**
+	 * Returns the kind of a {@link #RECORD_TEST} for a message id of the text protocol.
+	 *
+	 * @param messageId one of {@link MessageIds#TEST_START}, {@link MessageIds#TEST_END},
+	 *            {@link MessageIds#TEST_ERROR} or {@link MessageIds#TEST_FAILED}
+	 * @return the kind, or <code>-1</code> if the message id does not denote a test message
+	 */
+	public static byte getTestKind(String messageId) {
+		if (MessageIds.TEST_START.equals(messageId))
+			return TEST_START;
+		if (MessageIds.TEST_END.equals(messageId))
+			return TEST_END;
+		if (MessageIds.TEST_ERROR.equals(messageId))
+			return TEST_ERROR;
+		if (MessageIds.TEST_FAILED.equals(messageId))
+			return TEST_FAILED;
+		return -1;
+	}
+
+	private BinaryMessageIds() {
+	}
+}
@@ -0,0 +1,273 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.junit.runner;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Writes the messages of a test run in the binary protocol described in
+ * {@link BinaryMessageIds}.
+ * <p>
+ * Messages are collected in a frame. {@link #flush()} does not write the frame
+ * immediately, but makes sure that it is written within {@link #FLUSH_INTERVAL}
+ * milliseconds. This batches the events of fast tests into few socket writes.
+ * The writer is thread-safe.
+ * </p>
+ */
+public class BinaryMessageWriter implements MessageSender {
+
+	/**
+	 * Maximal time in milliseconds a flushed message stays in the frame buffer.
+	 */
+	public static final int FLUSH_INTERVAL= 20;
+
+	/**
+	 * Size of a frame that is written without waiting for the flush interval.
+	 */
+	private static final int FRAME_THRESHOLD= 64 * 1024;
+
+	private final OutputStream fOut;
+
+	private byte[] fBuffer= new byte[FRAME_THRESHOLD + 1024];
+	private int fCount;
+
+	private String[] fSentNames= new String[1024];
+
+	private boolean fFlushRequested;
+	private boolean fClosed;
+	private IOException fException;
+
+	private final Thread fFlusher;
+
+	/**
+	 * Creates a writer and sends the protocol marker.
+	 *
+	 * @param out the stream to write to
+	 * @throws IOException if the marker cannot be written
+	 */
+	public BinaryMessageWriter(OutputStream out) throws IOException {
+		fOut= out;
+		fOut.write((MessageIds.BINARY_PROTOCOL + '\n').getBytes(StandardCharsets.US_ASCII));
+		fOut.flush();
+		fCount= 4; // reserve the frame length
+		fFlusher= new Thread("BinaryMessageWriter") { //$NON-NLS-1$
+			@Override
+			public void run() {
+				while (flushPending()) {
+					try {
+						Thread.sleep(FLUSH_INTERVAL);
+					} catch (InterruptedException e) {
+						break;
+					}
+				}
+			}
+		};
+		fFlusher.setDaemon(true);
+		fFlusher.start();
+	}
+
+	@Override
+	public synchronized void sendMessage(String msg) {
+		ensureCapacity(1 + 4 + msg.length() * 3);
+		fBuffer[fCount++]= BinaryMessageIds.RECORD_TEXT;
+		writeString(msg);
+		frameWritten();
+	}
+
+	@Override
+	public synchronized void sendTestMessage(String messageId, String testId, String testName) {
+		byte kind= BinaryMessageIds.getTestKind(messageId);
+		int id= parseId(testId);
+		if (kind == -1 || id < 0) {
+			sendMessage(messageId + testId + ',' + RemoteTestRunner.escapeText(testName));
+			return;
+		}
+		String name= RemoteTestRunner.escapeText(testName);
+		boolean sendName= !name.equals(getSentName(id));
+
+		ensureCapacity(1 + 1 + 4 + 1 + (sendName ? 4 + name.length() * 3 : 0));
+		fBuffer[fCount++]= BinaryMessageIds.RECORD_TEST;
+		fBuffer[fCount++]= kind;
+		writeInt(id);
+		fBuffer[fCount++]= (byte) (sendName ? 1 : 0);
+		if (sendName) {
+			writeString(name);
+			setSentName(id, name);
+		}
+		frameWritten();
+	}
+
+	/**
+	 * Sends an entry of the test tree.
+	 *
+	 * @param testId the id of the test
+	 * @param testName the name of the test
+	 * @param isSuite whether the test is a suite
+	 * @param testCount the number of tests
+	 * @param isDynamicTest whether the test is a dynamic test
+	 * @param parentId the id of the parent of a dynamic test or <code>"-1"</code>
+	 * @param displayName the display name of the test
+	 * @param parameterTypes the comma-separated list of parameter types or the empty string
+	 * @param uniqueId the unique id of the test or the empty string
+	 */
+	public synchronized void sendTreeEntry(String testId, String testName, boolean isSuite, int testCount, boolean isDynamicTest,
+			String parentId, String displayName, String parameterTypes, String uniqueId) {
+		int id= parseId(testId);
+		if (id < 0) {
+			sendMessage(MessageIds.TEST_TREE + testId + ',' + RemoteTestRunner.escapeText(testName) + ',' + isSuite + ',' + testCount
+					+ ',' + isDynamicTest + ',' + parentId + ',' + RemoteTestRunner.escapeText(displayName) + ',' + RemoteTestRunner.escapeText(parameterTypes)
+					+ ',' + RemoteTestRunner.escapeText(uniqueId));
+			return;
+		}
+		ensureCapacity(1 + 4 + 1 + 4 + 1 + 5 * 4 + 3 * (testName.length() + parentId.length() + displayName.length() + parameterTypes.length() + uniqueId.length()));
+		fBuffer[fCount++]= BinaryMessageIds.RECORD_TREE;
+		writeInt(id);
+		writeString(testName);
+		fBuffer[fCount++]= (byte) (isSuite ? 1 : 0);
+		writeInt(testCount);
+		fBuffer[fCount++]= (byte) (isDynamicTest ? 1 : 0);
+		writeString(parentId);
+		writeString(displayName);
+		writeString(parameterTypes);
+		writeString(uniqueId);
+		frameWritten();
+	}
+
+	/**
+	 * Requests the current frame to be written within {@link #FLUSH_INTERVAL} milliseconds.
+	 */
+	@Override
+	public synchronized void flush() {
+		fFlushRequested= true;
+	}
+
+	/**
+	 * Writes the pending frame and closes the stream.
+	 */
+	public synchronized void close() {
+		if (fClosed)
+			return;
+		writeFrame();
+		fClosed= true;
+		fFlusher.interrupt();
+		try {
+			fOut.close();
+		} catch (IOException e) {
+			// ignore
+		}
+	}
+
+	/**
+	 * @return the first exception that occurred while writing, or <code>null</code>
+	 */
+	public synchronized IOException getException() {
+		return fException;
+	}
+
+	private synchronized boolean flushPending() {
+		if (fClosed)
+			return false;
+		if (fFlushRequested)
+			writeFrame();
+		return true;
+	}
+
+	private void frameWritten() {
+		if (fCount >= FRAME_THRESHOLD)
+			writeFrame();
+	}
+
+	private void writeFrame() {
+		fFlushRequested= false;
+		int length= fCount - 4;
+		if (length == 0 || fClosed)
+			return;
+		fBuffer[0]= (byte) (length >>> 24);
+		fBuffer[1]= (byte) (length >>> 16);
+		fBuffer[2]= (byte) (length >>> 8);
+		fBuffer[3]= (byte) length;
+		try {
+			fOut.write(fBuffer, 0, fCount);
+			fOut.flush();
+		} catch (IOException e) {
+			if (fException == null)
+				fException= e;
+		}
+		fCount= 4;
+	}
+
+	private void ensureCapacity(int bytes) {
+		if (fCount + bytes > fBuffer.length)
+			fBuffer= Arrays.copyOf(fBuffer, Math.max(fBuffer.length * 2, fCount + bytes));
+	}
+
+	private void writeInt(int value) {
+		fBuffer[fCount++]= (byte) (value >>> 24);
+		fBuffer[fCount++]= (byte) (value >>> 16);
+		fBuffer[fCount++]= (byte) (value >>> 8);
+		fBuffer[fCount++]= (byte) value;
+	}
+
+	/**
+	 * Writes the length and the UTF-8 bytes of a string. ASCII strings are encoded in
+	 * place, other strings through {@link String#getBytes(java.nio.charset.Charset)}.
+	 * The caller ensures a capacity of 4 + 3 * length bytes.
+	 *
+	 * @param s the string to write
+	 */
+	private void writeString(String s) {
+		int length= s.length();
+		int start= fCount + 4;
+		for (int i= 0; i < length; i++) {
+			char c= s.charAt(i);
+			if (c >= 0x80) {
+				byte[] bytes= s.getBytes(StandardCharsets.UTF_8);
+				writeInt(bytes.length);
+				System.arraycopy(bytes, 0, fBuffer, fCount, bytes.length);
+				fCount+= bytes.length;
+				return;
+			}
+			fBuffer[start + i]= (byte) c;
+		}
+		writeInt(length);
+		fCount+= length;
+	}
+
+	private String getSentName(int id) {
+		return id < fSentNames.length ? fSentNames[id] : null;
+	}
+
+	private void setSentName(int id, String name) {
+		if (id >= fSentNames.length)
+			fSentNames= Arrays.copyOf(fSentNames, Math.max(fSentNames.length * 2, id + 1));
+		fSentNames[id]= name;
+	}
+
+	private static int parseId(String testId) {
+		int length= testId.length();
+		if (length == 0 || length > 9)
+			return -1;
+		int id= 0;
+		for (int i= 0; i < length; i++) {
+			char c= testId.charAt(i);
+			if (c < '0' || c > '9')
+				return -1;
+			id= id * 10 + (c - '0');
+		}
+		return id;
+	}
+}
@@ -64,7 +64,7 @@ public class FirstRunExecutionListener implements IListensToTestExecutions {
 	}
 
 	private void sendMessage(ITestIdentifier test, String status) {
-		fSender.sendMessage(status + getTestId(test) + ',' + RemoteTestRunner.escapeText(test.getName()));
+		fSender.sendTestMessage(status, getTestId(test), test.getName());
 	}
 
 }
@@ -133,6 +133,15 @@ public class MessageIds {
 	 */
 	public static final String TEST_RERUN=	">RERUN  "; //$NON-NLS-1$
 
+	/**
+	 * Notification that the remaining stream uses the binary protocol.
+	 * Sent as the first message followed by a single <code>'\n'</code>,
+	 * if the runner was started with <code>-binaryprotocol</code>.
+	 *
+	 * @see BinaryMessageIds
+	 */
+	public static final String BINARY_PROTOCOL= "%BINARY "; //$NON-NLS-1$
+
 	/**
 	 * MessageFormat to encode test method identifiers:
 	 * testMethod(testClass)
@@ -20,6 +20,18 @@ public interface MessageSender {
 
 	void sendMessage(String msg);
 
+	/**
+	 * Sends a message about a single test.
+	 *
+	 * @param messageId one of {@link MessageIds#TEST_START}, {@link MessageIds#TEST_END},
+	 *            {@link MessageIds#TEST_ERROR} or {@link MessageIds#TEST_FAILED}
+	 * @param testId the id of the test
+	 * @param testName the unescaped name of the test
+	 */
+	default void sendTestMessage(String messageId, String testId, String testName) {
+		sendMessage(messageId + testId + ',' + RemoteTestRunner.escapeText(testName));
+	}
+
 	void flush();
 
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2021 IBM Corporation and others.
+ * Copyright (c) 2000, 2024 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,6 +14,7 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.junit.runner;
 
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.File;
@@ -90,6 +91,11 @@ public class RemoteTestRunner implements MessageSender, IVisitsTestTrees {
 	 * Print writer for sending messages
 	 */
 	private PrintWriter fWriter;
+	/**
+	 * Writer for sending messages in the binary protocol, <code>null</code>
+	 * if the text protocol is used
+	 */
+	private BinaryMessageWriter fBinaryWriter;
 	/**
 	 * Reader for incoming messages
 	 */
@@ -106,6 +112,15 @@ public class RemoteTestRunner implements MessageSender, IVisitsTestTrees {
 	 * Is the debug mode enabled?
 	 */
 	private boolean fDebugMode= false;
+	/**
+	 * Has the client requested the binary protocol?
+	 */
+	private boolean fBinaryProtocol= false;
+	/**
+	 * The shard of the tests to run and the number of shards of a sharded test run.
+	 */
+	private int fShardIndex= 0;
+	private int fShardCount= 1;
 	/**
 	 * Keep the test run server alive after a test run has finished.
 	 * This allows to rerun tests.
@@ -130,6 +145,13 @@ public class RemoteTestRunner implements MessageSender, IVisitsTestTrees {
 
 	private String[] fFailureNames;
 
+	/**
+	 * The durations of the tests in previous runs, or <code>null</code>.
+	 */
+	private TestDurations fTestDurations;
+	private String fTestDurationsFile;
+	private String fTestOrder;
+
 	private ITestLoader fLoader;
 
 	private MessageSender fSender;
@@ -201,6 +223,10 @@ public class RemoteTestRunner implements MessageSender, IVisitsTestTrees {
 	 * -host: the host to connect to default local host
 	 * -port: the port to connect to, mandatory argument
 	 * -keepalive: keep the process alive after a test run
+	 * -binaryprotocol: report results with the binary protocol, see BinaryMessageIds
+	 * -shard: the shard of the tests to run (format index/count)
+	 * -testdurations: the name of a file containing the durations of previous runs, see TestDurations
+	 * -testorder: the order of the tests, see TestDurations#ORDER_SHORTEST_FIRST and TestDurations#ORDER_FAIL_FAST
      * </pre>
      */
 	public static void main(String[] args) {
@@ -276,6 +302,12 @@ public class RemoteTestRunner implements MessageSender, IVisitsTestTrees {
 				}
 				i++;
 
+			} else if ("-testdurations".equalsIgnoreCase(args[i])) { //$NON-NLS-1$
+				fTestDurationsFile= args[i+1];
+				i++;
+			} else if ("-testorder".equalsIgnoreCase(args[i])) { //$NON-NLS-1$
+				fTestOrder= args[i+1];
+				i++;
 			} else if ("-testfailures".equalsIgnoreCase(args[i])) { //$NON-NLS-1$
 				String testFailuresFile= args[i+1];
 				try {
@@ -300,6 +332,16 @@ public class RemoteTestRunner implements MessageSender, IVisitsTestTrees {
 			else if("-keepalive".equalsIgnoreCase(args[i])) { //$NON-NLS-1$
 				fKeepAlive= true;
 			}
+			else if("-binaryprotocol".equalsIgnoreCase(args[i])) { //$NON-NLS-1$
+				fBinaryProtocol= true;
+			}
+			else if("-shard".equalsIgnoreCase(args[i])) { //$NON-NLS-1$
+				String shard= args[i+1];
+				int slash= shard.indexOf('/');
+				fShardIndex= Integer.parseInt(shard.substring(0, slash));
+				fShardCount= Integer.parseInt(shard.substring(slash + 1));
+				i++;
+			}
 			else if("-debugging".equalsIgnoreCase(args[i]) || "-debug".equalsIgnoreCase(args[i])){ //$NON-NLS-1$ //$NON-NLS-2$
 			    fDebugMode= true;
 
@@ -341,6 +383,14 @@ public class RemoteTestRunner implements MessageSender, IVisitsTestTrees {
 			}
 		}
 
+		if (fTestDurationsFile != null) {
+			try {
+				fTestDurations= TestDurations.read(fTestDurationsFile, fTestOrder);
+			} catch (IOException e) {
+				throw new IllegalArgumentException("Cannot read testdurations file."); //$NON-NLS-1$
+			}
+		}
+
 		if (getTestLoader() == null)
 			initDefaultLoader();
 
@@ -578,6 +628,11 @@ public class RemoteTestRunner implements MessageSender, IVisitsTestTrees {
 
 	@Override
 	public void visitTreeEntry(ITestIdentifier identifier, boolean hasChildren, int testCount, boolean isDynamicTest, String parentId) {
+		if (fBinaryWriter != null && fSender == this) {
+			fBinaryWriter.sendTreeEntry(getTestId(identifier), identifier.getName(), hasChildren, testCount, isDynamicTest, parentId,
+					identifier.getDisplayName(), identifier.getParameterTypes(), identifier.getUniqueId());
+			return;
+		}
 		String treeEntry= getTestId(identifier) + ',' + escapeText(identifier.getName()) + ',' + hasChildren + ',' + testCount
 				+ ',' + isDynamicTest + ',' + parentId + ',' + escapeText(identifier.getDisplayName()) + ',' + escapeText(identifier.getParameterTypes())
 				+ ',' + escapeText(identifier.getUniqueId());
@@ -648,11 +703,15 @@ public class RemoteTestRunner implements MessageSender, IVisitsTestTrees {
 		for (int i= 1; i < 20; i++) {
 			try{
 				fClientSocket= new Socket(fHost, fPort);
-				try {
-				    fWriter= new PrintWriter(new BufferedWriter(new OutputStreamWriter(fClientSocket.getOutputStream(), "UTF-8")), false/*true*/); //$NON-NLS-1$
-	            } catch (UnsupportedEncodingException e1) {
-	                fWriter= new PrintWriter(new BufferedWriter(new OutputStreamWriter(fClientSocket.getOutputStream())), false/*true*/);
-	            }
+				if (fBinaryProtocol) {
+					fBinaryWriter= new BinaryMessageWriter(new BufferedOutputStream(fClientSocket.getOutputStream(), 64 * 1024));
+				} else {
+					try {
+					    fWriter= new PrintWriter(new BufferedWriter(new OutputStreamWriter(fClientSocket.getOutputStream(), "UTF-8")), false/*true*/); //$NON-NLS-1$
+		            } catch (UnsupportedEncodingException e1) {
+		                fWriter= new PrintWriter(new BufferedWriter(new OutputStreamWriter(fClientSocket.getOutputStream())), false/*true*/);
+		            }
+				}
 				try {
 				    fReader= new BufferedReader(new InputStreamReader(fClientSocket.getInputStream(), "UTF-8")); //$NON-NLS-1$
                 } catch (UnsupportedEncodingException e1) {
@@ -677,6 +736,10 @@ public class RemoteTestRunner implements MessageSender, IVisitsTestTrees {
 	 * Shutsdown the connection to the remote test listener.
 	 */
 	private void shutDown() {
+		if (fBinaryWriter != null) {
+			fBinaryWriter.close();
+			fBinaryWriter= null;
+		}
 		if (fWriter != null) {
 			fWriter.close();
 			fWriter= null;
@@ -710,6 +773,10 @@ public class RemoteTestRunner implements MessageSender, IVisitsTestTrees {
 
 	@Override
 	public void sendMessage(String msg) {
+		if (fBinaryWriter != null) {
+			fBinaryWriter.sendMessage(msg);
+			return;
+		}
 		if(fWriter == null)
 			return;
 		fWriter.println(msg);
@@ -748,8 +815,21 @@ public class RemoteTestRunner implements MessageSender, IVisitsTestTrees {
 		}
 	}
 
+	@Override
+	public void sendTestMessage(String messageId, String testId, String testName) {
+		if (fBinaryWriter != null) {
+			fBinaryWriter.sendTestMessage(messageId, testId, testName);
+			return;
+		}
+		MessageSender.super.sendTestMessage(messageId, testId, testName);
+	}
+
 	@Override
 	public void flush() {
+		if (fBinaryWriter != null) {
+			fBinaryWriter.flush();
+			return;
+		}
 	    fWriter.flush();
 	}
 
@@ -761,6 +841,27 @@ public class RemoteTestRunner implements MessageSender, IVisitsTestTrees {
 		return fLoader;
 	}
 
+	/**
+	 * @return the durations of the tests in previous runs, or <code>null</code> if not available
+	 */
+	public TestDurations getTestDurations() {
+		return fTestDurations;
+	}
+
+	/**
+	 * @return the shard of the tests to run, from <code>0</code> to <code>getShardCount() - 1</code>
+	 */
+	public int getShardIndex() {
+		return fShardIndex;
+	}
+
+	/**
+	 * @return the number of shards the tests of the launch are split into
+	 */
+	public int getShardCount() {
+		return fShardCount;
+	}
+
 	public Class<?> loadClass(String className, RemoteTestRunner listener) {
 		Class<?> clazz= null;
 		try {
@@ -0,0 +1,211 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.junit.runner;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The durations and failure rates of tests in previous runs, as passed with
+ * <code>-testdurations</code>. Used to order tests and to balance the shards of
+ * a sharded test run.
+ * <p>
+ * The file has one line per test:
+ * </p>
+ * <pre>durationMillis TAB runs TAB failures TAB testName</pre>
+ * <p>
+ * where the test name is <code>methodName(className)</code>, and <code>runs</code> and
+ * <code>failures</code> are counts that decay with the age of a run. Lines starting
+ * with <code>#</code> are ignored.
+ * </p>
+ */
+public class TestDurations {
+
+	/**
+	 * Order that runs the shortest tests first.
+	 */
+	public static final String ORDER_SHORTEST_FIRST= "shortestFirst"; //$NON-NLS-1$
+
+	/**
+	 * Order that runs the tests with the highest failure probability per second first.
+	 */
+	public static final String ORDER_FAIL_FAST= "failFast"; //$NON-NLS-1$
+
+	/**
+	 * Lower bound for durations, so that the priority of instant tests stays finite.
+	 */
+	private static final double MIN_DURATION= 1;
+
+	private static class Entry {
+		final double fDuration;
+		final double fFailureProbability;
+
+		Entry(double duration, double runs, double failures) {
+			fDuration= duration;
+			// rule of succession: untested tests have probability 1/2
+			fFailureProbability= (failures + 1) / (runs + 2);
+		}
+	}
+
+	private final String fFileName;
+	private final Map<String, Entry> fTests;
+	private final String fOrder;
+	private final double fMeanDuration;
+
+	/**
+	 * Map from class name to the total duration of its tests, created when first needed.
+	 */
+	private Map<String, Double> fClassDurations;
+
+	private TestDurations(String fileName, Map<String, Entry> tests, String order) {
+		fFileName= fileName;
+		fTests= tests;
+		fOrder= order;
+		double total= 0;
+		for (Entry entry : tests.values()) {
+			total+= entry.fDuration;
+		}
+		fMeanDuration= tests.isEmpty() ? MIN_DURATION : Math.max(total / tests.size(), MIN_DURATION);
+	}
+
+	/**
+	 * Reads a durations file.
+	 *
+	 * @param fileName the file
+	 * @param order {@link #ORDER_SHORTEST_FIRST}, {@link #ORDER_FAIL_FAST}, or <code>null</code>
+	 *        if the tests are not reordered
+	 * @return the durations
+	 * @throws IOException if the file cannot be read
+	 */
+	public static TestDurations read(String fileName, String order) throws IOException {
+		Map<String, Entry> tests= new HashMap<>();
+		try (BufferedReader reader= new BufferedReader(new InputStreamReader(new FileInputStream(fileName), StandardCharsets.UTF_8))) {
+			String line;
+			while ((line= reader.readLine()) != null) {
+				if (line.isEmpty() || line.charAt(0) == '#')
+					continue;
+				int tab1= line.indexOf('\t');
+				int tab2= line.indexOf('\t', tab1 + 1);
+				int tab3= line.indexOf('\t', tab2 + 1);
+				if (tab1 == -1 || tab2 == -1 || tab3 == -1)
+					continue;
+				try {
+					double duration= Double.parseDouble(line.substring(0, tab1));
+					double runs= Double.parseDouble(line.substring(tab1 + 1, tab2));
+					double failures= Double.parseDouble(line.substring(tab2 + 1, tab3));
+					tests.put(line.substring(tab3 + 1), new Entry(duration, runs, failures));
+				} catch (NumberFormatException e) {
+					// skip the line
+				}
+			}
+		}
+		return new TestDurations(fileName, tests, order);
+	}
+
+	/**
+	 * @return the file the durations were read from
+	 */
+	public String getFileName() {
+		return fFileName;
+	}
+
+	/**
+	 * @return {@link #ORDER_SHORTEST_FIRST}, {@link #ORDER_FAIL_FAST}, or <code>null</code>
+	 */
+	public String getOrder() {
+		return fOrder;
+	}
+
+	/**
+	 * @return <code>true</code> iff the tests should be reordered
+	 */
+	public boolean isOrdered() {
+		return fOrder != null;
+	}
+
+	/**
+	 * @param testName the name of a test, <code>methodName(className)</code>
+	 * @return the expected duration in milliseconds, the mean duration of all tests
+	 *         if the test has not run before
+	 */
+	public double getDuration(String testName) {
+		Entry entry= fTests.get(testName);
+		return entry == null ? fMeanDuration : Math.max(entry.fDuration, MIN_DURATION);
+	}
+
+	/**
+	 * @param className the fully qualified name of a test class
+	 * @return the total duration in milliseconds of the tests of the class in previous runs,
+	 *         <code>0</code> if none of them has run before
+	 */
+	public synchronized double getClassDuration(String className) {
+		if (fClassDurations == null) {
+			fClassDurations= new HashMap<>();
+			for (Map.Entry<String, Entry> test : fTests.entrySet()) {
+				String testName= test.getKey();
+				int start= testName.lastIndexOf('(');
+				if (start == -1 || !testName.endsWith(")")) //$NON-NLS-1$
+					continue;
+				fClassDurations.merge(testName.substring(start + 1, testName.length() - 1), Double.valueOf(test.getValue().fDuration), Double::sum);
+			}
+		}
+		Double duration= fClassDurations.get(className);
+		return duration == null ? 0 : duration.doubleValue();
+	}
+
+	/**
+	 * @param testName the name of a test, <code>methodName(className)</code>
+	 * @return the estimated probability that the test fails
+	 */
+	public double getFailureProbability(String testName) {
+		Entry entry= fTests.get(testName);
+		return entry == null ? 0.5 : entry.fFailureProbability;
+	}
+
+	/**
+	 * Returns the priority of a test. Tests with lower priority run first.
+	 *
+	 * @param testName the name of a test, <code>methodName(className)</code>
+	 * @return the priority
+	 */
+	public double getPriority(String testName) {
+		return getPriority(Collections.singleton(testName));
+	}
+
+	/**
+	 * Returns the priority of a group of tests that run together, e.g. the tests of
+	 * a class. Groups with lower priority run first.
+	 *
+	 * @param testNames the names of the tests, <code>methodName(className)</code>
+	 * @return the priority
+	 */
+	public double getPriority(Collection<String> testNames) {
+		double duration= 0;
+		double passProbability= 1;
+		for (String testName : testNames) {
+			duration+= getDuration(testName);
+			passProbability*= 1 - getFailureProbability(testName);
+		}
+		if (ORDER_FAIL_FAST.equals(fOrder))
+			return -(1 - passProbability) / Math.max(duration, MIN_DURATION);
+		return duration;
+	}
+}
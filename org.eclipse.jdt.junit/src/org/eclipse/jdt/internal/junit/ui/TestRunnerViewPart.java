@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2022 IBM Corporation and others.
+ * Copyright (c) 2000, 2024 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -147,11 +147,12 @@ import org.eclipse.jdt.internal.junit.launcher.ITestKind;
 import org.eclipse.jdt.internal.junit.launcher.JUnitLaunchConfigurationConstants;
 import org.eclipse.jdt.internal.junit.launcher.TestKindRegistry;
 import org.eclipse.jdt.internal.junit.model.ITestRunSessionListener;
-import org.eclipse.jdt.internal.junit.model.ITestSessionListener;
+import org.eclipse.jdt.internal.junit.model.ITestSessionBatchListener;
 import org.eclipse.jdt.internal.junit.model.JUnitModel;
 import org.eclipse.jdt.internal.junit.model.TestCaseElement;
 import org.eclipse.jdt.internal.junit.model.TestElement;
 import org.eclipse.jdt.internal.junit.model.TestRunSession;
+import org.eclipse.jdt.internal.junit.model.TestSessionEventBatch;
 
 import org.eclipse.jdt.launching.IJavaLaunchConfigurationConstants;
 
@@ -730,11 +731,17 @@ public class TestRunnerViewPart extends ViewPart {
 		}
 	}
 
-	private class TestSessionListener implements ITestSessionListener {
+	private class TestSessionListener implements ITestSessionBatchListener {
+		/**
+		 * Whether the view has been shown for the first error, if {@link #fShowOnErrorOnly} is set
+		 */
+		private boolean fShownOnError;
+
 		@Override
 		public void sessionStarted(){
 			fTestViewer.registerViewersRefresh();
 			fShowOnErrorOnly= getShowOnErrorOnly();
+			fShownOnError= false;
 
 			startUpdateJobs();
 
@@ -814,26 +821,32 @@ public class TestRunnerViewPart extends ViewPart {
 		}
 
 		@Override
-		public void testStarted(TestCaseElement testCaseElement) {
-			fTestViewer.registerAutoScrollTarget(testCaseElement);
-			fTestViewer.registerViewerUpdate(testCaseElement);
+		public void testsChanged(TestSessionEventBatch batch) {
+			fTestViewer.registerTestsChanged(batch);
 
-			String className= BasicElementLabels.getJavaElementName(testCaseElement.getClassName());
-			String method= BasicElementLabels.getJavaElementName(testCaseElement.getTestMethodName());
-			String status= Messages.format(JUnitMessages.TestRunnerViewPart_message_started, new String[] { className, method });
-			registerInfoMessage(status);
-		}
+			TestCaseElement lastStarted= batch.getLastStartedTest();
+			if (lastStarted != null) {
+				fTestViewer.registerAutoScrollTarget(lastStarted);
 
-		@Override
-		public void testFailed(TestElement testElement, TestElement.Status status, String trace, String expected, String actual) {
+				String className= BasicElementLabels.getJavaElementName(lastStarted.getClassName());
+				String method= BasicElementLabels.getJavaElementName(lastStarted.getTestMethodName());
+				String status= Messages.format(JUnitMessages.TestRunnerViewPart_message_started, new String[] { className, method });
+				registerInfoMessage(status);
+			}
+
+			if (batch.getFailedTests().isEmpty())
+				return;
 			if (isAutoScroll()) {
-				fTestViewer.registerFailedForAutoScroll(testElement);
+				for (TestElement testElement : batch.getFailedTests()) {
+					fTestViewer.registerFailedForAutoScroll(testElement);
+				}
 			}
-			fTestViewer.registerViewerUpdate(testElement);
 
 		    // show the view on the first error only
-		    if (fShowOnErrorOnly && (getErrorsPlusFailures() == 1))
+		    if (fShowOnErrorOnly && !fShownOnError && getErrorsPlusFailures() > 0) {
+		        fShownOnError= true;
 		        postShowTestResultsView();
+		    }
 
 		    //TODO:
 		    // [Bug 35590] JUnit window doesn't report errors from junit.extensions.TestSetup [JUnit]
@@ -845,11 +858,6 @@ public class TestRunnerViewPart extends ViewPart {
 //			}
 		}
 
-		@Override
-		public void testEnded(TestCaseElement testCaseElement){
-			fTestViewer.registerViewerUpdate(testCaseElement);
-		}
-
 		@Override
 		public void testReran(TestCaseElement testCaseElement, TestElement.Status status, String trace, String expectedResult, String actualResult) {
 			fTestViewer.registerViewerUpdate(testCaseElement); //TODO: autoExpand?
@@ -857,11 +865,6 @@ public class TestRunnerViewPart extends ViewPart {
 			showFailure(testCaseElement);
 		}
 
-		@Override
-		public void testAdded(TestElement testElement) {
-			fTestViewer.registerTestAdded(testElement);
-		}
-
 		@Override
 		public boolean acceptsSwapToDisk() {
 			return false;
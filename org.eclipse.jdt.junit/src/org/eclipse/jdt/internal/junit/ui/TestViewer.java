@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2023 IBM Corporation and others.
+ * Copyright (c) 2000, 2024 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -77,6 +77,7 @@ import org.eclipse.jdt.internal.junit.model.TestElement;
 import org.eclipse.jdt.internal.junit.model.TestElement.Status;
 import org.eclipse.jdt.internal.junit.model.TestRoot;
 import org.eclipse.jdt.internal.junit.model.TestRunSession;
+import org.eclipse.jdt.internal.junit.model.TestSessionEventBatch;
 import org.eclipse.jdt.internal.junit.model.TestSuiteElement;
 import org.eclipse.jdt.internal.junit.ui.TestRunnerViewPart.SortingCriterion;
 
@@ -940,6 +941,17 @@ public class TestViewer {
 		fNeedUpdate.add(testElement);
 	}
 
+	/**
+	 * @param batch the added and changed tests
+	 */
+	public synchronized void registerTestsChanged(TestSessionEventBatch batch) {
+		if (!batch.getAddedTests().isEmpty()) {
+			fTreeNeedsRefresh= true;
+			fTableNeedsRefresh= true;
+		}
+		fNeedUpdate.addAll(batch.getChangedTests());
+	}
+
 	private synchronized void clearAutoExpand() {
 		fAutoExpand.clear();
 	}
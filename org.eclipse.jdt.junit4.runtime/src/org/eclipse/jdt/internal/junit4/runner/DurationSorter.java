@@ -0,0 +1,70 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.junit4.runner;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.runner.Description;
+
+import org.eclipse.jdt.internal.junit.runner.TestDurations;
+
+/**
+ * Comparator for descriptions to sort according to the durations and failure rates
+ * of previous runs. The priority of a suite is computed from all its tests.
+ */
+public class DurationSorter implements Comparator<Description> {
+
+	private final TestDurations fDurations;
+
+	private final Map<Description, Double> fPriorities= new HashMap<>();
+
+	/**
+	 * Creates a sorter.
+	 *
+	 * @param durations the durations of previous runs
+	 */
+	public DurationSorter(TestDurations durations) {
+		fDurations= durations;
+	}
+
+	@Override
+	public int compare(Description d1, Description d2) {
+		return Double.compare(getPriority(d1), getPriority(d2));
+	}
+
+	private double getPriority(Description description) {
+		Double priority= fPriorities.get(description);
+		if (priority == null) {
+			List<String> testNames= new ArrayList<>();
+			collectTestNames(description, testNames);
+			priority= Double.valueOf(fDurations.getPriority(testNames));
+			fPriorities.put(description, priority);
+		}
+		return priority.doubleValue();
+	}
+
+	private static void collectTestNames(Description description, List<String> testNames) {
+		if (description.isTest()) {
+			testNames.add(description.getDisplayName());
+		} else {
+			for (Description child : description.getChildren()) {
+				collectTestNames(child, testNames);
+			}
+		}
+	}
+}
@@ -17,6 +17,8 @@ package org.eclipse.jdt.internal.junit4.runner;
 
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 
 import org.junit.runner.Description;
@@ -26,6 +28,7 @@ import org.junit.runner.Runner;
 import org.eclipse.jdt.internal.junit.runner.ITestLoader;
 import org.eclipse.jdt.internal.junit.runner.ITestReference;
 import org.eclipse.jdt.internal.junit.runner.RemoteTestRunner;
+import org.eclipse.jdt.internal.junit.runner.TestDurations;
 import org.eclipse.jdt.internal.junit.runner.junit3.JUnit3TestLoader;
 import org.eclipse.jdt.internal.junit.runner.junit3.JUnit3TestReference;
 
@@ -49,9 +52,18 @@ public class JUnit4TestLoader implements ITestLoader {
 			ITestReference ref= createTest(clazz, testName, failureNames, listener);
 			refs[i]= ref;
 		}
+		sortByDurations(refs, listener.getTestDurations());
 		return refs;
 	}
 
+	private static void sortByDurations(ITestReference[] refs, TestDurations durations) {
+		if (durations == null || !durations.isOrdered())
+			return;
+		DurationSorter sorter= new DurationSorter(durations);
+		Arrays.sort(refs, Comparator.nullsLast(Comparator.comparing(
+				ref -> ref instanceof JUnit4TestReference ? ((JUnit4TestReference) ref).fRoot : Description.EMPTY, sorter)));
+	}
+
 	private Description getRootDescription(Runner runner, DescriptionMatcher matcher) {
 		Description current= runner.getDescription();
 		while (true) {
@@ -71,27 +83,34 @@ public class JUnit4TestLoader implements ITestLoader {
 			return new JUnit3TestReference(test);
 		}
 		if (testName != null) {
-			return createFilteredTest(clazz, testName, failureNames);
+			return createFilteredTest(clazz, testName, failureNames, listener.getTestDurations());
 		}
-		return createUnfilteredTest(clazz, failureNames);
+		return createUnfilteredTest(clazz, failureNames, listener.getTestDurations());
 	}
 
-	private ITestReference createFilteredTest(Class<?> clazz, String testName, String[] failureNames) {
+	private ITestReference createFilteredTest(Class<?> clazz, String testName, String[] failureNames, TestDurations durations) {
 		DescriptionMatcher matcher= DescriptionMatcher.create(clazz, testName);
 		SubForestFilter filter= new SubForestFilter(matcher);
-		Request request= sortByFailures(Request.classWithoutSuiteMethod(clazz).filterWith(filter), failureNames);
+		Request request= sortByFailures(sortByDurations(Request.classWithoutSuiteMethod(clazz).filterWith(filter), durations), failureNames);
 		Runner runner= request.getRunner();
 		Description description= getRootDescription(runner, matcher);
 		return new JUnit4TestReference(runner, description);
 	}
 
-	private ITestReference createUnfilteredTest(Class<?> clazz, String[] failureNames) {
-		Request request= sortByFailures(Request.aClass(clazz), failureNames);
+	private ITestReference createUnfilteredTest(Class<?> clazz, String[] failureNames, TestDurations durations) {
+		Request request= sortByFailures(sortByDurations(Request.aClass(clazz), durations), failureNames);
 		Runner runner= request.getRunner();
 		Description description= runner.getDescription();
 		return new JUnit4TestReference(runner, description);
 	}
 
+	private Request sortByDurations(Request request, TestDurations durations) {
+		if (durations != null && durations.isOrdered()) {
+			return request.sortWith(new DurationSorter(durations));
+		}
+		return request;
+	}
+
 	private Request sortByFailures(Request request, String[] failureNames) {
 		if (failureNames != null) {
 			return request.sortWith(new FailuresFirstSorter(failureNames));
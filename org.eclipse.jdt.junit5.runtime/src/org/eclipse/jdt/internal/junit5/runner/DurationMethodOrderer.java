@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.junit5.runner;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.Comparator;
+import java.util.Optional;
+
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.MethodOrdererContext;
+import org.junit.platform.engine.TestSource;
+import org.junit.platform.engine.support.descriptor.MethodSource;
+
+import org.eclipse.jdt.internal.junit.runner.TestDurations;
+
+/**
+ * Orders the test methods of a class by the durations and failure rates of previous runs.
+ * Failed tests still run first if failure names are configured.
+ */
+public class DurationMethodOrderer implements MethodOrderer {
+
+	private static String fgDurationsKey;
+	private static TestDurations fgDurations;
+
+	@Override
+	public void orderMethods(MethodOrdererContext context) {
+		TestDurations durations= getDurations(context);
+		if (durations != null) {
+			String className= context.getTestClass().getName();
+			context.getMethodDescriptors().sort(Comparator.comparingDouble(d -> durations.getPriority(getTestName(d.getMethod(), className))));
+		}
+		if (context.getConfigurationParameter(JUnit5TestLoader.FAILURE_NAMES).isPresent()) {
+			new FailuresFirstMethodOrderer().orderMethods(context);
+		}
+	}
+
+	/**
+	 * Sets the durations read by the test runner, so that the file is not read again while
+	 * the tests run.
+	 *
+	 * @param durations the durations of the test run
+	 */
+	static synchronized void setDurations(TestDurations durations) {
+		fgDurationsKey= durations.getFileName() + '\n' + durations.getOrder();
+		fgDurations= durations;
+	}
+
+	/**
+	 * Returns the durations of the test run. The file is read once per VM.
+	 *
+	 * @param context the context
+	 * @return the durations, or <code>null</code> if they cannot be read
+	 */
+	private static synchronized TestDurations getDurations(MethodOrdererContext context) {
+		Optional<String> file= context.getConfigurationParameter(JUnit5TestLoader.TEST_DURATIONS);
+		Optional<String> order= context.getConfigurationParameter(JUnit5TestLoader.TEST_ORDER);
+		if (!file.isPresent() || !order.isPresent())
+			return null;
+		String key= file.get() + '\n' + order.get();
+		if (!key.equals(fgDurationsKey)) {
+			try {
+				fgDurations= TestDurations.read(file.get(), order.get());
+			} catch (IOException e) {
+				fgDurations= null;
+			}
+			fgDurationsKey= key;
+		}
+		return fgDurations;
+	}
+
+	private static String getTestName(Method method, String className) {
+		// test names are of form METHOD_NAME(CLASS_NAME), like the failure names
+		return method.getName() + "(" + className + ")"; //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * @param source the source of a test or container
+	 * @return the test name, or <code>null</code> if the source is not a method
+	 */
+	static String getTestName(Optional<TestSource> source) {
+		if (source.isPresent() && source.get() instanceof MethodSource) {
+			MethodSource methodSource= (MethodSource) source.get();
+			return methodSource.getMethodName() + "(" + methodSource.getClassName() + ")"; //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		return null;
+	}
+}
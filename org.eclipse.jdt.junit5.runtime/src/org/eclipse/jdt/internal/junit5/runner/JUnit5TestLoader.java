@@ -14,8 +14,15 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.junit5.runner;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Properties;
 
 import org.junit.platform.engine.Filter;
 import org.junit.platform.engine.discovery.ClassNameFilter;
@@ -29,18 +36,34 @@ import org.junit.platform.launcher.core.LauncherFactory;
 import org.eclipse.jdt.internal.junit.runner.ITestLoader;
 import org.eclipse.jdt.internal.junit.runner.ITestReference;
 import org.eclipse.jdt.internal.junit.runner.RemoteTestRunner;
+import org.eclipse.jdt.internal.junit.runner.TestDurations;
 
 public class JUnit5TestLoader implements ITestLoader {
 
 	public final static String FAILURE_NAMES= "org.eclipse.jdt.junit5.runtime.failureNames"; //$NON-NLS-1$
 
+	public final static String TEST_DURATIONS= "org.eclipse.jdt.junit5.runtime.testDurations"; //$NON-NLS-1$
+
+	public final static String TEST_ORDER= "org.eclipse.jdt.junit5.runtime.testOrder"; //$NON-NLS-1$
+
+	private static final String DEFAULT_METHOD_ORDER= "junit.jupiter.testmethod.order.default"; //$NON-NLS-1$
+
+	private static final String CONFIG_FILE_NAME= "junit-platform.properties"; //$NON-NLS-1$
+
 	private Launcher fLauncher= LauncherFactory.create();
 
 	private RemoteTestRunner fRemoteTestRunner;
 
+	private ShardFilter fShardFilter;
+
+	private Boolean fMethodOrderConfigured;
+
 	@Override
 	public ITestReference[] loadTests(Class<?>[] testClasses, String testName, String[] failureNames, String[] packages, String[][] includeExcludeTags, String uniqueId, RemoteTestRunner listener) {
 		fRemoteTestRunner= listener;
+		if (listener.getShardCount() > 1) {
+			fShardFilter= new ShardFilter(listener.getShardIndex(), listener.getShardCount(), listener.getTestDurations());
+		}
 		ITestReference[] refs= new ITestReference[0];
 		if (uniqueId != null && !uniqueId.trim().isEmpty()) {
 			refs= new ITestReference[1];
@@ -51,14 +74,46 @@ public class JUnit5TestLoader implements ITestLoader {
 				refs[i]= createTest(packages[i], includeExcludeTags);
 			}
 		} else {
+			testClasses= sortForShards(testClasses);
 			refs= new ITestReference[testClasses.length];
 			for (int i= 0; i < testClasses.length; i++) {
 				refs[i]= createTest(testClasses[i], testName, includeExcludeTags, failureNames);
 			}
 		}
+		sortByDurations(refs);
 		return refs;
 	}
 
+	/**
+	 * Sorts the test classes by descending duration if the shards are balanced by duration.
+	 * The {@link ShardFilter} assigns the classes in the order they are discovered, and
+	 * assigning the longest classes first balances the shards best.
+	 *
+	 * @param testClasses the test classes
+	 * @return the classes in the order to discover them
+	 */
+	private Class<?>[] sortForShards(Class<?>[] testClasses) {
+		TestDurations durations= fRemoteTestRunner.getTestDurations();
+		if (fShardFilter == null || durations == null || testClasses.length < 2)
+			return testClasses;
+		Class<?>[] sorted= testClasses.clone();
+		// stable sort keeps the order of the launch for equal durations
+		Arrays.sort(sorted, Comparator.nullsLast(Comparator.comparingDouble((Class<?> clazz) -> durations.getClassDuration(clazz.getName())).reversed()));
+		return sorted;
+	}
+
+	private void sortByDurations(ITestReference[] refs) {
+		TestDurations durations= fRemoteTestRunner.getTestDurations();
+		if (durations == null || !durations.isOrdered() || refs.length < 2)
+			return;
+		Map<ITestReference, Double> priorities= new IdentityHashMap<>();
+		for (ITestReference ref : refs) {
+			if (ref instanceof JUnit5TestReference)
+				priorities.put(ref, Double.valueOf(durations.getPriority(((JUnit5TestReference) ref).getTestNames())));
+		}
+		Arrays.sort(refs, Comparator.nullsLast(Comparator.comparing(ref -> priorities.getOrDefault(ref, Double.valueOf(0)))));
+	}
+
 	private ITestReference createTest(Class<?> clazz, String testName, String[][] includeExcludeTags, String[] failureNames) {
 		if (clazz == null) {
 			return null;
@@ -70,20 +125,22 @@ public class JUnit5TestLoader implements ITestLoader {
 	}
 
 	private ITestReference createFilteredTest(Class<?> clazz, String testName, String[][] includeExcludeTags) {
-		LauncherDiscoveryRequest request= LauncherDiscoveryRequestBuilder.request().selectors(DiscoverySelectors.selectMethod(clazz.getName() + "#" + testName)).filters(getTagFilters(includeExcludeTags)).build(); //$NON-NLS-1$
+		LauncherDiscoveryRequest request= LauncherDiscoveryRequestBuilder.request().selectors(DiscoverySelectors.selectMethod(clazz.getName() + "#" + testName)).filters(getFilters(includeExcludeTags)).build(); //$NON-NLS-1$
 		return new JUnit5TestReference(request, fLauncher, fRemoteTestRunner);
 	}
 
 	private ITestReference createUnfilteredTest(Class<?> clazz, String[][] includeExcludeTags, String[] failureNames) {
-		LauncherDiscoveryRequestBuilder requestBuilder= LauncherDiscoveryRequestBuilder.request().selectors(DiscoverySelectors.selectClass(clazz)).filters(getTagFilters(includeExcludeTags));
+		LauncherDiscoveryRequestBuilder requestBuilder= LauncherDiscoveryRequestBuilder.request().selectors(DiscoverySelectors.selectClass(clazz)).filters(getFilters(includeExcludeTags));
 		if (failureNames != null && failureNames.length > 0) {
 			String failureNamesString= ""; //$NON-NLS-1$
 			for (String failureName : failureNames) {
 				failureNamesString += failureName + ";"; //$NON-NLS-1$
 			}
 			requestBuilder.configurationParameter(FAILURE_NAMES, failureNamesString);
-			requestBuilder.configurationParameter("junit.jupiter.testmethod.order.default", FailuresFirstMethodOrderer.class.getName()); //$NON-NLS-1$
+			if (!isMethodOrderConfigured())
+				requestBuilder.configurationParameter(DEFAULT_METHOD_ORDER, FailuresFirstMethodOrderer.class.getName());
 		}
+		configureDurationOrder(requestBuilder);
 		LauncherDiscoveryRequest request= requestBuilder.build();
 		return new JUnit5TestReference(request, fLauncher, fRemoteTestRunner);
 	}
@@ -99,30 +156,79 @@ public class JUnit5TestLoader implements ITestLoader {
 		} else {
 			pattern= "^" + pkg + "\\.[^.]+$"; //$NON-NLS-1$//$NON-NLS-2$
 		}
-		LauncherDiscoveryRequest request= LauncherDiscoveryRequestBuilder.request()
+		LauncherDiscoveryRequestBuilder requestBuilder= LauncherDiscoveryRequestBuilder.request()
 				.selectors(DiscoverySelectors.selectPackage(pkg))
 				.filters(ClassNameFilter.includeClassNamePatterns(pattern))
-				.filters(getTagFilters(includeExcludeTags))
-				.build();
+				.filters(getFilters(includeExcludeTags));
+		configureDurationOrder(requestBuilder);
+		LauncherDiscoveryRequest request= requestBuilder.build();
 
 		return new JUnit5TestReference(request, fLauncher, fRemoteTestRunner);
 	}
 
 	private ITestReference createUniqueIdTest(String uniqueId, String[][] includeExcludeTags) {
-		LauncherDiscoveryRequest request= LauncherDiscoveryRequestBuilder.request().selectors(DiscoverySelectors.selectUniqueId(uniqueId)).filters(getTagFilters(includeExcludeTags)).build();
+		LauncherDiscoveryRequest request= LauncherDiscoveryRequestBuilder.request().selectors(DiscoverySelectors.selectUniqueId(uniqueId)).filters(getFilters(includeExcludeTags)).build();
 		return new JUnit5TestReference(request, fLauncher, fRemoteTestRunner);
 	}
 
-	private Filter<?>[] getTagFilters(String[][] includeExcludeTags) {
+	/**
+	 * Orders the test methods by the durations of previous runs if requested and if the
+	 * project does not configure a default method order.
+	 *
+	 * @param requestBuilder the request to configure
+	 */
+	private void configureDurationOrder(LauncherDiscoveryRequestBuilder requestBuilder) {
+		TestDurations durations= fRemoteTestRunner.getTestDurations();
+		if (durations != null && durations.isOrdered() && !isMethodOrderConfigured()) {
+			DurationMethodOrderer.setDurations(durations);
+			requestBuilder.configurationParameter(TEST_DURATIONS, durations.getFileName());
+			requestBuilder.configurationParameter(TEST_ORDER, durations.getOrder());
+			requestBuilder.configurationParameter(DEFAULT_METHOD_ORDER, DurationMethodOrderer.class.getName());
+		}
+	}
+
+	/**
+	 * Returns whether the default method order is configured by a system property or in the
+	 * JUnit Platform configuration file. The configuration parameters of a request would
+	 * override it.
+	 *
+	 * @return <code>true</code> iff the default method order is configured
+	 */
+	private boolean isMethodOrderConfigured() {
+		if (fMethodOrderConfigured == null) {
+			boolean configured= System.getProperty(DEFAULT_METHOD_ORDER) != null;
+			ClassLoader loader= Thread.currentThread().getContextClassLoader();
+			if (loader == null)
+				loader= JUnit5TestLoader.class.getClassLoader();
+			if (!configured && loader != null) {
+				try (InputStream stream= loader.getResourceAsStream(CONFIG_FILE_NAME)) {
+					if (stream != null) {
+						Properties properties= new Properties();
+						properties.load(stream);
+						configured= properties.getProperty(DEFAULT_METHOD_ORDER) != null;
+					}
+				} catch (IOException e) {
+					// the platform will not read the file either
+				}
+			}
+			fMethodOrderConfigured= Boolean.valueOf(configured);
+		}
+		return fMethodOrderConfigured.booleanValue();
+	}
+
+	private Filter<?>[] getFilters(String[][] includeExcludeTags) {
 		String[] includeTags= includeExcludeTags[0];
 		String[] excludeTags= includeExcludeTags[1];
-		List<Filter<?>> tagFilters= new ArrayList<>();
+		List<Filter<?>> filters= new ArrayList<>();
 		if (includeTags != null) {
-			tagFilters.add(TagFilter.includeTags(includeTags));
+			filters.add(TagFilter.includeTags(includeTags));
 		}
 		if (excludeTags != null) {
-			tagFilters.add(TagFilter.excludeTags(excludeTags));
+			filters.add(TagFilter.excludeTags(excludeTags));
+		}
+		if (fShardFilter != null) {
+			filters.add(fShardFilter);
 		}
-		return tagFilters.toArray(new Filter[tagFilters.size()]);
+		return filters.toArray(new Filter[filters.size()]);
 	}
 }
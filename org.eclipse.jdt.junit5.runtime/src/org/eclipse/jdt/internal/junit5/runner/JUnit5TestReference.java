@@ -14,6 +14,8 @@
 
 package org.eclipse.jdt.internal.junit5.runner;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -52,6 +54,23 @@ public class JUnit5TestReference implements ITestReference {
 		return (int) fTestPlan.countTestIdentifiers(TestIdentifier::isTest);
 	}
 
+	/**
+	 * @return the names of the test methods and templates, <code>methodName(className)</code>
+	 */
+	List<String> getTestNames() {
+		List<String> testNames= new ArrayList<>();
+		for (TestIdentifier root : fTestPlan.getRoots()) {
+			for (TestIdentifier descendant : fTestPlan.getDescendants(root)) {
+				if (fTestPlan.getChildren(descendant).isEmpty()) {
+					String testName= DurationMethodOrderer.getTestName(descendant.getSource());
+					if (testName != null)
+						testNames.add(testName);
+				}
+			}
+		}
+		return testNames;
+	}
+
 	@Override
 	public void sendTree(IVisitsTestTrees notified) {
 		for (TestIdentifier root : fTestPlan.getRoots()) {
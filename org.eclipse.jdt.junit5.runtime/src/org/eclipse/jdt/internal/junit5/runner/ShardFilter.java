@@ -0,0 +1,148 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.junit5.runner;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.platform.engine.FilterResult;
+import org.junit.platform.engine.TestDescriptor;
+import org.junit.platform.engine.UniqueId;
+import org.junit.platform.launcher.PostDiscoveryFilter;
+
+import org.eclipse.jdt.internal.junit.runner.TestDurations;
+
+/**
+ * Keeps the tests of one shard of a sharded test run.
+ * <p>
+ * The top-level containers of each engine, usually the test classes, are sorted by their
+ * unique id and dealt out to the shards in turn. If the durations of previous runs are
+ * known, each container instead goes to the shard with the least expected run time,
+ * starting with the longest container. For this to balance the shards, the test classes
+ * are discovered in the order of descending duration, see
+ * {@link TestDurations#getClassDuration(String)}. All runtimes of a launch discover the same
+ * containers in the same order, so every container runs in exactly one shard.
+ * </p>
+ * <p>
+ * A container is assigned when it is first discovered and keeps its shard, identified by its
+ * unique id, when the same tests are discovered again, e.g. by an older launcher that
+ * discovers the tests again to execute them.
+ * </p>
+ */
+class ShardFilter implements PostDiscoveryFilter {
+
+	private final int fShardIndex;
+	private final int fShardCount;
+	private final TestDurations fDurations;
+
+	/**
+	 * Expected run time of the shards, in milliseconds.
+	 */
+	private final double[] fShardDurations;
+
+	/**
+	 * Map from the unique id of a top-level container to its shard.
+	 */
+	private final Map<UniqueId, Integer> fShards= new HashMap<>();
+
+	private int fNextShard;
+
+	/**
+	 * The engine root whose containers have been assigned last. Filtering the descendants of
+	 * a root does not need to look at its containers again.
+	 */
+	private TestDescriptor fLastRoot;
+
+	/**
+	 * @param shardIndex the shard to keep
+	 * @param shardCount the number of shards
+	 * @param durations the durations of previous runs, or <code>null</code>
+	 */
+	public ShardFilter(int shardIndex, int shardCount, TestDurations durations) {
+		fShardIndex= shardIndex;
+		fShardCount= shardCount;
+		fDurations= durations;
+		fShardDurations= new double[shardCount];
+	}
+
+	@Override
+	public FilterResult apply(TestDescriptor descriptor) {
+		TestDescriptor container= descriptor;
+		Optional<TestDescriptor> parent= container.getParent();
+		if (!parent.isPresent())
+			return FilterResult.included("engine"); //$NON-NLS-1$
+		while (parent.get().getParent().isPresent()) {
+			container= parent.get();
+			parent= container.getParent();
+		}
+		assign(parent.get());
+		Integer shard= fShards.get(container.getUniqueId());
+		if (shard == null || shard.intValue() == fShardIndex)
+			return FilterResult.included("in shard"); //$NON-NLS-1$
+		return FilterResult.excluded("in shard " + shard); //$NON-NLS-1$
+	}
+
+	private void assign(TestDescriptor root) {
+		if (root == fLastRoot)
+			return;
+		fLastRoot= root;
+		List<TestDescriptor> containers= new ArrayList<>();
+		for (TestDescriptor container : root.getChildren()) {
+			if (!fShards.containsKey(container.getUniqueId()))
+				containers.add(container);
+		}
+		if (containers.isEmpty())
+			return;
+		containers.sort(Comparator.comparing(container -> container.getUniqueId().toString()));
+		if (fDurations == null) {
+			for (TestDescriptor container : containers) {
+				fShards.put(container.getUniqueId(), Integer.valueOf(fNextShard));
+				fNextShard= (fNextShard + 1) % fShardCount;
+			}
+			return;
+		}
+		Map<TestDescriptor, Double> durations= new IdentityHashMap<>();
+		for (TestDescriptor container : containers) {
+			durations.put(container, Double.valueOf(getDuration(container)));
+		}
+		// stable sort keeps the unique id order for equal durations
+		containers.sort(Comparator.comparing((TestDescriptor container) -> durations.get(container)).reversed());
+		for (TestDescriptor container : containers) {
+			int shard= 0;
+			for (int i= 1; i < fShardCount; i++) {
+				if (fShardDurations[i] < fShardDurations[shard])
+					shard= i;
+			}
+			fShardDurations[shard]+= durations.get(container).doubleValue();
+			fShards.put(container.getUniqueId(), Integer.valueOf(shard));
+		}
+	}
+
+	private double getDuration(TestDescriptor container) {
+		double duration= 0;
+		for (TestDescriptor descendant : container.getDescendants()) {
+			if (descendant.getChildren().isEmpty()) {
+				String testName= DurationMethodOrderer.getTestName(descendant.getSource());
+				if (testName != null)
+					duration+= fDurations.getDuration(testName);
+			}
+		}
+		return duration;
+	}
+}
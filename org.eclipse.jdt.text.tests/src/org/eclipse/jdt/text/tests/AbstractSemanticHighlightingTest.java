@@ -151,6 +151,22 @@ public class AbstractSemanticHighlightingTest {
 		EditorTestHelper.runEventQueue(100);
 	}
 
+	protected IDocument getDocument() {
+		return fSourceViewer.getDocument();
+	}
+
+	/**
+	 * Waits until the changes of the document are reconciled.
+	 *
+	 * @param force <code>true</code> to reconcile the whole document
+	 */
+	protected void reconcile(boolean force) {
+		if (force)
+			EditorTestHelper.forceReconcile(fSourceViewer);
+		assertTrue(EditorTestHelper.joinReconciler(fSourceViewer, 0, 10000, 100));
+		EditorTestHelper.runEventQueue(100);
+	}
+
 	private void enableSemanticHighlighting(String preferenceKey) {
 		IPreferenceStore store= JavaPlugin.getDefault().getPreferenceStore();
 		store.setValue(getEnabledPreferenceKey(preferenceKey), true);
@@ -15,6 +15,8 @@
  *******************************************************************************/
 package org.eclipse.jdt.text.tests;
 
+import static org.junit.Assert.assertTrue;
+
 import org.junit.Rule;
 import org.junit.Test;
 
@@ -325,4 +327,26 @@ public class SemanticHighlightingTest extends AbstractSemanticHighlightingTest {
 		};
 		assertEqualPositions(expected, actual);
 	}
+
+	@Test
+	public void incrementalReconcile() throws Exception {
+		setUpSemanticHighlighting(SemanticHighlightings.LOCAL_VARIABLE_DECLARATION);
+		setUpSemanticHighlighting(SemanticHighlightings.LOCAL_VARIABLE);
+
+		// a change inside a method body only reconciles the body
+		getDocument().replace(createPosition(9, 2, 0).getOffset(), 0, "int local3= local;\n\t\t");
+		reconcile(false);
+		Position[] actual= getSemanticHighlightingPositions();
+
+		reconcile(true);
+		Position[] expected= getSemanticHighlightingPositions();
+		assertEqualPositions(expected, actual);
+
+		Position local3= createPosition(9, 6, 6);
+		boolean found= false;
+		for (Position position : actual) {
+			found|= position.getOffset() == local3.getOffset() && position.getLength() == local3.getLength();
+		}
+		assertTrue(found);
+	}
 }
@@ -14,9 +14,14 @@ package org.eclipse.jdt.text.tests.contentassist;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import org.junit.After;
@@ -45,6 +50,7 @@ import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.IPackageFragment;
 import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.IType;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.manipulation.JavaManipulation;
 
@@ -53,6 +59,11 @@ import org.eclipse.jdt.ui.tests.core.rules.ProjectTestSetup;
 import org.eclipse.jdt.ui.text.java.JavaContentAssistInvocationContext;
 
 import org.eclipse.jdt.internal.ui.javaeditor.EditorUtility;
+import org.eclipse.jdt.internal.ui.text.Chain;
+import org.eclipse.jdt.internal.ui.text.ChainCache;
+import org.eclipse.jdt.internal.ui.text.ChainElement;
+import org.eclipse.jdt.internal.ui.text.ChainFinder;
+import org.eclipse.jdt.internal.ui.text.ChainType;
 import org.eclipse.jdt.internal.ui.text.java.ChainCompletionProposalComputer;
 
 public class ChainCompletionTest {
@@ -692,6 +703,93 @@ public class ChainCompletionTest {
 		assertEquals(expectedContent,doc.get());
 	}
 
+	@Test
+	public void testCacheIsDroppedOnStructuralChange() throws Exception {
+		ICompilationUnit cu= pkg.createCompilationUnit("Foo.java", "package test;\npublic class Foo {\n  void foo() {\n  }\n}\n", false, null);
+		IType type= cu.getType("Foo");
+		ChainCache cache= ChainCache.get(fJProject);
+		cache.putType("Ltest/Foo;", type);
+		assertSame(cache, ChainCache.get(fJProject));
+
+		// an edit inside a method body keeps the cache
+		ICompilationUnit workingCopy= cu.getWorkingCopy(null);
+		try {
+			String source= workingCopy.getSource();
+			workingCopy.getBuffer().replace(source.indexOf("  }"), 0, "    int i= 0;\n");
+			workingCopy.reconcile(ICompilationUnit.NO_AST, false, null, null);
+			assertSame(cache, ChainCache.get(fJProject));
+			assertSame(type, ChainCache.get(fJProject).getType("Ltest/Foo;"));
+
+			// a new member drops it
+			source= workingCopy.getSource();
+			workingCopy.getBuffer().replace(source.lastIndexOf('}'), 0, "  int bar;\n");
+			workingCopy.reconcile(ICompilationUnit.NO_AST, false, null, null);
+			assertNotSame(cache, ChainCache.get(fJProject));
+			assertNull(ChainCache.get(fJProject).getType("Ltest/Foo;"));
+		} finally {
+			workingCopy.discardWorkingCopy();
+		}
+
+		// so does a new compilation unit
+		cache= ChainCache.get(fJProject);
+		pkg.createCompilationUnit("Bar.java", "package test;\npublic class Bar {\n}\n", false, null);
+		assertNotSame(cache, ChainCache.get(fJProject));
+	}
+
+	@Test
+	public void testParallelSearchFindsSameChains() throws Exception {
+		int typeCount= 12;
+		pkg.createCompilationUnit("Target.java", "package test;\npublic class Target {\n}\n", false, null);
+		for (int i= 0; i < typeCount; i++) {
+			StringBuilder buf= new StringBuilder();
+			buf.append("package test;\n");
+			buf.append("public class N").append(i).append(" {\n");
+			for (int step : new int[] { 1, 5 }) {
+				int next= (i + step) % typeCount;
+				buf.append("  public N").append(next).append(" field").append(step).append(";\n");
+				buf.append("  public N").append(next).append(" get").append(step).append("() { return null; }\n");
+			}
+			if (i % 4 == 3) {
+				buf.append("  public Target target() { return null; }\n");
+			}
+			buf.append("}\n");
+			pkg.createCompilationUnit("N" + i + ".java", buf.toString(), false, null);
+		}
+		IType receiverType= pkg.createCompilationUnit("Completion.java", "package test;\npublic class Completion {\n  N0 root;\n}\n", false, null).getType("Completion");
+		List<ChainElement> entrypoints= Collections.singletonList(new ChainElement(receiverType.getField("root"), false));
+		List<ChainType> expectedTypes= Collections.singletonList(new ChainType(fJProject.findType("test.Target")));
+		List<String> excludedTypes= Collections.singletonList("java.lang.Object");
+
+		ChainCache.invalidateAll();
+		ChainFinder sequential= new ChainFinder(expectedTypes, excludedTypes, receiverType);
+		sequential.setParallel(false);
+		sequential.startChainSearch(entrypoints, 1000, 2, 5);
+		List<String> expected= toStrings(sequential.getChains());
+		assertFalse(expected.isEmpty());
+
+		// with empty and with filled caches
+		ChainCache.invalidateAll();
+		for (int i= 0; i < 2; i++) {
+			ChainFinder parallel= new ChainFinder(expectedTypes, excludedTypes, receiverType);
+			parallel.startChainSearch(entrypoints, 1000, 2, 5);
+			assertEquals(expected, toStrings(parallel.getChains()));
+		}
+
+		// the search stops at the same chain
+		int maxChains= Math.min(3, expected.size());
+		ChainFinder limited= new ChainFinder(expectedTypes, excludedTypes, receiverType);
+		limited.startChainSearch(entrypoints, maxChains, 2, 5);
+		assertEquals(expected.subList(0, maxChains), toStrings(limited.getChains()));
+	}
+
+	private static List<String> toStrings(List<Chain> chains) {
+		List<String> result= new ArrayList<>();
+		for (Chain chain : chains) {
+			result.add(chain.getElements().toString());
+		}
+		return result;
+	}
+
 	private ICompilationUnit getCompilationUnit(IPackageFragment pack, StringBuffer buf, String name) throws JavaModelException {
 		return pack.createCompilationUnit(name, buf.toString().replace("$", ""), false, null);
 	}
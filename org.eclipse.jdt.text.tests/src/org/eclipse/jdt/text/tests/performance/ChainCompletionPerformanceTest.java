@@ -0,0 +1,144 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.text.tests.performance;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.jdt.testplugin.JavaProjectHelper;
+import org.eclipse.test.performance.Dimension;
+import org.eclipse.test.performance.PerformanceMeter;
+
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.IType;
+
+import org.eclipse.jdt.internal.ui.text.ChainCache;
+import org.eclipse.jdt.internal.ui.text.ChainElement;
+import org.eclipse.jdt.internal.ui.text.ChainFinder;
+import org.eclipse.jdt.internal.ui.text.ChainType;
+
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Measures the chain completion search on a generated graph of types, with empty
+ * and with filled {@link ChainCache caches}.
+ */
+public class ChainCompletionPerformanceTest extends TextPerformanceTestCase {
+
+	private static final String PROJECT= "ChainProject";
+
+	private static final String PACKAGE= "test1";
+
+	private static final Class<ChainCompletionPerformanceTest> THIS= ChainCompletionPerformanceTest.class;
+
+	/**
+	 * The number of generated types. Each type has members of three other types.
+	 */
+	private static final int TYPE_COUNT= 60;
+
+	private static final int WARM_UP_RUNS= 3;
+
+	private static final int MEASURED_RUNS= 10;
+
+	private static final int MAX_CHAINS= 1000;
+
+	private static final int MIN_DEPTH= 2;
+
+	private static final int MAX_DEPTH= 5;
+
+	public static Test suite() {
+		return new TestSuite(THIS);
+	}
+
+	private IJavaProject fJProject;
+
+	private IType fReceiverType;
+
+	private IType fTargetType;
+
+	public ChainCompletionPerformanceTest(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		fJProject= JavaProjectHelper.createJavaProject(PROJECT, "bin");
+		JavaProjectHelper.addRTJar(fJProject);
+		IPackageFragmentRoot root= JavaProjectHelper.addSourceContainer(fJProject, "src");
+		IPackageFragment fragment= root.createPackageFragment(PACKAGE, false, null);
+
+		fragment.createCompilationUnit("Target.java", "package test1;\npublic class Target {\n}\n", false, null);
+		for (int i= 0; i < TYPE_COUNT; i++) {
+			StringBuilder buf= new StringBuilder();
+			buf.append("package test1;\n");
+			buf.append("public class N").append(i).append(" {\n");
+			for (int step : new int[] { 1, 7, 13 }) {
+				int next= (i + step) % TYPE_COUNT;
+				buf.append("    public N").append(next).append(" field").append(step).append(";\n");
+				buf.append("    public N").append(next).append(" get").append(step).append("() { return null; }\n");
+			}
+			if (i % 10 == 9) {
+				buf.append("    public Target target() { return null; }\n");
+			}
+			buf.append("}\n");
+			fragment.createCompilationUnit("N" + i + ".java", buf.toString(), false, null);
+		}
+		fReceiverType= fragment.createCompilationUnit("Completion.java",
+				"package test1;\npublic class Completion {\n    N0 root;\n}\n", false, null).getType("Completion");
+		fTargetType= fJProject.findType(PACKAGE + ".Target");
+
+		setWarmUpRuns(WARM_UP_RUNS);
+		setMeasuredRuns(MEASURED_RUNS);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		JavaProjectHelper.delete(fJProject);
+		super.tearDown();
+	}
+
+	public void testColdSearch() throws Exception {
+		measure(getNullPerformanceMeter(), getWarmUpRuns(), true);
+		PerformanceMeter performanceMeter= createPerformanceMeterForGlobalSummary("Chain completion: search with empty caches", Dimension.ELAPSED_PROCESS);
+		measure(performanceMeter, getMeasuredRuns(), true);
+		commitAllMeasurements();
+		assertAllPerformance();
+	}
+
+	public void testWarmSearch() throws Exception {
+		measure(getNullPerformanceMeter(), getWarmUpRuns(), false);
+		PerformanceMeter performanceMeter= createPerformanceMeter();
+		measure(performanceMeter, getMeasuredRuns(), false);
+		commitAllMeasurements();
+		assertAllPerformance();
+	}
+
+	private void measure(PerformanceMeter meter, int runs, boolean clearCaches) throws Exception {
+		List<ChainElement> entrypoints= Collections.singletonList(new ChainElement(fReceiverType.getField("root"), false));
+		List<ChainType> expectedTypes= Collections.singletonList(new ChainType(fTargetType));
+		for (int run= 0; run < runs; run++) {
+			if (clearCaches)
+				ChainCache.invalidateAll();
+			ChainFinder finder= new ChainFinder(expectedTypes, Collections.singletonList("java.lang.Object"), fReceiverType);
+			meter.start();
+			finder.startChainSearch(entrypoints, MAX_CHAINS, MIN_DEPTH, MAX_DEPTH);
+			meter.stop();
+			assertFalse(finder.getChains().isEmpty());
+		}
+	}
+}
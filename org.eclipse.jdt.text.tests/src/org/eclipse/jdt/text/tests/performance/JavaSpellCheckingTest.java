@@ -0,0 +1,166 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.text.tests.performance;
+
+import org.eclipse.test.performance.PerformanceMeter;
+
+import org.eclipse.core.runtime.Platform;
+
+import org.eclipse.core.resources.IFile;
+
+import org.eclipse.core.filebuffers.FileBuffers;
+import org.eclipse.core.filebuffers.ITextFileBuffer;
+import org.eclipse.core.filebuffers.ITextFileBufferManager;
+import org.eclipse.core.filebuffers.LocationKind;
+
+import org.eclipse.jface.preference.IPreferenceStore;
+
+import org.eclipse.jface.text.IDocument;
+
+import org.eclipse.ui.texteditor.spelling.ISpellingProblemCollector;
+import org.eclipse.ui.texteditor.spelling.SpellingContext;
+import org.eclipse.ui.texteditor.spelling.SpellingProblem;
+import org.eclipse.ui.texteditor.spelling.SpellingService;
+
+import org.eclipse.ui.editors.text.EditorsUI;
+
+import org.eclipse.jdt.core.JavaCore;
+
+import org.eclipse.jdt.ui.PreferenceConstants;
+
+import org.eclipse.jdt.internal.ui.text.spelling.SpellingPartitionCache;
+
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Measures the time to spell check the comments and strings of a large compilation unit,
+ * once with all partitions checked and once with all partitions found in the spelling cache.
+ */
+public class JavaSpellCheckingTest extends TextPerformanceTestCase {
+
+	private static final Class<JavaSpellCheckingTest> THIS= JavaSpellCheckingTest.class;
+
+	private static final String FILE= PerformanceTestSetup.STYLED_TEXT;
+
+	private static final int WARM_UP_RUNS= 3;
+
+	private static final int MEASURED_RUNS= 20;
+
+	private IDocument fDocument;
+
+	private SpellingContext fSpellingContext;
+
+	public static Test suite() {
+		return new PerformanceTestSetup(new TestSuite(THIS));
+	}
+
+	public JavaSpellCheckingTest(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		setWarmUpRuns(WARM_UP_RUNS);
+		setMeasuredRuns(MEASURED_RUNS);
+
+		PreferenceConstants.getPreferenceStore().setValue(PreferenceConstants.SPELLING_PROBLEMS_THRESHOLD, Integer.MAX_VALUE);
+		EditorsUI.getPreferenceStore().putValue(SpellingService.PREFERENCE_SPELLING_ENABLED, IPreferenceStore.TRUE);
+
+		fSpellingContext= new SpellingContext();
+		fSpellingContext.setContentType(Platform.getContentTypeManager().getContentType(JavaCore.JAVA_SOURCE_CONTENT_TYPE));
+
+		IFile file= ResourceTestHelper.findFile(FILE);
+		ITextFileBufferManager manager= FileBuffers.getTextFileBufferManager();
+		manager.connect(file.getFullPath(), LocationKind.IFILE, null);
+		try {
+			ITextFileBuffer fileBuffer= manager.getTextFileBuffer(file.getFullPath(), LocationKind.IFILE);
+			fDocument= fileBuffer.getDocument();
+		} finally {
+			manager.disconnect(file.getFullPath(), LocationKind.IFILE, null);
+		}
+		SpellingPartitionCache.getDefault().clear();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		super.tearDown();
+		SpellingPartitionCache.getDefault().clear();
+		PreferenceConstants.getPreferenceStore().setToDefault(PreferenceConstants.SPELLING_PROBLEMS_THRESHOLD);
+		EditorsUI.getPreferenceStore().setToDefault(SpellingService.PREFERENCE_SPELLING_ENABLED);
+	}
+
+	public void testUncached() throws Exception {
+		measure(getNullPerformanceMeter(), getWarmUpRuns(), true);
+		PerformanceMeter performanceMeter= createPerformanceMeter("Java Editor: Spell checking uncached partitions");
+		measure(performanceMeter, getMeasuredRuns(), true);
+		commitAllMeasurements();
+		assertAllPerformance();
+	}
+
+	public void testCached() throws Exception {
+		SpellingPartitionCache cache= SpellingPartitionCache.getDefault();
+		int problems= check();
+		assertTrue(cache.getWordCount() > 0);
+		assertEquals(0, cache.getHitCount());
+
+		measure(getNullPerformanceMeter(), getWarmUpRuns(), false);
+		PerformanceMeter performanceMeter= createPerformanceMeter("Java Editor: Spell checking cached partitions");
+		measure(performanceMeter, getMeasuredRuns(), false);
+		commitAllMeasurements();
+
+		assertEquals(problems, check());
+		assertTrue(cache.getHitCount() > cache.getMissCount());
+		assertAllPerformance();
+	}
+
+	private void measure(PerformanceMeter performanceMeter, int runs, boolean clearCache) {
+		for (int i= 0; i < runs; i++) {
+			if (clearCache)
+				SpellingPartitionCache.getDefault().clear();
+			performanceMeter.start();
+			check();
+			performanceMeter.stop();
+		}
+	}
+
+	private int check() {
+		SpellingProblemCollector collector= new SpellingProblemCollector();
+		EditorsUI.getSpellingService().check(fDocument, fSpellingContext, collector, null);
+		return collector.fProblemCount;
+	}
+
+	/**
+	 * Spelling problem collector.
+	 */
+	private static class SpellingProblemCollector implements ISpellingProblemCollector {
+
+		private int fProblemCount;
+
+		@Override
+		public void accept(SpellingProblem problem) {
+			fProblemCount++;
+		}
+
+		@Override
+		public void beginCollecting() {
+			fProblemCount= 0;
+		}
+
+		@Override
+		public void endCollecting() {
+		}
+	}
+}
@@ -48,10 +48,15 @@ public class PerformanceTestSuite extends TestSuite {
 		addTest(JavaFormatterProjectTest.suite());
 		addTest(ContentTypeTest.suite());
 		addTest(CodeCompletionPerformanceTest.suite());
+		addTest(ChainCompletionPerformanceTest.suite());
 		addTest(DocumentLineDifferInitializationTest.suite());
 		addTest(SynchronizedLineDifferInitializationTest.suite());
 		addTest(DocumentLineDifferModificationTest.suite());
 		addTest(SpellCheckingTest.suite());
+		addTest(JavaSpellCheckingTest.suite());
+		addTest(SpellDictionaryLoadTest.suite());
+		addTest(SemanticHighlightingTypingTest.suite());
+		addTest(SemanticHighlightingReconcileTest.suite());
 
 
 		/* !!! IMPORTANT NOTE: The following test must be the last one !!! */
@@ -0,0 +1,135 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.text.tests.performance;
+
+import org.eclipse.jdt.testplugin.JavaProjectHelper;
+import org.eclipse.jdt.text.tests.AbstractSemanticHighlightingTest;
+import org.eclipse.test.performance.Dimension;
+import org.eclipse.test.performance.PerformanceMeter;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+
+import org.eclipse.text.tests.Accessor;
+
+import org.eclipse.jface.preference.IPreferenceStore;
+import org.eclipse.jface.text.source.SourceViewer;
+
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.ITypeRoot;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.manipulation.SharedASTProviderCore;
+
+import org.eclipse.jdt.internal.ui.JavaPlugin;
+import org.eclipse.jdt.internal.ui.javaeditor.JavaEditor;
+import org.eclipse.jdt.internal.ui.javaeditor.SemanticHighlighting;
+import org.eclipse.jdt.internal.ui.javaeditor.SemanticHighlightingManager;
+import org.eclipse.jdt.internal.ui.javaeditor.SemanticHighlightingReconciler;
+import org.eclipse.jdt.internal.ui.javaeditor.SemanticHighlightings;
+
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Measures a full semantic highlighting reconcile of the input of the semantic highlighting
+ * tests, with all highlightings enabled.
+ */
+public class SemanticHighlightingReconcileTest extends TextPerformanceTestCase {
+
+	private static final String PROJECT= "SHReconcileProject";
+
+	private static final String FILE= "/" + PROJECT + "/src/SHTest.java";
+
+	private static final Class<SemanticHighlightingReconcileTest> THIS= SemanticHighlightingReconcileTest.class;
+
+	/**
+	 * The number of reconciles per run.
+	 */
+	private static final int RECONCILES= 200;
+
+	private static final int WARM_UP_RUNS= 3;
+
+	private static final int MEASURED_RUNS= 10;
+
+	public static Test suite() {
+		return new TestSuite(THIS);
+	}
+
+	private IJavaProject fJProject;
+
+	private JavaEditor fEditor;
+
+	private SemanticHighlightingReconciler fReconciler;
+
+	private CompilationUnit fAST;
+
+	public SemanticHighlightingReconcileTest(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		fJProject= EditorTestHelper.createJavaProject(PROJECT, AbstractSemanticHighlightingTest.LINKED_FOLDER);
+		setAllEnabled(true);
+
+		fEditor= (JavaEditor) EditorTestHelper.openInEditor(ResourceTestHelper.findFile(FILE), true);
+		SourceViewer sourceViewer= EditorTestHelper.getSourceViewer(fEditor);
+		assertTrue(EditorTestHelper.joinReconciler(sourceViewer, 0, 10000, 100));
+
+		SemanticHighlightingManager manager= (SemanticHighlightingManager) new Accessor(fEditor, JavaEditor.class).get("fSemanticManager");
+		fReconciler= (SemanticHighlightingReconciler) new Accessor(manager, manager.getClass()).get("fReconciler");
+		fAST= SharedASTProviderCore.getAST((ITypeRoot) fEditor.getViewPartInput(), SharedASTProviderCore.WAIT_YES, null);
+		assertNotNull(fAST);
+
+		setWarmUpRuns(WARM_UP_RUNS);
+		setMeasuredRuns(MEASURED_RUNS);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		EditorTestHelper.closeAllEditors();
+		setAllEnabled(false);
+		JavaProjectHelper.delete(fJProject);
+		super.tearDown();
+	}
+
+	private static void setAllEnabled(boolean enabled) {
+		IPreferenceStore store= JavaPlugin.getDefault().getPreferenceStore();
+		for (SemanticHighlighting semanticHighlighting : SemanticHighlightings.getSemanticHighlightings()) {
+			String key= SemanticHighlightings.getEnabledPreferenceKey(semanticHighlighting);
+			if (enabled)
+				store.setValue(key, true);
+			else
+				store.setToDefault(key);
+		}
+	}
+
+	public void testReconcile() throws Exception {
+		measure(getNullPerformanceMeter(), getWarmUpRuns());
+		PerformanceMeter performanceMeter= createPerformanceMeterForGlobalSummary("Java editor: semantic highlighting reconcile", Dimension.ELAPSED_PROCESS);
+		measure(performanceMeter, getMeasuredRuns());
+		commitAllMeasurements();
+		assertAllPerformance();
+	}
+
+	private void measure(PerformanceMeter meter, int runs) throws Exception {
+		for (int run= 0; run < runs; run++) {
+			meter.start();
+			for (int i= 0; i < RECONCILES; i++)
+				fReconciler.reconciled(fAST, true, new NullProgressMonitor());
+			meter.stop();
+			EditorTestHelper.runEventQueue();
+		}
+	}
+}
@@ -0,0 +1,141 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.text.tests.performance;
+
+import org.eclipse.jdt.testplugin.JavaProjectHelper;
+import org.eclipse.test.performance.Dimension;
+import org.eclipse.test.performance.PerformanceMeter;
+
+import org.eclipse.core.resources.IFile;
+
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.source.SourceViewer;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+
+import org.eclipse.jdt.internal.ui.javaeditor.JavaEditor;
+
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Measures the time from a change inside a method body of a large compilation unit until the
+ * change is reconciled, including the semantic highlighting.
+ */
+public class SemanticHighlightingTypingTest extends TextPerformanceTestCase {
+
+	private static final String PROJECT= "SHTypingProject";
+
+	private static final Class<SemanticHighlightingTypingTest> THIS= SemanticHighlightingTypingTest.class;
+
+	/**
+	 * The number of generated methods, each 20 lines long.
+	 */
+	private static final int METHOD_COUNT= 1000;
+
+	private static final String TYPED= "i++;";
+
+	private static final int WARM_UP_RUNS= 3;
+
+	private static final int MEASURED_RUNS= 10;
+
+	public static Test suite() {
+		return new TestSuite(THIS);
+	}
+
+	private IJavaProject fJProject;
+
+	private JavaEditor fEditor;
+
+	private SourceViewer fSourceViewer;
+
+	private int fOffset;
+
+	public SemanticHighlightingTypingTest(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		fJProject= JavaProjectHelper.createJavaProject(PROJECT, "bin");
+		JavaProjectHelper.addRTJar(fJProject);
+		IPackageFragmentRoot root= JavaProjectHelper.addSourceContainer(fJProject, "src");
+		IPackageFragment fragment= root.createPackageFragment("test1", false, null);
+
+		StringBuilder buf= new StringBuilder();
+		buf.append("package test1;\n");
+		buf.append("import java.util.ArrayList;\n");
+		buf.append("import java.util.List;\n");
+		buf.append("public class Large {\n");
+		buf.append("    private static final int LIMIT= 10;\n");
+		buf.append("    private List<String> fNames= new ArrayList<>();\n");
+		for (int i= 0; i < METHOD_COUNT; i++) {
+			buf.append("    public int method").append(i).append("(int param) {\n");
+			buf.append("        int i= param;\n");
+			for (int j= 0; j < 8; j++) {
+				buf.append("        if (i < LIMIT && fNames.size() > ").append(j).append(")\n");
+				buf.append("            i+= fNames.get(").append(j).append(").length() + method").append(Math.max(0, i - 1)).append("(i);\n");
+			}
+			buf.append("        return i;\n");
+			buf.append("    }\n");
+		}
+		buf.append("}\n");
+		String contents= buf.toString();
+		ICompilationUnit cu= fragment.createCompilationUnit("Large.java", contents, false, null);
+
+		// inside the body of the method in the middle
+		fOffset= contents.indexOf("return i;", contents.indexOf("method" + METHOD_COUNT / 2 + "(int param)"));
+
+		fEditor= (JavaEditor) EditorTestHelper.openInEditor((IFile) cu.getResource(), EditorTestHelper.COMPILATION_UNIT_EDITOR_ID, true);
+		fSourceViewer= EditorTestHelper.getSourceViewer(fEditor);
+		assertTrue(EditorTestHelper.joinReconciler(fSourceViewer, 0, 20000, 100));
+
+		setWarmUpRuns(WARM_UP_RUNS);
+		setMeasuredRuns(MEASURED_RUNS);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		EditorTestHelper.closeAllEditors();
+		JavaProjectHelper.delete(fJProject);
+		super.tearDown();
+	}
+
+	public void testTypeInMethodBody() throws Exception {
+		measure(getNullPerformanceMeter(), getWarmUpRuns());
+		PerformanceMeter performanceMeter= createPerformanceMeterForGlobalSummary("Java editor: reconcile a change in a large file", Dimension.ELAPSED_PROCESS);
+		measure(performanceMeter, getMeasuredRuns());
+		commitAllMeasurements();
+		assertAllPerformance();
+	}
+
+	private void measure(PerformanceMeter meter, int runs) throws Exception {
+		IDocument document= fSourceViewer.getDocument();
+		for (int run= 0; run < runs; run++) {
+			meter.start();
+			document.replace(fOffset, 0, TYPED);
+			assertTrue(EditorTestHelper.joinReconciler(fSourceViewer, 0, 20000, 10));
+			EditorTestHelper.runEventQueue();
+			meter.stop();
+
+			document.replace(fOffset, TYPED.length(), "");
+			assertTrue(EditorTestHelper.joinReconciler(fSourceViewer, 0, 20000, 10));
+			EditorTestHelper.runEventQueue();
+		}
+	}
+}
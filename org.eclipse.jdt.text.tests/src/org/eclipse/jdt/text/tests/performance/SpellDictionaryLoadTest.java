@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.text.tests.performance;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Enumeration;
+import java.util.Locale;
+
+import org.eclipse.test.performance.PerformanceMeter;
+
+import org.eclipse.jdt.internal.ui.JavaPlugin;
+import org.eclipse.jdt.internal.ui.text.spelling.SpellCheckEngine;
+import org.eclipse.jdt.internal.ui.text.spelling.engine.LocaleSensitiveSpellDictionary;
+
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Measures the time and the heap needed to load the installed dictionary of each locale,
+ * once from the word list, which includes compiling it, and once from the compiled form.
+ */
+public class SpellDictionaryLoadTest extends TextPerformanceTestCase {
+
+	private static final Class<SpellDictionaryLoadTest> THIS= SpellDictionaryLoadTest.class;
+
+	private static final String CHECKED_WORD= "dictionary";
+
+	private static final int WARM_UP_RUNS= 2;
+
+	private static final int MEASURED_RUNS= 10;
+
+	public static Test suite() {
+		return new TestSuite(THIS);
+	}
+
+	public SpellDictionaryLoadTest(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		setWarmUpRuns(WARM_UP_RUNS);
+		setMeasuredRuns(MEASURED_RUNS);
+	}
+
+	public void testLoadWordList() throws Exception {
+		measure(true);
+	}
+
+	public void testLoadCompiled() throws Exception {
+		measure(false);
+	}
+
+	private void measure(boolean deleteCompiled) throws Exception {
+		int count= 0;
+		for (Locale locale : SpellCheckEngine.getLocalesWithInstalledDictionaries()) {
+			URL location= getLocation(locale);
+			if (location == null)
+				continue;
+			measure(locale, location, getNullPerformanceMeter(), getWarmUpRuns(), deleteCompiled);
+			PerformanceMeter performanceMeter= createPerformanceMeter(locale.toString());
+			measure(locale, location, performanceMeter, getMeasuredRuns(), deleteCompiled);
+			count++;
+		}
+		assertTrue(count > 0);
+		commitAllMeasurements();
+		assertAllPerformance();
+	}
+
+	private static URL getLocation(Locale locale) throws IOException {
+		Enumeration<URL> locations= SpellCheckEngine.getDictionaryLocations();
+		while (locations != null && locations.hasMoreElements()) {
+			URL location= locations.nextElement();
+			try (InputStream stream= new URL(location, locale.toString() + ".dictionary").openStream()) {
+				return location;
+			} catch (IOException e) {
+				// not in this location
+			}
+		}
+		return null;
+	}
+
+	private void measure(Locale locale, URL location, PerformanceMeter meter, int runs, boolean deleteCompiled) {
+		File compiled= JavaPlugin.getDefault().getStateLocation().append("dictionaries").append(locale.toString() + ".dictionary").toFile();
+		for (int run= 0; run < runs; run++) {
+			if (deleteCompiled)
+				compiled.delete();
+			LocaleSensitiveSpellDictionary dictionary= new LocaleSensitiveSpellDictionary(locale, location);
+			meter.start();
+			dictionary.isCorrect(CHECKED_WORD);
+			meter.stop();
+			assertTrue(compiled.isFile());
+			if (deleteCompiled)
+				assertFalse(dictionary.isLoadedFromCompiledFile());
+			else if (run > 0)
+				// the first run may compile an outdated file again
+				assertTrue(dictionary.isLoadedFromCompiledFile());
+			dictionary.unload();
+		}
+	}
+}
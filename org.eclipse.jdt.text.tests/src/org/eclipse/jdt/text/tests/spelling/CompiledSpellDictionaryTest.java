@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.text.tests.spelling;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.eclipse.jdt.internal.ui.text.spelling.engine.CompiledSpellDictionary;
+
+public class CompiledSpellDictionaryTest {
+
+	private static final String STAMP= "stamp"; //$NON-NLS-1$
+
+	private File fFile;
+
+	@Before
+	public void setUp() throws IOException {
+		fFile= File.createTempFile("dictionary", ".bin"); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	@After
+	public void tearDown() {
+		fFile.delete();
+	}
+
+	private static byte[] bytes(String value) {
+		return value.getBytes(StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void wordsByHash() throws IOException {
+		CompiledSpellDictionary.Builder builder= new CompiledSpellDictionary.Builder();
+		List<String> expected= new ArrayList<>();
+		// more words than fit into a block, with shared prefixes, in reverse order
+		for (int i= 40; i >= 0; i--) {
+			String word= "prefix" + i; //$NON-NLS-1$
+			expected.add(word);
+			builder.add(bytes("P"), bytes(word)); //$NON-NLS-1$
+		}
+		builder.add(bytes("W"), bytes("wörd")); //$NON-NLS-1$ //$NON-NLS-2$
+		builder.add(bytes("W"), bytes("word")); //$NON-NLS-1$ //$NON-NLS-2$
+		builder.add(bytes("W"), bytes("word")); //$NON-NLS-1$ //$NON-NLS-2$
+		builder.write(fFile, STAMP);
+
+		CompiledSpellDictionary dictionary= CompiledSpellDictionary.open(fFile, STAMP);
+		assertNotNull(dictionary);
+		assertEquals(44, dictionary.getWordCount());
+		assertEquals(expected, new ArrayList<>(dictionary.getWords(bytes("P")))); //$NON-NLS-1$
+		assertEquals(Arrays.asList("wörd", "word", "word"), new ArrayList<>(dictionary.getWords(bytes("W")))); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		assertNull(dictionary.getWords(bytes("X"))); //$NON-NLS-1$
+
+		assertTrue(dictionary.contains(bytes("P"), bytes("prefix17"))); //$NON-NLS-1$ //$NON-NLS-2$
+		assertTrue(dictionary.contains(bytes("W"), bytes("Word"), bytes("word"))); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		assertFalse(dictionary.contains(bytes("P"), bytes("prefix"))); //$NON-NLS-1$ //$NON-NLS-2$
+		assertFalse(dictionary.contains(bytes("W"), bytes("prefix1"))); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	@Test
+	public void stamp() throws IOException {
+		CompiledSpellDictionary.Builder builder= new CompiledSpellDictionary.Builder();
+		builder.add(bytes("W"), bytes("word")); //$NON-NLS-1$ //$NON-NLS-2$
+		builder.write(fFile, STAMP);
+
+		assertNull(CompiledSpellDictionary.open(fFile, STAMP + '2'));
+		assertNotNull(CompiledSpellDictionary.open(fFile, STAMP));
+		fFile.delete();
+		assertNull(CompiledSpellDictionary.open(fFile, STAMP));
+	}
+}
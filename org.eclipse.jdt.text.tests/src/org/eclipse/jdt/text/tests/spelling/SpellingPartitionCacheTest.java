@@ -0,0 +1,155 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.text.tests.spelling;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.eclipse.core.runtime.Platform;
+
+import org.eclipse.jface.preference.IPreferenceStore;
+
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.IDocument;
+
+import org.eclipse.ui.texteditor.spelling.ISpellingProblemCollector;
+import org.eclipse.ui.texteditor.spelling.SpellingContext;
+import org.eclipse.ui.texteditor.spelling.SpellingProblem;
+import org.eclipse.ui.texteditor.spelling.SpellingService;
+
+import org.eclipse.ui.editors.text.EditorsUI;
+
+import org.eclipse.jdt.core.JavaCore;
+
+import org.eclipse.jdt.ui.PreferenceConstants;
+import org.eclipse.jdt.ui.text.IJavaPartitions;
+
+import org.eclipse.jdt.internal.ui.JavaPlugin;
+import org.eclipse.jdt.internal.ui.text.spelling.SpellingPartitionCache;
+
+public class SpellingPartitionCacheTest {
+
+	private static final String MISSPELLED= "qwzxyvk"; //$NON-NLS-1$
+
+	private SpellingContext fSpellingContext;
+
+	@Before
+	public void setUp() {
+		PreferenceConstants.getPreferenceStore().setValue(PreferenceConstants.SPELLING_PROBLEMS_THRESHOLD, Integer.MAX_VALUE);
+		EditorsUI.getPreferenceStore().putValue(SpellingService.PREFERENCE_SPELLING_ENABLED, IPreferenceStore.TRUE);
+		fSpellingContext= new SpellingContext();
+		fSpellingContext.setContentType(Platform.getContentTypeManager().getContentType(JavaCore.JAVA_SOURCE_CONTENT_TYPE));
+		SpellingPartitionCache.getDefault().clear();
+	}
+
+	@After
+	public void tearDown() {
+		SpellingPartitionCache.getDefault().clear();
+		PreferenceConstants.getPreferenceStore().setToDefault(PreferenceConstants.SPELLING_PROBLEMS_THRESHOLD);
+		PreferenceConstants.getPreferenceStore().setToDefault(PreferenceConstants.SPELLING_IGNORE_DIGITS);
+		EditorsUI.getPreferenceStore().setToDefault(SpellingService.PREFERENCE_SPELLING_ENABLED);
+	}
+
+	private static IDocument createDocument(int comments) {
+		StringBuilder buf= new StringBuilder();
+		buf.append("package p;\n"); //$NON-NLS-1$
+		buf.append("public class A {\n"); //$NON-NLS-1$
+		for (int i= 0; i < comments; i++) {
+			buf.append("    // comment ").append(i).append(' ').append(MISSPELLED).append('\n'); //$NON-NLS-1$
+			buf.append("    int f").append(i).append(";\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		buf.append("}\n"); //$NON-NLS-1$
+		IDocument document= new Document(buf.toString());
+		JavaPlugin.getDefault().getJavaTextTools().setupJavaDocumentPartitioner(document, IJavaPartitions.JAVA_PARTITIONING);
+		return document;
+	}
+
+	private int check(IDocument document) {
+		SpellingProblemCollector collector= new SpellingProblemCollector();
+		EditorsUI.getSpellingService().check(document, fSpellingContext, collector, null);
+		return collector.fProblemCount;
+	}
+
+	@Test
+	public void unchangedPartitionsHit() throws Exception {
+		SpellingPartitionCache cache= SpellingPartitionCache.getDefault();
+		IDocument document= createDocument(10);
+		assertEquals(10, check(document));
+		assertEquals(0, cache.getHitCount());
+		assertEquals(10, cache.getMissCount());
+		assertEquals(10, cache.size());
+
+		assertEquals(10, check(document));
+		assertEquals(10, cache.getHitCount());
+		assertEquals(10, cache.getMissCount());
+
+		// an edited comment is checked again, the others are found in the cache
+		int offset= document.get().indexOf(MISSPELLED);
+		document.replace(offset, MISSPELLED.length(), "word"); //$NON-NLS-1$
+		assertEquals(9, check(document));
+		assertEquals(19, cache.getHitCount());
+		assertEquals(11, cache.getMissCount());
+		assertTrue(cache.getCharacterCount() > 0);
+	}
+
+	@Test
+	public void preferenceChangeDropsEntries() throws Exception {
+		SpellingPartitionCache cache= SpellingPartitionCache.getDefault();
+		IDocument document= createDocument(5);
+		assertEquals(5, check(document));
+		assertEquals(5, cache.getMissCount());
+
+		IPreferenceStore store= PreferenceConstants.getPreferenceStore();
+		store.setValue(PreferenceConstants.SPELLING_IGNORE_DIGITS, !store.getBoolean(PreferenceConstants.SPELLING_IGNORE_DIGITS));
+		check(document);
+		assertEquals(0, cache.getHitCount());
+		assertEquals(10, cache.getMissCount());
+	}
+
+	@Test
+	public void thresholdStopsChecking() throws Exception {
+		SpellingPartitionCache cache= SpellingPartitionCache.getDefault();
+		IDocument document= createDocument(200);
+		PreferenceConstants.getPreferenceStore().setValue(PreferenceConstants.SPELLING_PROBLEMS_THRESHOLD, 1);
+		assertEquals(1, check(document));
+		assertTrue(cache.size() < 200);
+		assertTrue(cache.getMissCount() < 200);
+	}
+
+	/**
+	 * Spelling problem collector.
+	 */
+	private static class SpellingProblemCollector implements ISpellingProblemCollector {
+
+		private int fProblemCount;
+
+		@Override
+		public void accept(SpellingProblem problem) {
+			fProblemCount++;
+		}
+
+		@Override
+		public void beginCollecting() {
+			fProblemCount= 0;
+		}
+
+		@Override
+		public void endCollecting() {
+		}
+	}
+}
@@ -21,8 +21,11 @@ import org.junit.runners.Suite;
 	AllRefactoringTests.class,
 	AllChangeTests.class,
 	UndoManagerTests.class,
+	ParallelChangeCreatorTests.class,
 	PathTransformationTests.class,
 	RefactoringScannerTests.class,
+	RefactoringSearchEngine2Tests.class,
+	TextMatchUpdaterTests.class,
 	SurroundWithTests.class,
 	SurroundWithTests1d7.class,
 	SurroundWithTests1d8.class,
@@ -0,0 +1,150 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ui.tests.refactoring;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+
+import org.eclipse.text.edits.InsertEdit;
+
+import org.eclipse.ltk.core.refactoring.TextChange;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IPackageFragment;
+
+import org.eclipse.jdt.internal.corext.refactoring.util.ParallelChangeCreator;
+import org.eclipse.jdt.internal.corext.refactoring.util.TextChangeManager;
+
+import org.eclipse.jdt.ui.tests.refactoring.rules.RefactoringTestSetup;
+
+public class ParallelChangeCreatorTests {
+
+	@Rule
+	public RefactoringTestSetup rts= new RefactoringTestSetup();
+
+	private List<ICompilationUnit> createUnits(int count) throws Exception {
+		IPackageFragment pack= rts.getPackageP();
+		List<ICompilationUnit> units= new ArrayList<>();
+		for (int i= 0; i < count; i++)
+			units.add(pack.getCompilationUnit("A" + i + ".java"));
+		// the units are processed in any order
+		Collections.reverse(units);
+		return units;
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static List<String> createChanges(List<ICompilationUnit> units, int parallelism) throws Exception {
+		TextChangeManager manager= new TextChangeManager();
+		ParallelChangeCreator.createChanges(units, unit -> {
+			sleep(unit.getElementName().length() % 3);
+			manager.get(unit).addEdit(new InsertEdit(0, unit.getElementName()));
+		}, parallelism, new NullProgressMonitor());
+
+		List<String> names= new ArrayList<>();
+		for (TextChange change : manager.getAllChanges())
+			names.add(change.getName());
+		return names;
+	}
+
+	@Test
+	public void changeOrderIsIndependentOfThreads() throws Exception {
+		List<ICompilationUnit> units= createUnits(30);
+		List<String> expected= createChanges(units, 1);
+		assertEquals(30, expected.size());
+		for (int i= 0; i < 5; i++)
+			assertEquals(expected, createChanges(units, 4));
+	}
+
+	@Test
+	public void cancellation() throws Exception {
+		List<ICompilationUnit> units= createUnits(50);
+		NullProgressMonitor monitor= new NullProgressMonitor();
+		AtomicInteger started= new AtomicInteger();
+		AtomicInteger running= new AtomicInteger();
+		try {
+			ParallelChangeCreator.createChanges(units, unit -> {
+				running.incrementAndGet();
+				try {
+					if (started.incrementAndGet() == 3)
+						monitor.setCanceled(true);
+					sleep(20);
+				} finally {
+					running.decrementAndGet();
+				}
+			}, 2, monitor);
+			fail("not canceled");
+		} catch (OperationCanceledException e) {
+			// expected
+		}
+		// the running units are waited for, the others are not started
+		assertEquals(0, running.get());
+		assertTrue(String.valueOf(started.get()), started.get() < units.size());
+	}
+
+	@Test
+	public void exceptionIsPropagated() throws Exception {
+		List<ICompilationUnit> units= createUnits(20);
+		CoreException failure= new CoreException(new Status(IStatus.ERROR, "org.eclipse.jdt.ui.tests.refactoring", "failure"));
+		AtomicInteger running= new AtomicInteger();
+		try {
+			ParallelChangeCreator.createChanges(units, unit -> {
+				running.incrementAndGet();
+				try {
+					sleep(5);
+					if (unit == units.get(5))
+						throw failure;
+				} finally {
+					running.decrementAndGet();
+				}
+			}, 4, new NullProgressMonitor());
+			fail("no exception");
+		} catch (CoreException e) {
+			assertSame(failure, e);
+		}
+		assertEquals(0, running.get());
+
+		try {
+			ParallelChangeCreator.createChanges(units, unit -> {
+				if (unit == units.get(5))
+					throw new IllegalStateException("failure");
+			}, 4, new NullProgressMonitor());
+			fail("no exception");
+		} catch (IllegalStateException e) {
+			assertEquals("failure", e.getMessage());
+		}
+	}
+}
@@ -14,6 +14,8 @@
 package org.eclipse.jdt.ui.tests.refactoring;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -113,4 +115,17 @@ public class RefactoringScannerTests extends GenericRefactoringTest {
 				new Position(38, 20),
 		});
 	}
+
+	@Test
+	public void testPreFilter() throws Exception{
+		assertFalse(fScanner.mayContainMatch("class A { /* TestPatter */ }".toCharArray()));
+		assertTrue(fScanner.mayContainMatch("class A { /* TestPatterns */ }".toCharArray()));
+
+		fScanner.scan("class A { String s= \"TestPatter\"; }".toCharArray(), null);
+		assertEquals("results.length", 0, fScanner.getMatches().size());
+
+		String text= getFileContents(getRefactoringPath() + "A.java");
+		fScanner.scan(text.toCharArray(), null);
+		assertEquals("results.length", 8, fScanner.getMatches().size());
+	}
 }
@@ -0,0 +1,143 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ui.tests.refactoring;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.eclipse.jdt.testplugin.JavaProjectHelper;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.search.IJavaSearchConstants;
+import org.eclipse.jdt.core.search.IJavaSearchScope;
+import org.eclipse.jdt.core.search.SearchEngine;
+import org.eclipse.jdt.core.search.SearchMatch;
+
+import org.eclipse.jdt.internal.corext.refactoring.RefactoringSearchEngine2;
+import org.eclipse.jdt.internal.corext.refactoring.RefactoringSearchEngine2.PipelineStatistics;
+import org.eclipse.jdt.internal.corext.refactoring.SearchResultGroup;
+
+import org.eclipse.jdt.ui.tests.refactoring.rules.RefactoringTestSetup;
+
+public class RefactoringSearchEngine2Tests {
+
+	@Rule
+	public RefactoringTestSetup rts= new RefactoringTestSetup();
+
+	private IJavaProject fOtherProject;
+
+	private IType fType;
+
+	@Before
+	public void setUp() throws Exception {
+		IPackageFragment pack= rts.getPackageP();
+		fType= pack.createCompilationUnit("A.java", "package p;\npublic class A {\n\tA a;\n}\n", true, null).getType("A");
+		pack.createCompilationUnit("B.java", "package p;\npublic class B extends A {\n\tA a= new A();\n}\n", true, null);
+
+		fOtherProject= JavaProjectHelper.createJavaProject("OtherProject", "bin");
+		JavaProjectHelper.addRTJar(fOtherProject);
+		JavaProjectHelper.addRequiredProject(fOtherProject, rts.getProject());
+		IPackageFragment other= JavaProjectHelper.addSourceContainer(fOtherProject, "src").createPackageFragment("q", true, null);
+		other.createCompilationUnit("C.java", "package q;\nimport p.A;\npublic class C {\n\tA a;\n}\n", true, null);
+		other.createCompilationUnit("D.java", "package q;\npublic class D {\n}\n", true, null);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		JavaProjectHelper.delete(fOtherProject);
+	}
+
+	private RefactoringSearchEngine2 search(int parallelism, List<String> consumed, List<String> results) throws Exception {
+		return search(parallelism, null, consumed, results);
+	}
+
+	private RefactoringSearchEngine2 search(int parallelism, IJavaSearchScope scope, List<String> consumed, List<String> results) throws Exception {
+		RefactoringSearchEngine2 engine= new RefactoringSearchEngine2();
+		engine.setPattern(new IType[] { fType }, IJavaSearchConstants.REFERENCES);
+		if (scope != null)
+			engine.setScope(scope);
+		engine.setFiltering(true, true);
+		engine.setParallelism(parallelism);
+		engine.searchPattern(group -> consumed.addAll(toStrings(group)), new NullProgressMonitor());
+		assertTrue(engine.getStatus().isOK());
+
+		for (Object group : engine.getResults())
+			results.addAll(toStrings((SearchResultGroup) group));
+		Collections.sort(results);
+		Collections.sort(consumed);
+		return engine;
+	}
+
+	private static List<String> toStrings(SearchResultGroup group) {
+		List<String> result= new ArrayList<>();
+		for (SearchMatch match : group.getSearchResults())
+			result.add(group.getResource().getFullPath() + "@" + match.getOffset());
+		return result;
+	}
+
+	@Test
+	public void sequential() throws Exception {
+		List<String> consumed= new ArrayList<>();
+		List<String> results= new ArrayList<>();
+		PipelineStatistics statistics= search(1, consumed, results).getPipelineStatistics();
+		assertEquals(6, results.size());
+		assertEquals(results, consumed);
+		assertEquals(1, statistics.getPartCount());
+		assertEquals(3, statistics.getGroupCount());
+	}
+
+	@Test
+	public void pipelined() throws Exception {
+		List<String> expected= new ArrayList<>();
+		search(1, new ArrayList<>(), expected);
+
+		List<String> consumed= new ArrayList<>();
+		List<String> results= new ArrayList<>();
+		PipelineStatistics statistics= search(4, consumed, results).getPipelineStatistics();
+		assertEquals(expected, consumed);
+		assertEquals(expected, results);
+		assertTrue(statistics.toString(), statistics.getPartCount() > 2);
+		assertEquals(3, statistics.getGroupCount());
+		assertTrue(statistics.getFirstGroupMillis() >= 0);
+	}
+
+	@Test
+	public void pipelinedWithoutLibraries() throws Exception {
+		IJavaSearchScope scope= SearchEngine.createJavaSearchScope(new IJavaElement[] { rts.getProject(), fOtherProject }, IJavaSearchScope.SOURCES);
+		List<String> expected= new ArrayList<>();
+		search(1, scope, new ArrayList<>(), expected);
+
+		List<String> consumed= new ArrayList<>();
+		List<String> results= new ArrayList<>();
+		PipelineStatistics statistics= search(4, scope, consumed, results).getPipelineStatistics();
+		assertEquals(expected, consumed);
+		assertEquals(expected, results);
+		// no part for the libraries
+		assertEquals(2, statistics.getPartCount());
+	}
+}
@@ -0,0 +1,125 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ui.tests.refactoring;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+
+import org.eclipse.text.edits.ReplaceEdit;
+import org.eclipse.text.edits.TextEdit;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.search.IJavaSearchScope;
+import org.eclipse.jdt.core.search.SearchEngine;
+
+import org.eclipse.jdt.internal.corext.refactoring.SearchResultGroup;
+import org.eclipse.jdt.internal.corext.refactoring.rename.TextMatchUpdater;
+import org.eclipse.jdt.internal.corext.refactoring.util.TextChangeManager;
+
+import org.eclipse.jdt.ui.tests.refactoring.rules.RefactoringTestSetup;
+
+public class TextMatchUpdaterTests {
+
+	@Rule
+	public RefactoringTestSetup rts= new RefactoringTestSetup();
+
+	private static final int UNIT_COUNT= 24;
+
+	private List<ICompilationUnit> createUnits() throws Exception {
+		IPackageFragment pack= rts.getPackageP();
+		pack.createCompilationUnit("Target.java", "package p;\npublic class Target {\n}\n", true, null);
+		List<ICompilationUnit> units= new ArrayList<>();
+		for (int i= 0; i < UNIT_COUNT; i++) {
+			StringBuilder buf= new StringBuilder();
+			buf.append("package p;\n");
+			buf.append("public class A" + i + " {\n");
+			if (i % 3 != 0) {
+				buf.append("    // uses Target\n");
+				buf.append("    String s= \"p.Target\";\n");
+				buf.append("    /** @see p.Target */\n");
+				buf.append("    void m() { /* Target, not Targets */ }\n");
+			} else {
+				buf.append("    String s= \"Targets\";\n");
+			}
+			buf.append("}\n");
+			ICompilationUnit unit= pack.createCompilationUnit("A" + i + ".java", buf.toString(), true, null);
+			if (i % 2 == 1)
+				unit.close();
+			units.add(unit);
+		}
+		return units;
+	}
+
+	private Map<String, String> updateTextMatches(int parallelism) throws Exception {
+		TextChangeManager manager= new TextChangeManager();
+		IJavaSearchScope scope= SearchEngine.createJavaSearchScope(new IJavaElement[] { rts.getProject() });
+		TextMatchUpdater.perform(new NullProgressMonitor(), scope, "Target", "p", "Renamed", manager, new SearchResultGroup[0], false, parallelism);
+
+		Map<String, String> edits= new TreeMap<>();
+		for (ICompilationUnit unit : manager.getAllCompilationUnits()) {
+			StringBuilder buf= new StringBuilder();
+			appendEdits(manager.get(unit).getEdit(), buf);
+			edits.put(unit.getElementName(), buf.toString());
+		}
+		return edits;
+	}
+
+	private static void appendEdits(TextEdit edit, StringBuilder buf) {
+		if (edit instanceof ReplaceEdit)
+			buf.append(edit.getOffset()).append(':').append(edit.getLength()).append(':').append(((ReplaceEdit) edit).getText()).append('\n');
+		for (TextEdit child : edit.getChildren())
+			appendEdits(child, buf);
+	}
+
+	@Test
+	public void parallelScanMatchesSequentialScan() throws Exception {
+		List<ICompilationUnit> units= createUnits();
+		ICompilationUnit workingCopy= units.get(UNIT_COUNT - 1);
+		workingCopy.becomeWorkingCopy(null);
+		try {
+			// the buffer of a working copy is scanned, not the file
+			String contents= workingCopy.getBuffer().getContents();
+			workingCopy.getBuffer().setContents(contents + "// Target\n");
+
+			Map<String, String> expected= updateTextMatches(1);
+			for (int i= 0; i < UNIT_COUNT; i++) {
+				String name= units.get(i).getElementName();
+				assertEquals(name, i % 3 != 0, expected.containsKey(name));
+			}
+			assertTrue(expected.get(workingCopy.getElementName()).endsWith(contents.length() + 3 + ":6:Renamed\n"));
+
+			for (int i= 0; i < 5; i++)
+				assertEquals(expected, updateTextMatches(4));
+
+			// the scan reads the files of the units which are not open
+			for (int i= 1; i < UNIT_COUNT - 1; i+= 2)
+				assertFalse(units.get(i).getElementName(), units.get(i).isOpen());
+		} finally {
+			workingCopy.discardWorkingCopy();
+		}
+	}
+}
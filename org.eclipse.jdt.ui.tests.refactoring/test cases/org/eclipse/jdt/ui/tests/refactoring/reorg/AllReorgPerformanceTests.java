@@ -35,7 +35,9 @@ import org.junit.runners.Suite;
 	MoveStaticMembersPerfTests1.class,
 	MoveStaticMembersPerfTests2.class,
 
-	IntroduceIndirectionPerfAcceptanceTests.class
+	IntroduceIndirectionPerfAcceptanceTests.class,
+
+	InferTypeArgumentsPerfTests.class
 })
 public class AllReorgPerformanceTests {
 }
\ No newline at end of file
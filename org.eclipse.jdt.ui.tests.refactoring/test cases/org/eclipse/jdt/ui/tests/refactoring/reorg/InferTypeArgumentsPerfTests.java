@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ui.tests.refactoring.reorg;
+
+import org.junit.FixMethodOrder;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import org.eclipse.test.performance.Dimension;
+
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IPackageFragment;
+
+import org.eclipse.jdt.internal.corext.refactoring.generics.InferTypeArgumentsRefactoring;
+
+import org.eclipse.jdt.ui.tests.refactoring.rules.RefactoringPerformanceTestSetup;
+
+/**
+ * Runs "Infer Generic Type Arguments" on a whole generated project. The compilation units
+ * reference each other, so that the constraints form one large graph. Elapsed time and heap
+ * consumption are measured.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class InferTypeArgumentsPerfTests extends RepeatingRefactoringPerformanceTestCaseCommon {
+
+	@Rule
+	public RefactoringPerformanceTestSetup rpts= new RefactoringPerformanceTestSetup();
+
+	@Test
+	public void testACold_10_10() throws Exception {
+		executeRefactoring(10, 10, false, 3);
+	}
+
+	@Test
+	public void testB_10_10() throws Exception {
+		executeRefactoring(10, 10, true, 10);
+	}
+
+	@Test
+	public void testC_100_10() throws Exception {
+		executeRefactoring(100, 10, true, 10);
+	}
+
+	@Test
+	public void testD_1000_10() throws Exception {
+		tagAsSummary("Infer type arguments - 1000 CUs, 10 Lists", Dimension.ELAPSED_PROCESS);
+		executeRefactoring(1000, 10, true, 3);
+	}
+
+	@Override
+	protected void doExecuteRefactoring(int numberOfCus, int numberOfRefs, boolean measure) throws Exception {
+		IPackageFragment pack= fTestProject.getSourceFolder().createPackageFragment("gen", false, null);
+		for (int i= 0; i < numberOfCus; i++)
+			createCu(pack, i, numberOfRefs);
+		InferTypeArgumentsRefactoring refactoring= new InferTypeArgumentsRefactoring(new IJavaElement[] { fTestProject.getProject() });
+		executeRefactoring(refactoring, measure);
+	}
+
+	private void createCu(IPackageFragment pack, int index, int numberOfLists) throws Exception {
+		StringBuilder buf= new StringBuilder();
+		buf.append("package " + pack.getElementName() + ";\n");
+		buf.append("import java.util.ArrayList;\n");
+		buf.append("import java.util.List;\n");
+		buf.append("public class C" + index + " {\n");
+		for (int i= 0; i < numberOfLists; i++) {
+			buf.append("    private List fList" + i + "= new ArrayList();\n");
+			buf.append("    public List getList" + i + "() {\n");
+			buf.append("        return fList" + i + ";\n");
+			buf.append("    }\n");
+			buf.append("    public void add" + i + "(String s) {\n");
+			buf.append("        fList" + i + ".add(s);\n");
+			buf.append("    }\n");
+			if (index > 0) {
+				buf.append("    public String first" + i + "(C" + (index - 1) + " other) {\n");
+				buf.append("        fList" + i + ".addAll(other.getList" + i + "());\n");
+				buf.append("        return (String) other.getList" + i + "().get(0);\n");
+				buf.append("    }\n");
+			}
+		}
+		buf.append("}\n");
+		pack.createCompilationUnit("C" + index + ".java", buf.toString(), false, null);
+	}
+}
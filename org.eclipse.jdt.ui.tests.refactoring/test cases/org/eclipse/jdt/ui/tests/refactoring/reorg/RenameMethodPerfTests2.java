@@ -48,4 +48,10 @@ public class RenameMethodPerfTests2 extends AbstractRenameMethodPerfTest {
 		tagAsSummary("Rename method - 10 CUs, 1000 Refs", Dimension.ELAPSED_PROCESS);
 		executeRefactoring(10, 1000, true, 10);
 	}
+
+	@Test
+	public void testE_2000_1() throws Exception {
+		tagAsSummary("Rename method - 2000 CUs, 1 Ref", Dimension.ELAPSED_PROCESS);
+		executeRefactoring(2000, 1, true, 3);
+	}
 }
@@ -20,7 +20,9 @@ import org.junit.runners.Suite;
 @RunWith(Suite.class)
 @Suite.SuiteClasses({
 	TypeConstraintTests.class,
-	TypeEnvironmentTests.class
+	ConstraintVariableWorkListTests.class,
+	TypeEnvironmentTests.class,
+	TypeSetTests.class
 })
 public class AllTests {
 }
\ No newline at end of file
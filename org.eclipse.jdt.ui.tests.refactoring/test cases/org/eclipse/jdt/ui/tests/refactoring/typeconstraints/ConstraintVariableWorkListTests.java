@@ -0,0 +1,83 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ui.tests.refactoring.typeconstraints;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import org.eclipse.jdt.internal.corext.refactoring.typeconstraints2.ConstraintVariable2;
+import org.eclipse.jdt.internal.corext.refactoring.typeconstraints2.ConstraintVariableWorkList;
+import org.eclipse.jdt.internal.corext.refactoring.typeconstraints2.ImmutableTypeVariable2;
+
+public class ConstraintVariableWorkListTests {
+
+	private static ConstraintVariable2[] createVariables(int count) {
+		ConstraintVariable2[] variables= new ConstraintVariable2[count];
+		for (int i= 0; i < count; i++)
+			variables[i]= new ImmutableTypeVariable2(null);
+		return variables;
+	}
+
+	@Test
+	public void denseIds() throws Exception {
+		ConstraintVariable2[] variables= createVariables(3);
+		ConstraintVariableWorkList workList= new ConstraintVariableWorkList(1);
+		for (int i= 0; i < variables.length; i++)
+			assertEquals(i, workList.getId(variables[i]));
+		assertEquals(1, workList.getId(variables[1]));
+		assertSame(variables[2], workList.getVariable(2));
+		assertEquals(3, workList.getVariableCount());
+
+		// ids of another work list are not reused
+		ConstraintVariableWorkList other= new ConstraintVariableWorkList(1);
+		assertEquals(0, other.getId(variables[2]));
+		assertEquals(1, other.getId(variables[0]));
+	}
+
+	@Test
+	public void queuedOnce() throws Exception {
+		ConstraintVariable2[] variables= createVariables(3);
+		ConstraintVariableWorkList workList= new ConstraintVariableWorkList(3);
+		workList.addAll(variables);
+		workList.add(variables[0]);
+		assertEquals(3, workList.size());
+		assertEquals(1, workList.getDuplicateCount());
+
+		assertSame(variables[0], workList.removeFirst());
+		workList.add(variables[0]);
+		assertSame(variables[1], workList.removeFirst());
+		assertSame(variables[2], workList.removeFirst());
+		assertSame(variables[0], workList.removeFirst());
+		assertTrue(workList.isEmpty());
+		assertEquals(4, workList.getProcessedCount());
+	}
+
+	@Test
+	public void growsQueue() throws Exception {
+		ConstraintVariable2[] variables= createVariables(100);
+		ConstraintVariableWorkList workList= new ConstraintVariableWorkList(1);
+		for (int i= 0; i < 10; i++)
+			workList.add(variables[i]);
+		for (int i= 0; i < 5; i++)
+			assertSame(variables[i], workList.removeFirst());
+		for (int i= 10; i < variables.length; i++)
+			workList.add(variables[i]);
+		for (int i= 5; i < variables.length; i++)
+			assertSame(variables[i], workList.removeFirst());
+		assertTrue(workList.isEmpty());
+	}
+}
@@ -0,0 +1,250 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ui.tests.refactoring.typeconstraints;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.eclipse.jdt.core.dom.TypeDeclaration;
+
+import org.eclipse.jdt.internal.corext.refactoring.typeconstraints.types.TType;
+import org.eclipse.jdt.internal.corext.refactoring.typeconstraints.types.TypeEnvironment;
+import org.eclipse.jdt.internal.corext.refactoring.typeconstraints.typesets.EnumeratedTypeSet;
+import org.eclipse.jdt.internal.corext.refactoring.typeconstraints.typesets.SingletonTypeSet;
+import org.eclipse.jdt.internal.corext.refactoring.typeconstraints.typesets.TypeSet;
+import org.eclipse.jdt.internal.corext.refactoring.typeconstraints.typesets.TypeSetEnvironment;
+
+import org.eclipse.jdt.ui.tests.refactoring.rules.RefactoringTestSetup;
+
+public class TypeSetTests {
+
+	@Rule
+	public RefactoringTestSetup rts= new RefactoringTestSetup();
+
+	private final Map<String, ITypeBinding> fBindings= new HashMap<>();
+
+	private TypeEnvironment fTypeEnvironment;
+
+	private TypeSetEnvironment fTypeSetEnvironment;
+
+	private TType fA, fB, fC, fD;
+
+	@Before
+	public void setUp() throws Exception {
+		StringBuilder buf= new StringBuilder();
+		buf.append("package p;\n");
+		buf.append("class A {}\n");
+		buf.append("class B extends A {}\n");
+		buf.append("class C extends B {}\n");
+		buf.append("class D extends A {}\n");
+		buf.append("class E extends A {}\n");
+		ICompilationUnit unit= rts.getPackageP().createCompilationUnit("A.java", buf.toString(), true, null);
+		ASTParser parser= ASTParser.newParser(AST.getJLSLatest());
+		parser.setProject(unit.getJavaProject());
+		parser.setResolveBindings(true);
+		parser.setSource(unit);
+		parser.createAST(null).accept(new ASTVisitor() {
+			@Override
+			public boolean visit(TypeDeclaration node) {
+				ITypeBinding binding= node.resolveBinding();
+				fBindings.put(binding.getName(), binding);
+				return false;
+			}
+		});
+
+		fTypeEnvironment= new TypeEnvironment(true);
+		fTypeEnvironment.initializeJavaLangObject(unit.getJavaProject());
+		fTypeSetEnvironment= new TypeSetEnvironment(fTypeEnvironment);
+		fA= create("A");
+		fB= create("B");
+		fC= create("C");
+		fD= create("D");
+	}
+
+	private TType create(String name) {
+		return fTypeEnvironment.create(fBindings.get(name));
+	}
+
+	private TType array(TType elementType) {
+		return fTypeEnvironment.createArrayType(elementType, 1);
+	}
+
+	private EnumeratedTypeSet set(TType... types) {
+		return set(fTypeSetEnvironment, types);
+	}
+
+	private static EnumeratedTypeSet set(TypeSetEnvironment environment, TType... types) {
+		return new EnumeratedTypeSet(Arrays.asList(types).iterator(), environment);
+	}
+
+	private static void assertMembers(TypeSet set, TType... expected) {
+		assertEquals(set.toString(), expected.length, set.enumerate().size());
+		for (TType type : expected)
+			assertTrue(set + " does not contain " + type.getPrettySignature(), set.contains(type));
+	}
+
+	@Test
+	public void union() throws Exception {
+		TypeSet union= set(fA, fB).addedTo(set(fB, fC));
+		assertMembers(union, fA, fB, fC);
+
+		EnumeratedTypeSet set= set(fD);
+		assertTrue(set.addAll(set(fA, fD)));
+		assertFalse(set.addAll(set(fA)));
+		assertMembers(set, fA, fD);
+	}
+
+	@Test
+	public void intersection() throws Exception {
+		TypeSet intersection= set(fA, fB, fC).intersectedWith(set(fB, fC, fD));
+		assertMembers(intersection, fB, fC);
+
+		assertTrue(set(fA, fB).intersectedWith(set(fC, fD)).isEmpty());
+
+		EnumeratedTypeSet set= set(fA, fB, fC);
+		assertTrue(set.retainAll(set(fC, fB, fD)));
+		assertMembers(set, fB, fC);
+	}
+
+	@Test
+	public void containsAll() throws Exception {
+		EnumeratedTypeSet set= set(fA, fB, fC);
+		assertTrue(set.containsAll(set(fC, fB)));
+		assertFalse(set.containsAll(set(fB, fD)));
+		assertFalse(set.contains(fD));
+		assertFalse(set.contains(array(fA)));
+
+		// the members of a set of another environment are looked up by type
+		TypeSetEnvironment other= new TypeSetEnvironment(fTypeEnvironment);
+		assertTrue(set.containsAll(set(other, fC, fA)));
+		assertFalse(set.containsAll(set(other, fD)));
+	}
+
+	@Test
+	public void equalsAndHashCode() throws Exception {
+		EnumeratedTypeSet set= set(fA, fB, fC);
+		TypeSetEnvironment other= new TypeSetEnvironment(fTypeEnvironment);
+		set(other, fD);
+		EnumeratedTypeSet otherSet= set(other, fC, fB, fA);
+		assertEquals(set, otherSet);
+		assertEquals(otherSet, set);
+		assertEquals(set.hashCode(), otherSet.hashCode());
+
+		SingletonTypeSet singleton= new SingletonTypeSet(fB, fTypeSetEnvironment);
+		assertEquals(set(other, fB), singleton);
+		assertEquals(set(other, fB).hashCode(), singleton.hashCode());
+		assertFalse(set.equals(set(fA, fB)));
+	}
+
+	@Test
+	public void upperBound() throws Exception {
+		assertMembers(set(fB, fC, fD).upperBound(), fB, fD);
+		assertMembers(set(fA, fB, fC, fD).upperBound(), fA);
+		assertMembers(set(array(fB), array(fC), array(fD)).upperBound(), array(fB), array(fD));
+		assertMembers(set(array(fC), fC).upperBound(), array(fC), fC);
+	}
+
+	@Test
+	public void lowerBound() throws Exception {
+		assertMembers(set(fA, fB, fC).lowerBound(), fC);
+		assertMembers(set(fB, fD).lowerBound(), fB, fD);
+		assertMembers(set(array(fA), array(fB), array(fC)).lowerBound(), array(fC));
+		assertMembers(set(array(fA), array(fD), fB).lowerBound(), array(fD), fB);
+	}
+
+	@Test
+	public void subTypesOfNewTypes() throws Exception {
+		assertMembers(set(fB, fD).upperBound(), fB, fD);
+		assertMembers(fTypeSetEnvironment.createSubTypesOfSingleton(fA).enumerate(), fA, fB, fC, fD);
+
+		// the subtypes known to the type set environment grow with the type environment
+		TType e= create("E");
+		assertMembers(set(fA, e).upperBound(), fA);
+		assertTrue(fTypeSetEnvironment.getSubTypeIndices(fA).get(fTypeSetEnvironment.getIndex(e)));
+	}
+
+	private static List<TType> members(TypeSet set) {
+		return Arrays.asList(set.enumerate().toArray());
+	}
+
+	@Test
+	public void insertionOrder() throws Exception {
+		// the indices follow the order of the first set, the members the order they were added
+		set(fA, fB, fC, fD);
+		EnumeratedTypeSet set= set(fD, fB, fA);
+		assertEquals(Arrays.asList(fD, fB, fA), members(set));
+		assertSame(fD, set.anyMember());
+
+		assertTrue(set.addAll(set(fC, fB)));
+		assertEquals(Arrays.asList(fD, fB, fA, fC), members(set));
+		assertTrue(set.remove(fD));
+		assertSame(fB, set.anyMember());
+		assertTrue(set.add(fD));
+		assertEquals(Arrays.asList(fB, fA, fC, fD), members(set));
+
+		assertEquals(Arrays.asList(fD, fC), members(set(fD, fC, fA).lowerBound()));
+		assertEquals(Arrays.asList(fC, fD), members(set(fC, fA, fD).lowerBound()));
+		assertEquals(Arrays.asList(fD, fB), members(set(fD, fC, fB).upperBound()));
+	}
+
+	@Test
+	public void iteratorRemove() throws Exception {
+		EnumeratedTypeSet set= set(fA, fB, fC, fD);
+		for (Iterator<TType> iter= set.iterator(); iter.hasNext();) {
+			TType type= iter.next();
+			if (type == fB || type == fD)
+				iter.remove();
+		}
+		assertMembers(set, fA, fC);
+
+		Iterator<TType> iter= set.iterator();
+		try {
+			iter.remove();
+			fail("removed before next()");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+		TType first= iter.next();
+		iter.remove();
+		try {
+			iter.remove();
+			fail("removed twice");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+		List<TType> rest= Arrays.asList(set.toArray());
+		assertEquals(1, rest.size());
+		assertFalse(rest.contains(first));
+		assertSame(iter.next(), rest.get(0));
+		assertFalse(iter.hasNext());
+	}
+}
@@ -0,0 +1,61 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ui.tests.performance;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import org.eclipse.test.performance.Dimension;
+
+import org.eclipse.jdt.junit.tests.RemoteTestRunnerProtocolTest;
+
+/**
+ * Measures how fast the JUnit view's client receives a large test run through the text
+ * and the binary protocol of the remote test runner.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class JUnitProtocolPerfTest extends JdtPerformanceTestCaseCommon {
+
+	private static final int TEST_COUNT= 100000;
+
+	@Test
+	public void testBinaryProtocol() throws Exception {
+		tagAsSummary("JUnit binary protocol - 100000 tests", Dimension.ELAPSED_PROCESS);
+		measureSession(true);
+	}
+
+	@Test
+	public void testTextProtocol() throws Exception {
+		measureSession(false);
+	}
+
+	private void measureSession(boolean binary) throws Exception {
+		// warm up
+		RemoteTestRunnerProtocolTest.runSession(binary, TEST_COUNT / 10);
+
+		for (int i= 0; i < 5; i++) {
+			startMeasuring();
+			List<String> events= RemoteTestRunnerProtocolTest.runSession(binary, TEST_COUNT);
+			stopMeasuring();
+			assertTrue(events.contains("runEnded 42"));
+		}
+		commitMeasurements();
+		assertPerformanceInRelativeBand(Dimension.ELAPSED_PROCESS, -100, +10);
+	}
+}
@@ -21,7 +21,9 @@ import org.eclipse.jdt.ui.tests.performance.views.TypeHierarchyPerfTest;
 
 @RunWith(Suite.class)
 @Suite.SuiteClasses({
-	TypeHierarchyPerfTest.class
+	TypeHierarchyPerfTest.class,
+	JUnitProtocolPerfTest.class,
+	TestRunSessionFootprintPerfTest.class
 })
 public class PerformanceTestSuite {
 }
@@ -0,0 +1,47 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ui.tests.performance;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import org.eclipse.test.performance.Dimension;
+
+import org.eclipse.jdt.junit.tests.TestRunSessionFootprintTest;
+
+import org.eclipse.jdt.internal.junit.model.TestRunSession;
+
+/**
+ * Measures the heap used by a JUnit test run session with one million parameterized tests.
+ */
+public class TestRunSessionFootprintPerfTest extends JdtPerformanceTestCaseCommon {
+
+	private static final int CLASS_COUNT= 10;
+	private static final int INVOCATION_COUNT= 100000;
+
+	@Test
+	public void testMillionTestSession() throws Exception {
+		tagAsSummary("JUnit session with 1000000 tests", Dimension.USED_JAVA_HEAP);
+
+		for (int i= 0; i < 3; i++) {
+			startMeasuring();
+			TestRunSession session= TestRunSessionFootprintTest.createSession(CLASS_COUNT, INVOCATION_COUNT);
+			stopMeasuring();
+			assertEquals(CLASS_COUNT, session.getTestRoot().getChildren().length);
+		}
+		commitMeasurements();
+		assertPerformanceInRelativeBand(Dimension.USED_JAVA_HEAP, -100, +10);
+	}
+}
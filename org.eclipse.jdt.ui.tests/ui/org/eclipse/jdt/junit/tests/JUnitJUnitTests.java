@@ -38,6 +38,13 @@ TestRunFilteredParameterizedRunnerTest4.class,
 TestRunSessionSerializationTests3.class,
 TestRunSessionSerializationTests4.class,
 
+RemoteTestRunnerProtocolTest.class,
+TestRunSessionFootprintTest.class,
+TestRunSessionSwapTest.class,
+TestRunSessionShardTest.class,
+TestSessionEventBatcherTest.class,
+TestDurationHistoryTest.class,
+
 JUnit3TestFinderTest.class,
 JUnitTestFinderTest.class,
 JUnit4TestFinderTest16.class,
@@ -0,0 +1,220 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.junit.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import org.eclipse.jdt.internal.junit.model.ITestRunListener2;
+import org.eclipse.jdt.internal.junit.model.RemoteTestRunnerClient;
+import org.eclipse.jdt.internal.junit.runner.BinaryMessageWriter;
+import org.eclipse.jdt.internal.junit.runner.MessageIds;
+import org.eclipse.jdt.internal.junit.runner.RemoteTestRunner;
+
+/**
+ * Sends the same test run through the text and the binary protocol and checks that
+ * {@link RemoteTestRunnerClient} reports identical events for both.
+ */
+public class RemoteTestRunnerProtocolTest {
+
+	private static final int TEST_COUNT= 20000;
+
+	private static class RecordingListener implements ITestRunListener2 {
+		final List<String> fEvents= Collections.synchronizedList(new ArrayList<>());
+		final CountDownLatch fDone= new CountDownLatch(1);
+
+		@Override
+		public void testRunStarted(int testCount) {
+			fEvents.add("runStarted " + testCount);
+		}
+
+		@Override
+		public void testRunEnded(long elapsedTime) {
+			fEvents.add("runEnded " + elapsedTime);
+			fDone.countDown();
+		}
+
+		@Override
+		public void testRunStopped(long elapsedTime) {
+			fEvents.add("runStopped " + elapsedTime);
+			fDone.countDown();
+		}
+
+		@Override
+		public void testStarted(String testId, String testName) {
+			fEvents.add("started " + testId + " " + testName);
+		}
+
+		@Override
+		public void testEnded(String testId, String testName) {
+			fEvents.add("ended " + testId + " " + testName);
+		}
+
+		@Override
+		public void testRunTerminated() {
+			fEvents.add("terminated");
+			fDone.countDown();
+		}
+
+		@Override
+		public void testTreeEntry(String description) {
+			fEvents.add("tree " + description);
+		}
+
+		@Override
+		public void testFailed(int status, String testId, String testName, String trace, String expected, String actual) {
+			fEvents.add("failed " + status + " " + testId + " " + testName + " " + trace + " " + expected + " " + actual);
+		}
+
+		@Override
+		public void testReran(String testId, String testClass, String testName, int status, String trace, String expected, String actual) {
+			fEvents.add("reran " + testId);
+		}
+	}
+
+	@Test
+	public void testBinaryProtocolReportsSameEvents() throws Exception {
+		List<String> text= runSession(false, TEST_COUNT);
+		List<String> binary= runSession(true, TEST_COUNT);
+		assertEquals(text.size(), binary.size());
+		assertEquals(text, binary);
+	}
+
+	/**
+	 * Sends a test run to a new {@link RemoteTestRunnerClient} and returns the events it reported.
+	 *
+	 * @param binary <code>true</code> to use the binary protocol, <code>false</code> for the text protocol
+	 * @param testCount the number of tests in the run
+	 * @return the reported events
+	 * @throws Exception if the run fails
+	 */
+	public static List<String> runSession(boolean binary, int testCount) throws Exception {
+		int port;
+		try (ServerSocket socket= new ServerSocket(0)) {
+			port= socket.getLocalPort();
+		}
+		RecordingListener listener= new RecordingListener();
+		RemoteTestRunnerClient client= new RemoteTestRunnerClient();
+		client.startListening(new ITestRunListener2[] { listener }, port);
+
+		try (Socket socket= connect(port)) {
+			if (binary) {
+				BinaryMessageWriter writer= new BinaryMessageWriter(new BufferedOutputStream(socket.getOutputStream(), 64 * 1024));
+				sendRun(writer, null, testCount);
+				writer.close();
+			} else {
+				PrintWriter writer= new PrintWriter(new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8)), false);
+				sendRun(null, writer, testCount);
+				writer.close();
+			}
+			assertTrue("test run did not end", listener.fDone.await(60, TimeUnit.SECONDS)); //$NON-NLS-1$
+		} finally {
+			client.stopWaiting();
+		}
+		synchronized (listener.fEvents) {
+			return new ArrayList<>(listener.fEvents);
+		}
+	}
+
+	private static Socket connect(int port) throws IOException, InterruptedException {
+		for (int i= 0; ; i++) {
+			try {
+				return new Socket("localhost", port); //$NON-NLS-1$
+			} catch (ConnectException e) {
+				if (i == 50)
+					throw e;
+				Thread.sleep(100);
+			}
+		}
+	}
+
+	/**
+	 * Sends the messages of a test run like {@link RemoteTestRunner} does.
+	 *
+	 * @param binaryWriter the binary writer, or <code>null</code>
+	 * @param textWriter the text writer, or <code>null</code>
+	 * @param testCount the number of tests
+	 */
+	private static void sendRun(BinaryMessageWriter binaryWriter, PrintWriter textWriter, int testCount) {
+		send(binaryWriter, textWriter, MessageIds.TEST_RUN_START + testCount + " v2"); //$NON-NLS-1$
+		sendTreeEntry(binaryWriter, textWriter, "1", "pack.ATest", true, testCount, "pack.ATest"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		for (int i= 0; i < testCount; i++) {
+			String name= "test[" + i + "], with comma(pack.ATest)"; //$NON-NLS-1$ //$NON-NLS-2$
+			sendTreeEntry(binaryWriter, textWriter, String.valueOf(i + 2), name, false, 1, "[" + i + "] äöü"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		for (int i= 0; i < testCount; i++) {
+			String id= String.valueOf(i + 2);
+			String name= "test[" + i + "], with comma(pack.ATest)"; //$NON-NLS-1$ //$NON-NLS-2$
+			sendTestMessage(binaryWriter, textWriter, MessageIds.TEST_START, id, name);
+			if (i % 100 == 0) {
+				sendTestMessage(binaryWriter, textWriter, i % 200 == 0 ? MessageIds.TEST_FAILED : MessageIds.TEST_ERROR, id, name);
+				send(binaryWriter, textWriter, MessageIds.TRACE_START);
+				send(binaryWriter, textWriter, "java.lang.AssertionError: " + i + "\n\tat pack.ATest.test(ATest.java:5)\n\tat java.base/java.lang.Thread.run(Thread.java:833)"); //$NON-NLS-1$ //$NON-NLS-2$
+				send(binaryWriter, textWriter, MessageIds.TRACE_END);
+			}
+			sendTestMessage(binaryWriter, textWriter, MessageIds.TEST_END, id, name);
+			flush(binaryWriter, textWriter);
+		}
+		send(binaryWriter, textWriter, MessageIds.TEST_RUN_END + 42);
+		flush(binaryWriter, textWriter);
+	}
+
+	private static void send(BinaryMessageWriter binaryWriter, PrintWriter textWriter, String message) {
+		if (binaryWriter != null)
+			binaryWriter.sendMessage(message);
+		else
+			textWriter.println(message);
+	}
+
+	private static void sendTestMessage(BinaryMessageWriter binaryWriter, PrintWriter textWriter, String messageId, String testId, String testName) {
+		if (binaryWriter != null)
+			binaryWriter.sendTestMessage(messageId, testId, testName);
+		else
+			textWriter.println(messageId + testId + ',' + RemoteTestRunner.escapeText(testName));
+	}
+
+	private static void sendTreeEntry(BinaryMessageWriter binaryWriter, PrintWriter textWriter, String testId, String testName, boolean isSuite, int testCount, String displayName) {
+		if (binaryWriter != null) {
+			binaryWriter.sendTreeEntry(testId, testName, isSuite, testCount, false, "-1", displayName, "", ""); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		} else {
+			textWriter.println(MessageIds.TEST_TREE + testId + ',' + RemoteTestRunner.escapeText(testName) + ',' + isSuite + ',' + testCount
+					+ ',' + false + ',' + "-1" + ',' + RemoteTestRunner.escapeText(displayName) + ',' + RemoteTestRunner.escapeText("") //$NON-NLS-1$ //$NON-NLS-2$
+					+ ',' + RemoteTestRunner.escapeText("")); //$NON-NLS-1$
+		}
+	}
+
+	private static void flush(BinaryMessageWriter binaryWriter, PrintWriter textWriter) {
+		if (binaryWriter != null)
+			binaryWriter.flush();
+		else
+			textWriter.flush();
+	}
+}
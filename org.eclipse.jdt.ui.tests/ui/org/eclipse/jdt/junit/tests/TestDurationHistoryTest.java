@@ -0,0 +1,126 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.junit.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.eclipse.jdt.internal.junit.model.TestDurationHistory;
+import org.eclipse.jdt.internal.junit.runner.TestDurations;
+
+/**
+ * Records test runs in a {@link TestDurationHistory} and reads them back like the test runner.
+ */
+public class TestDurationHistoryTest {
+
+	private File fFile;
+
+	private TestDurationHistory fHistory;
+
+	@Before
+	public void setUp() throws Exception {
+		fFile= File.createTempFile("testDurations", ".txt"); //$NON-NLS-1$ //$NON-NLS-2$
+		fFile.delete();
+	}
+
+	@After
+	public void tearDown() {
+		if (fHistory != null)
+			fHistory.dispose();
+		fFile.delete();
+	}
+
+	@Test
+	public void testHistoryIsPersisted() throws Exception {
+		TestDurationHistory history= createHistory();
+		assertNull(history.createSnapshot());
+
+		history.record(run("fast(pack.ATest)", 10, false, "slow(pack.ATest)", 1000, false)); //$NON-NLS-1$ //$NON-NLS-2$
+		history.record(run("fast(pack.ATest)", 20, false, "slow(pack.ATest)", 1000, true)); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals(13, history.getDuration("fast(pack.ATest)"), 0.001); //$NON-NLS-1$
+		history.flush();
+		assertTrue(fFile.isFile());
+
+		TestDurationHistory reloaded= new TestDurationHistory(fFile);
+		assertEquals(13, reloaded.getDuration("fast(pack.ATest)"), 0.001); //$NON-NLS-1$
+		assertEquals(1000, reloaded.getDuration("slow(pack.ATest)"), 0.001); //$NON-NLS-1$
+		assertTrue(Double.isNaN(reloaded.getDuration("other(pack.ATest)"))); //$NON-NLS-1$
+	}
+
+	@Test
+	public void testSnapshotIsShared() throws Exception {
+		TestDurationHistory history= createHistory();
+		history.record(run("fast(pack.ATest)", 10, false, "slow(pack.ATest)", 1000, false)); //$NON-NLS-1$ //$NON-NLS-2$
+		String first= history.createSnapshot();
+		assertEquals(first, history.createSnapshot());
+
+		history.record(run("fast(pack.ATest)", 20, false, "slow(pack.ATest)", 1000, false)); //$NON-NLS-1$ //$NON-NLS-2$
+		String second= history.createSnapshot();
+		assertNotEquals(first, second);
+		assertTrue(new File(first).isFile());
+
+		// only the latest two snapshots are kept
+		history.record(run("fast(pack.ATest)", 30, false, "slow(pack.ATest)", 1000, false)); //$NON-NLS-1$ //$NON-NLS-2$
+		String third= history.createSnapshot();
+		assertFalse(new File(first).exists());
+		assertTrue(new File(second).isFile());
+
+		history.dispose();
+		assertFalse(new File(second).exists());
+		assertFalse(new File(third).exists());
+	}
+
+	@Test
+	public void testOrders() throws Exception {
+		TestDurationHistory history= createHistory();
+		history.record(run("fast(pack.ATest)", 10, false, "slow(pack.ATest)", 1000, true)); //$NON-NLS-1$ //$NON-NLS-2$
+		String snapshot= history.createSnapshot();
+		try {
+			TestDurations shortestFirst= TestDurations.read(snapshot, TestDurations.ORDER_SHORTEST_FIRST);
+			assertTrue(shortestFirst.getPriority("fast(pack.ATest)") < shortestFirst.getPriority("slow(pack.ATest)")); //$NON-NLS-1$ //$NON-NLS-2$
+			// unknown tests take the mean duration
+			assertEquals(505, shortestFirst.getDuration("other(pack.ATest)"), 0.001); //$NON-NLS-1$
+
+			TestDurations failFast= TestDurations.read(snapshot, TestDurations.ORDER_FAIL_FAST);
+			// failure probability 1/3 in 10ms beats 2/3 in 1000ms
+			assertTrue(failFast.getPriority("fast(pack.ATest)") < failFast.getPriority("slow(pack.ATest)")); //$NON-NLS-1$ //$NON-NLS-2$
+			assertEquals(2.0 / 3, failFast.getFailureProbability("slow(pack.ATest)"), 0.001); //$NON-NLS-1$
+		} finally {
+			new File(snapshot).delete();
+		}
+	}
+
+	private TestDurationHistory createHistory() {
+		fHistory= new TestDurationHistory(fFile);
+		return fHistory;
+	}
+
+	private static Map<String, double[]> run(String test1, double millis1, boolean failed1, String test2, double millis2, boolean failed2) {
+		Map<String, double[]> run= new HashMap<>();
+		run.put(test1, new double[] { millis1, failed1 ? 1 : 0 });
+		run.put(test2, new double[] { millis2, failed2 ? 1 : 0 });
+		return run;
+	}
+}
@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.junit.tests;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import org.eclipse.jdt.internal.junit.model.TestCaseElement;
+import org.eclipse.jdt.internal.junit.model.TestElement;
+import org.eclipse.jdt.internal.junit.model.TestElement.Status;
+import org.eclipse.jdt.internal.junit.model.TestRunSession;
+import org.eclipse.jdt.internal.junit.model.TestSuiteElement;
+
+/**
+ * Checks that the compact storage of the elements of a session with many parameterized tests
+ * keeps their values. The heap footprint is measured by TestRunSessionFootprintPerfTest.
+ */
+public class TestRunSessionFootprintTest {
+
+	private static final int CLASS_COUNT= 10;
+	private static final int INVOCATION_COUNT= 2000;
+
+	private static final String TRACE= "org.opentest4j.AssertionFailedError: expected: <1> but was: <2>\n" //$NON-NLS-1$
+			+ "\tat org.junit.jupiter.api.AssertionUtils.fail(AssertionUtils.java:55)\n".repeat(30); //$NON-NLS-1$
+
+	@Test
+	public void testCompactElementsKeepValues() throws Exception {
+		TestRunSession session= createSession(CLASS_COUNT, INVOCATION_COUNT);
+
+		// class 3, invocation 1000
+		String id= String.valueOf(3 * (INVOCATION_COUNT + 2) + 2 + 1000 + 1);
+		TestCaseElement testCase= (TestCaseElement) session.getTestElement(id);
+		assertEquals(id, testCase.getId());
+		assertEquals("test(pack.ParameterizedTest3)", testCase.getTestName()); //$NON-NLS-1$
+		assertEquals("pack.ParameterizedTest3", testCase.getClassName()); //$NON-NLS-1$
+		assertEquals("[1000] 1000, value1000", testCase.getDisplayName()); //$NON-NLS-1$
+		assertArrayEquals(new String[] { "int", "java.lang.String" }, testCase.getParameterTypes()); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("[engine:junit-jupiter]/[class:pack.ParameterizedTest3]/[test-template:test(int, java.lang.String)]/[test-template-invocation:#1001]", //$NON-NLS-1$
+				testCase.getUniqueId());
+		assertEquals(Status.FAILURE, testCase.getStatus());
+		assertEquals(TRACE, testCase.getTrace());
+		assertNull(testCase.getExpected());
+
+		TestCaseElement next= (TestCaseElement) session.getTestElement(String.valueOf(Integer.parseInt(id) + 1));
+		assertSame(testCase.getTestName(), next.getTestName());
+		assertSame(testCase.getParameterTypes(), next.getParameterTypes());
+		assertNull(next.getTrace());
+
+		// the unique ID of the invocation is built from the one of its test template
+		TestSuiteElement template= testCase.getParent();
+		assertSame(template.getUniqueId(), template.getUniqueId());
+		assertTrue(testCase.getUniqueId().startsWith(template.getUniqueId() + '/'));
+
+		assertNull(session.getTestElement("0" + id)); //$NON-NLS-1$
+		assertNull(session.getTestElement(String.valueOf(Integer.MAX_VALUE)));
+	}
+
+	/**
+	 * Creates a session with one parameterized test per class. Every thousandth invocation fails.
+	 *
+	 * @param classCount the number of test classes
+	 * @param invocationCount the number of invocations of each parameterized test
+	 * @return the session
+	 */
+	public static TestRunSession createSession(int classCount, int invocationCount) {
+		TestRunSession session= new TestRunSession("FootprintTest", null); //$NON-NLS-1$
+		int id= 1;
+		for (int c= 0; c < classCount; c++) {
+			String className= "pack.ParameterizedTest" + c; //$NON-NLS-1$
+			String classUniqueId= "[engine:junit-jupiter]/[class:" + className + "]"; //$NON-NLS-1$ //$NON-NLS-2$
+			TestSuiteElement classSuite= (TestSuiteElement) session.createTestElement(session.getTestRoot(), String.valueOf(id++), className, true, 0, false,
+					null, null, classUniqueId);
+			String templateUniqueId= classUniqueId + "/[test-template:test(int, java.lang.String)]"; //$NON-NLS-1$
+			TestSuiteElement template= (TestSuiteElement) session.createTestElement(classSuite, String.valueOf(id++), "test(" + className + ")", true, 0, false, //$NON-NLS-1$ //$NON-NLS-2$
+					"test(int, String)", new String[] { "int", "java.lang.String" }, templateUniqueId); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			for (int i= 0; i < invocationCount; i++) {
+				TestElement testCase= session.createTestElement(template, String.valueOf(id++), "test(" + className + ")", false, 1, true, //$NON-NLS-1$ //$NON-NLS-2$
+						"[" + i + "] " + i + ", value" + i, new String[] { "int", "java.lang.String" }, //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+						templateUniqueId + "/[test-template-invocation:#" + (i + 1) + "]"); //$NON-NLS-1$ //$NON-NLS-2$
+				if (i % 1000 == 0) {
+					testCase.setStatus(Status.FAILURE, TRACE, null, null);
+				}
+			}
+		}
+		return session;
+	}
+}
@@ -0,0 +1,161 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.junit.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.function.BooleanSupplier;
+
+import org.junit.Test;
+
+import org.eclipse.core.resources.ResourcesPlugin;
+
+import org.eclipse.debug.core.ILaunch;
+import org.eclipse.debug.core.ILaunchManager;
+import org.eclipse.debug.core.Launch;
+
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+
+import org.eclipse.jdt.internal.junit.model.TestCaseElement;
+import org.eclipse.jdt.internal.junit.model.TestElement;
+import org.eclipse.jdt.internal.junit.model.TestElement.Status;
+import org.eclipse.jdt.internal.junit.model.TestRunSession;
+import org.eclipse.jdt.internal.junit.runner.MessageIds;
+
+/**
+ * Reports two shards of a test run to one session and checks the merged test tree.
+ */
+public class TestRunSessionShardTest {
+
+	@Test
+	public void testShardsMergeIntoOneTree() throws Exception {
+		int[] ports= new int[2];
+		try (ServerSocket socket0= new ServerSocket(0); ServerSocket socket1= new ServerSocket(0)) {
+			ports[0]= socket0.getLocalPort();
+			ports[1]= socket1.getLocalPort();
+		}
+		ILaunch launch= new Launch(null, ILaunchManager.RUN_MODE, null);
+		IJavaProject project= JavaCore.create(ResourcesPlugin.getWorkspace().getRoot().getProject("ShardTest")); //$NON-NLS-1$
+		TestRunSession session= new TestRunSession(launch, project, ports);
+
+		try (Socket shard0= connect(ports[0]); Socket shard1= connect(ports[1])) {
+			PrintWriter writer0= createWriter(shard0);
+			PrintWriter writer1= createWriter(shard1);
+			sendTree(writer0, "pack.ATest", 2); //$NON-NLS-1$
+			sendTree(writer1, "pack.BTest", 3); //$NON-NLS-1$
+			sendTests(writer1, "pack.BTest", 3); //$NON-NLS-1$
+			writer1.println(MessageIds.TEST_RUN_END + 200);
+			writer1.flush();
+
+			waitFor(() -> session.getStartedCount() == 3);
+			assertTrue("session ended with the first shard", session.isRunning()); //$NON-NLS-1$
+
+			sendTests(writer0, "pack.ATest", 2); //$NON-NLS-1$
+			writer0.println(MessageIds.TEST_RUN_END + 100);
+			writer0.flush();
+
+			waitFor(() -> !session.isRunning());
+		}
+
+		assertFalse(session.isStopped());
+		assertEquals(5, session.getTotalCount());
+		assertEquals(5, session.getStartedCount());
+		assertEquals(2, session.getFailureCount());
+
+		TestElement[] classes= session.getTestRoot().getChildren();
+		assertEquals(2, classes.length);
+		// test ids 1..n of shard s become 2 * id + s
+		assertEquals("pack.ATest", session.getTestElement("2").getTestName()); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("pack.BTest", session.getTestElement("3").getTestName()); //$NON-NLS-1$ //$NON-NLS-2$
+		TestCaseElement failed= (TestCaseElement) session.getTestElement("7"); //$NON-NLS-1$
+		assertEquals("test1(pack.BTest)", failed.getTestName()); //$NON-NLS-1$
+		assertEquals(Status.FAILURE, failed.getStatus());
+		assertEquals(session.getTestElement("3"), failed.getParent()); //$NON-NLS-1$
+		assertEquals(Status.OK, ((TestCaseElement) session.getTestElement("4")).getStatus()); //$NON-NLS-1$
+	}
+
+	private static PrintWriter createWriter(Socket socket) throws IOException {
+		return new PrintWriter(new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8)), false);
+	}
+
+	private static Socket connect(int port) throws IOException, InterruptedException {
+		for (int i= 0; ; i++) {
+			try {
+				return new Socket("localhost", port); //$NON-NLS-1$
+			} catch (ConnectException e) {
+				if (i == 50)
+					throw e;
+				Thread.sleep(100);
+			}
+		}
+	}
+
+	private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+		for (int i= 0; i < 600 && !condition.getAsBoolean(); i++) {
+			Thread.sleep(100);
+		}
+		assertTrue("timed out", condition.getAsBoolean()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Sends the test tree of one class like a shard of RemoteTestRunner does. The class has id 1,
+	 * its test methods have ids 2..testCount + 1.
+	 *
+	 * @param writer the writer of the shard
+	 * @param className the test class
+	 * @param testCount the number of test methods
+	 */
+	private static void sendTree(PrintWriter writer, String className, int testCount) {
+		writer.println(MessageIds.TEST_RUN_START + testCount + " v2"); //$NON-NLS-1$
+		writer.println(MessageIds.TEST_TREE + "1," + className + ",true," + testCount + ",false,-1," + className + ",,"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+		for (int i= 0; i < testCount; i++) {
+			String testName= "test" + i + "(" + className + ")"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			writer.println(MessageIds.TEST_TREE + (i + 2) + ',' + testName + ",false,1,false,1," + testName + ",,"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		writer.flush();
+	}
+
+	/**
+	 * Runs the test methods sent by {@link #sendTree(PrintWriter, String, int)}. The second test fails.
+	 *
+	 * @param writer the writer of the shard
+	 * @param className the test class
+	 * @param testCount the number of test methods
+	 */
+	private static void sendTests(PrintWriter writer, String className, int testCount) {
+		for (int i= 0; i < testCount; i++) {
+			String test= (i + 2) + "," + "test" + i + "(" + className + ")"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+			writer.println(MessageIds.TEST_START + test);
+			if (i == 1) {
+				writer.println(MessageIds.TEST_FAILED + test);
+				writer.println(MessageIds.TRACE_START);
+				writer.println("java.lang.AssertionError: " + i); //$NON-NLS-1$
+				writer.println(MessageIds.TRACE_END);
+			}
+			writer.println(MessageIds.TEST_END + test);
+		}
+		writer.flush();
+	}
+}
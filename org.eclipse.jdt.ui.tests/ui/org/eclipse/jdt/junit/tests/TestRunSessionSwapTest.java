@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.junit.tests;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import org.eclipse.jdt.junit.model.ITestElement.Result;
+
+import org.eclipse.jdt.internal.junit.model.TestCaseElement;
+import org.eclipse.jdt.internal.junit.model.TestElement;
+import org.eclipse.jdt.internal.junit.model.TestElement.Status;
+import org.eclipse.jdt.internal.junit.model.TestRoot;
+import org.eclipse.jdt.internal.junit.model.TestRunSession;
+import org.eclipse.jdt.internal.junit.model.TestSuiteElement;
+
+/**
+ * Swaps a session out to its binary archive and back in.
+ */
+public class TestRunSessionSwapTest {
+
+	private static final int INVOCATION_COUNT= 1000;
+
+	private static final String TRACE= "org.opentest4j.AssertionFailedError: expected: <1> but was: <2>\n" //$NON-NLS-1$
+			+ "\tat org.junit.jupiter.api.AssertionUtils.fail(AssertionUtils.java:55)\n".repeat(30); //$NON-NLS-1$
+
+	@Test
+	public void testSwapOutAndIn() throws Exception {
+		TestRunSession session= createSession();
+		try {
+			TestRoot root= session.getTestRoot();
+			Status rootStatus= root.getStatus();
+			Result result= session.getTestResult(true);
+
+			session.swapOut();
+			assertEquals(result, session.getTestResult(true));
+
+			TestRoot swappedIn= session.getTestRoot();
+			assertNotSame(root, swappedIn);
+			assertEquals(rootStatus, swappedIn.getStatus());
+			assertEquals(result, session.getTestResult(true));
+			assertEquals(root.getChildren().length, swappedIn.getChildren().length);
+
+			TestSuiteElement template= (TestSuiteElement) session.getTestElement("2"); //$NON-NLS-1$
+			assertEquals("test(pack.ParameterizedTest)", template.getTestName()); //$NON-NLS-1$
+			assertEquals("test(int, String)", template.getDisplayName()); //$NON-NLS-1$
+			assertEquals(Status.ERROR, template.getSuiteStatus());
+			assertEquals("suite failed", template.getTrace()); //$NON-NLS-1$
+			assertEquals(INVOCATION_COUNT, template.getChildren().length);
+
+			TestCaseElement failed= (TestCaseElement) session.getTestElement("3"); //$NON-NLS-1$
+			assertEquals(Status.FAILURE, failed.getStatus());
+			assertEquals(TRACE, failed.getTrace());
+			assertEquals("1", failed.getExpected()); //$NON-NLS-1$
+			assertEquals("2", failed.getActual()); //$NON-NLS-1$
+			assertEquals(0.5, failed.getElapsedTimeInSeconds(), 0);
+			assertTrue(failed.isDynamicTest());
+			assertArrayEquals(new String[] { "int", "java.lang.String" }, failed.getParameterTypes()); //$NON-NLS-1$ //$NON-NLS-2$
+			assertEquals("[engine:junit-jupiter]/[class:pack.ParameterizedTest]/[test-template:test(int, java.lang.String)]/[test-template-invocation:#1]", //$NON-NLS-1$
+					failed.getUniqueId());
+
+			TestCaseElement ignored= (TestCaseElement) session.getTestElement("4"); //$NON-NLS-1$
+			assertTrue(ignored.isIgnored());
+			assertNull(ignored.getTrace());
+
+			TestCaseElement passed= (TestCaseElement) session.getTestElement("5"); //$NON-NLS-1$
+			assertEquals(Status.OK, passed.getStatus());
+			assertEquals("[2] 2, value2", passed.getDisplayName()); //$NON-NLS-1$
+			assertEquals(template, passed.getParent());
+
+			// the archive is complete, swapping out again keeps it
+			session.swapOut();
+			assertEquals(INVOCATION_COUNT, ((TestSuiteElement) session.getTestElement("2")).getChildren().length); //$NON-NLS-1$
+		} finally {
+			session.removeSwapFile();
+		}
+	}
+
+	private static TestRunSession createSession() {
+		TestRunSession session= new TestRunSession("SwapTest", null); //$NON-NLS-1$
+		String className= "pack.ParameterizedTest"; //$NON-NLS-1$
+		String classUniqueId= "[engine:junit-jupiter]/[class:" + className + "]"; //$NON-NLS-1$ //$NON-NLS-2$
+		TestSuiteElement classSuite= (TestSuiteElement) session.createTestElement(session.getTestRoot(), "1", className, true, 0, false, //$NON-NLS-1$
+				null, null, classUniqueId);
+		String templateUniqueId= classUniqueId + "/[test-template:test(int, java.lang.String)]"; //$NON-NLS-1$
+		TestSuiteElement template= (TestSuiteElement) session.createTestElement(classSuite, "2", "test(" + className + ")", true, 0, false, //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				"test(int, String)", new String[] { "int", "java.lang.String" }, templateUniqueId); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		for (int i= 0; i < INVOCATION_COUNT; i++) {
+			TestElement testCase= session.createTestElement(template, String.valueOf(i + 3), "test(" + className + ")", false, 1, true, //$NON-NLS-1$ //$NON-NLS-2$
+					"[" + i + "] " + i + ", value" + i, new String[] { "int", "java.lang.String" }, //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+					templateUniqueId + "/[test-template-invocation:#" + (i + 1) + "]"); //$NON-NLS-1$ //$NON-NLS-2$
+			if (i == 0) {
+				session.registerTestFailureStatus(testCase, Status.FAILURE, TRACE, "1", "2"); //$NON-NLS-1$ //$NON-NLS-2$
+			} else if (i == 1) {
+				((TestCaseElement) testCase).setIgnored(true);
+			}
+			session.registerTestEnded(testCase, true);
+			testCase.setElapsedTimeInSeconds(0.5);
+		}
+		session.registerTestFailureStatus(template, Status.ERROR, "suite failed", null, null); //$NON-NLS-1$
+		return session;
+	}
+}
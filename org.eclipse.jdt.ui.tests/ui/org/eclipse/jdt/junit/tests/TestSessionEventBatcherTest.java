@@ -0,0 +1,260 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.junit.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+import org.eclipse.core.runtime.preferences.IEclipsePreferences;
+import org.eclipse.core.runtime.preferences.InstanceScope;
+
+import org.eclipse.core.resources.ResourcesPlugin;
+
+import org.eclipse.debug.core.ILaunch;
+import org.eclipse.debug.core.ILaunchManager;
+import org.eclipse.debug.core.Launch;
+
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+
+import org.eclipse.jdt.internal.junit.JUnitCorePlugin;
+import org.eclipse.jdt.internal.junit.JUnitPreferencesConstants;
+import org.eclipse.jdt.internal.junit.model.ITestSessionBatchListener;
+import org.eclipse.jdt.internal.junit.model.TestCaseElement;
+import org.eclipse.jdt.internal.junit.model.TestElement;
+import org.eclipse.jdt.internal.junit.model.TestElement.Status;
+import org.eclipse.jdt.internal.junit.model.TestRunSession;
+import org.eclipse.jdt.internal.junit.model.TestSessionEventBatch;
+import org.eclipse.jdt.internal.junit.runner.MessageIds;
+
+/**
+ * Runs sessions with an {@link ITestSessionBatchListener} and checks when and in which order
+ * the test events are delivered.
+ */
+public class TestSessionEventBatcherTest {
+
+	private static final int TEST_COUNT= 50;
+
+	/**
+	 * The id of the test that fails, see {@link #sendRun(PrintWriter, int)}.
+	 */
+	private static final String FAILED_TEST_ID= "3"; //$NON-NLS-1$
+
+	private static class BatchRecorder implements ITestSessionBatchListener {
+		final List<String> fEvents= Collections.synchronizedList(new ArrayList<>());
+		final List<TestSessionEventBatch> fBatches= Collections.synchronizedList(new ArrayList<>());
+		final CountDownLatch fDone= new CountDownLatch(1);
+
+		@Override
+		public void testsChanged(TestSessionEventBatch batch) {
+			fBatches.add(batch);
+			fEvents.add("batch"); //$NON-NLS-1$
+		}
+
+		@Override
+		public void sessionStarted() {
+			fEvents.add("sessionStarted"); //$NON-NLS-1$
+		}
+
+		@Override
+		public void sessionEnded(long elapsedTime) {
+			fEvents.add("sessionEnded"); //$NON-NLS-1$
+			fDone.countDown();
+		}
+
+		@Override
+		public void sessionStopped(long elapsedTime) {
+			fEvents.add("sessionStopped"); //$NON-NLS-1$
+			fDone.countDown();
+		}
+
+		@Override
+		public void sessionTerminated() {
+			fEvents.add("sessionTerminated"); //$NON-NLS-1$
+			fDone.countDown();
+		}
+
+		@Override
+		public void runningBegins() {
+			fEvents.add("runningBegins"); //$NON-NLS-1$
+		}
+
+		@Override
+		public void testReran(TestCaseElement testCaseElement, Status status, String trace, String expectedResult, String actualResult) {
+			fEvents.add("reran"); //$NON-NLS-1$
+		}
+
+		@Override
+		public boolean acceptsSwapToDisk() {
+			return false;
+		}
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		IEclipsePreferences preferences= InstanceScope.INSTANCE.getNode(JUnitCorePlugin.CORE_PLUGIN_ID);
+		preferences.remove(JUnitPreferencesConstants.EVENT_BATCH_INTERVAL);
+		preferences.remove(JUnitPreferencesConstants.EVENT_BATCH_SIZE);
+	}
+
+	@Test
+	public void testPendingBatchIsDeliveredBeforeSessionEnds() throws Exception {
+		// neither the interval nor the size limit delivers a batch during the run
+		BatchRecorder recorder= runSession(60 * 1000, 100000);
+
+		assertEquals(Arrays.asList("sessionStarted", "batch", "runningBegins", "batch", "sessionEnded"), recorder.fEvents); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+	}
+
+	@Test
+	public void testEventsAreCoalescedInOrder() throws Exception {
+		BatchRecorder recorder= runSession(60 * 1000, 100000);
+		assertEquals(2, recorder.fBatches.size());
+
+		TestSessionEventBatch added= recorder.fBatches.get(0);
+		assertEquals(TEST_COUNT + 1, added.getAddedTests().size());
+		assertEquals("1", added.getAddedTests().get(0).getId()); //$NON-NLS-1$
+		assertIds(added.getAddedTests().subList(1, TEST_COUNT + 1));
+		assertEquals(TEST_COUNT + 1, added.size());
+
+		TestSessionEventBatch run= recorder.fBatches.get(1);
+		assertIds(run.getStartedTests());
+		assertIds(run.getEndedTests());
+		assertEquals(1, run.getFailedTests().size());
+		assertEquals(FAILED_TEST_ID, run.getFailedTests().get(0).getId());
+		assertEquals(2 * TEST_COUNT + 1, run.size());
+
+		// every test started and ended in this batch, but is reported as changed once
+		List<TestElement> changed= new ArrayList<>(run.getChangedTests());
+		assertIds(changed);
+		assertSame(run.getStartedTests().get(TEST_COUNT - 1), run.getLastStartedTest());
+		assertEquals(Status.FAILURE, run.getFailedTests().get(0).getStatus());
+	}
+
+	@Test
+	public void testFullBatchIsDeliveredImmediately() throws Exception {
+		int maxBatchSize= 10;
+		BatchRecorder recorder= runSession(60 * 1000, maxBatchSize);
+
+		List<TestElement> started= new ArrayList<>();
+		List<TestElement> ended= new ArrayList<>();
+		int eventCount= 0;
+		for (TestSessionEventBatch batch : recorder.fBatches) {
+			assertTrue("batch too large: " + batch.size(), batch.size() <= maxBatchSize); //$NON-NLS-1$
+			started.addAll(batch.getStartedTests());
+			ended.addAll(batch.getEndedTests());
+			eventCount+= batch.size();
+		}
+		assertIds(started);
+		assertIds(ended);
+		assertEquals((TEST_COUNT + 1) + (2 * TEST_COUNT + 1), eventCount);
+		assertTrue(recorder.fBatches.size() >= eventCount / maxBatchSize);
+		assertEquals("sessionEnded", recorder.fEvents.get(recorder.fEvents.size() - 1)); //$NON-NLS-1$
+	}
+
+	/**
+	 * Asserts that the given elements are the test methods in the order they were sent.
+	 *
+	 * @param elements the elements
+	 */
+	private static void assertIds(List<? extends TestElement> elements) {
+		assertEquals(TEST_COUNT, elements.size());
+		for (int i= 0; i < TEST_COUNT; i++) {
+			assertEquals(String.valueOf(i + 2), elements.get(i).getId());
+		}
+	}
+
+	private static BatchRecorder runSession(int interval, int maxBatchSize) throws Exception {
+		IEclipsePreferences preferences= InstanceScope.INSTANCE.getNode(JUnitCorePlugin.CORE_PLUGIN_ID);
+		preferences.putInt(JUnitPreferencesConstants.EVENT_BATCH_INTERVAL, interval);
+		preferences.putInt(JUnitPreferencesConstants.EVENT_BATCH_SIZE, maxBatchSize);
+
+		int port;
+		try (ServerSocket socket= new ServerSocket(0)) {
+			port= socket.getLocalPort();
+		}
+		ILaunch launch= new Launch(null, ILaunchManager.RUN_MODE, null);
+		IJavaProject project= JavaCore.create(ResourcesPlugin.getWorkspace().getRoot().getProject("BatchTest")); //$NON-NLS-1$
+		TestRunSession session= new TestRunSession(launch, project, port);
+		BatchRecorder recorder= new BatchRecorder();
+		session.addTestSessionListener(recorder);
+
+		try (Socket socket= connect(port)) {
+			PrintWriter writer= new PrintWriter(new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8)), false);
+			sendRun(writer, TEST_COUNT);
+			assertTrue("session did not end", recorder.fDone.await(60, TimeUnit.SECONDS)); //$NON-NLS-1$
+		}
+		return recorder;
+	}
+
+	private static Socket connect(int port) throws IOException, InterruptedException {
+		for (int i= 0; ; i++) {
+			try {
+				return new Socket("localhost", port); //$NON-NLS-1$
+			} catch (ConnectException e) {
+				if (i == 50)
+					throw e;
+				Thread.sleep(100);
+			}
+		}
+	}
+
+	/**
+	 * Sends a run of one class like RemoteTestRunner does. The class has id 1, its test methods
+	 * have ids 2..testCount + 1, and the test with id {@link #FAILED_TEST_ID} fails.
+	 *
+	 * @param writer the writer to send to
+	 * @param testCount the number of test methods
+	 */
+	private static void sendRun(PrintWriter writer, int testCount) {
+		String className= "pack.ATest"; //$NON-NLS-1$
+		writer.println(MessageIds.TEST_RUN_START + testCount + " v2"); //$NON-NLS-1$
+		writer.println(MessageIds.TEST_TREE + "1," + className + ",true," + testCount + ",false,-1," + className + ",,"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+		for (int i= 0; i < testCount; i++) {
+			String testName= "test" + i + "(" + className + ")"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			writer.println(MessageIds.TEST_TREE + (i + 2) + ',' + testName + ",false,1,false,1," + testName + ",,"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		for (int i= 0; i < testCount; i++) {
+			String test= (i + 2) + "," + "test" + i + "(" + className + ")"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+			writer.println(MessageIds.TEST_START + test);
+			if (String.valueOf(i + 2).equals(FAILED_TEST_ID)) {
+				writer.println(MessageIds.TEST_FAILED + test);
+				writer.println(MessageIds.TRACE_START);
+				writer.println("java.lang.AssertionError: " + i); //$NON-NLS-1$
+				writer.println(MessageIds.TRACE_END);
+			}
+			writer.println(MessageIds.TEST_END + test);
+		}
+		writer.println(MessageIds.TEST_RUN_END + 100);
+		writer.flush();
+	}
+}
@@ -0,0 +1,206 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ui.tests.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.eclipse.jdt.testplugin.JavaProjectHelper;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.dom.ASTRequestor;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+
+import org.eclipse.jdt.internal.corext.dom.ASTBatchParser;
+import org.eclipse.jdt.internal.corext.dom.ASTBatchParser.BatchStatistics;
+
+import org.eclipse.jdt.ui.tests.core.rules.ProjectTestSetup;
+
+public class ASTBatchParserTest {
+	@Rule
+	public ProjectTestSetup pts= new ProjectTestSetup();
+
+	private static final int SOURCE_LENGTH= 1000;
+
+	/**
+	 * Estimated heap cost of a unit of {@link #SOURCE_LENGTH} characters.
+	 */
+	private static final long UNIT_COST= (long) SOURCE_LENGTH * StubbedParser.getBytesPerSourceChar();
+
+	private IJavaProject fJavaProject;
+
+	private IPackageFragment fPack;
+
+	/**
+	 * A parser with a stubbed heap and stubbed source lengths.
+	 */
+	private static class StubbedParser extends ASTBatchParser {
+		private final long fFreeHeap;
+		private final Map<String, Integer> fSourceLengths= new HashMap<>();
+		private boolean fUnderGCPressure;
+
+		/**
+		 * @param parallelism the number of threads sharing the heap
+		 * @param unitsPerBatch the number of units of {@link #SOURCE_LENGTH} characters
+		 *            that fit in the heap budget of a thread
+		 */
+		StubbedParser(int parallelism, int unitsPerBatch) {
+			super(parallelism);
+			// half of the free heap is shared by the threads, add half a unit for rounding
+			fFreeHeap= 2 * parallelism * (unitsPerBatch * UNIT_COST + UNIT_COST / 2);
+		}
+
+		static int getBytesPerSourceChar() {
+			return BYTES_PER_SOURCE_CHAR;
+		}
+
+		static int nextLimit(int batchSize, int limit, boolean underGCPressure) {
+			return computeNextLimit(batchSize, limit, underGCPressure);
+		}
+
+		int batchEnd(ICompilationUnit[] units, int start, int limit) {
+			return computeBatchEnd(units, start, limit);
+		}
+
+		@Override
+		protected long getFreeHeap() {
+			return fFreeHeap;
+		}
+
+		@Override
+		protected boolean isUnderGCPressure() {
+			return fUnderGCPressure;
+		}
+
+		@Override
+		protected int getSourceLength(ICompilationUnit unit) {
+			Integer length= fSourceLengths.get(unit.getElementName());
+			return length != null ? length.intValue() : SOURCE_LENGTH;
+		}
+	}
+
+	@Before
+	public void setUp() throws Exception {
+		fJavaProject= pts.getProject();
+		IPackageFragmentRoot root= JavaProjectHelper.addSourceContainer(fJavaProject, "src");
+		fPack= root.createPackageFragment("pack", true, null);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		JavaProjectHelper.clear(fJavaProject, pts.getDefaultClasspath());
+	}
+
+	private ICompilationUnit[] getUnits(int count) {
+		ICompilationUnit[] units= new ICompilationUnit[count];
+		for (int i= 0; i < count; i++)
+			units[i]= fPack.getCompilationUnit("A" + i + ".java");
+		return units;
+	}
+
+	private ICompilationUnit[] createUnits(int count) throws Exception {
+		ICompilationUnit[] units= new ICompilationUnit[count];
+		for (int i= 0; i < count; i++)
+			units[i]= fPack.createCompilationUnit("A" + i + ".java", "package pack;\npublic class A" + i + " {\n}\n", true, null);
+		return units;
+	}
+
+	@Test
+	public void batchFitsHeapShare() throws Exception {
+		ICompilationUnit[] units= getUnits(200);
+		assertEquals(60, new StubbedParser(1, 60).batchEnd(units, 0, 400));
+		assertEquals(100, new StubbedParser(1, 60).batchEnd(units, 40, 400));
+
+		// the threads share the budget
+		StubbedParser parser= new StubbedParser(2, 30);
+		assertEquals(30, parser.batchEnd(units, 0, 400));
+		assertEquals(190, parser.batchEnd(units, 160, 400));
+		assertEquals(200, parser.batchEnd(units, 190, 400));
+	}
+
+	@Test
+	public void batchHasMinimumAndLimit() throws Exception {
+		ICompilationUnit[] units= getUnits(200);
+		StubbedParser parser= new StubbedParser(1, 0);
+		assertEquals(25, parser.batchEnd(units, 0, 400));
+		assertEquals(200, parser.batchEnd(units, 190, 400));
+
+		parser= new StubbedParser(1, 1000);
+		assertEquals(200, parser.batchEnd(units, 0, 400));
+		assertEquals(30, parser.batchEnd(units, 0, 30));
+	}
+
+	@Test
+	public void largeUnitEndsBatch() throws Exception {
+		ICompilationUnit[] units= getUnits(200);
+		StubbedParser parser= new StubbedParser(1, 60);
+		parser.fSourceLengths.put("A30.java", Integer.valueOf(100 * SOURCE_LENGTH));
+		assertEquals(30, parser.batchEnd(units, 0, 400));
+		assertEquals(55, parser.batchEnd(units, 30, 400));
+
+		// the minimum is parsed even if it exceeds the budget
+		parser.fSourceLengths.put("A10.java", Integer.valueOf(100 * SOURCE_LENGTH));
+		assertEquals(25, parser.batchEnd(units, 0, 400));
+	}
+
+	@Test
+	public void gcPressureHalvesLimit() throws Exception {
+		assertEquals(25, StubbedParser.nextLimit(40, 400, true));
+		assertEquals(100, StubbedParser.nextLimit(200, 400, true));
+		assertEquals(150, StubbedParser.nextLimit(40, 100, false));
+		assertEquals(400, StubbedParser.nextLimit(300, 300, false));
+	}
+
+	@Test
+	public void statistics() throws Exception {
+		ICompilationUnit[] units= createUnits(60);
+		int[] accepted= new int[1];
+		ASTRequestor requestor= new ASTRequestor() {
+			@Override
+			public void acceptAST(ICompilationUnit source, CompilationUnit ast) {
+				accepted[0]++;
+			}
+		};
+
+		StubbedParser parser= new StubbedParser(1, 30);
+		parser.createASTs(units, new String[0], requestor, null);
+		assertEquals(60, accepted[0]);
+		BatchStatistics statistics= parser.getStatistics();
+		assertArrayEquals(new int[] { 30, 30 }, statistics.getBatchSizes());
+		assertEquals(2, statistics.getBatchCount());
+		assertEquals(60, statistics.getUnitCount());
+		assertEquals(2, statistics.getBatchTimes().length);
+		assertTrue(statistics.getPeakHeapUsage() > 0);
+
+		// under GC pressure the limit drops to the minimum after the first batch
+		accepted[0]= 0;
+		parser= new StubbedParser(1, 30);
+		parser.fUnderGCPressure= true;
+		parser.createASTs(units, new String[0], requestor, null);
+		assertEquals(60, accepted[0]);
+		assertArrayEquals(new int[] { 30, 25, 5 }, parser.getStatistics().getBatchSizes());
+	}
+}
@@ -17,6 +17,7 @@ package org.eclipse.jdt.ui.tests.core;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
@@ -30,12 +31,19 @@ import org.junit.Test;
 
 import org.eclipse.core.runtime.NullProgressMonitor;
 
+import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IInitializer;
+import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IMember;
 import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.IPackageFragment;
 import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.search.IJavaSearchScope;
+import org.eclipse.jdt.core.search.SearchEngine;
 
+import org.eclipse.jdt.internal.corext.callhierarchy.CallGraphIndex;
 import org.eclipse.jdt.internal.corext.callhierarchy.CallHierarchy;
+import org.eclipse.jdt.internal.corext.callhierarchy.CallHierarchyCore;
 import org.eclipse.jdt.internal.corext.callhierarchy.MethodWrapper;
 
 import org.eclipse.jdt.ui.tests.callhierarchy.CallHierarchyTestHelper;
@@ -96,6 +104,22 @@ public class CallHierarchyTest {
         helper.assertCalls(expectedSecondLevelMethods, wrapper2.getCalls(new NullProgressMonitor()));
     }
 
+	@Test
+	public void callersSearchedConcurrently() throws Exception {
+        helper.createSimpleClasses();
+
+        MethodWrapper wrapper= getSingleCallerRoot(helper.getMethod1());
+        MethodWrapper[] calls= wrapper.getCalls(new NullProgressMonitor());
+
+        // search the callers of all children at once, like the prefetch of the view does
+        Arrays.stream(calls).parallel().forEach(call -> call.getCalls(new NullProgressMonitor()));
+
+        MethodWrapper wrapper2= helper.findMethodWrapper(helper.getMethod3(), wrapper.getCalls(new NullProgressMonitor()));
+        helper.assertCalls(Arrays.asList(helper.getMethod4()), wrapper2.getCalls(new NullProgressMonitor()));
+        MethodWrapper wrapper3= helper.findMethodWrapper(helper.getMethod2(), wrapper.getCalls(new NullProgressMonitor()));
+        helper.assertCalls(Arrays.asList(helper.getMethod3()), wrapper3.getCalls(new NullProgressMonitor()));
+    }
+
 	@Test
 	public void callersNoResults() throws Exception {
         helper.createSimpleClasses();
@@ -157,6 +181,91 @@ public class CallHierarchyTest {
         helper.assertCalls(expectedMethods, cachedCalls);
     }
 
+	@Test
+	public void callGraphIndex() throws Exception {
+        helper.createSimpleClasses();
+        CallHierarchy.setCallGraphIndexEnabled(true);
+        try {
+            CallGraphIndex index= CallHierarchyCore.getDefault().getCallGraphIndex();
+            assertNotNull(index);
+            index.join();
+            assertTrue(index.isUpToDate());
+
+            // the workspace scope encloses the JRE, whose callers are not indexed
+            IMethod method= helper.getMethod1();
+            assertNull(index.getCallers(method, SearchEngine.createWorkspaceScope()));
+            // method1 does not override another method, its callers in source are indexed
+            assertNotNull(index.getSourceCallers(method, SearchEngine.createWorkspaceScope()));
+            helper.assertCalls(Arrays.asList(helper.getMethod2(), helper.getMethod3()), getSingleCallerRoot(method).getCalls(new NullProgressMonitor()));
+
+            method= helper.getMethod4();
+            assertNotNull(index.getCallees(method));
+            helper.assertCalls(Arrays.asList(helper.getMethod3()), getSingleCalleeRoot(method).getCalls(new NullProgressMonitor()));
+        } finally {
+            CallHierarchy.setCallGraphIndexEnabled(false);
+        }
+    }
+
+	@Test
+	public void callGraphIndexMatchesSearch() throws Exception {
+        helper.createPackages();
+        IPackageFragment pack= helper.getPackage1();
+        ICompilationUnit base= pack.createCompilationUnit("Base.java",
+                "package pack1;\n" +
+                "public class Base {\n" +
+                "    public void m() {}\n" +
+                "    public static void s() {}\n" +
+                "}\n", true, null);
+        ICompilationUnit sub= pack.createCompilationUnit("Sub.java",
+                "package pack1;\n" +
+                "public class Sub extends Base {\n" +
+                "    @Override public void m() {}\n" +
+                "}\n", true, null);
+        pack.createCompilationUnit("Client.java",
+                "package pack1;\n" +
+                "public class Client {\n" +
+                "    void callBase(Base b) { b.m(); Base.s(); }\n" +
+                "    void callSub(Sub s) { s.m(); }\n" +
+                "}\n", true, null);
+        IMethod overriding= sub.getType("Sub").getMethod("m", EMPTY);
+        IMethod overridden= base.getType("Base").getMethod("m", EMPTY);
+        IMethod staticMethod= base.getType("Base").getMethod("s", EMPTY);
+
+        CallHierarchy.setCallGraphIndexEnabled(false);
+        List<IMember> overridingCallers= getCallerMembers(overriding);
+        List<IMember> overriddenCallers= getCallerMembers(overridden);
+        List<IMember> staticCallers= getCallerMembers(staticMethod);
+        // the call through the supertype reference is a caller of the overriding method
+        assertTrue(overridingCallers.contains(pack.getCompilationUnit("Client.java").getType("Client").getMethod("callBase", new String[] { "QBase;" })));
+
+        CallHierarchy.setCallGraphIndexEnabled(true);
+        try {
+            CallGraphIndex index= CallHierarchyCore.getDefault().getCallGraphIndex();
+            assertNotNull(index);
+            index.join();
+            assertTrue(index.isUpToDate());
+
+            IJavaSearchScope scope= SearchEngine.createWorkspaceScope();
+            assertNull(index.getSourceCallers(overriding, scope));
+            assertNotNull(index.getSourceCallers(overridden, scope));
+            assertNotNull(index.getSourceCallers(staticMethod, scope));
+            assertNull(index.getCallers(staticMethod, scope));
+            assertNotNull(index.getCallers(staticMethod, SearchEngine.createJavaSearchScope(new IJavaElement[] { pack })));
+            helper.assertCalls(overridingCallers, getSingleCallerRoot(overriding).getCalls(new NullProgressMonitor()));
+            helper.assertCalls(overriddenCallers, getSingleCallerRoot(overridden).getCalls(new NullProgressMonitor()));
+            helper.assertCalls(staticCallers, getSingleCallerRoot(staticMethod).getCalls(new NullProgressMonitor()));
+        } finally {
+            CallHierarchy.setCallGraphIndexEnabled(false);
+        }
+    }
+
+    private static List<IMember> getCallerMembers(IMethod method) {
+        List<IMember> members= new ArrayList<>();
+        for (MethodWrapper call : getSingleCallerRoot(method).getCalls(new NullProgressMonitor()))
+            members.add(call.getMember());
+        return members;
+    }
+
 	@Test
 	public void recursiveCallers() throws Exception {
         helper.createSimpleClasses();
@@ -24,6 +24,7 @@ import org.eclipse.jdt.internal.ui.compare.JavaTokenComparatorTest;
 @RunWith(Suite.class)
 @Suite.SuiteClasses({
 AddImportTest.class,
+ASTBatchParserTest.class,
 SourceActionTests.class,
 ASTNodesInsertTest.class,
 BindingsHierarchyTest.class,
@@ -55,6 +56,8 @@ TypeHierarchyViewPartTest.class,
 TypeRulesTest.class,
 TypeInfoTest.class,
 StringsTest.class,
+SuperTypeHierarchyCacheTest.class,
+TypeNameResolutionCacheTest.class,
 IndentManipulationTest.class,
 SelectionHistoryTest.class,
 ASTProviderTest.class,
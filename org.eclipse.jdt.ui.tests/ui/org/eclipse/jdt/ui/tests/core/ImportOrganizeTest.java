@@ -20,6 +20,7 @@ import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.util.Hashtable;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.After;
 import org.junit.Before;
@@ -37,6 +38,8 @@ import org.eclipse.core.resources.ProjectScope;
 
 import org.eclipse.jface.preference.IPreferenceStore;
 
+import org.eclipse.ltk.core.refactoring.RefactoringStatus;
+
 import org.eclipse.jdt.core.IClasspathAttribute;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IImportDeclaration;
@@ -45,15 +48,25 @@ import org.eclipse.jdt.core.IPackageFragment;
 import org.eclipse.jdt.core.IPackageFragmentRoot;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.Signature;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.core.formatter.DefaultCodeFormatterConstants;
 import org.eclipse.jdt.core.manipulation.OrganizeImportsOperation;
 import org.eclipse.jdt.core.manipulation.OrganizeImportsOperation.IChooseImportQuery;
+import org.eclipse.jdt.core.manipulation.OrganizeImportsOperation.TypeNameMatchCache;
 import org.eclipse.jdt.core.search.TypeNameMatch;
 
+import org.eclipse.jdt.internal.corext.codemanipulation.CodeGenerationSettings;
+import org.eclipse.jdt.internal.corext.fix.ImportsFix;
+
 import org.eclipse.jdt.ui.JavaUI;
 import org.eclipse.jdt.ui.PreferenceConstants;
+import org.eclipse.jdt.ui.cleanup.ICleanUpFix;
 import org.eclipse.jdt.ui.tests.core.rules.ProjectTestSetup;
 
+import org.eclipse.jdt.internal.ui.preferences.JavaPreferencesSettings;
+
 public class ImportOrganizeTest extends CoreTests {
 
 	private IJavaProject fJProject1;
@@ -3713,6 +3726,95 @@ public class ImportOrganizeTest extends CoreTests {
 		assertEqualString(cu1.getSource(), buf1.toString());
 	}
 
+	@Test
+	public void testSharedTypeNameMatchCache() throws Exception {
+		IPackageFragmentRoot sourceFolder= JavaProjectHelper.addSourceContainer(fJProject1, "src");
+
+		IPackageFragment pack1= sourceFolder.createPackageFragment("pack1", false, null);
+		StringBuilder buf= new StringBuilder();
+		buf.append("package pack1;\n");
+		buf.append("public class Engine {\n");
+		buf.append("}\n");
+		pack1.createCompilationUnit("Engine.java", buf.toString(), false, null);
+
+		IPackageFragment pack2= sourceFolder.createPackageFragment("pack2", false, null);
+		ICompilationUnit[] cus= new ICompilationUnit[3];
+		for (int i= 0; i < cus.length; i++) {
+			buf= new StringBuilder();
+			buf.append("package pack2;\n");
+			buf.append("public class C" + i + " {\n");
+			buf.append("    Engine engine;\n");
+			buf.append("}\n");
+			cus[i]= pack2.createCompilationUnit("C" + i + ".java", buf.toString(), false, null);
+		}
+
+		String[] order= new String[] {};
+		IChooseImportQuery query= createQuery("C", new String[] {}, new int[] {});
+
+		TypeNameMatchCache cache= new TypeNameMatchCache();
+		for (ICompilationUnit cu : cus) {
+			OrganizeImportsOperation op= createOperation(cu, order, 99, false, true, true, query);
+			op.setTypeNameMatchCache(cache);
+			op.run(null);
+		}
+		assertEquals(1, cache.getMissCount());
+		assertEquals(cus.length - 1, cache.getHitCount());
+
+		for (ICompilationUnit cu : cus) {
+			assertImports(cu, new String[] { "pack1.Engine" });
+		}
+	}
+
+	@Test
+	public void testBulkAmbiguityChosenOnce() throws Exception {
+		IPackageFragmentRoot sourceFolder= JavaProjectHelper.addSourceContainer(fJProject1, "src");
+
+		for (String name : new String[] { "pack1", "pack2" }) {
+			IPackageFragment pack= sourceFolder.createPackageFragment(name, false, null);
+			StringBuilder buf= new StringBuilder();
+			buf.append("package " + name + ";\n");
+			buf.append("public class Engine {\n");
+			buf.append("}\n");
+			pack.createCompilationUnit("Engine.java", buf.toString(), false, null);
+		}
+
+		IPackageFragment pack3= sourceFolder.createPackageFragment("pack3", false, null);
+		ICompilationUnit[] cus= new ICompilationUnit[2];
+		for (int i= 0; i < cus.length; i++) {
+			StringBuilder buf= new StringBuilder();
+			buf.append("package pack3;\n");
+			buf.append("public class C" + i + " {\n");
+			buf.append("    Engine engine;\n");
+			buf.append("}\n");
+			cus[i]= pack3.createCompilationUnit("C" + i + ".java", buf.toString(), false, null);
+		}
+
+		setOrganizeImportSettings(new String[] {}, 99, 99, fJProject1);
+		AtomicInteger queryCount= new AtomicInteger();
+		IChooseImportQuery query= createQuery("C", new String[] { "pack2.Engine" }, new int[] { 2 });
+		ImportsFix.BulkContext context= new ImportsFix.BulkContext((openChoices, ranges) -> {
+			queryCount.incrementAndGet();
+			return query.chooseImports(openChoices, ranges);
+		});
+
+		CodeGenerationSettings settings= JavaPreferencesSettings.getCodeGenerationSettings(fJProject1);
+		RefactoringStatus status= new RefactoringStatus();
+		for (ICompilationUnit cu : cus) {
+			ASTParser parser= ASTParser.newParser(AST.getJLSLatest());
+			parser.setSource(cu);
+			parser.setResolveBindings(true);
+			CompilationUnit astRoot= (CompilationUnit) parser.createAST(null);
+
+			ICleanUpFix fix= ImportsFix.createCleanUp(astRoot, settings, true, status, context);
+			assertNotNull(fix);
+			String preview= fix.createChange(null).getPreviewContent(null);
+			assertTrue(preview, preview.contains("import pack2.Engine;"));
+		}
+		assertEquals(1, queryCount.get());
+		assertTrue(status.isOK());
+		assertEquals(cus.length - 1, context.getTypeNameMatchCache().getHitCount());
+	}
+
 	protected OrganizeImportsOperation createOperation(ICompilationUnit cu, String[] order, int threshold, boolean ignoreLowerCaseNames, boolean save, boolean allowSyntaxErrors, IChooseImportQuery chooseImportQuery) {
 		setOrganizeImportSettings(order, threshold, threshold, cu.getJavaProject());
 		return new OrganizeImportsOperation(cu, null, ignoreLowerCaseNames, save, allowSyntaxErrors, chooseImportQuery);
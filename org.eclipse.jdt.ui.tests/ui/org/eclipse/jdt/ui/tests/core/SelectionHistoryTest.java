@@ -13,8 +13,17 @@
  *******************************************************************************/
 package org.eclipse.jdt.ui.tests.core;
 
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.text.Collator;
 import java.util.Arrays;
 import java.util.Comparator;
@@ -26,6 +35,8 @@ import org.w3c.dom.Element;
 
 import org.eclipse.jdt.internal.corext.util.History;
 
+import org.eclipse.jdt.internal.ui.JavaPlugin;
+
 import org.eclipse.jdt.ui.tests.core.rules.ProjectTestSetup;
 
 public class SelectionHistoryTest {
@@ -116,7 +127,9 @@ public class SelectionHistoryTest {
 			super("");
 		}
 		@Override
-		protected void setAttributes(Object object, Element element) {}
+		protected void write(String object, DataOutputStream stream) {}
+		@Override
+		protected String createFromStream(DataInputStream stream) {return null;}
 		@Override
 		protected String createFromElement(Element type) {return null;}
 		@Override
@@ -124,6 +137,34 @@ public class SelectionHistoryTest {
 
 	}
 
+	private static final String PERSISTED_HISTORY= "SelectionHistoryTest.xml";
+
+	private static final class PersistedTestHistory extends History<String, String> {
+
+		public PersistedTestHistory() {
+			super(PERSISTED_HISTORY);
+			load();
+		}
+		@Override
+		protected void write(String object, DataOutputStream stream) throws IOException {stream.writeUTF(object);}
+		@Override
+		protected String createFromStream(DataInputStream stream) throws IOException {return stream.readUTF();}
+		@Override
+		protected String createFromElement(Element type) {return type.getAttribute("name");}
+		@Override
+		protected String getKey(String object) {return object;}
+
+	}
+
+	private static File getStateFile(String name) {
+		return JavaPlugin.getDefault().getStateLocation().append(name).toFile();
+	}
+
+	private static void deletePersistedHistory() {
+		getStateFile(PERSISTED_HISTORY).delete();
+		getStateFile("SelectionHistoryTest.history").delete();
+	}
+
 	@Test
 	public void organizeImportHistory01() throws Exception {
 		History<String, String> history= new TestHistory();
@@ -190,4 +231,85 @@ public class SelectionHistoryTest {
 		Arrays.sort(strings, comparator);
 		assertEquals(strings, expected);
 	}
+
+	@Test
+	public void journal() throws Exception {
+		deletePersistedHistory();
+		try {
+			History<String, String> history= new PersistedTestHistory();
+			history.accessed("a");
+			history.accessed("b");
+			history.accessed("c");
+			history.accessed("d");
+			history.remove("b");
+			history.accessed("a");
+
+			// the journal is read without saving the history
+			history= new PersistedTestHistory();
+			Comparator<String> comparator= new TestHistoryComparator(history);
+			String[] strings= {"a", "b", "c", "d"};
+			String[] expected= {"a", "d", "c", "b"};
+			Arrays.sort(strings, comparator);
+			assertEquals(strings, expected);
+			assertFalse(history.containsKey("b"));
+
+			for (int i= 0; i < 1000; i++)
+				history.accessed(Integer.toString(i % 100));
+			history= new PersistedTestHistory();
+			assertTrue(history.containsKey("99"));
+			assertFalse(history.containsKey("0"));
+			assertTrue(history.getPosition("99") > history.getPosition("98"));
+		} finally {
+			deletePersistedHistory();
+		}
+	}
+
+	@Test
+	public void damagedJournal() throws Exception {
+		int[] lengths= { -1, Integer.MAX_VALUE, 100 };
+		for (int length : lengths) {
+			deletePersistedHistory();
+			try {
+				History<String, String> history= new PersistedTestHistory();
+				history.accessed("a");
+				history.accessed("b");
+				try (DataOutputStream out= new DataOutputStream(new FileOutputStream(getStateFile("SelectionHistoryTest.history"), true))) {
+					out.writeByte(1);
+					out.writeInt(length);
+					out.writeUTF("c");
+				}
+
+				history= new PersistedTestHistory();
+				assertTrue(history.containsKey("a"));
+				assertTrue(history.getPosition("b") > history.getPosition("a"));
+				assertFalse(history.containsKey("c"));
+			} finally {
+				deletePersistedHistory();
+			}
+		}
+	}
+
+	@Test
+	public void migrateXml() throws Exception {
+		deletePersistedHistory();
+		try {
+			String xml= "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+					+ "<histroyRootNode>\n"
+					+ "<infoNode name=\"a\"/>\n"
+					+ "<infoNode name=\"b\"/>\n"
+					+ "</histroyRootNode>\n";
+			Files.write(getStateFile(PERSISTED_HISTORY).toPath(), xml.getBytes(StandardCharsets.UTF_8));
+
+			History<String, String> history= new PersistedTestHistory();
+			assertTrue(history.getPosition("b") > history.getPosition("a"));
+			// the xml file is kept for earlier versions
+			assertTrue(getStateFile(PERSISTED_HISTORY).exists());
+
+			history.accessed("a");
+			history= new PersistedTestHistory();
+			assertTrue(history.getPosition("a") > history.getPosition("b"));
+		} finally {
+			deletePersistedHistory();
+		}
+	}
 }
@@ -0,0 +1,161 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ui.tests.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.eclipse.jdt.testplugin.JavaProjectHelper;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.ITypeHierarchy;
+
+import org.eclipse.jdt.internal.corext.util.MethodOverrideTester;
+import org.eclipse.jdt.internal.corext.util.SuperTypeHierarchyCache;
+import org.eclipse.jdt.internal.corext.util.SuperTypeHierarchyCache.CacheStatistics;
+
+import org.eclipse.jdt.ui.tests.core.rules.ProjectTestSetup;
+
+public class SuperTypeHierarchyCacheTest {
+	@Rule
+	public ProjectTestSetup pts= new ProjectTestSetup();
+
+	private IJavaProject fJavaProject;
+
+	private IPackageFragment fPack;
+
+	@Before
+	public void setUp() throws Exception {
+		fJavaProject= pts.getProject();
+		IPackageFragmentRoot root= JavaProjectHelper.addSourceContainer(fJavaProject, "src");
+		fPack= root.createPackageFragment("pack", true, null);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		JavaProjectHelper.clear(fJavaProject, pts.getDefaultClasspath());
+	}
+
+	private IType createType(String name, String source) throws Exception {
+		ICompilationUnit cu= fPack.getCompilationUnit(name + ".java");
+		return cu.createType(source, null, true, null);
+	}
+
+	@Test
+	public void supertypesAreServedFromSubtypeHierarchy() throws Exception {
+		IType a= createType("A1", "public class A1 {\n}\n");
+		IType b= createType("B1", "public class B1 extends A1 {\n}\n");
+		IType c= createType("C1", "public class C1 extends B1 {\n}\n");
+
+		int misses= SuperTypeHierarchyCache.getCacheMisses();
+		int hits= SuperTypeHierarchyCache.getCacheHits();
+
+		ITypeHierarchy hierarchy= SuperTypeHierarchyCache.getTypeHierarchy(c);
+		assertEquals(misses + 1, SuperTypeHierarchyCache.getCacheMisses());
+
+		assertTrue(SuperTypeHierarchyCache.hasInCache(a));
+		assertSame(hierarchy, SuperTypeHierarchyCache.getTypeHierarchy(a));
+		assertSame(hierarchy, SuperTypeHierarchyCache.getTypeHierarchy(b));
+		assertEquals(misses + 1, SuperTypeHierarchyCache.getCacheMisses());
+		assertEquals(hits + 2, SuperTypeHierarchyCache.getCacheHits());
+	}
+
+	@Test
+	public void subsumedHierarchyIsReplaced() throws Exception {
+		IType a= createType("A2", "public class A2 {\n}\n");
+		IType b= createType("B2", "public class B2 extends A2 {\n}\n");
+
+		ITypeHierarchy hierarchyA= SuperTypeHierarchyCache.getTypeHierarchy(a);
+		ITypeHierarchy hierarchyB= SuperTypeHierarchyCache.getTypeHierarchy(b);
+		assertTrue(hierarchyA != hierarchyB);
+
+		assertSame(hierarchyB, SuperTypeHierarchyCache.getTypeHierarchy(a));
+	}
+
+	@Test
+	public void methodOverrideTesterIsCached() throws Exception {
+		IType a= createType("A3", "public class A3 {\n    public void foo() {}\n}\n");
+		IType b= createType("B3", "public class B3 extends A3 {\n    public void foo() {}\n}\n");
+
+		MethodOverrideTester tester= SuperTypeHierarchyCache.getMethodOverrideTester(b);
+		assertSame(tester, SuperTypeHierarchyCache.getMethodOverrideTester(b));
+		assertEquals(a.getMethod("foo", new String[0]), tester.findOverriddenMethod(b.getMethod("foo", new String[0]), false));
+	}
+
+	@Test
+	public void statistics() throws Exception {
+		IType a= createType("A4", "public class A4 {\n}\n");
+
+		SuperTypeHierarchyCache.getTypeHierarchy(a);
+		SuperTypeHierarchyCache.getTypeHierarchy(a);
+
+		CacheStatistics statistics= SuperTypeHierarchyCache.getStatistics();
+		assertEquals(SuperTypeHierarchyCache.getCacheHits(), statistics.getHits());
+		assertEquals(SuperTypeHierarchyCache.getCacheMisses(), statistics.getMisses());
+		assertTrue(statistics.getEntryCount() > 0);
+		assertTrue(statistics.getWeight() >= 2); // A and Object
+	}
+
+	@Test
+	public void changedHierarchyIsRemoved() throws Exception {
+		createType("A5", "public class A5 {\n}\n");
+		IType b= createType("B5", "public class B5 extends A5 {\n}\n");
+
+		ITypeHierarchy hierarchy= SuperTypeHierarchyCache.getTypeHierarchy(b);
+		assertTrue(SuperTypeHierarchyCache.hasInCache(b));
+
+		ICompilationUnit cu= b.getCompilationUnit();
+		cu.getBuffer().setContents("package pack;\npublic class B5 {\n}\n");
+		cu.save(null, true);
+
+		assertFalse(SuperTypeHierarchyCache.hasInCache(b));
+		ITypeHierarchy newHierarchy= SuperTypeHierarchyCache.getTypeHierarchy(b);
+		assertTrue(hierarchy != newHierarchy);
+		assertFalse(newHierarchy.contains(fPack.getCompilationUnit("A5.java").getType("A5")));
+	}
+
+	@Test
+	public void leastRecentlyUsedHierarchiesAreEvicted() throws Exception {
+		int count= 600; // each hierarchy contains the type and Object
+		StringBuilder buf= new StringBuilder();
+		buf.append("package pack;\n");
+		buf.append("public class E6 {\n}\n");
+		for (int i= 0; i < count; i++) {
+			buf.append("class E6_" + i + " {\n}\n");
+		}
+		ICompilationUnit cu= fPack.createCompilationUnit("E6.java", buf.toString(), true, null);
+
+		int evictions= SuperTypeHierarchyCache.getStatistics().getEvictions();
+		for (int i= 0; i < count; i++) {
+			SuperTypeHierarchyCache.getTypeHierarchy(cu.getType("E6_" + i));
+		}
+
+		CacheStatistics statistics= SuperTypeHierarchyCache.getStatistics();
+		assertTrue(statistics.getEvictions() > evictions);
+		assertTrue(statistics.getWeight() <= 1024);
+		assertFalse(SuperTypeHierarchyCache.hasInCache(cu.getType("E6_0")));
+		assertTrue(SuperTypeHierarchyCache.hasInCache(cu.getType("E6_" + (count - 1))));
+	}
+}
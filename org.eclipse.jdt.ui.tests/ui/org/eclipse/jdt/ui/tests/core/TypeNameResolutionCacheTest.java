@@ -0,0 +1,124 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ui.tests.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.eclipse.jdt.testplugin.JavaProjectHelper;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.search.IJavaSearchConstants;
+import org.eclipse.jdt.core.search.TypeNameMatch;
+
+import org.eclipse.jdt.internal.corext.util.TypeNameResolutionCache;
+import org.eclipse.jdt.internal.corext.util.TypeNameResolutionCache.CacheStatistics;
+
+import org.eclipse.jdt.ui.tests.core.rules.ProjectTestSetup;
+
+public class TypeNameResolutionCacheTest {
+	@Rule
+	public ProjectTestSetup pts= new ProjectTestSetup();
+
+	private IJavaProject fJavaProject;
+
+	private IPackageFragment fPack;
+
+	private TypeNameResolutionCache fCache;
+
+	@Before
+	public void setUp() throws Exception {
+		fJavaProject= pts.getProject();
+		IPackageFragmentRoot root= JavaProjectHelper.addSourceContainer(fJavaProject, "src");
+		fPack= root.createPackageFragment("pack", true, null);
+		fCache= TypeNameResolutionCache.getDefault();
+		fCache.clear();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		JavaProjectHelper.clear(fJavaProject, pts.getDefaultClasspath());
+		fCache.clear();
+	}
+
+	private ICompilationUnit createType(String name) throws Exception {
+		return fPack.createCompilationUnit(name + ".java", "package pack;\npublic class " + name + " {\n}\n", true, null);
+	}
+
+	private TypeNameMatch[] findTypes(String simpleName) throws Exception {
+		return fCache.findTypes(fJavaProject, simpleName, IJavaSearchConstants.WAIT_UNTIL_READY_TO_SEARCH, null);
+	}
+
+	@Test
+	public void secondLookupIsHit() throws Exception {
+		createType("Engine1");
+
+		CacheStatistics before= fCache.getStatistics();
+		TypeNameMatch[] matches= findTypes("Engine1");
+		assertEquals(1, matches.length);
+		assertEquals("pack.Engine1", matches[0].getFullyQualifiedName());
+		assertSame(matches, findTypes("Engine1"));
+
+		CacheStatistics after= fCache.getStatistics();
+		assertEquals(before.getMisses() + 1, after.getMisses());
+		assertEquals(before.getHits() + 1, after.getHits());
+		assertEquals(1, after.getEntryCount());
+	}
+
+	@Test
+	public void addedTypeInvalidatesName() throws Exception {
+		assertEquals(0, findTypes("Engine2").length);
+
+		createType("Engine2");
+		assertEquals(1, findTypes("Engine2").length);
+		assertTrue(fCache.getStatistics().getInvalidations() > 0);
+	}
+
+	@Test
+	public void removedTypeInvalidatesName() throws Exception {
+		ICompilationUnit cu= createType("Engine3");
+		assertEquals(1, findTypes("Engine3").length);
+
+		cu.delete(true, null);
+		assertEquals(0, findTypes("Engine3").length);
+	}
+
+	@Test
+	public void otherNamesStayCached() throws Exception {
+		createType("Engine4");
+		TypeNameMatch[] matches= findTypes("Engine4");
+
+		createType("Engine5");
+		assertSame(matches, findTypes("Engine4"));
+	}
+
+	@Test
+	public void classpathChangeClearsCache() throws Exception {
+		createType("Engine6");
+		findTypes("Engine6");
+		assertEquals(1, fCache.getStatistics().getEntryCount());
+
+		JavaProjectHelper.addSourceContainer(fJavaProject, "src2");
+		assertEquals(0, fCache.getStatistics().getEntryCount());
+	}
+}
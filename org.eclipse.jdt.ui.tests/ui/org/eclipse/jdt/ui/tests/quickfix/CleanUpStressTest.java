@@ -45,10 +45,13 @@ import org.eclipse.jdt.core.IPackageFragmentRoot;
 import org.eclipse.jdt.core.JavaModelException;
 
 import org.eclipse.jdt.internal.corext.fix.CleanUpConstants;
+import org.eclipse.jdt.internal.corext.fix.CleanUpRefactoring;
 
 import org.eclipse.jdt.ui.JavaElementLabels;
 import org.eclipse.jdt.ui.tests.core.rules.ProjectTestSetup;
 
+import org.eclipse.jdt.internal.ui.JavaPlugin;
+
 public class CleanUpStressTest extends CleanUpTestCase {
 
 	@Rule
@@ -5243,6 +5246,15 @@ public class CleanUpStressTest extends CleanUpTestCase {
 
 	@Test
 	public void testAllCleanUps() throws Exception {
+		performAllCleanUps(1);
+	}
+
+	@Test
+	public void testAllCleanUpsParallel() throws Exception {
+		performAllCleanUps(4);
+	}
+
+	private void performAllCleanUps(int parallelism) throws Exception {
 		List<IJavaElement> cus= new ArrayList<>();
 		addAllCUs(getProject().getChildren(), cus);
 
@@ -5300,7 +5312,10 @@ public class CleanUpStressTest extends CleanUpTestCase {
 		enable(CleanUpConstants.REMOVE_REDUNDANT_SEMICOLONS);
 
 		ICompilationUnit[] units= cus.toArray(new ICompilationUnit[cus.size()]);
-		performRefactoring(units, null);
+		CleanUpRefactoring ref= new CleanUpRefactoring();
+		ref.setUseOptionsFromProfile(true);
+		ref.setParallelism(parallelism);
+		performRefactoring(ref, units, JavaPlugin.getDefault().getCleanUpRegistry().createCleanUps(), null);
 
 
 //		generateTable(units);
@@ -24,6 +24,7 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 
+import java.io.File;
 import java.lang.reflect.Field;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -60,6 +61,8 @@ import org.eclipse.jdt.core.formatter.DefaultCodeFormatterConstants;
 
 import org.eclipse.jdt.internal.corext.dom.IASTSharedValues;
 import org.eclipse.jdt.internal.corext.fix.CleanUpConstants;
+import org.eclipse.jdt.internal.corext.fix.CleanUpRefactoring;
+import org.eclipse.jdt.internal.corext.fix.CleanUpResultCache;
 import org.eclipse.jdt.internal.corext.fix.FixMessages;
 import org.eclipse.jdt.internal.corext.fix.UpdateProperty;
 import org.eclipse.jdt.internal.corext.refactoring.util.RefactoringASTParser;
@@ -373,6 +376,103 @@ public class CleanUpTest extends CleanUpTestCase {
 		assertRefactoringResultAsExpected(new ICompilationUnit[] {cu1, cu2, cu3}, new String[] {expected1, expected2, expected3}, null);
 	}
 
+	@Test
+	public void testResultCache() throws Exception {
+		IPackageFragment pack1= fSourceFolder.createPackageFragment("test1", false, null);
+		String sample= "" //
+				+ "package test1;\n" //
+				+ "import java.util.List;\n" //
+				+ "public class E1 {\n" //
+				+ "}\n";
+		ICompilationUnit cu1= pack1.createCompilationUnit("E1.java", sample, false, null);
+
+		sample= "" //
+				+ "package test1;\n" //
+				+ "public class E2 {\n" //
+				+ "}\n";
+		ICompilationUnit cu2= pack1.createCompilationUnit("E2.java", sample, false, null);
+
+		enable(CleanUpConstants.REMOVE_UNUSED_CODE_IMPORTS);
+
+		File file= File.createTempFile("cleanUpResults", ".dat");
+		file.delete();
+		CleanUpResultCache cache= new CleanUpResultCache(file);
+		try {
+			performRefactoring(cache, cu1, cu2);
+			assertEquals(0, cache.getHitCount());
+			assertEquals(2, cache.getMissCount());
+			assertEquals("package test1;\npublic class E1 {\n}\n", cu1.getBuffer().getContents());
+
+			// E1 changed, so E2 is cleaned up again as well
+			performRefactoring(cache, cu1, cu2);
+			assertEquals(0, cache.getHitCount());
+			performRefactoring(cache, cu1, cu2);
+			assertEquals(2, cache.getHitCount());
+
+			// the cache is persisted
+			cache.save();
+			cache.dispose();
+			cache= new CleanUpResultCache(file);
+			performRefactoring(cache, cu1, cu2);
+			assertEquals(2, cache.getHitCount());
+			assertEquals(1.0, cache.getHitRate(), 0);
+
+			// a different configuration misses
+			enable(CleanUpConstants.REMOVE_REDUNDANT_SEMICOLONS);
+			performRefactoring(cache, cu1, cu2);
+			assertEquals(2, cache.getHitCount());
+
+			// a new unit in the project misses
+			performRefactoring(cache, cu1, cu2);
+			assertEquals(4, cache.getHitCount());
+			pack1.createCompilationUnit("E3.java", "package test1;\npublic class E3 {\n}\n", false, null);
+			performRefactoring(cache, cu1, cu2);
+			assertEquals(4, cache.getHitCount());
+
+			// a change of the preferences used by clean ups misses
+			performRefactoring(cache, cu1, cu2);
+			assertEquals(6, cache.getHitCount());
+			JavaPlugin.getDefault().getPreferenceStore().setValue(PreferenceConstants.ORGIMPORTS_ONDEMANDTHRESHOLD, 2);
+			try {
+				performRefactoring(cache, cu1, cu2);
+				assertEquals(6, cache.getHitCount());
+			} finally {
+				JavaPlugin.getDefault().getPreferenceStore().setToDefault(PreferenceConstants.ORGIMPORTS_ONDEMANDTHRESHOLD);
+			}
+
+			// a class path change drops the entries of the project
+			performRefactoring(cache, cu1, cu2);
+			assertEquals(8, cache.getHitCount());
+			JavaProjectHelper.addSourceContainer(fJProject1, "src2");
+			performRefactoring(cache, cu1, cu2);
+			assertEquals(8, cache.getHitCount());
+
+			// a unit with syntax errors is not remembered
+			ICompilationUnit cu4= pack1.createCompilationUnit("E4.java", "package test1;\npublic class E4 {\n    void foo( {}\n}\n", false, null);
+			performRefactoring(cache, cu4);
+			performRefactoring(cache, cu4);
+			assertEquals(8, cache.getHitCount());
+
+			// organize imports is not cached, it may report ambiguous imports without a change
+			enable(CleanUpConstants.ORGANIZE_IMPORTS);
+			long misses= cache.getMissCount();
+			performRefactoring(cache, cu1, cu2);
+			performRefactoring(cache, cu1, cu2);
+			assertEquals(8, cache.getHitCount());
+			assertEquals(misses, cache.getMissCount());
+		} finally {
+			cache.dispose();
+			file.delete();
+		}
+	}
+
+	private void performRefactoring(CleanUpResultCache cache, ICompilationUnit... cus) throws CoreException {
+		CleanUpRefactoring ref= new CleanUpRefactoring();
+		ref.setUseOptionsFromProfile(true);
+		ref.setResultCache(cache);
+		performRefactoring(ref, cus, JavaPlugin.getDefault().getCleanUpRegistry().createCleanUps(), null);
+	}
+
 	@Test
 	public void testUnusedCode02() throws Exception {
 		IPackageFragment pack1= fSourceFolder.createPackageFragment("test1", false, null);
@@ -41,6 +41,7 @@ public class CallHierarchy {
     private static final String PREF_USE_FILTERS = "PREF_USE_FILTERS"; //$NON-NLS-1$
     private static final String PREF_FILTERS_LIST = "PREF_FILTERS_LIST"; //$NON-NLS-1$
     private static final String PREF_FILTER_TESTCODE= "PREF_FILTER_TESTCODE"; //$NON-NLS-1$
+    private static final String PREF_USE_CALL_GRAPH_INDEX= "PREF_USE_CALL_GRAPH_INDEX"; //$NON-NLS-1$
 
     private static CallHierarchy fgInstance;
     private CallHierarchyCore fgCallHierarchyCore;
@@ -81,6 +82,20 @@ public class CallHierarchy {
         settings.setValue(PREF_FILTER_TESTCODE, enabled);
     }
 
+    /**
+     * Enables or disables the call graph index. A disabled index stops listening to changes and
+     * is saved.
+     *
+     * @param enabled <code>true</code> to answer call hierarchy queries from the index
+     */
+    public static void setCallGraphIndexEnabled(boolean enabled) {
+        IPreferenceStore settings = JavaPlugin.getDefault().getPreferenceStore();
+
+        settings.setValue(PREF_USE_CALL_GRAPH_INDEX, enabled);
+        if (!enabled)
+            CallGraphIndex.shutdown();
+    }
+
 
     public Collection<IJavaElement> getImplementingMethods(IMethod method) {
         return fgCallHierarchyCore.getImplementingMethods(method);
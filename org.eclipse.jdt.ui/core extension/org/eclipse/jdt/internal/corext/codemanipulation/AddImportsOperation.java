@@ -36,7 +36,6 @@ import org.eclipse.text.edits.TextEdit;
 import org.eclipse.jdt.core.Flags;
 import org.eclipse.jdt.core.IBuffer;
 import org.eclipse.jdt.core.ICompilationUnit;
-import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.Signature;
@@ -61,11 +60,7 @@ import org.eclipse.jdt.core.dom.rewrite.ImportRewrite;
 import org.eclipse.jdt.core.dom.rewrite.ImportRewrite.ImportRewriteContext;
 import org.eclipse.jdt.core.manipulation.SharedASTProviderCore;
 import org.eclipse.jdt.core.manipulation.TypeKinds;
-import org.eclipse.jdt.core.manipulation.TypeNameMatchCollector;
 import org.eclipse.jdt.core.search.IJavaSearchConstants;
-import org.eclipse.jdt.core.search.IJavaSearchScope;
-import org.eclipse.jdt.core.search.SearchEngine;
-import org.eclipse.jdt.core.search.SearchPattern;
 import org.eclipse.jdt.core.search.TypeNameMatch;
 
 import org.eclipse.jdt.internal.core.manipulation.StubUtility;
@@ -75,6 +70,7 @@ import org.eclipse.jdt.internal.corext.dom.ASTNodes;
 import org.eclipse.jdt.internal.corext.util.JavaConventionsUtil;
 import org.eclipse.jdt.internal.corext.util.JavaModelUtil;
 import org.eclipse.jdt.internal.corext.util.Messages;
+import org.eclipse.jdt.internal.corext.util.TypeNameResolutionCache;
 
 import org.eclipse.jdt.internal.ui.JavaUIStatus;
 
@@ -346,9 +342,7 @@ public class AddImportsOperation implements IWorkspaceRunnable {
 				return new ReplaceEdit(qualifierStart, simpleNameStart - qualifierStart, ""); //$NON-NLS-1$
 			}
 		}
-		IJavaSearchScope searchScope= SearchEngine.createJavaSearchScope(new IJavaElement[] { fCompilationUnit.getJavaProject() });
-
-		TypeNameMatch[] types= findAllTypes(simpleName, searchScope, nameNode, subMonitor.split(1));
+		TypeNameMatch[] types= findAllTypes(simpleName, nameNode, subMonitor.split(1));
 		if (types.length == 0) {
 			fStatus= JavaUIStatus.createError(IStatus.ERROR, Messages.format(CodeGenerationMessages.AddImportsOperation_error_notresolved_message, BasicElementLabels.getJavaElementName(simpleName)), null);
 			return null;
@@ -425,28 +419,11 @@ public class AddImportsOperation implements IWorkspaceRunnable {
 		return nameStart;
 	}
 
-	private int getSearchForConstant(int typeKinds) {
-		final int CLASSES= TypeKinds.CLASSES;
-		final int INTERFACES= TypeKinds.INTERFACES;
-		final int ENUMS= TypeKinds.ENUMS;
-		final int ANNOTATIONS= TypeKinds.ANNOTATIONS;
-
-		switch (typeKinds & (CLASSES | INTERFACES | ENUMS | ANNOTATIONS)) {
-			case CLASSES: return IJavaSearchConstants.CLASS;
-			case INTERFACES: return IJavaSearchConstants.INTERFACE;
-			case ENUMS: return IJavaSearchConstants.ENUM;
-			case ANNOTATIONS: return IJavaSearchConstants.ANNOTATION_TYPE;
-			case CLASSES | INTERFACES: return IJavaSearchConstants.CLASS_AND_INTERFACE;
-			case CLASSES | ENUMS: return IJavaSearchConstants.CLASS_AND_ENUM;
-			default: return IJavaSearchConstants.TYPE;
-		}
-	}
-
 
 	/*
 	 * Finds a type by the simple name.
 	 */
-	private TypeNameMatch[] findAllTypes(String simpleTypeName, IJavaSearchScope searchScope, SimpleName nameNode, IProgressMonitor monitor) throws JavaModelException {
+	private TypeNameMatch[] findAllTypes(String simpleTypeName, SimpleName nameNode, IProgressMonitor monitor) throws JavaModelException {
 		boolean is50OrHigher= JavaModelUtil.is50OrHigher(fCompilationUnit.getJavaProject());
 
 		int typeKinds= TypeKinds.ALL_TYPES;
@@ -454,14 +431,10 @@ public class AddImportsOperation implements IWorkspaceRunnable {
 			typeKinds= ASTResolving.getPossibleTypeKinds(nameNode, is50OrHigher);
 		}
 
-		ArrayList<TypeNameMatch> typeInfos= new ArrayList<>();
-		TypeNameMatchCollector requestor= new TypeNameMatchCollector(typeInfos);
-		int matchMode= SearchPattern.R_EXACT_MATCH | SearchPattern.R_CASE_SENSITIVE;
-		new SearchEngine().searchAllTypeNames(null, matchMode, simpleTypeName.toCharArray(), matchMode, getSearchForConstant(typeKinds), searchScope, requestor, IJavaSearchConstants.WAIT_UNTIL_READY_TO_SEARCH, monitor);
+		TypeNameMatch[] typeInfos= TypeNameResolutionCache.getDefault().findTypes(fCompilationUnit.getJavaProject(), simpleTypeName, IJavaSearchConstants.WAIT_UNTIL_READY_TO_SEARCH, monitor);
 
-		ArrayList<TypeNameMatch> typeRefsFound= new ArrayList<>(typeInfos.size());
-		for (int i= 0, len= typeInfos.size(); i < len; i++) {
-			TypeNameMatch curr= typeInfos.get(i);
+		ArrayList<TypeNameMatch> typeRefsFound= new ArrayList<>(typeInfos.length);
+		for (TypeNameMatch curr : typeInfos) {
 			if (curr.getPackageName().length() > 0) { // do not suggest imports from the default package
 				if (isOfKind(curr, typeKinds, is50OrHigher) && isVisible(curr)) {
 					typeRefsFound.add(curr);
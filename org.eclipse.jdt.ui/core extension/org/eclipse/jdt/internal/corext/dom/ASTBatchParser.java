@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2016 IBM Corporation and others.
+ * Copyright (c) 2007, 2024 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -13,17 +13,25 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.corext.dom;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Hashtable;
-import java.util.List;
 
+import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.NullProgressMonitor;
 
+import org.eclipse.core.resources.IResource;
+
+import org.eclipse.jdt.core.IBuffer;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.dom.ASTParser;
 import org.eclipse.jdt.core.dom.ASTRequestor;
 import org.eclipse.jdt.core.dom.IBinding;
@@ -34,20 +42,145 @@ import org.eclipse.jdt.internal.ui.util.Progress;
  * Creates AST from a set of compilation units. Uses the
  * batch parser. Splits the set of compilation units in subsets
  * such that it is unlikely that a out of memory exception will occur.
+ * <p>
+ * The size of each subset is computed from the heap headroom at the time the
+ * subset is created and from the source length of its compilation units. The
+ * size is halved whenever the heap is still nearly full after a garbage collection.
+ * </p>
  *
  * @since 3.4
  */
 public class ASTBatchParser {
 
-	private static final int MAX_AT_ONCE;
-	static {
-		long maxMemory= Runtime.getRuntime().maxMemory() / (1 << 20); // in MiB
+	/**
+	 * Statistics about the batches parsed by an {@link ASTBatchParser}.
+	 * The statistics may be updated concurrently if the same parser is used
+	 * from several threads.
+	 *
+	 * @since 3.32
+	 */
+	public static final class BatchStatistics {
+
+		private int fBatchCount;
+		private int fUnitCount;
+		private long fPeakHeapUsage;
+		private int[] fBatchSizes= new int[16];
+		private long[] fBatchTimes= new long[16];
+
+		private synchronized void batchParsed(int units, long time, long heapUsage) {
+			if (fBatchCount == fBatchTimes.length) {
+				fBatchSizes= Arrays.copyOf(fBatchSizes, fBatchCount * 2);
+				fBatchTimes= Arrays.copyOf(fBatchTimes, fBatchCount * 2);
+			}
+			fBatchSizes[fBatchCount]= units;
+			fBatchTimes[fBatchCount]= time;
+			fBatchCount++;
+			fUnitCount+= units;
+			fPeakHeapUsage= Math.max(fPeakHeapUsage, heapUsage);
+		}
+
+		/**
+		 * @return the number of batches passed to the AST parser
+		 */
+		public synchronized int getBatchCount() {
+			return fBatchCount;
+		}
+
+		/**
+		 * @return the number of compilation units parsed
+		 */
+		public synchronized int getUnitCount() {
+			return fUnitCount;
+		}
+
+		/**
+		 * @return the highest used heap size in bytes, sampled after each batch
+		 */
+		public synchronized long getPeakHeapUsage() {
+			return fPeakHeapUsage;
+		}
+
+		/**
+		 * @return the number of compilation units in each batch, in the order the batches were parsed
+		 */
+		public synchronized int[] getBatchSizes() {
+			return Arrays.copyOf(fBatchSizes, fBatchCount);
+		}
+
+		/**
+		 * @return the time in milliseconds spent in each batch, in the order the batches were parsed
+		 */
+		public synchronized long[] getBatchTimes() {
+			return Arrays.copyOf(fBatchTimes, fBatchCount);
+		}
+
+		@Override
+		public synchronized String toString() {
+			long total= 0;
+			long max= 0;
+			for (int i= 0; i < fBatchCount; i++) {
+				total+= fBatchTimes[i];
+				max= Math.max(max, fBatchTimes[i]);
+			}
+			return "batches: " + fBatchCount + ", units: " + fUnitCount + ", peak heap: " + (fPeakHeapUsage >> 20) + " MiB, time: " + total + " ms, slowest batch: " + max + " ms"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+		}
+	}
+
+	/**
+	 * The minimal number of units in a batch.
+	 *
+	 * @since 3.32
+	 */
+	protected static final int MIN_AT_ONCE= 25;
+
+	/**
+	 * The maximal number of units in a batch.
+	 *
+	 * @since 3.32
+	 */
+	protected static final int MAX_AT_ONCE= 400;
 
-		if      (maxMemory >= 2000) MAX_AT_ONCE= 400;
-		else if (maxMemory >= 1500) MAX_AT_ONCE= 300;
-		else if (maxMemory >= 1000) MAX_AT_ONCE= 200;
-		else if (maxMemory >=  500) MAX_AT_ONCE= 100;
-		else                        MAX_AT_ONCE=  25;
+	/**
+	 * Rough number of heap bytes needed per character of source while the
+	 * AST of a compilation unit and its bindings are alive.
+	 *
+	 * @since 3.32
+	 */
+	protected static final int BYTES_PER_SOURCE_CHAR= 64;
+
+	/**
+	 * Source length assumed for units whose length cannot be determined cheaply.
+	 */
+	private static final int DEFAULT_SOURCE_LENGTH= 8 * 1024;
+
+	/**
+	 * If more than this fraction of a heap pool is still in use after a garbage
+	 * collection, the heap is considered to be under pressure.
+	 */
+	private static final double GC_PRESSURE_THRESHOLD= 0.75;
+
+	private final int fParallelism;
+
+	private final BatchStatistics fStatistics= new BatchStatistics();
+
+	/**
+	 * Creates a parser whose batches may use half of the free heap.
+	 */
+	public ASTBatchParser() {
+		this(1);
+	}
+
+	/**
+	 * Creates a parser which is used by <code>parallelism</code> threads at the same time.
+	 * The heap budget of a batch is shared among the threads.
+	 *
+	 * @param parallelism the number of threads calling {@link #createASTs(ICompilationUnit[], String[], ASTRequestor, IProgressMonitor)}
+	 *   concurrently, must be at least <code>1</code>
+	 */
+	public ASTBatchParser(int parallelism) {
+		if (parallelism < 1)
+			throw new IllegalArgumentException("parallelism must be at least 1"); //$NON-NLS-1$
+		fParallelism= parallelism;
 	}
 
 	/**
@@ -79,20 +212,18 @@ public class ASTBatchParser {
 		try {
 
 			for (ICompilationUnit[] units : splitByProject(compilationUnits)) {
-				if (units.length <= MAX_AT_ONCE) {
-					createParser(units[0].getJavaProject()).createASTs(units, bindingKeys, requestor, Progress.subMonitor(monitor, units.length));
-				} else {
-					List<ICompilationUnit> list= Arrays.asList(units);
-					int end= 0;
-					int cursor= 0;
-					while (cursor < units.length) {
-						end= Math.min(end + MAX_AT_ONCE, units.length);
-						List<ICompilationUnit> toParse= list.subList(cursor, end);
-
-						createParser(units[0].getJavaProject()).createASTs(toParse.toArray(new ICompilationUnit[toParse.size()]), bindingKeys, requestor,
-							Progress.subMonitor(monitor, toParse.size()));
-						cursor= end;
-					}
+				int limit= MAX_AT_ONCE;
+				int cursor= 0;
+				while (cursor < units.length) {
+					int end= computeBatchEnd(units, cursor, limit);
+					ICompilationUnit[] toParse= Arrays.copyOfRange(units, cursor, end);
+
+					long start= System.currentTimeMillis();
+					createParser(units[0].getJavaProject()).createASTs(toParse, bindingKeys, requestor, Progress.subMonitor(monitor, toParse.length));
+					fStatistics.batchParsed(toParse.length, System.currentTimeMillis() - start, getUsedHeap());
+
+					limit= computeNextLimit(end - cursor, limit, isUnderGCPressure());
+					cursor= end;
 				}
 			}
 		} finally {
@@ -100,6 +231,130 @@ public class ASTBatchParser {
 		}
 	}
 
+	/**
+	 * Returns statistics about all batches parsed by this parser so far.
+	 *
+	 * @return the statistics
+	 * @since 3.32
+	 */
+	public BatchStatistics getStatistics() {
+		return fStatistics;
+	}
+
+	/**
+	 * Returns the exclusive end index of the batch starting at <code>start</code>. The
+	 * batch contains at least {@link #MIN_AT_ONCE} units (if available) and at most
+	 * <code>limit</code> units, and its estimated heap cost fits in this thread's share of
+	 * half of the free heap.
+	 *
+	 * @param units the units to parse
+	 * @param start the index of the first unit of the batch
+	 * @param limit the maximal number of units in the batch
+	 * @return the end index of the batch
+	 * @since 3.32
+	 */
+	protected final int computeBatchEnd(ICompilationUnit[] units, int start, int limit) {
+		long budget= getFreeHeap() / 2 / fParallelism;
+		int max= Math.min(units.length, start + limit);
+		int min= Math.min(max, start + MIN_AT_ONCE);
+
+		long cost= 0;
+		int end= start;
+		while (end < max) {
+			cost+= (long) getSourceLength(units[end]) * BYTES_PER_SOURCE_CHAR;
+			if (end >= min && cost > budget)
+				break;
+			end++;
+		}
+		return end;
+	}
+
+	/**
+	 * Returns the maximal number of units of the next batch. The limit is halved if the heap
+	 * is under pressure after a batch, and grows back otherwise.
+	 *
+	 * @param batchSize the number of units in the batch just parsed
+	 * @param limit the limit of the batch just parsed
+	 * @param underGCPressure whether the heap is under pressure after the batch
+	 * @return the limit of the next batch
+	 * @since 3.32
+	 */
+	protected static int computeNextLimit(int batchSize, int limit, boolean underGCPressure) {
+		if (underGCPressure)
+			return Math.max(MIN_AT_ONCE, batchSize / 2);
+		return Math.min(MAX_AT_ONCE, limit + limit / 2);
+	}
+
+	/**
+	 * Returns the number of characters of the source of the given unit.
+	 * <p>
+	 * Subclasses may override
+	 * </p>
+	 *
+	 * @param unit the compilation unit
+	 * @return the source length, or an estimate if it cannot be determined cheaply
+	 * @since 3.32
+	 */
+	protected int getSourceLength(ICompilationUnit unit) {
+		try {
+			if (unit.isWorkingCopy() && unit.hasUnsavedChanges()) {
+				IBuffer buffer= unit.getBuffer();
+				if (buffer != null)
+					return buffer.getLength();
+			}
+			IResource resource= unit.getResource();
+			if (resource != null) {
+				IPath location= resource.getLocation();
+				if (location != null) {
+					long length= location.toFile().length();
+					if (length > 0)
+						return (int) Math.min(length, Integer.MAX_VALUE);
+				}
+			}
+		} catch (JavaModelException e) {
+			// use the default
+		}
+		return DEFAULT_SOURCE_LENGTH;
+	}
+
+	/**
+	 * Returns the number of heap bytes that can still be allocated.
+	 * <p>
+	 * Subclasses may override
+	 * </p>
+	 *
+	 * @return the free heap in bytes
+	 * @since 3.32
+	 */
+	protected long getFreeHeap() {
+		return Runtime.getRuntime().maxMemory() - getUsedHeap();
+	}
+
+	private static long getUsedHeap() {
+		Runtime runtime= Runtime.getRuntime();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	/**
+	 * Tells whether a heap memory pool is still nearly full after its last garbage collection.
+	 * <p>
+	 * Subclasses may override
+	 * </p>
+	 *
+	 * @return <code>true</code> if the heap is under pressure
+	 * @since 3.32
+	 */
+	protected boolean isUnderGCPressure() {
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() != MemoryType.HEAP || !pool.isCollectionUsageThresholdSupported())
+				continue;
+			MemoryUsage usage= pool.getCollectionUsage();
+			if (usage != null && usage.getMax() > 0 && usage.getUsed() > usage.getMax() * GC_PRESSURE_THRESHOLD)
+				return true;
+		}
+		return false;
+	}
+
 	/**
 	 * Creates a new parser which can be used to create ASTs
 	 * for compilation units in <code>project</code>
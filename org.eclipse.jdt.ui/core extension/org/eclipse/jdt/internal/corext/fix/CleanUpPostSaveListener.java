@@ -328,6 +328,14 @@ public class CleanUpPostSaveListener implements IPostSaveListener {
 
 			ICleanUp[] cleanUps= getCleanUps(unit.getJavaProject().getProject());
 
+			// the result of cleaning up changed regions only is not cached
+			String resultKey= null;
+			if (changedRegions == null) {
+				resultKey= getResultKey(unit, cleanUps);
+				if (resultKey != null && CleanUpResultCache.getDefault().isUnchanged(unit.getJavaProject(), resultKey))
+					return;
+			}
+
 			long oldFileValue= unit.getResource().getModificationStamp();
 			long oldDocValue= getDocumentStamp((IFile)unit.getResource(), Progress.subMonitor(monitor, 2));
 
@@ -372,6 +380,8 @@ public class CleanUpPostSaveListener implements IPostSaveListener {
     				CompilationUnit ast= null;
     				if (requiresAST(cleanUps)) {
     					ast= createAst(unit, options, Progress.subMonitor(monitor, 10));
+    					if (!CleanUpResultCache.isCacheable(ast))
+    						resultKey= null;
     				}
 
     				CleanUpContext context;
@@ -413,6 +423,8 @@ public class CleanUpPostSaveListener implements IPostSaveListener {
     				}
     			} while (cleanUps.length > 0);
     			success= true;
+    			if (resultKey != null && result.getChildren().length == 0)
+    				CleanUpResultCache.getDefault().setUnchanged(unit.getJavaProject(), resultKey);
 			} finally {
 				manager.changePerformed(result, success);
 			}
@@ -431,6 +443,33 @@ public class CleanUpPostSaveListener implements IPostSaveListener {
 		}
 	}
 
+	/**
+	 * Returns the key of the unit in the {@link CleanUpResultCache}.
+	 *
+	 * @param unit the saved unit
+	 * @param cleanUps the clean ups of the save actions
+	 * @return the key, or <code>null</code> if the result cannot be cached
+	 */
+	private static String getResultKey(ICompilationUnit unit, ICleanUp[] cleanUps) {
+		Map<String, String> options= RefactoringASTParser.getCompilerOptions(unit);
+		for (ICleanUp cleanUp : cleanUps) {
+			Map<String, String> map= cleanUp.getRequirements().getCompilerOptions();
+			if (map != null)
+				options.putAll(map);
+		}
+		String configurationKey= CleanUpResultCache.getConfigurationKey(unit.getJavaProject(), options, cleanUps);
+		if (configurationKey == null)
+			return null;
+		try {
+			CleanUpResultCache cache= CleanUpResultCache.getDefault();
+			cache.checkProject(unit.getJavaProject());
+			return cache.getKey(configurationKey, unit);
+		} catch (CoreException e) {
+			JavaPlugin.log(e);
+			return null;
+		}
+	}
+
 	private static ICleanUp[] getCleanUps(IProject project) throws CoreException {
 		ICleanUp[] cleanUps;
 		Map<String, String> settings= CleanUpPreferenceUtil.loadSaveParticipantOptions(new ProjectScope(project));
@@ -14,11 +14,18 @@
 package org.eclipse.jdt.internal.corext.fix;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.swt.widgets.Display;
 
@@ -206,37 +213,116 @@ public class CleanUpRefactoring extends Refactoring implements IScheduledRefacto
 	private final static class CleanUpRefactoringProgressMonitor extends ProgressMonitorWrapper {
 
 		private double fRealWork;
-		private int fFlushCount;
+		private final AtomicInteger fFlushCount;
 		private final int fSize;
 		private final int fIndex;
 
+		/**
+		 * <code>true</code> while the units are processed by worker threads. In this mode the
+		 * workers only record their progress, it is reported to the wrapped monitor by the
+		 * thread calling {@link #drain()}.
+		 */
+		private volatile boolean fConcurrent;
+		private volatile boolean fCanceled;
+		private volatile String fPendingSubTask;
+		private int fDrainedCount;
+
 		private CleanUpRefactoringProgressMonitor(IProgressMonitor monitor, int ticks, int size, int index) {
 			super(Progress.subMonitor(monitor, ticks));
-			fFlushCount= 0;
+			fFlushCount= new AtomicInteger();
 			fSize= size;
 			fIndex= index;
 		}
 
 		@Override
 		public void internalWorked(double work) {
-			fRealWork+= work;
+			if (!fConcurrent)
+				fRealWork+= work;
+		}
+
+		@Override
+		public void subTask(String name) {
+			if (fConcurrent) {
+				fPendingSubTask= name;
+			} else {
+				super.subTask(name);
+			}
+		}
+
+		@Override
+		public boolean isCanceled() {
+			if (fConcurrent)
+				return fCanceled;
+			return super.isCanceled();
 		}
 
 		public void flush() {
-			super.internalWorked(fRealWork);
-			reset();
-			fFlushCount++;
+			if (!fConcurrent) {
+				super.internalWorked(fRealWork);
+				reset();
+			}
+			fFlushCount.incrementAndGet();
 		}
 
 		public void reset() {
-			fRealWork= 0.0;
+			if (!fConcurrent)
+				fRealWork= 0.0;
+		}
+
+		/**
+		 * Switches to concurrent mode, in which one tick of <code>totalWork</code> is reported
+		 * for each flushed unit. Must be called by the thread owning the wrapped monitor.
+		 *
+		 * @param totalWork the number of units to process
+		 */
+		public void beginConcurrent(int totalWork) {
+			super.beginTask("", totalWork); //$NON-NLS-1$
+			fDrainedCount= fFlushCount.get();
+			fCanceled= super.isCanceled();
+			fConcurrent= true;
+		}
+
+		/**
+		 * Reports the progress recorded by the worker threads since the last call and forwards
+		 * the cancellation state of the wrapped monitor to them. Must be called by the thread
+		 * owning the wrapped monitor.
+		 */
+		public void drain() {
+			int flushCount= fFlushCount.get();
+			if (flushCount > fDrainedCount) {
+				super.worked(flushCount - fDrainedCount);
+				fDrainedCount= flushCount;
+			}
+			String subTask= fPendingSubTask;
+			if (subTask != null) {
+				fPendingSubTask= null;
+				super.subTask(subTask);
+			}
+			if (super.isCanceled())
+				fCanceled= true;
+		}
+
+		/**
+		 * Leaves concurrent mode after all workers have finished.
+		 */
+		public void endConcurrent() {
+			drain();
+			fConcurrent= false;
+		}
+
+		/**
+		 * Makes the workers which are still running stop at their next unit. The monitor stays
+		 * in concurrent mode, so that they do not access the wrapped monitor.
+		 */
+		public void cancelConcurrent() {
+			fCanceled= true;
 		}
 
 		@Override
 		public void done() {}
 
 		public int getIndex() {
-			return fIndex + fFlushCount;
+			return fIndex + fFlushCount.get();
 		}
 
 		public String getSubTaskMessage(ICompilationUnit source) {
@@ -245,17 +331,26 @@ public class CleanUpRefactoring extends Refactoring implements IScheduledRefacto
 		}
 	}
 
+	/**
+	 * Calculates the fixes for the ASTs passed to it. The requestor may be called
+	 * concurrently for different compilation units when the refactoring runs in parallel
+	 * mode, see {@link CleanUpRefactoring#setParallelism(int)}.
+	 */
 	private static class CleanUpASTRequestor extends ASTRequestor {
 
-		private final List<ParseListElement> fUndoneElements;
+		private final List<ParseListElement> fParseList;
+		private final Hashtable<ICompilationUnit, ParseListElement> fUndoneElements;
 		private final Hashtable<ICompilationUnit, List<CleanUpChange>> fSolutions;
 		private final Hashtable<ICompilationUnit, ParseListElement> fCompilationUnitParseElementMap;
+		private final Map<ICompilationUnit, String> fResultKeys;
 		private final CleanUpRefactoringProgressMonitor fMonitor;
 
-		public CleanUpASTRequestor(List<ParseListElement> parseList, Hashtable<ICompilationUnit, List<CleanUpChange>> solutions, CleanUpRefactoringProgressMonitor monitor) {
+		public CleanUpASTRequestor(List<ParseListElement> parseList, Hashtable<ICompilationUnit, List<CleanUpChange>> solutions, Map<ICompilationUnit, String> resultKeys, CleanUpRefactoringProgressMonitor monitor) {
+			fParseList= parseList;
 			fSolutions= solutions;
+			fResultKeys= resultKeys;
 			fMonitor= monitor;
-			fUndoneElements= new ArrayList<>();
+			fUndoneElements= new Hashtable<>();
 			fCompilationUnitParseElementMap= new Hashtable<>(parseList.size());
 			for (ParseListElement element : parseList) {
 				fCompilationUnitParseElementMap.put(element.getTarget().getCompilationUnit(), element);
@@ -265,11 +360,16 @@ public class CleanUpRefactoring extends Refactoring implements IScheduledRefacto
 		@Override
 		public void acceptAST(ICompilationUnit source, CompilationUnit ast) {
 
+			if (fMonitor.isCanceled())
+				throw new OperationCanceledException();
+
 			fMonitor.subTask(fMonitor.getSubTaskMessage(source));
 
 			ICompilationUnit primary= (ICompilationUnit)source.getPrimaryElement();
 			ParseListElement element= fCompilationUnitParseElementMap.get(primary);
 			CleanUpTarget target= element.getTarget();
+			if (!CleanUpResultCache.isCacheable(ast))
+				fResultKeys.remove(primary);
 
 			CleanUpContext context;
 			if (target instanceof MultiFixTarget) {
@@ -280,7 +380,7 @@ public class CleanUpRefactoring extends Refactoring implements IScheduledRefacto
 			ICleanUp[] rejectedCleanUps= calculateSolutions(context, element.getCleanUps());
 
 			if (rejectedCleanUps.length > 0) {
-				fUndoneElements.add(new ParseListElement(target, rejectedCleanUps));
+				fUndoneElements.put(target.getCompilationUnit(), new ParseListElement(target, rejectedCleanUps));
 				fMonitor.reset();
 			} else {
 				fMonitor.flush();
@@ -291,8 +391,22 @@ public class CleanUpRefactoring extends Refactoring implements IScheduledRefacto
 			acceptAST(source, null);
 		}
 
+		/**
+		 * Returns the elements which still have clean ups to apply, in the order of the parse
+		 * list this requestor was created with. The order does not depend on the order in which
+		 * the ASTs were accepted, this ensures that the sequential and the parallel mode process
+		 * the units in the same order.
+		 *
+		 * @return the elements to process in the next iteration
+		 */
 		public List<ParseListElement> getUndoneElements() {
-			return fUndoneElements;
+			List<ParseListElement> result= new ArrayList<>(fUndoneElements.size());
+			for (ParseListElement element : fParseList) {
+				ParseListElement undone= fUndoneElements.get(element.getTarget().getCompilationUnit());
+				if (undone != null)
+					result.add(undone);
+			}
+			return result;
 		}
 
 		private ICleanUp[] calculateSolutions(CleanUpContext context, ICleanUp[] cleanUps) {
@@ -325,14 +439,32 @@ public class CleanUpRefactoring extends Refactoring implements IScheduledRefacto
 
 	private class CleanUpFixpointIterator {
 
+		private final CleanUpTarget[] fTargets;
 		private List<ParseListElement> fParseList;
 		private final Hashtable<ICompilationUnit, List<CleanUpChange>> fSolutions;
 		private final Hashtable<ICompilationUnit, ICompilationUnit> fWorkingCopies; // map from primary to working copy
 		private final Map<String, String> fCleanUpOptions;
 		private final int fSize;
 		private int fIndex;
+		private final ForkJoinPool fPool;
+		private final IJavaProject fProject;
 
-		public CleanUpFixpointIterator(CleanUpTarget[] targets, ICleanUp[] cleanUps) {
+		/**
+		 * The key of the clean up configuration in the result cache, or <code>null</code> if
+		 * the cache is not used.
+		 */
+		private String fConfigurationKey;
+
+		/**
+		 * Map from the units cleaned up in the first iteration to their keys in the result cache.
+		 */
+		private final Map<ICompilationUnit, String> fResultKeys;
+		private boolean fFirstIteration;
+
+		public CleanUpFixpointIterator(IJavaProject project, CleanUpTarget[] targets, ICleanUp[] cleanUps, ForkJoinPool pool) {
+			fProject= project;
+			fTargets= targets;
+			fPool= pool;
 			fSolutions= new Hashtable<>(targets.length);
 			fWorkingCopies= new Hashtable<>();
 
@@ -350,6 +482,22 @@ public class CleanUpRefactoring extends Refactoring implements IScheduledRefacto
 
 			fSize= targets.length;
 			fIndex= 1;
+
+			fResultKeys= new Hashtable<>();
+			fFirstIteration= true;
+			if (fResultCache != null) {
+				Map<String, String> options= RefactoringASTParser.getCompilerOptions(project);
+				options.putAll(fCleanUpOptions);
+				fConfigurationKey= CleanUpResultCache.getConfigurationKey(project, options, cleanUps);
+				if (fConfigurationKey != null) {
+					try {
+						fResultCache.checkProject(project);
+					} catch (CoreException e) {
+						JavaPlugin.log(e);
+						fConfigurationKey= null;
+					}
+				}
+			}
 		}
 
 		public boolean hasNext() {
@@ -359,10 +507,23 @@ public class CleanUpRefactoring extends Refactoring implements IScheduledRefacto
 		public void next(IProgressMonitor monitor) throws CoreException {
 			List<ICompilationUnit> parseList= new ArrayList<>();
 			List<ICompilationUnit> sourceList= new ArrayList<>();
+			boolean firstIteration= fFirstIteration;
+			fFirstIteration= false;
+			int skipped= 0;
 
 			try {
 				for (ParseListElement element : fParseList) {
 					ICompilationUnit compilationUnit= element.getTarget().getCompilationUnit();
+					if (firstIteration && fConfigurationKey != null && element.getTarget().getClass() == CleanUpTarget.class) {
+						String key= fResultCache.getKey(fConfigurationKey, compilationUnit);
+						if (key != null) {
+							if (fResultCache.isUnchanged(fProject, key)) {
+								skipped++;
+								continue;
+							}
+							fResultKeys.put(compilationUnit, key);
+						}
+					}
 					if (fSolutions.containsKey(compilationUnit)) {
 						if (fWorkingCopies.containsKey(compilationUnit)) {
 							compilationUnit= fWorkingCopies.get(compilationUnit);
@@ -380,10 +541,17 @@ public class CleanUpRefactoring extends Refactoring implements IScheduledRefacto
 					}
 				}
 
+				if (skipped > 0) {
+					monitor.worked(skipped);
+					fIndex+= skipped;
+				}
+
 				CleanUpRefactoringProgressMonitor cuMonitor= new CleanUpRefactoringProgressMonitor(monitor, parseList.size() + sourceList.size(), fSize, fIndex);
-				CleanUpASTRequestor requestor= new CleanUpASTRequestor(fParseList, fSolutions, cuMonitor);
+				CleanUpASTRequestor requestor= new CleanUpASTRequestor(fParseList, fSolutions, fResultKeys, cuMonitor);
 				if (parseList.size() > 0) {
-					ASTBatchParser parser= new ASTBatchParser() {
+					ICompilationUnit[] units= parseList.toArray(new ICompilationUnit[parseList.size()]);
+					int parallelism= fPool != null ? Math.min(fPool.getParallelism(), units.length) : 1;
+					ASTBatchParser parser= new ASTBatchParser(parallelism) {
 						@Override
 						protected ASTParser createParser(IJavaProject project) {
 							ASTParser result= createCleanUpASTParser();
@@ -395,12 +563,17 @@ public class CleanUpRefactoring extends Refactoring implements IScheduledRefacto
 							return result;
 						}
 					};
-					try {
-						ICompilationUnit[] units= parseList.toArray(new ICompilationUnit[parseList.size()]);
-						parser.createASTs(units, new String[0], requestor, cuMonitor);
-					} catch (FixCalculationException e) {
-						throw e.getException();
+					if (parallelism > 1) {
+						createASTsInParallel(parser, units, requestor, cuMonitor);
+					} else {
+						try {
+							parser.createASTs(units, new String[0], requestor, cuMonitor);
+						} catch (FixCalculationException e) {
+							throw e.getException();
+						}
 					}
+					if (JavaPlugin.DEBUG_CLEAN_UP)
+						System.out.println("CleanUpRefactoring - " + fProject.getElementName() + ", threads: " + parallelism + ", " + parser.getStatistics()); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
 				}
 
 				for (ICompilationUnit cu : sourceList) {
@@ -418,6 +591,86 @@ public class CleanUpRefactoring extends Refactoring implements IScheduledRefacto
 			}
 		}
 
+		/**
+		 * Splits the units into one slice per worker of the pool and parses and fixes each
+		 * slice in its own task. The workers only record their progress in <code>monitor</code>,
+		 * the calling thread reports it and checks for cancellation while waiting for them.
+		 *
+		 * @param parser the parser to create the ASTs with
+		 * @param units the units to parse
+		 * @param requestor the requestor calculating the fixes
+		 * @param monitor the monitor to report progress to
+		 * @throws CoreException if the calculation of a fix failed
+		 */
+		private void createASTsInParallel(ASTBatchParser parser, ICompilationUnit[] units, CleanUpASTRequestor requestor, CleanUpRefactoringProgressMonitor monitor) throws CoreException {
+			IProgressMonitor sliceMonitor= new NullProgressMonitor() {
+				@Override
+				public boolean isCanceled() {
+					return monitor.isCanceled();
+				}
+			};
+
+			monitor.beginConcurrent(units.length);
+			int sliceCount= Math.min(fPool.getParallelism(), units.length);
+			int sliceSize= (units.length + sliceCount - 1) / sliceCount;
+			List<Future<?>> futures= new ArrayList<>(sliceCount);
+			for (int start= 0; start < units.length; start+= sliceSize) {
+				ICompilationUnit[] slice= Arrays.copyOfRange(units, start, Math.min(start + sliceSize, units.length));
+				futures.add(fPool.submit(() -> parser.createASTs(slice, new String[0], requestor, sliceMonitor)));
+			}
+
+			boolean finished= false;
+			try {
+				for (Future<?> future : futures) {
+					while (true) {
+						try {
+							future.get(100, TimeUnit.MILLISECONDS);
+							break;
+						} catch (TimeoutException e) {
+							monitor.drain();
+							if (monitor.isCanceled())
+								throw new OperationCanceledException();
+						}
+					}
+				}
+				finished= true;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new OperationCanceledException();
+			} catch (ExecutionException e) {
+				Throwable cause= e.getCause();
+				if (cause instanceof FixCalculationException)
+					throw ((FixCalculationException) cause).getException();
+				if (cause instanceof RuntimeException)
+					throw (RuntimeException) cause;
+				if (cause instanceof Error)
+					throw (Error) cause;
+				throw new CoreException(new Status(IStatus.ERROR, JavaPlugin.getPluginId(), IJavaStatusConstants.INTERNAL_ERROR, cause.getMessage(), cause));
+			} finally {
+				if (finished) {
+					monitor.endConcurrent();
+				} else {
+					monitor.cancelConcurrent();
+					for (Future<?> future : futures) {
+						future.cancel(false);
+					}
+				}
+			}
+		}
+
+		/**
+		 * Adds the units of the first iteration that did not change to the result cache, except
+		 * for units with syntax errors. Must only be called after the last iteration.
+		 */
+		public void updateResultCache() {
+			if (fConfigurationKey == null)
+				return;
+			for (Entry<ICompilationUnit, String> entry : fResultKeys.entrySet()) {
+				if (!fSolutions.containsKey(entry.getKey()))
+					fResultCache.setUnchanged(fProject, entry.getValue());
+			}
+		}
+
 		public void dispose() {
 			for (ICompilationUnit cu : fWorkingCopies.values()) {
 				try {
@@ -438,13 +691,22 @@ public class CleanUpRefactoring extends Refactoring implements IScheduledRefacto
 			return false;
 		}
 
+		/**
+		 * Returns the changes in the order of the targets, independent of the order
+		 * in which the fixes were calculated.
+		 *
+		 * @return the changes, one per changed compilation unit
+		 */
 		public Change[] getResult() {
 
 			Change[] result= new Change[fSolutions.size()];
+			HashSet<ICompilationUnit> added= new HashSet<>();
 			int i=0;
-			for (Entry<ICompilationUnit, List<CleanUpChange>> entry : fSolutions.entrySet()) {
-				List<CleanUpChange> changes= entry.getValue();
-				ICompilationUnit unit= entry.getKey();
+			for (CleanUpTarget target : fTargets) {
+				ICompilationUnit unit= target.getCompilationUnit();
+				List<CleanUpChange> changes= fSolutions.get(unit);
+				if (changes == null || !added.add(unit))
+					continue;
 
 				int saveMode;
 				if (fLeaveFilesDirty) {
@@ -510,6 +772,10 @@ public class CleanUpRefactoring extends Refactoring implements IScheduledRefacto
 
 	private boolean fUseOptionsFromProfile;
 
+	private int fParallelism;
+
+	private CleanUpResultCache fResultCache;
+
 	public CleanUpRefactoring() {
 		this(FixMessages.CleanUpRefactoring_Refactoring_name);
 	}
@@ -519,12 +785,49 @@ public class CleanUpRefactoring extends Refactoring implements IScheduledRefacto
 		fCleanUps= new ArrayList<>();
 		fProjects= new Hashtable<>();
 		fUseOptionsFromProfile= false;
+		fParallelism= 1;
 	}
 
 	public void setUseOptionsFromProfile(boolean enabled) {
 		fUseOptionsFromProfile= enabled;
 	}
 
+	/**
+	 * Sets the number of threads used to parse the compilation units of a project and to
+	 * calculate their fixes. With a parallelism of <code>1</code> (the default) all units are
+	 * processed on the calling thread. The resulting change is the same in both modes, but
+	 * in parallel mode {@link ICleanUp#createFix(CleanUpContext)} is called concurrently for
+	 * different compilation units. Clean ups which collect state across the units of a run
+	 * must create it in {@link ICleanUp#checkPreConditions(IJavaProject, ICompilationUnit[], IProgressMonitor)}
+	 * and make it thread-safe.
+	 *
+	 * @param parallelism the number of worker threads, must be at least <code>1</code>
+	 */
+	public void setParallelism(int parallelism) {
+		if (parallelism < 1)
+			throw new IllegalArgumentException("parallelism must be at least 1"); //$NON-NLS-1$
+		fParallelism= parallelism;
+	}
+
+	public int getParallelism() {
+		return fParallelism;
+	}
+
+	/**
+	 * Sets the cache of units for which the clean ups produced no change. Units found in the
+	 * cache are skipped without creating an AST, units that do not change are added to it.
+	 * By default no cache is used, see {@link CleanUpResultCache}.
+	 *
+	 * @param cache the cache, e.g. {@link CleanUpResultCache#getDefault()}, or <code>null</code>
+	 */
+	public void setResultCache(CleanUpResultCache cache) {
+		fResultCache= cache;
+	}
+
+	public CleanUpResultCache getResultCache() {
+		return fResultCache;
+	}
+
 	public void addCompilationUnit(ICompilationUnit unit) {
 		addCleanUpTarget(new CleanUpTarget(unit));
 	}
@@ -673,7 +976,8 @@ public class CleanUpRefactoring extends Refactoring implements IScheduledRefacto
 	}
 
 	private Change[] cleanUpProject(IJavaProject project, CleanUpTarget[] targets, ICleanUp[] cleanUps, IProgressMonitor monitor) throws CoreException {
-		CleanUpFixpointIterator iter= new CleanUpFixpointIterator(targets, cleanUps);
+		ForkJoinPool pool= fParallelism > 1 && targets.length > 1 ? new ForkJoinPool(fParallelism) : null;
+		CleanUpFixpointIterator iter= new CleanUpFixpointIterator(project, targets, cleanUps, pool);
 
 		IProgressMonitor subMonitor= Progress.subMonitor(monitor, 2 * targets.length * cleanUps.length);
 		subMonitor.beginTask("", targets.length); //$NON-NLS-1$
@@ -682,9 +986,12 @@ public class CleanUpRefactoring extends Refactoring implements IScheduledRefacto
 			while (iter.hasNext()) {
 				iter.next(subMonitor);
 			}
+			iter.updateResultCache();
 
 			return iter.getResult();
 		} finally {
+			if (pool != null)
+				pool.shutdownNow();
 			iter.dispose();
 			subMonitor.done();
 		}
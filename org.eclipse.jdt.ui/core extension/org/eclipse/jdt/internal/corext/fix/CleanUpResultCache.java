@@ -0,0 +1,688 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.corext.fix;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.eclipse.core.runtime.IPath;
+
+import org.eclipse.core.runtime.CoreException;
+
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.ResourcesPlugin;
+
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.compiler.IProblem;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+
+import org.eclipse.jdt.ui.PreferenceConstants;
+import org.eclipse.jdt.ui.cleanup.CleanUpOptions;
+import org.eclipse.jdt.ui.cleanup.ICleanUp;
+
+import org.eclipse.jdt.internal.ui.JavaPlugin;
+import org.eclipse.jdt.internal.ui.fix.AbstractCleanUp;
+import org.eclipse.jdt.internal.ui.fix.ImportsCleanUp;
+
+/**
+ * Remembers the compilation units for which a clean up run produced no change, so that
+ * {@link CleanUpRefactoring} can skip them without creating an AST when they are cleaned
+ * up again with the same configuration.
+ * <p>
+ * A unit is identified by a hash of its content, its path, the compiler and formatter
+ * options, the JDT UI preferences used by clean ups and the options of all clean ups. The
+ * entries of a project are dropped when its resolved class path or the time stamp of a
+ * library on it changes, and when the Java model reports a structural change in the
+ * project or in a project it requires, i.e. anything but an edit inside the bodies of a
+ * compilation unit. Unsaved changes in the working copies of other units are not noticed.
+ * The entries of deleted projects are dropped when the cache is saved.
+ * </p>
+ * <p>
+ * Changes made while the cache is not listening are found by comparing a stamp of the
+ * modification stamps of the source files, which is computed once per project and session
+ * and when the cache is saved after a change.
+ * </p>
+ * <p>
+ * The cache is stored in the state location of the JDT UI plug-in and counts its hits
+ * and misses, see {@link #getHitRate()}.
+ * </p>
+ */
+public class CleanUpResultCache {
+
+	private static final String FILE_NAME= "cleanUpResults.dat"; //$NON-NLS-1$
+
+	private static final int VERSION= 3;
+
+	/**
+	 * The maximum number of units remembered per project.
+	 */
+	public static final int MAX_ENTRIES_PER_PROJECT= 20000;
+
+	/**
+	 * The JDT UI preferences that clean ups read directly. The formatter settings are part
+	 * of the options of the project.
+	 */
+	private static final String[] UI_PREFERENCE_KEYS= {
+			PreferenceConstants.ORGIMPORTS_IMPORTORDER,
+			PreferenceConstants.ORGIMPORTS_ONDEMANDTHRESHOLD,
+			PreferenceConstants.ORGIMPORTS_STATIC_ONDEMANDTHRESHOLD,
+			PreferenceConstants.ORGIMPORTS_IGNORELOWERCASE,
+			PreferenceConstants.CODEGEN_ADD_COMMENTS,
+			PreferenceConstants.CODEGEN_KEYWORD_THIS,
+			PreferenceConstants.CODEGEN_USE_OVERRIDE_ANNOTATION,
+			PreferenceConstants.CODEGEN_EXCEPTION_VAR_NAME,
+			"org.eclipse.jdt.ui.text.custom_code_templates" //$NON-NLS-1$
+	};
+
+	/**
+	 * Flags of a compilation unit delta that do not change its members.
+	 */
+	private static final int BODY_ONLY_FLAGS= IJavaElementDelta.F_CONTENT | IJavaElementDelta.F_FINE_GRAINED | IJavaElementDelta.F_AST_AFFECTED
+			| IJavaElementDelta.F_PRIMARY_RESOURCE | IJavaElementDelta.F_PRIMARY_WORKING_COPY;
+
+	private static final String FORMATTER_PREFIX= JavaCore.PLUGIN_ID + ".formatter."; //$NON-NLS-1$
+
+	private static CleanUpResultCache fgDefault;
+
+	private static class ProjectEntries {
+		String fClasspathStamp;
+		/**
+		 * Sum of the hashes of the source files, see {@link CleanUpResultCache#getSourcesStamp(IJavaProject)}.
+		 */
+		long fSourcesStamp;
+		/**
+		 * Whether the entries have been compared with the source files in this session.
+		 */
+		boolean fValidated;
+		/**
+		 * Whether a source file changed since {@link #fSourcesStamp} was computed.
+		 */
+		boolean fSourcesChanged;
+		final LinkedHashMap<String, Boolean> fUnchanged= new LinkedHashMap<String, Boolean>(16, 0.75f, true) {
+			private static final long serialVersionUID= 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+				return size() > MAX_ENTRIES_PER_PROJECT;
+			}
+		};
+
+		ProjectEntries(String classpathStamp, long sourcesStamp) {
+			fClasspathStamp= classpathStamp;
+			fSourcesStamp= sourcesStamp;
+		}
+	}
+
+	private final File fFile;
+
+	private final IElementChangedListener fListener;
+
+	/**
+	 * Map from project name to entries. <code>null</code> until loaded.
+	 */
+	private Map<String, ProjectEntries> fProjects;
+
+	private boolean fDirty;
+	private long fHitCount;
+	private long fMissCount;
+
+	/**
+	 * Creates a cache that listens to changes of the Java model until it is disposed.
+	 *
+	 * @param file the file that stores the cache
+	 */
+	public CleanUpResultCache(File file) {
+		fFile= file;
+		fListener= this::elementChanged;
+		JavaCore.addElementChangedListener(fListener, ElementChangedEvent.POST_CHANGE);
+	}
+
+	/**
+	 * @return the cache stored in the state location of the JDT UI plug-in
+	 */
+	public static synchronized CleanUpResultCache getDefault() {
+		if (fgDefault == null)
+			fgDefault= new CleanUpResultCache(JavaPlugin.getDefault().getStateLocation().append(FILE_NAME).toFile());
+		return fgDefault;
+	}
+
+	/**
+	 * Returns the key of a clean up configuration.
+	 *
+	 * @param project the project whose preferences are used
+	 * @param compilerOptions the compiler options used to create the ASTs
+	 * @param cleanUps the clean ups
+	 * @return the key, or <code>null</code> if the options of a clean up are not known or
+	 *         imports are organized, in which case the cache must not be used
+	 */
+	public static String getConfigurationKey(IJavaProject project, Map<String, String> compilerOptions, ICleanUp[] cleanUps) {
+		StringBuilder buf= new StringBuilder();
+		appendOptions(buf, compilerOptions);
+		Map<String, String> preferences= new HashMap<>();
+		for (Map.Entry<String, String> option : project.getOptions(true).entrySet()) {
+			if (option.getKey().startsWith(FORMATTER_PREFIX))
+				preferences.put(option.getKey(), option.getValue());
+		}
+		for (String key : UI_PREFERENCE_KEYS) {
+			preferences.put(key, String.valueOf(PreferenceConstants.getPreference(key, project)));
+		}
+		appendOptions(buf, preferences);
+		for (ICleanUp cleanUp : cleanUps) {
+			if (!(cleanUp instanceof AbstractCleanUp))
+				return null;
+			CleanUpOptions options= ((AbstractCleanUp) cleanUp).getOptions();
+			if (options == null)
+				return null;
+			// organize imports reports ambiguous and unresolved types without changing the unit
+			if (cleanUp instanceof ImportsCleanUp && options.isEnabled(CleanUpConstants.ORGANIZE_IMPORTS))
+				return null;
+			buf.append(cleanUp.getClass().getName()).append('\n');
+			Map<String, String> map= new HashMap<>();
+			for (String key : options.getKeys()) {
+				map.put(key, options.getValue(key));
+			}
+			appendOptions(buf, map);
+		}
+		return digest(buf.toString());
+	}
+
+	private static void appendOptions(StringBuilder buf, Map<String, String> options) {
+		for (Map.Entry<String, String> option : new TreeMap<>(options).entrySet()) {
+			buf.append(option.getKey()).append('=').append(option.getValue()).append('\n');
+		}
+		buf.append('\n');
+	}
+
+	/**
+	 * Tells whether the result of cleaning up a unit may be remembered. It must not if the
+	 * unit has syntax errors.
+	 *
+	 * @param ast the AST of the unit, or <code>null</code> if none was created
+	 * @return <code>true</code> if the result may be remembered
+	 */
+	public static boolean isCacheable(CompilationUnit ast) {
+		if (ast == null)
+			return true;
+		for (IProblem problem : ast.getProblems()) {
+			if (problem.isError() && (problem.getID() & IProblem.Syntax) != 0)
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the key of a compilation unit in a clean up configuration.
+	 *
+	 * @param configurationKey the key returned by
+	 *        {@link #getConfigurationKey(IJavaProject, Map, ICleanUp[])}
+	 * @param unit the compilation unit, its project must have been checked with
+	 *        {@link #checkProject(IJavaProject)}
+	 * @return the key, or <code>null</code> if the unit has no source or its project has not
+	 *         been checked
+	 * @throws JavaModelException if the source cannot be read
+	 */
+	public String getKey(String configurationKey, ICompilationUnit unit) throws JavaModelException {
+		synchronized (this) {
+			if (getProjects().get(unit.getJavaProject().getElementName()) == null)
+				return null;
+		}
+		String source= unit.getSource();
+		if (source == null)
+			return null;
+		return digest(configurationKey + '\n' + unit.getPath() + '\n' + source);
+	}
+
+	private static String digest(String value) {
+		try {
+			MessageDigest digest= MessageDigest.getInstance("SHA-256"); //$NON-NLS-1$
+			return Base64.getEncoder().encodeToString(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Drops the entries of a project if its class path changed since they were added, or if
+	 * its source files changed while the cache was not listening. Must be called before the
+	 * units of the project are looked up, each time the project is cleaned up.
+	 *
+	 * @param project the project
+	 * @throws CoreException if the class path cannot be resolved or a source folder cannot
+	 *         be visited
+	 */
+	public void checkProject(IJavaProject project) throws CoreException {
+		String stamp= getClasspathStamp(project);
+		boolean validated;
+		synchronized (this) {
+			ProjectEntries entries= getProjects().get(project.getElementName());
+			validated= entries != null && entries.fValidated;
+		}
+		// the source files are only visited the first time in a session
+		long sourcesStamp= validated ? 0 : getSourcesStamp(project);
+		synchronized (this) {
+			ProjectEntries entries= getProjects().get(project.getElementName());
+			if (entries == null) {
+				entries= new ProjectEntries(stamp, sourcesStamp);
+				getProjects().put(project.getElementName(), entries);
+				fDirty= true;
+			} else if (!entries.fClasspathStamp.equals(stamp)) {
+				entries.fClasspathStamp= stamp;
+				entries.fUnchanged.clear();
+				fDirty= true;
+			}
+			if (!entries.fValidated && !validated) {
+				if (entries.fSourcesStamp != sourcesStamp) {
+					entries.fSourcesStamp= sourcesStamp;
+					entries.fUnchanged.clear();
+					fDirty= true;
+				}
+				entries.fSourcesChanged= false;
+				entries.fValidated= true;
+			}
+		}
+	}
+
+	/**
+	 * Returns the sum of the hashes of the paths and modification stamps of the source files
+	 * of a project and of the projects it requires.
+	 *
+	 * @param project the project
+	 * @return the stamp
+	 * @throws CoreException if the class path cannot be resolved or a source folder cannot
+	 *         be visited
+	 */
+	private static long getSourcesStamp(IJavaProject project) throws CoreException {
+		IWorkspaceRoot root= ResourcesPlugin.getWorkspace().getRoot();
+		Set<String> visited= new HashSet<>();
+		List<IJavaProject> projects= new ArrayList<>();
+		projects.add(project);
+		visited.add(project.getElementName());
+		long[] stamp= new long[1];
+		for (int i= 0; i < projects.size(); i++) {
+			IJavaProject current= projects.get(i);
+			if (!current.exists())
+				continue;
+			for (IClasspathEntry entry : current.getResolvedClasspath(true)) {
+				if (entry.getEntryKind() == IClasspathEntry.CPE_SOURCE) {
+					IResource folder= root.findMember(entry.getPath());
+					if (folder == null)
+						continue;
+					folder.accept(proxy -> {
+						if (proxy.getType() == IResource.FILE && JavaCore.isJavaLikeFileName(proxy.getName()))
+							stamp[0]+= hash(proxy.requestFullPath().toString(), proxy.getModificationStamp());
+						return true;
+					}, IResource.NONE);
+				} else if (entry.getEntryKind() == IClasspathEntry.CPE_PROJECT) {
+					String name= entry.getPath().lastSegment();
+					if (visited.add(name))
+						projects.add(JavaCore.create(root.getProject(name)));
+				}
+			}
+		}
+		return stamp[0];
+	}
+
+	private static long hash(String path, long modificationStamp) {
+		long hash= path.hashCode() * 0x9E3779B97F4A7C15L ^ modificationStamp;
+		hash^= hash >>> 33;
+		hash*= 0xFF51AFD7ED558CCDL;
+		hash^= hash >>> 33;
+		hash*= 0xC4CEB9FE1A85EC53L;
+		hash^= hash >>> 33;
+		return hash;
+	}
+
+	private static String getClasspathStamp(IJavaProject project) throws JavaModelException {
+		StringBuilder buf= new StringBuilder();
+		for (IClasspathEntry entry : project.getResolvedClasspath(true)) {
+			IPath path= entry.getPath();
+			buf.append(entry.getEntryKind()).append(':').append(path);
+			if (entry.getEntryKind() == IClasspathEntry.CPE_LIBRARY) {
+				IResource resource= ResourcesPlugin.getWorkspace().getRoot().findMember(path);
+				if (resource != null) {
+					buf.append('@').append(resource.getModificationStamp());
+				} else {
+					File file= path.toFile();
+					buf.append('@').append(file.lastModified()).append('/').append(file.length());
+				}
+			}
+			buf.append('\n');
+		}
+		return digest(buf.toString());
+	}
+
+	private void elementChanged(ElementChangedEvent event) {
+		Set<String> changed= new HashSet<>();
+		Set<String> structurallyChanged= new HashSet<>();
+		collectChangedProjects(event.getDelta(), changed, structurallyChanged);
+		if (changed.isEmpty())
+			return;
+		Set<String> cached;
+		synchronized (this) {
+			if (fProjects == null || fProjects.isEmpty())
+				return;
+			cached= new HashSet<>(fProjects.keySet());
+		}
+		// the types of a project are visible in the projects that require it
+		Set<String> affected= new HashSet<>();
+		Set<String> structurallyAffected= new HashSet<>();
+		for (String name : cached) {
+			Set<String> required= getRequiredProjects(name);
+			if (!Collections.disjoint(required, changed))
+				affected.add(name);
+			if (!Collections.disjoint(required, structurallyChanged))
+				structurallyAffected.add(name);
+		}
+		synchronized (this) {
+			for (String name : affected) {
+				ProjectEntries entries= getProjects().get(name);
+				if (entries == null)
+					continue;
+				entries.fSourcesChanged= true;
+				if (structurallyAffected.contains(name) && !entries.fUnchanged.isEmpty()) {
+					entries.fUnchanged.clear();
+					fDirty= true;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the name of a project and of the projects it requires.
+	 *
+	 * @param name the name of the project
+	 * @return the names
+	 */
+	private static Set<String> getRequiredProjects(String name) {
+		IWorkspaceRoot root= ResourcesPlugin.getWorkspace().getRoot();
+		Set<String> result= new HashSet<>();
+		List<String> names= new ArrayList<>();
+		result.add(name);
+		names.add(name);
+		for (int i= 0; i < names.size(); i++) {
+			IJavaProject project= JavaCore.create(root.getProject(names.get(i)));
+			if (!project.exists())
+				continue;
+			try {
+				for (String required : project.getRequiredProjectNames()) {
+					if (result.add(required))
+						names.add(required);
+				}
+			} catch (JavaModelException e) {
+				JavaPlugin.log(e);
+			}
+		}
+		return result;
+	}
+
+	private static void collectChangedProjects(IJavaElementDelta delta, Set<String> changed, Set<String> structurallyChanged) {
+		IJavaElement element= delta.getElement();
+		int elementType= element.getElementType();
+		if (elementType == IJavaElement.COMPILATION_UNIT) {
+			// the working copies of clean ups and refactorings are not interesting
+			if (((ICompilationUnit) element).getOwner() != null)
+				return;
+			int flags= delta.getFlags();
+			if (delta.getKind() == IJavaElementDelta.CHANGED && (flags & (IJavaElementDelta.F_CONTENT | IJavaElementDelta.F_CHILDREN)) == 0)
+				return;
+			String name= element.getJavaProject().getElementName();
+			changed.add(name);
+			// edits inside bodies report a fine-grained delta without children
+			if (delta.getKind() != IJavaElementDelta.CHANGED
+					|| (flags & ~BODY_ONLY_FLAGS) != 0
+					|| (flags & IJavaElementDelta.F_FINE_GRAINED) == 0
+					|| delta.getAffectedChildren().length > 0)
+				structurallyChanged.add(name);
+			return;
+		}
+		if (elementType > IJavaElement.COMPILATION_UNIT)
+			return;
+		if (elementType != IJavaElement.JAVA_MODEL) {
+			// F_CONTENT of a container means that non-Java resources changed
+			if (delta.getKind() != IJavaElementDelta.CHANGED
+					|| (delta.getFlags() & ~(IJavaElementDelta.F_CHILDREN | IJavaElementDelta.F_CONTENT | IJavaElementDelta.F_OPENED | IJavaElementDelta.F_CLOSED)) != 0) {
+				String name= element.getJavaProject().getElementName();
+				changed.add(name);
+				structurallyChanged.add(name);
+			}
+		}
+		for (IJavaElementDelta child : delta.getAffectedChildren()) {
+			collectChangedProjects(child, changed, structurallyChanged);
+		}
+	}
+
+	/**
+	 * Tells whether a unit produced no change the last time it was cleaned up, and
+	 * counts a hit or a miss.
+	 *
+	 * @param project the project of the unit, see {@link #checkProject(IJavaProject)}
+	 * @param key the key of the unit
+	 * @return <code>true</code> if the unit can be skipped
+	 */
+	public synchronized boolean isUnchanged(IJavaProject project, String key) {
+		ProjectEntries entries= getProjects().get(project.getElementName());
+		if (entries != null && entries.fUnchanged.get(key) != null) {
+			fHitCount++;
+			return true;
+		}
+		fMissCount++;
+		return false;
+	}
+
+	/**
+	 * Remembers that cleaning up a unit produced no change.
+	 *
+	 * @param project the project of the unit, see {@link #checkProject(IJavaProject)}
+	 * @param key the key of the unit
+	 */
+	public synchronized void setUnchanged(IJavaProject project, String key) {
+		ProjectEntries entries= getProjects().get(project.getElementName());
+		if (entries != null && entries.fUnchanged.put(key, Boolean.TRUE) == null)
+			fDirty= true;
+	}
+
+	/**
+	 * @return the number of lookups that allowed to skip a unit
+	 */
+	public synchronized long getHitCount() {
+		return fHitCount;
+	}
+
+	/**
+	 * @return the number of lookups that required to clean up a unit
+	 */
+	public synchronized long getMissCount() {
+		return fMissCount;
+	}
+
+	/**
+	 * @return the fraction of lookups that were hits, or <code>0</code> if there were none
+	 */
+	public synchronized double getHitRate() {
+		long lookups= fHitCount + fMissCount;
+		return lookups == 0 ? 0 : (double) fHitCount / lookups;
+	}
+
+	/**
+	 * Removes all entries and resets the hit and miss counts.
+	 */
+	public synchronized void clear() {
+		getProjects().clear();
+		fHitCount= 0;
+		fMissCount= 0;
+		fDirty= true;
+	}
+
+	/**
+	 * Writes the default cache to its file if it has been created and changed, and stops it
+	 * from listening to changes.
+	 */
+	public static void disposeDefault() {
+		CleanUpResultCache cache;
+		synchronized (CleanUpResultCache.class) {
+			cache= fgDefault;
+			fgDefault= null;
+		}
+		if (cache != null) {
+			cache.save();
+			cache.dispose();
+		}
+	}
+
+	/**
+	 * Stops the cache from listening to changes of the Java model. The entries are not
+	 * valid afterwards.
+	 */
+	public void dispose() {
+		JavaCore.removeElementChangedListener(fListener);
+	}
+
+	/**
+	 * Writes the cache to its file if it changed. The entries of projects that no longer
+	 * exist are dropped. The source files of the projects that changed since their entries
+	 * were validated are visited to compute the stamp that validates the entries when they
+	 * are loaded again.
+	 */
+	public void save() {
+		IWorkspaceRoot root= ResourcesPlugin.getWorkspace().getRoot();
+		List<String> changed= new ArrayList<>();
+		synchronized (this) {
+			if (fProjects == null)
+				return;
+			for (Iterator<Map.Entry<String, ProjectEntries>> iter= fProjects.entrySet().iterator(); iter.hasNext();) {
+				Map.Entry<String, ProjectEntries> project= iter.next();
+				if (!root.getProject(project.getKey()).exists()) {
+					iter.remove();
+					fDirty= true;
+				} else if (project.getValue().fSourcesChanged && !project.getValue().fUnchanged.isEmpty()) {
+					changed.add(project.getKey());
+				}
+			}
+		}
+		Map<String, Long> stamps= new HashMap<>();
+		for (String name : changed) {
+			try {
+				stamps.put(name, Long.valueOf(getSourcesStamp(JavaCore.create(root.getProject(name)))));
+			} catch (CoreException e) {
+				// the entries of the project are not written
+				JavaPlugin.log(e);
+			}
+		}
+		synchronized (this) {
+			for (Map.Entry<String, Long> stamp : stamps.entrySet()) {
+				ProjectEntries entries= fProjects.get(stamp.getKey());
+				if (entries != null) {
+					entries.fSourcesStamp= stamp.getValue().longValue();
+					entries.fSourcesChanged= false;
+					fDirty= true;
+				}
+			}
+			if (fDirty)
+				write();
+		}
+	}
+
+	private void write() {
+		File temp= new File(fFile.getPath() + ".tmp"); //$NON-NLS-1$
+		try {
+			try (DataOutputStream out= new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp.toPath())))) {
+				out.writeInt(VERSION);
+				out.writeInt(fProjects.size());
+				for (Map.Entry<String, ProjectEntries> project : fProjects.entrySet()) {
+					ProjectEntries entries= project.getValue();
+					out.writeUTF(project.getKey());
+					out.writeUTF(entries.fClasspathStamp);
+					out.writeLong(entries.fSourcesStamp);
+					if (entries.fSourcesChanged) {
+						// the stamp is not up to date
+						out.writeInt(0);
+						continue;
+					}
+					out.writeInt(entries.fUnchanged.size());
+					for (String key : entries.fUnchanged.keySet()) {
+						out.writeUTF(key);
+					}
+				}
+			}
+			try {
+				Files.move(temp.toPath(), fFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp.toPath(), fFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+			fDirty= false;
+		} catch (IOException e) {
+			JavaPlugin.log(e);
+		}
+	}
+
+	private Map<String, ProjectEntries> getProjects() {
+		if (fProjects == null) {
+			fProjects= new HashMap<>();
+			if (fFile.isFile())
+				load();
+		}
+		return fProjects;
+	}
+
+	private void load() {
+		try (DataInputStream in= new DataInputStream(new BufferedInputStream(Files.newInputStream(fFile.toPath())))) {
+			if (in.readInt() != VERSION)
+				return;
+			int projectCount= in.readInt();
+			for (int i= 0; i < projectCount; i++) {
+				String name= in.readUTF();
+				ProjectEntries entries= new ProjectEntries(in.readUTF(), in.readLong());
+				int count= in.readInt();
+				for (int j= 0; j < count; j++) {
+					entries.fUnchanged.put(in.readUTF(), Boolean.TRUE);
+				}
+				fProjects.put(name, entries);
+			}
+		} catch (IOException e) {
+			// a damaged cache is dropped
+			fProjects.clear();
+			JavaPlugin.log(e);
+		}
+	}
+}
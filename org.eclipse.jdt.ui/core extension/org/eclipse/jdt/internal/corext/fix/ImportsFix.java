@@ -13,6 +13,16 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.corext.fix;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.swt.widgets.Display;
+
+import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.CoreException;
 
 import org.eclipse.text.edits.MultiTextEdit;
@@ -21,9 +31,11 @@ import org.eclipse.text.edits.TextEdit;
 import org.eclipse.ltk.core.refactoring.RefactoringStatus;
 
 import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.ISourceRange;
 import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.core.manipulation.OrganizeImportsOperation;
 import org.eclipse.jdt.core.manipulation.OrganizeImportsOperation.IChooseImportQuery;
+import org.eclipse.jdt.core.manipulation.OrganizeImportsOperation.TypeNameMatchCache;
 import org.eclipse.jdt.core.search.TypeNameMatch;
 
 import org.eclipse.jdt.internal.corext.codemanipulation.CodeGenerationSettings;
@@ -36,25 +48,161 @@ import org.eclipse.jdt.internal.core.manipulation.util.BasicElementLabels;
 
 public class ImportsFix extends TextEditFix {
 
+	/**
+	 * The state shared by the organize imports clean ups of all compilation units of a bulk
+	 * run: the types found for unresolved simple names, and the imports chosen for ambiguous
+	 * simple names. The user is asked at most once per ambiguous simple name. The compilation
+	 * units of the run may be processed concurrently.
+	 *
+	 * @since 3.32
+	 */
+	public static final class BulkContext {
+
+		/** Recorded for the simple names the user did not choose an import for */
+		private static final String SKIPPED= ""; //$NON-NLS-1$
+
+		private final TypeNameMatchCache fTypeNameMatchCache= new TypeNameMatchCache();
+
+		private final IChooseImportQuery fQuery;
+
+		/** Maps simple names to the chosen fully qualified names, guarded by <code>this</code> */
+		private final Map<String, String> fChosenImports= new HashMap<>();
+
+		/** The ambiguous simple names reported to be left unresolved */
+		private final Set<String> fReportedNames= ConcurrentHashMap.newKeySet();
+
+		/**
+		 * @param query the query that asks the user to choose among the types of ambiguous
+		 *            simple names, or <code>null</code> to leave these names unresolved and
+		 *            report each of them once
+		 */
+		public BulkContext(IChooseImportQuery query) {
+			fQuery= query;
+		}
+
+		public TypeNameMatchCache getTypeNameMatchCache() {
+			return fTypeNameMatchCache;
+		}
+
+		/**
+		 * Chooses the imports of the ambiguous simple names of one compilation unit. The
+		 * user is only asked for simple names that have not been decided before in this run.
+		 * A decided type that is not a choice in this compilation unit is not imported.
+		 * <p>
+		 * Must not be called in the UI thread if there is a query: the query is called
+		 * while other compilation units wait for the decisions.
+		 * </p>
+		 *
+		 * @param openChoices the choices, see {@link IChooseImportQuery}
+		 * @param ranges the ranges of the references, see {@link IChooseImportQuery}
+		 * @param status the status to report unresolved names to
+		 * @param location the location of the compilation unit
+		 * @return the chosen type for each choice, <code>null</code> for skipped choices,
+		 *         or <code>null</code> if the user canceled
+		 */
+		TypeNameMatch[] chooseImports(TypeNameMatch[][] openChoices, ISourceRange[] ranges, RefactoringStatus status, String location) {
+			// the query may wait for the UI thread while holding the lock
+			Assert.isTrue(fQuery == null || Display.getCurrent() == null);
+			return doChooseImports(openChoices, ranges, status, location);
+		}
+
+		private synchronized TypeNameMatch[] doChooseImports(TypeNameMatch[][] openChoices, ISourceRange[] ranges, RefactoringStatus status, String location) {
+			TypeNameMatch[] result= new TypeNameMatch[openChoices.length];
+			List<Integer> undecided= new ArrayList<>();
+			for (int i= 0; i < openChoices.length; i++) {
+				String chosen= fChosenImports.get(openChoices[i][0].getSimpleTypeName());
+				if (chosen == null) {
+					undecided.add(Integer.valueOf(i));
+				} else {
+					result[i]= findChoice(openChoices[i], chosen);
+				}
+			}
+			if (undecided.isEmpty())
+				return result;
+
+			if (fQuery == null) {
+				for (Integer index : undecided) {
+					String simpleName= openChoices[index.intValue()][0].getSimpleTypeName();
+					if (fReportedNames.add(simpleName)) {
+						addInfo(status, Messages.format(ActionMessages.OrganizeImportsAction_multi_error_ambiguous, new String[] { simpleName, location }));
+					}
+				}
+				return result;
+			}
+
+			TypeNameMatch[][] undecidedChoices= new TypeNameMatch[undecided.size()][];
+			ISourceRange[] undecidedRanges= new ISourceRange[undecided.size()];
+			for (int k= 0; k < undecidedChoices.length; k++) {
+				int index= undecided.get(k).intValue();
+				undecidedChoices[k]= openChoices[index];
+				undecidedRanges[k]= ranges[index];
+			}
+			TypeNameMatch[] chosen= fQuery.chooseImports(undecidedChoices, undecidedRanges);
+			if (chosen == null)
+				return null;
+
+			for (int k= 0; k < undecidedChoices.length; k++) {
+				TypeNameMatch match= k < chosen.length ? chosen[k] : null;
+				result[undecided.get(k).intValue()]= match;
+				fChosenImports.put(undecidedChoices[k][0].getSimpleTypeName(), match != null ? match.getFullyQualifiedName() : SKIPPED);
+			}
+			return result;
+		}
+
+		private static TypeNameMatch findChoice(TypeNameMatch[] choices, String fullyQualifiedName) {
+			for (TypeNameMatch choice : choices) {
+				if (choice.getFullyQualifiedName().equals(fullyQualifiedName))
+					return choice;
+			}
+			return null;
+		}
+	}
+
 	public static ICleanUpFix createCleanUp(final CompilationUnit cu, CodeGenerationSettings settings, boolean organizeImports, RefactoringStatus status) throws CoreException {
+		return createCleanUp(cu, settings, organizeImports, status, null);
+	}
+
+	/**
+	 * Creates the fix that organizes the imports of a compilation unit.
+	 *
+	 * @param cu the AST of the compilation unit
+	 * @param settings the code generation settings
+	 * @param organizeImports <code>true</code> if the imports are to be organized
+	 * @param status the status to report problems to, may be shared by compilation units that
+	 *            are processed concurrently
+	 * @param context the state shared with the other compilation units of a bulk run, or
+	 *            <code>null</code> to report ambiguous references for each compilation unit
+	 * @return the fix or <code>null</code> if the imports are organized already
+	 * @throws CoreException if the imports could not be organized
+	 * @since 3.32
+	 */
+	public static ICleanUpFix createCleanUp(final CompilationUnit cu, CodeGenerationSettings settings, boolean organizeImports, RefactoringStatus status, BulkContext context) throws CoreException {
 		if (!organizeImports)
 			return null;
 
 		final boolean hasAmbiguity[]= new boolean[] { false };
-		IChooseImportQuery query= (openChoices, ranges) -> {
-			hasAmbiguity[0]= true;
-			return new TypeNameMatch[0];
-		};
+		IChooseImportQuery query;
+		if (context != null) {
+			query= (openChoices, ranges) -> context.chooseImports(openChoices, ranges, status, getLocationString(cu));
+		} else {
+			query= (openChoices, ranges) -> {
+				hasAmbiguity[0]= true;
+				return new TypeNameMatch[0];
+			};
+		}
 
 		final ICompilationUnit unit= (ICompilationUnit)cu.getJavaElement();
 		OrganizeImportsOperation op= new OrganizeImportsOperation(unit, cu, settings.importIgnoreLowercase, false, false, query);
+		if (context != null) {
+			op.setTypeNameMatchCache(context.getTypeNameMatchCache());
+		}
 		final TextEdit edit= op.createTextEdit(null);
 		if (hasAmbiguity[0]) {
-			status.addInfo(Messages.format(ActionMessages.OrganizeImportsAction_multi_error_unresolvable, getLocationString(cu)));
+			addInfo(status, Messages.format(ActionMessages.OrganizeImportsAction_multi_error_unresolvable, getLocationString(cu)));
 		}
 
 		if (op.getParseError() != null) {
-			status.addInfo(Messages.format(ActionMessages.OrganizeImportsAction_multi_error_parse, getLocationString(cu)));
+			addInfo(status, Messages.format(ActionMessages.OrganizeImportsAction_multi_error_parse, getLocationString(cu)));
 			return null;
 		}
 
@@ -64,6 +212,12 @@ public class ImportsFix extends TextEditFix {
 		return new ImportsFix(edit, unit, FixMessages.ImportsFix_OrganizeImports_Description);
     }
 
+	private static void addInfo(RefactoringStatus status, String message) {
+		synchronized (status) {
+			status.addInfo(message);
+		}
+	}
+
 	private static String getLocationString(final CompilationUnit cu) {
 		return BasicElementLabels.getPathLabel(cu.getJavaElement().getPath(), false);
 	}
@@ -13,40 +13,39 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.corext.util;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.Collection;
 import java.util.Hashtable;
-import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 
 import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.transform.OutputKeys;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactoryConfigurationError;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
 
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 import org.xml.sax.helpers.DefaultHandler;
 
-import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 
 import org.eclipse.core.runtime.CoreException;
-import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IStatus;
 
 import org.eclipse.jdt.internal.core.manipulation.util.BasicElementLabels;
@@ -62,7 +61,11 @@ import org.eclipse.jdt.internal.ui.util.XmlProcessorFactoryJdtUi;
  * MAX_HISTORY_SIZE. If the list exceeds this size the eldest element is removed
  * from the list. An element can be added/renewed with a call to <code>accessed(Object)</code>.
  *
- * The history can be stored to/loaded from an xml file.
+ * The history is stored in a binary journal file. Once the history has been loaded, every
+ * access and removal is appended to the journal, and the journal is compacted to the current
+ * entries when it grows too long or the history is saved. A history stored in an xml file by an
+ * earlier version is migrated to the journal when it is loaded. The xml file is left in place
+ * for earlier versions that share the workspace.
  *
  * @param <K> key type
  * @param <V> value type
@@ -73,6 +76,17 @@ public abstract class History<K, V> {
 	private static final String DEFAULT_INFO_NODE_NAME= "infoNode"; //$NON-NLS-1$
 	private static final int MAX_HISTORY_SIZE= 60;
 
+	private static final String XML_FILE_EXTENSION= ".xml"; //$NON-NLS-1$
+	private static final String JOURNAL_FILE_EXTENSION= ".history"; //$NON-NLS-1$
+	private static final int JOURNAL_MAGIC= 0x4a484953;
+	private static final int JOURNAL_VERSION= 1;
+	private static final byte RECORD_ACCESSED= 1;
+	private static final byte RECORD_REMOVED= 2;
+	/**
+	 * The number of records after which the journal is compacted.
+	 */
+	private static final int MAX_JOURNAL_RECORDS= 4 * MAX_HISTORY_SIZE;
+
 	private static JavaUIException createException(Throwable t, String message) {
 		return new JavaUIException(JavaUIStatus.createError(IStatus.ERROR, message, t));
 	}
@@ -82,6 +96,10 @@ public abstract class History<K, V> {
 	private final String fFileName;
 	private final String fRootNodeName;
 	private final String fInfoNodeName;
+	/** <code>true</code> once the history has been loaded and changes are journaled */
+	private boolean fJournaling;
+	/** The number of records in the journal */
+	private int fJournalRecords;
 
 	public History(String fileName, String rootNodeName, String infoNodeName) {
 		fHistory= new LinkedHashMap<>(80, 0.75f, true) {
@@ -104,6 +122,7 @@ public abstract class History<K, V> {
 	public synchronized void accessed(V object) {
 		fHistory.put(getKey(object), object);
 		rebuildPositions();
+		journal(RECORD_ACCESSED, object);
 	}
 
 	public synchronized boolean contains(V object) {
@@ -119,14 +138,18 @@ public abstract class History<K, V> {
 	}
 
 	public synchronized Object remove(V object) {
-		Object removed= fHistory.remove(getKey(object));
+		V removed= fHistory.remove(getKey(object));
 		rebuildPositions();
+		if (removed != null)
+			journal(RECORD_REMOVED, removed);
 		return removed;
 	}
 
 	public synchronized Object removeKey(Object key) {
-		Object removed= fHistory.remove(key);
+		V removed= fHistory.remove(key);
 		rebuildPositions();
+		if (removed != null)
+			journal(RECORD_REMOVED, removed);
 		return removed;
 	}
 
@@ -165,27 +188,40 @@ public abstract class History<K, V> {
 	}
 
 	public synchronized void load() {
-		IPath stateLocation= JavaPlugin.getDefault().getStateLocation().append(fFileName);
-		File file= stateLocation.toFile();
-		if (file.exists()) {
-			try (InputStreamReader reader= new InputStreamReader(new FileInputStream(file), "utf-8")) {//$NON-NLS-1$
-				load(new InputSource(reader));
-			} catch (IOException | CoreException e) {
+		File journal= getJournalFile();
+		if (journal.exists()) {
+			try {
+				if (loadJournal(journal))
+					compact(journal);
+			} catch (IOException e) {
 				JavaPlugin.log(e);
+				fHistory.clear();
+				compact(journal);
 			}
+		} else {
+			File file= JavaPlugin.getDefault().getStateLocation().append(fFileName).toFile();
+			boolean migrated= true;
+			if (file.exists()) {
+				try (InputStreamReader reader= new InputStreamReader(new FileInputStream(file), "utf-8")) {//$NON-NLS-1$
+					load(new InputSource(reader));
+				} catch (IOException | CoreException e) {
+					JavaPlugin.log(e);
+					migrated= false;
+				}
+			}
+			// an xml file which could not be read is migrated again the next time
+			if (migrated)
+				compact(journal);
 		}
+		rebuildPositions();
+		fJournaling= true;
 	}
 
+	/**
+	 * Writes the current entries to the journal.
+	 */
 	public synchronized void save() {
-		IPath stateLocation= JavaPlugin.getDefault().getStateLocation().append(fFileName);
-		File file= stateLocation.toFile();
-		try (OutputStream out= new FileOutputStream(file)) {
-			save(out);
-		} catch (IOException | CoreException | TransformerFactoryConfigurationError e) {
-			// The XML library can be misconficgured (e.g. via
-			// -Djava.endorsed.dirs=C:\notExisting\xerces-2_7_1)
-			JavaPlugin.log(e);
-		}
+		compact(getJournalFile());
 	}
 
 	protected Set<K> getKeys() {
@@ -197,15 +233,26 @@ public abstract class History<K, V> {
 	}
 
 	/**
-	 * Store <code>Object</code> in <code>Element</code>
+	 * Write <code>object</code> to <code>stream</code>
 	 *
 	 * @param object The object to store
-	 * @param element The Element to store to
+	 * @param stream The stream to write to
+	 * @throws IOException if writing to the stream fails
+	 */
+	protected abstract void write(V object, DataOutputStream stream) throws IOException;
+
+	/**
+	 * Return a new instance of an Object read from <code>stream</code>
+	 *
+	 * @param stream The stream containing the information written by {@link #write(Object, DataOutputStream)}
+	 * @return a new instance of an Object, or <code>null</code> if it cannot be restored
+	 * @throws IOException if reading from the stream fails
 	 */
-	protected abstract void setAttributes(Object object, Element element);
+	protected abstract V createFromStream(DataInputStream stream) throws IOException;
 
 	/**
-	 * Return a new instance of an Object given <code>element</code>
+	 * Return a new instance of an Object given <code>element</code>. Used to migrate
+	 * histories stored in xml files.
 	 *
 	 * @param element The element containing required information to create the Object
 	 * @return return a new instance of an Object given <code>element</code>
@@ -260,34 +307,118 @@ public abstract class History<K, V> {
 		rebuildPositions();
 	}
 
-	private void save(OutputStream stream) throws CoreException {
-		try {
-			DocumentBuilderFactory factory= XmlProcessorFactoryJdtUi.createDocumentBuilderFactoryWithErrorOnDOCTYPE();
-			DocumentBuilder builder= factory.newDocumentBuilder();
-			Document document= builder.newDocument();
-
-			Element rootElement = document.createElement(fRootNodeName);
-			document.appendChild(rootElement);
-
-			Iterator<V> values= getValues().iterator();
-			while (values.hasNext()) {
-				Object object= values.next();
-				Element element= document.createElement(fInfoNodeName);
-				setAttributes(object, element);
-				rootElement.appendChild(element);
+	private File getJournalFile() {
+		String name= fFileName;
+		if (name.endsWith(XML_FILE_EXTENSION))
+			name= name.substring(0, name.length() - XML_FILE_EXTENSION.length());
+		return JavaPlugin.getDefault().getStateLocation().append(name + JOURNAL_FILE_EXTENSION).toFile();
+	}
+
+	/**
+	 * Replays the records of the journal.
+	 *
+	 * @param journal the journal file
+	 * @return <code>true</code> if the journal should be compacted
+	 * @throws IOException if the journal cannot be read or is not a journal
+	 */
+	private boolean loadJournal(File journal) throws IOException {
+		fJournalRecords= 0;
+		try (DataInputStream in= new DataInputStream(new BufferedInputStream(new FileInputStream(journal)))) {
+			if (in.readInt() != JOURNAL_MAGIC || in.readInt() != JOURNAL_VERSION)
+				throw new IOException(Messages.format(CorextMessages.History_error_read, BasicElementLabels.getResourceName(journal.getName())));
+			long remaining= journal.length() - 8;
+			int kind;
+			while ((kind= in.read()) != -1) {
+				byte[] record;
+				try {
+					int length= in.readInt();
+					remaining-= 5;
+					if (length < 0 || length > remaining) {
+						// a damaged record ends the journal
+						return true;
+					}
+					record= new byte[length];
+					in.readFully(record);
+					remaining-= length;
+				} catch (EOFException e) {
+					// the last record was not written completely
+					return true;
+				}
+				fJournalRecords++;
+				V object;
+				try {
+					object= createFromStream(new DataInputStream(new ByteArrayInputStream(record)));
+				} catch (IOException e) {
+					object= null;
+				}
+				if (object == null)
+					continue;
+				if (kind == RECORD_ACCESSED)
+					fHistory.put(getKey(object), object);
+				else if (kind == RECORD_REMOVED)
+					fHistory.remove(getKey(object));
 			}
+		}
+		return fJournalRecords > MAX_JOURNAL_RECORDS;
+	}
 
-			Transformer transformer= XmlProcessorFactoryJdtUi.createTransformerFactoryWithErrorOnDOCTYPE().newTransformer();
-			transformer.setOutputProperty(OutputKeys.METHOD, "xml"); //$NON-NLS-1$
-			transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8"); //$NON-NLS-1$
-			transformer.setOutputProperty(OutputKeys.INDENT, "yes"); //$NON-NLS-1$
-			DOMSource source = new DOMSource(document);
-			StreamResult result = new StreamResult(stream);
+	/**
+	 * Appends a record to the journal, or compacts the journal if it has too many records.
+	 *
+	 * @param kind the kind of the record
+	 * @param object the accessed or removed object
+	 */
+	private void journal(byte kind, V object) {
+		if (!fJournaling)
+			return;
+		File journal= getJournalFile();
+		if (fJournalRecords >= MAX_JOURNAL_RECORDS) {
+			compact(journal);
+			return;
+		}
+		try (DataOutputStream out= new DataOutputStream(new BufferedOutputStream(new FileOutputStream(journal, true)))) {
+			writeRecord(out, kind, object);
+			fJournalRecords++;
+		} catch (IOException e) {
+			JavaPlugin.log(e);
+		}
+	}
 
-			transformer.transform(source, result);
-		} catch (TransformerException | ParserConfigurationException e) {
-			throw createException(e, Messages.format(CorextMessages.History_error_serialize, BasicElementLabels.getResourceName(fFileName)));
+	/**
+	 * Replaces the journal by one with a record for each entry, from the eldest to the newest.
+	 *
+	 * @param journal the journal file
+	 * @return <code>true</code> if the journal was written
+	 */
+	private boolean compact(File journal) {
+		File temp= new File(journal.getPath() + ".tmp"); //$NON-NLS-1$
+		try {
+			try (DataOutputStream out= new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+				out.writeInt(JOURNAL_MAGIC);
+				out.writeInt(JOURNAL_VERSION);
+				for (V object : getValues())
+					writeRecord(out, RECORD_ACCESSED, object);
+			}
+			try {
+				Files.move(temp.toPath(), journal.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp.toPath(), journal.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+			fJournalRecords= fHistory.size();
+			return true;
+		} catch (IOException e) {
+			JavaPlugin.log(e);
+			temp.delete();
+			return false;
 		}
 	}
 
+	private void writeRecord(DataOutputStream out, byte kind, V object) throws IOException {
+		ByteArrayOutputStream record= new ByteArrayOutputStream();
+		write(object, new DataOutputStream(record));
+		out.writeByte(kind);
+		out.writeInt(record.size());
+		record.writeTo(out);
+	}
+
 }
@@ -70,6 +70,7 @@ import org.eclipse.jdt.internal.corext.refactoring.util.JavaElementUtil;
  * <li>{@link JavaConventionsUtil}</li>
  * <li>{@link MethodOverrideTester}</li>
  * <li>{@link SuperTypeHierarchyCache}</li>
+ * <li>{@link TypeNameResolutionCache}</li>
  * </ul>
  *
  * <p>
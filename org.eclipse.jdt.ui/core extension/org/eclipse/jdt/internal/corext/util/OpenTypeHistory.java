@@ -13,6 +13,9 @@
  *******************************************************************************/
  package org.eclipse.jdt.internal.corext.util;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -20,6 +23,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.w3c.dom.Element;
 
@@ -28,10 +32,7 @@ import org.eclipse.core.filesystem.IFileInfo;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
-import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.OperationCanceledException;
-import org.eclipse.core.runtime.Status;
-import org.eclipse.core.runtime.jobs.Job;
 
 import org.eclipse.core.resources.IResource;
 
@@ -56,6 +57,10 @@ import org.eclipse.jdt.internal.corext.CorextMessages;
 
 /**
  * History for the open type dialog. Object and keys are both {@link TypeNameMatch}s.
+ * <p>
+ * Entries are validated against the Java model lazily, see {@link #validate(TypeNameMatch)}.
+ * A change of the Java model that may affect the entries only invalidates the validations.
+ * </p>
  */
 public class OpenTypeHistory extends History<TypeNameMatch, TypeNameMatch> {
 
@@ -148,30 +153,16 @@ public class OpenTypeHistory extends History<TypeNameMatch, TypeNameMatch> {
 		}
 	}
 
-	private static class UpdateJob extends Job {
-		public static final String FAMILY= UpdateJob.class.getName();
-		public UpdateJob() {
-			super(CorextMessages.TypeInfoHistory_consistency_check);
-		}
-		@Override
-		protected IStatus run(IProgressMonitor monitor) {
-			OpenTypeHistory history= OpenTypeHistory.getInstance();
-			history.internalCheckConsistency(monitor);
-			return Status.OK_STATUS;
-		}
-		@Override
-		public boolean belongsTo(Object family) {
-			return FAMILY.equals(family);
-		}
-	}
-
 	// Needs to be volatile since accesses aren't synchronized.
 	private volatile boolean fNeedsConsistencyCheck;
 	// Map of cached time stamps
 	private Map<TypeNameMatch, Long> fTimestampMapping;
+	// Map of validated types to the generation in which they were validated
+	private final Map<TypeNameMatch, Integer> fValidated;
+	// Incremented by each change of the Java model that may affect the history
+	private final AtomicInteger fGeneration;
 
 	private final IElementChangedListener fDeltaListener;
-	private final UpdateJob fUpdateJob;
 
 	private static final String FILENAME= "OpenTypeHistory.xml"; //$NON-NLS-1$
 	private static final String NODE_ROOT= "typeInfoHistroy"; //$NON-NLS-1$
@@ -197,24 +188,23 @@ public class OpenTypeHistory extends History<TypeNameMatch, TypeNameMatch> {
 	private OpenTypeHistory() {
 		super(FILENAME, NODE_ROOT, NODE_TYPE_INFO);
 		fTimestampMapping= new HashMap<>();
+		fValidated= new HashMap<>();
+		fGeneration= new AtomicInteger();
 		fNeedsConsistencyCheck= true;
 		load();
+		// the journal may contain removed types
+		fTimestampMapping.keySet().retainAll(getKeys());
 		fDeltaListener= new TypeHistoryDeltaListener();
 		JavaCore.addElementChangedListener(fDeltaListener);
-		fUpdateJob= new UpdateJob();
-		// It is not necessary anymore that the update job has a rule since
-		// markAsInconsistent isn't synchronized anymore. See bugs
-		// https://bugs.eclipse.org/bugs/show_bug.cgi?id=128399 and
-		// https://bugs.eclipse.org/bugs/show_bug.cgi?id=135278
-		// for details.
-		fUpdateJob.setPriority(Job.SHORT);
 	}
 
 	public void markAsInconsistent() {
+		// Not synchronized, see bugs
+		// https://bugs.eclipse.org/bugs/show_bug.cgi?id=128399 and
+		// https://bugs.eclipse.org/bugs/show_bug.cgi?id=135278
+		// for details.
+		fGeneration.incrementAndGet();
 		fNeedsConsistencyCheck= true;
-		// cancel the old job. If no job is running this is a NOOP.
-		fUpdateJob.cancel();
-		fUpdateJob.schedule();
 	}
 
 	public boolean needConsistencyCheck() {
@@ -222,21 +212,34 @@ public class OpenTypeHistory extends History<TypeNameMatch, TypeNameMatch> {
 	}
 
 	public void checkConsistency(IProgressMonitor monitor) throws OperationCanceledException {
-		if (!fNeedsConsistencyCheck)
-			return;
-		if (fUpdateJob.getState() == Job.RUNNING) {
-			try {
-				Job.getJobManager().join(UpdateJob.FAMILY, monitor);
-			} catch (OperationCanceledException | InterruptedException e) {
-				// Ignore and do the consistency check without
-				// waiting for the update job.
-			}
-		}
 		if (!fNeedsConsistencyCheck)
 			return;
 		internalCheckConsistency(monitor);
 	}
 
+	/**
+	 * Validates a type of the history against the Java model, unless it has been validated since
+	 * the last change of the Java model. A type that no longer exists is removed from the history,
+	 * a type whose modifiers changed is replaced.
+	 *
+	 * @param type the type to validate
+	 * @return <code>false</code> if the type has been removed from the history, <code>true</code>
+	 *         otherwise
+	 */
+	public synchronized boolean validate(TypeNameMatch type) {
+		if (!contains(type))
+			return true;
+		int generation= fGeneration.get();
+		Integer validated= fValidated.get(type);
+		if (validated != null && validated.intValue() == generation)
+			return true;
+		TypeNameMatch current= internalValidate(type);
+		if (current == null)
+			return false;
+		fValidated.put(current, generation);
+		return true;
+	}
+
 	@Override
 	public synchronized boolean contains(TypeNameMatch type) {
 		return super.contains(type);
@@ -255,11 +258,13 @@ public class OpenTypeHistory extends History<TypeNameMatch, TypeNameMatch> {
 	@Override
 	public synchronized TypeNameMatch remove(TypeNameMatch info) {
 		fTimestampMapping.remove(info);
+		fValidated.remove(info);
 		return (TypeNameMatch)super.remove(info);
 	}
 
 	public synchronized void replace(TypeNameMatch old, TypeNameMatch newMatch) {
 		fTimestampMapping.remove(old);
+		fValidated.remove(old);
 		fTimestampMapping.put(newMatch, getContainerTimestamp(newMatch));
 		super.remove(old);
 		super.accessed(newMatch);
@@ -297,36 +302,56 @@ public class OpenTypeHistory extends History<TypeNameMatch, TypeNameMatch> {
 		// Setting fNeedsConsistencyCheck is necessary here since
 		// markAsInconsistent isn't synchronized.
 		fNeedsConsistencyCheck= true;
+		int generation= fGeneration.get();
 		List<TypeNameMatch> typesToCheck= new ArrayList<>(getKeys());
 		monitor.beginTask(CorextMessages.TypeInfoHistory_consistency_check, typesToCheck.size());
 		monitor.setTaskName(CorextMessages.TypeInfoHistory_consistency_check);
 		for (TypeNameMatch type : typesToCheck) {
-			long currentTimestamp= getContainerTimestamp(type);
-			Long lastTested= fTimestampMapping.get(type);
-			if (lastTested != null && currentTimestamp != IResource.NULL_STAMP && currentTimestamp == lastTested.longValue() && !isContainerDirty(type))
-				continue;
-			try {
-				IType jType= type.getType();
-				if (jType == null || !jType.exists()) {
-					remove(type);
-				} else {
-					// copy over the modifiers since they may have changed
-					int modifiers= jType.getFlags();
-					if (modifiers != type.getModifiers()) {
-						replace(type, SearchEngine.createTypeNameMatch(jType, modifiers));
-					} else {
-						fTimestampMapping.put(type, currentTimestamp);
-					}
-				}
-			} catch (JavaModelException e) {
-				remove(type);
+			Integer validated= fValidated.get(type);
+			if (validated == null || validated.intValue() != generation) {
+				TypeNameMatch current= internalValidate(type);
+				if (current != null)
+					fValidated.put(current, generation);
 			}
 			if (monitor.isCanceled())
 				throw new OperationCanceledException();
 			monitor.worked(1);
 		}
 		monitor.done();
-		fNeedsConsistencyCheck= false;
+		if (generation == fGeneration.get())
+			fNeedsConsistencyCheck= false;
+	}
+
+	/**
+	 * Checks whether a type of the history still exists and updates its modifiers.
+	 *
+	 * @param type the type to check
+	 * @return the type in the history, or <code>null</code> if it has been removed
+	 */
+	private TypeNameMatch internalValidate(TypeNameMatch type) {
+		long currentTimestamp= getContainerTimestamp(type);
+		Long lastTested= fTimestampMapping.get(type);
+		if (lastTested != null && currentTimestamp != IResource.NULL_STAMP && currentTimestamp == lastTested.longValue() && !isContainerDirty(type))
+			return type;
+		try {
+			IType jType= type.getType();
+			if (jType == null || !jType.exists()) {
+				remove(type);
+				return null;
+			}
+			// copy over the modifiers since they may have changed
+			int modifiers= jType.getFlags();
+			if (modifiers != type.getModifiers()) {
+				TypeNameMatch newMatch= SearchEngine.createTypeNameMatch(jType, modifiers);
+				replace(type, newMatch);
+				return newMatch;
+			}
+			fTimestampMapping.put(type, currentTimestamp);
+			return type;
+		} catch (JavaModelException e) {
+			remove(type);
+			return null;
+		}
 	}
 
 	private long getContainerTimestamp(TypeNameMatch match) {
@@ -387,17 +412,12 @@ public class OpenTypeHistory extends History<TypeNameMatch, TypeNameMatch> {
 		if (handle == null )
 			return null;
 
-		IJavaElement element= JavaCore.create(handle);
-		if (!(element instanceof IType))
-			return null;
-
 		int modifiers= 0;
 		try {
 			modifiers= Integer.parseInt(type.getAttribute(NODE_MODIFIERS));
 		} catch (NumberFormatException e) {
 			// take zero
 		}
-		TypeNameMatch info= SearchEngine.createTypeNameMatch((IType) element, modifiers);
 		long timestamp= IResource.NULL_STAMP;
 		String timestampValue= type.getAttribute(NODE_TIMESTAMP);
 		if (timestampValue != null && timestampValue.length() > 0) {
@@ -407,6 +427,23 @@ public class OpenTypeHistory extends History<TypeNameMatch, TypeNameMatch> {
 				// take null stamp
 			}
 		}
+		return createTypeNameMatch(handle, modifiers, timestamp);
+	}
+
+	@Override
+	protected TypeNameMatch createFromStream(DataInputStream stream) throws IOException {
+		String handle= stream.readUTF();
+		int modifiers= stream.readInt();
+		long timestamp= stream.readLong();
+		return createTypeNameMatch(handle, modifiers, timestamp);
+	}
+
+	private TypeNameMatch createTypeNameMatch(String handle, int modifiers, long timestamp) {
+		IJavaElement element= JavaCore.create(handle);
+		if (!(element instanceof IType))
+			return null;
+
+		TypeNameMatch info= SearchEngine.createTypeNameMatch((IType) element, modifiers);
 		if (timestamp != IResource.NULL_STAMP) {
 			fTimestampMapping.put(info, timestamp);
 		}
@@ -414,17 +451,11 @@ public class OpenTypeHistory extends History<TypeNameMatch, TypeNameMatch> {
 	}
 
 	@Override
-	protected void setAttributes(Object object, Element typeElement) {
-		TypeNameMatch type= (TypeNameMatch) object;
-		String handleId= type.getType().getHandleIdentifier();
-		typeElement.setAttribute(NODE_HANDLE, handleId);
-		typeElement.setAttribute(NODE_MODIFIERS, Integer.toString(type.getModifiers()));
+	protected void write(TypeNameMatch type, DataOutputStream stream) throws IOException {
+		stream.writeUTF(type.getType().getHandleIdentifier());
+		stream.writeInt(type.getModifiers());
 		Long timestamp= fTimestampMapping.get(type);
-		if (timestamp == null) {
-			typeElement.setAttribute(NODE_TIMESTAMP, Long.toString(IResource.NULL_STAMP));
-		} else {
-			typeElement.setAttribute(NODE_TIMESTAMP, timestamp.toString());
-		}
+		stream.writeLong(timestamp == null ? IResource.NULL_STAMP : timestamp.longValue());
 	}
 
 }
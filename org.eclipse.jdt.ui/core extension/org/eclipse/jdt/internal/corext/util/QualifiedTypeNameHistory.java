@@ -13,6 +13,10 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.corext.util;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
 import org.w3c.dom.Element;
 
 public class QualifiedTypeNameHistory extends History<String, String> {
@@ -37,8 +41,13 @@ public class QualifiedTypeNameHistory extends History<String, String> {
 	}
 
 	@Override
-	protected void setAttributes(Object object, Element element) {
-		element.setAttribute(NODE_NAME, (String)object);
+	protected void write(String object, DataOutputStream stream) throws IOException {
+		stream.writeUTF(object);
+	}
+
+	@Override
+	protected String createFromStream(DataInputStream stream) throws IOException {
+		return stream.readUTF();
 	}
 
 	@Override
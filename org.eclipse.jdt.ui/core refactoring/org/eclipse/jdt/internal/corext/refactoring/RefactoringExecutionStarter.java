@@ -70,6 +70,7 @@ import org.eclipse.jdt.core.refactoring.descriptors.IntroduceParameterObjectDesc
 
 import org.eclipse.jdt.internal.core.refactoring.descriptors.RefactoringSignatureDescriptorFactory;
 import org.eclipse.jdt.internal.corext.fix.CleanUpRefactoring;
+import org.eclipse.jdt.internal.corext.fix.CleanUpResultCache;
 import org.eclipse.jdt.internal.corext.refactoring.base.RefactoringStatusCodes;
 import org.eclipse.jdt.internal.corext.refactoring.code.ConvertAnonymousToNestedRefactoring;
 import org.eclipse.jdt.internal.corext.refactoring.code.InlineConstantRefactoring;
@@ -234,7 +235,19 @@ public final class RefactoringExecutionStarter {
 	}
 
 	public static void startCleanupRefactoring(ICompilationUnit[] cus, ICleanUp[] cleanUps, boolean useOptionsFromProfile, Shell shell, boolean showWizard, String actionName) throws InvocationTargetException {
+		startCleanupRefactoring(cus, cleanUps, useOptionsFromProfile, shell, showWizard, actionName, 1);
+	}
+
+	/**
+	 * Starts a clean up refactoring that processes the compilation units of each project
+	 * with <code>parallelism</code> threads, see {@link CleanUpRefactoring#setParallelism(int)}.
+	 *
+	 * @since 3.32
+	 */
+	public static void startCleanupRefactoring(ICompilationUnit[] cus, ICleanUp[] cleanUps, boolean useOptionsFromProfile, Shell shell, boolean showWizard, String actionName, int parallelism) throws InvocationTargetException {
 		final CleanUpRefactoring refactoring= new CleanUpRefactoring(actionName);
+		refactoring.setParallelism(parallelism);
+		refactoring.setResultCache(CleanUpResultCache.getDefault());
 		for (ICompilationUnit cu : cus) {
 			refactoring.addCompilationUnit(cu);
 		}
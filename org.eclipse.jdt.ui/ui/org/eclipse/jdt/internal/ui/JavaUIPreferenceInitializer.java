@@ -27,6 +27,8 @@ import org.eclipse.ui.editors.text.EditorsUI;
 
 import org.eclipse.jdt.ui.PreferenceConstants;
 
+import org.eclipse.jdt.internal.ui.actions.CleanUpAction;
+
 public class JavaUIPreferenceInitializer extends AbstractPreferenceInitializer {
 
 	@Override
@@ -36,6 +38,7 @@ public class JavaUIPreferenceInitializer extends AbstractPreferenceInitializer {
 		EditorsUI.useAnnotationsPreferencePage(store);
 		EditorsUI.useQuickDiffPreferencePage(store);
 		PreferenceConstants.initializeDefaultValues(store);
+		store.setDefault(CleanUpAction.PREF_CLEAN_UP_THREADS, 0);
 	}
 
 	public static void setThemeBasedPreferences(IPreferenceStore store, boolean fireEvent) {
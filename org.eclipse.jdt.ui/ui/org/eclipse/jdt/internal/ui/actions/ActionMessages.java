@@ -276,6 +276,7 @@ public final class ActionMessages extends NLS {
 	public static String OrganizeImportsAction_description;
 	public static String OrganizeImportsAction_multi_error_parse;
 	public static String OrganizeImportsAction_multi_error_unresolvable;
+	public static String OrganizeImportsAction_multi_error_ambiguous;
 	public static String OrganizeImportsAction_selectiondialog_title;
 	public static String OrganizeImportsAction_selectiondialog_message;
 	public static String OrganizeImportsAction_error_title;
@@ -68,7 +68,7 @@ public class AllCleanUpsAction extends CleanUpAction {
 
 	@Override
 	protected void performRefactoring(ICompilationUnit[] cus, ICleanUp[] cleanUps) throws InvocationTargetException {
-		RefactoringExecutionStarter.startCleanupRefactoring(cus, cleanUps, !showWizard(), getShell(), showWizard(), getActionName());
+		RefactoringExecutionStarter.startCleanupRefactoring(cus, cleanUps, !showWizard(), getShell(), showWizard(), getActionName(), getParallelism());
 	}
 
 	private boolean showWizard() {
@@ -61,6 +61,12 @@ import org.eclipse.jdt.internal.ui.workingsets.IWorkingSetIDs;
 
 public abstract class CleanUpAction extends SelectionDispatchAction {
 
+	/**
+	 * Preference key for the number of threads that clean up the compilation units of a project.
+	 * A value below <code>1</code> uses one thread less than the available processors.
+	 */
+	public static final String PREF_CLEAN_UP_THREADS= "CleanUp.threads"; //$NON-NLS-1$
+
 	private JavaEditor fEditor;
 
 	public CleanUpAction(IWorkbenchSite site) {
@@ -94,7 +100,18 @@ public abstract class CleanUpAction extends SelectionDispatchAction {
 	protected abstract ICleanUp[] getCleanUps(ICompilationUnit[] units);
 
 	protected void performRefactoring(ICompilationUnit[] units, ICleanUp[] cleanUps) throws InvocationTargetException {
-		RefactoringExecutionStarter.startCleanupRefactoring(units, cleanUps, false, getShell(), false, getActionName());
+		RefactoringExecutionStarter.startCleanupRefactoring(units, cleanUps, false, getShell(), false, getActionName(), getParallelism());
+	}
+
+	/**
+	 * @return the number of threads that clean up the compilation units of a project, see
+	 *         {@link #PREF_CLEAN_UP_THREADS}
+	 */
+	protected static int getParallelism() {
+		int threads= JavaPlugin.getDefault().getPreferenceStore().getInt(PREF_CLEAN_UP_THREADS);
+		if (threads < 1)
+			threads= Runtime.getRuntime().availableProcessors() - 1;
+		return Math.max(1, threads);
 	}
 
 	@Override
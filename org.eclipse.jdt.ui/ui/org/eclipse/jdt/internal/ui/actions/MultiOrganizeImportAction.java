@@ -16,20 +16,36 @@ package org.eclipse.jdt.internal.ui.actions;
 import java.util.Hashtable;
 import java.util.Map;
 
+import org.eclipse.swt.widgets.Display;
+
+import org.eclipse.jface.window.Window;
+
 import org.eclipse.ui.IWorkbenchSite;
 import org.eclipse.ui.PlatformUI;
 
 import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.ISourceRange;
+import org.eclipse.jdt.core.search.TypeNameMatch;
 
 import org.eclipse.jdt.internal.corext.fix.CleanUpConstants;
+import org.eclipse.jdt.internal.corext.fix.ImportsFix;
+import org.eclipse.jdt.internal.corext.util.QualifiedTypeNameHistory;
 
 import org.eclipse.jdt.ui.cleanup.CleanUpOptions;
 import org.eclipse.jdt.ui.cleanup.ICleanUp;
 
 import org.eclipse.jdt.internal.ui.IJavaHelpContextIds;
+import org.eclipse.jdt.internal.ui.dialogs.MultiElementListSelectionDialog;
 import org.eclipse.jdt.internal.ui.fix.ImportsCleanUp;
 import org.eclipse.jdt.internal.ui.javaeditor.JavaEditor;
-
+import org.eclipse.jdt.internal.ui.util.TypeNameMatchLabelProvider;
+
+/**
+ * Organizes the imports of several compilation units in one bulk run. The compilation units
+ * of a project are parsed in batches and processed in parallel, the types found for unresolved
+ * simple names are shared by all compilation units, and the user chooses the import of each
+ * ambiguous simple name only once.
+ */
 public class MultiOrganizeImportAction extends CleanUpAction {
 
 	public MultiOrganizeImportAction(IWorkbenchSite site) {
@@ -56,13 +72,38 @@ public class MultiOrganizeImportAction extends CleanUpAction {
 	protected ICleanUp[] getCleanUps(ICompilationUnit[] units) {
 		Map<String, String> settings= new Hashtable<>();
 		settings.put(CleanUpConstants.ORGANIZE_IMPORTS, CleanUpOptions.TRUE);
-		ImportsCleanUp importsCleanUp= new ImportsCleanUp(settings);
+		ImportsFix.BulkContext bulkContext= new ImportsFix.BulkContext(units.length > 1 ? this::chooseImports : null);
+		ImportsCleanUp importsCleanUp= new ImportsCleanUp(settings, bulkContext);
 
 		return new ICleanUp[] {
 			importsCleanUp
 		};
 	}
 
+	private TypeNameMatch[] chooseImports(TypeNameMatch[][] openChoices, ISourceRange[] ranges) {
+		TypeNameMatch[] result= new TypeNameMatch[openChoices.length];
+		boolean[] canceled= new boolean[1];
+		Display.getDefault().syncExec(() -> {
+			MultiElementListSelectionDialog dialog= new MultiElementListSelectionDialog(getShell(), new TypeNameMatchLabelProvider(TypeNameMatchLabelProvider.SHOW_FULLYQUALIFIED));
+			dialog.setTitle(ActionMessages.OrganizeImportsAction_selectiondialog_title);
+			dialog.setMessage(ActionMessages.OrganizeImportsAction_selectiondialog_message);
+			dialog.setElements(openChoices);
+			if (dialog.open() != Window.OK) {
+				canceled[0]= true;
+				return;
+			}
+			Object[] res= dialog.getResult();
+			for (int i= 0; i < res.length && i < result.length; i++) {
+				Object[] array= (Object[]) res[i];
+				if (array.length > 0) {
+					result[i]= (TypeNameMatch) array[0];
+					QualifiedTypeNameHistory.remember(result[i].getFullyQualifiedName());
+				}
+			}
+		});
+		return canceled[0] ? null : result;
+	}
+
 	@Override
 	protected String getActionName() {
 		return ActionMessages.OrganizeImportsAction_error_title;
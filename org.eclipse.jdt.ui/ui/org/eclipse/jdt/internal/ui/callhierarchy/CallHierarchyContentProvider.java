@@ -15,6 +15,7 @@
 package org.eclipse.jdt.internal.ui.callhierarchy;
 
 import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.swt.widgets.Display;
 
@@ -66,6 +67,9 @@ public class CallHierarchyContentProvider implements ITreeContentProvider {
 
     private DeferredTreeContentManager fManager;
     private CallHierarchyViewPart fPart;
+    private final CallHierarchyPrefetcher fPrefetcher= new CallHierarchyPrefetcher(this);
+    /** The number of running deferred fetches */
+    private final AtomicInteger fFetchCount= new AtomicInteger();
 
     private static class MethodWrapperRunnable implements IRunnableWithProgress {
         private MethodWrapper fMethodWrapper;
@@ -314,9 +318,37 @@ public class CallHierarchyContentProvider implements ITreeContentProvider {
         	}
         }
 
-        return runnable.getCalls();
+        MethodWrapper[] calls= runnable.getCalls();
+        prefetch(calls);
+        return calls;
     }
 
+	/**
+	 * Searches the children of the given nodes in the background, down to the prefetch depth.
+	 *
+	 * @param wrappers the nodes that have just been added to the tree
+	 * @since 3.32
+	 */
+	void prefetch(MethodWrapper[] wrappers) {
+		fPrefetcher.prefetch(wrappers);
+	}
+
+	/**
+	 * Shows the number of prefetched nodes in the view.
+	 *
+	 * @param count the number of prefetched nodes
+	 * @since 3.32
+	 */
+	void prefetched(int count) {
+		CallHierarchyViewPart part= fPart;
+		if (part == null)
+			return;
+		Display.getDefault().asyncExec(() -> {
+			if (!part.getViewer().getControl().isDisposed())
+				part.setPrefetchedCount(count);
+		});
+	}
+
 
     /**
      * Returns whether the given element is an "Expand witch Constructors" node.
@@ -370,7 +402,7 @@ public class CallHierarchyContentProvider implements ITreeContentProvider {
     	return fPart;
     }
 
-	private boolean shouldStopTraversion(MethodWrapper methodWrapper) {
+	boolean shouldStopTraversion(MethodWrapper methodWrapper) {
         return (methodWrapper.getLevel() > CallHierarchyUI.getDefault().getMaxCallDepth()) || methodWrapper.isRecursive();
     }
 
@@ -399,7 +431,7 @@ public class CallHierarchyContentProvider implements ITreeContentProvider {
      */
     @Override
 	public void dispose() {
-        // Nothing to dispose
+        fPrefetcher.cancel();
     }
 
     /**
@@ -442,6 +474,7 @@ public class CallHierarchyContentProvider implements ITreeContentProvider {
     		MethodWrapper[] roots = ((TreeRoot) oldInput).getRoots();
    			cancelJobs(roots);
     	}
+    	fPrefetcher.reset();
         if (viewer instanceof AbstractTreeViewer) {
             fManager = new DeferredTreeContentManager((AbstractTreeViewer) viewer, fPart.getSite());
         }
@@ -452,6 +485,7 @@ public class CallHierarchyContentProvider implements ITreeContentProvider {
      * @param wrappers the parents to cancel jobs for
      */
     void cancelJobs(MethodWrapper[] wrappers) {
+        fPrefetcher.cancel();
         if (fManager != null && wrappers != null) {
         	for (MethodWrapper wrapper : wrappers) {
         		fManager.cancel(wrapper);
@@ -463,14 +497,23 @@ public class CallHierarchyContentProvider implements ITreeContentProvider {
     }
 
     public void doneFetching() {
-        if (fPart != null) {
-            fPart.setCancelEnabled(false);
-        }
+        fFetchCount.decrementAndGet();
+        updateCancelEnabled();
     }
 
     public void startFetching() {
+        fFetchCount.incrementAndGet();
+        updateCancelEnabled();
+    }
+
+    /**
+     * Enables the cancel button while children are fetched or prefetched.
+     *
+     * @since 3.32
+     */
+    void updateCancelEnabled() {
         if (fPart != null) {
-            fPart.setCancelEnabled(true);
+            fPart.setCancelEnabled(fFetchCount.get() > 0 || fPrefetcher.isPrefetching());
         }
     }
 }
@@ -71,8 +71,11 @@ public final class CallHierarchyMessages extends NLS {
 	public static String FiltersDialog_maxCallDepth;
 	public static String FiltersDialog_messageMaxCallDepthInvalid;
 	public static String FiltersDialog_filterTestCode;
+	public static String FiltersDialog_prefetchDepth;
+	public static String FiltersDialog_messagePrefetchDepthInvalid;
 	public static String CallHierarchyContentProvider_searchError_title;
 	public static String CallHierarchyContentProvider_searchError_message;
+	public static String CallHierarchyPrefetcher_job_name;
 	public static String CallHierarchyLabelProvider_constructor_label;
 	public static String CallHierarchyLabelProvider_declaration_label;
 	public static String CallHierarchyLabelProvider_expandWithConstructorsAction_realCallers;
@@ -94,6 +97,7 @@ public final class CallHierarchyMessages extends NLS {
 	public static String CallHierarchyViewPart_callsFromMembers_2;
 	public static String CallHierarchyViewPart_callsFromMembers_more;
 	public static String CallHierarchyViewPart_callsFromMethod;
+	public static String CallHierarchyViewPart_prefetched;
 	public static String ExpandWithConstructorsConfigurationBlock_description;
 	public static String ExpandWithConstructorsConfigurationBlock_newType_button;
 	public static String ExpandWithConstructorsConfigurationBlock_newMember_button;
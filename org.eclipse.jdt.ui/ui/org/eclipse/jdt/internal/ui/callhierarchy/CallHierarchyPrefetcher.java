@@ -0,0 +1,191 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.ui.callhierarchy;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.IJobChangeEvent;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.JobChangeAdapter;
+
+import org.eclipse.jdt.core.JavaCore;
+
+import org.eclipse.jdt.internal.corext.callhierarchy.MethodWrapper;
+
+import org.eclipse.jdt.internal.ui.JavaPlugin;
+
+/**
+ * Searches the children of call hierarchy nodes in background jobs before the nodes are
+ * expanded, down to the {@link CallHierarchyUI#getPrefetchDepth() prefetch depth} below an
+ * expanded node. The results end up in the method cache of the tree, so that expanding a
+ * prefetched node does not search again.
+ *
+ * @since 3.32
+ */
+class CallHierarchyPrefetcher {
+
+	/**
+	 * The maximum number of concurrently running prefetch jobs.
+	 */
+	private static final int MAX_JOBS= Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+
+	/**
+	 * A node whose children are to be searched.
+	 */
+	private static final class Request {
+		final MethodWrapper fWrapper;
+		final int fDepth;
+		final int fGeneration;
+
+		Request(MethodWrapper wrapper, int depth, int generation) {
+			fWrapper= wrapper;
+			fDepth= depth;
+			fGeneration= generation;
+		}
+	}
+
+	private final class PrefetchJob extends Job {
+
+		PrefetchJob() {
+			super(CallHierarchyMessages.CallHierarchyPrefetcher_job_name);
+			setSystem(true);
+			setPriority(Job.DECORATE);
+			addJobChangeListener(new JobChangeAdapter() {
+				@Override
+				public void done(IJobChangeEvent event) {
+					// also sent for jobs canceled before they ran
+					fJobCount.decrementAndGet();
+					if (event.getResult().getSeverity() != IStatus.CANCEL)
+						scheduleJobs();
+					fProvider.updateCancelEnabled();
+				}
+			});
+		}
+
+		@Override
+		public boolean belongsTo(Object family) {
+			return family == CallHierarchyPrefetcher.this;
+		}
+
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			try {
+				Request request;
+				while ((request= fQueue.poll()) != null) {
+					if (monitor.isCanceled())
+						return Status.CANCEL_STATUS;
+					prefetch(request, monitor);
+				}
+				return Status.OK_STATUS;
+			} catch (OperationCanceledException e) {
+				return Status.CANCEL_STATUS;
+			}
+		}
+	}
+
+	private final CallHierarchyContentProvider fProvider;
+
+	private final ConcurrentLinkedQueue<Request> fQueue= new ConcurrentLinkedQueue<>();
+
+	private final AtomicInteger fJobCount= new AtomicInteger();
+
+	/** The number of nodes whose children have been searched */
+	private final AtomicInteger fPrefetchedCount= new AtomicInteger();
+
+	/** Incremented on cancel, so that requests of canceled jobs are dropped */
+	private final AtomicInteger fGeneration= new AtomicInteger();
+
+	CallHierarchyPrefetcher(CallHierarchyContentProvider provider) {
+		fProvider= provider;
+	}
+
+	/**
+	 * Schedules the search of the children of the given nodes, which have just been added to
+	 * the tree, and of their descendants down to the prefetch depth.
+	 *
+	 * @param wrappers the nodes
+	 */
+	void prefetch(MethodWrapper[] wrappers) {
+		int depth= CallHierarchyUI.getDefault().getPrefetchDepth();
+		if (depth == 0 || wrappers == null)
+			return;
+		enqueue(wrappers, depth, fGeneration.get());
+	}
+
+	private void enqueue(MethodWrapper[] wrappers, int depth, int generation) {
+		for (MethodWrapper wrapper : wrappers) {
+			if (wrapper.canHaveChildren() && !fProvider.shouldStopTraversion(wrapper))
+				fQueue.add(new Request(wrapper, depth, generation));
+		}
+		scheduleJobs();
+	}
+
+	private void scheduleJobs() {
+		while (!fQueue.isEmpty()) {
+			int count= fJobCount.get();
+			if (count >= MAX_JOBS)
+				break;
+			if (fJobCount.compareAndSet(count, count + 1)) {
+				fProvider.updateCancelEnabled();
+				new PrefetchJob().schedule();
+			}
+		}
+	}
+
+	private void prefetch(Request request, IProgressMonitor monitor) {
+		if (request.fGeneration != fGeneration.get())
+			return;
+		MethodWrapper[] calls;
+		try {
+			calls= JavaCore.callReadOnly(() -> request.fWrapper.getCalls(monitor));
+		} catch (OperationCanceledException e) {
+			throw e;
+		} catch (RuntimeException e) {
+			JavaPlugin.log(e);
+			return;
+		}
+		fProvider.prefetched(fPrefetchedCount.incrementAndGet());
+		if (request.fDepth > 1)
+			enqueue(calls, request.fDepth - 1, request.fGeneration);
+	}
+
+	/**
+	 * @return <code>true</code> if prefetch jobs are scheduled or running
+	 */
+	boolean isPrefetching() {
+		return fJobCount.get() > 0;
+	}
+
+	/**
+	 * Cancels the pending and running prefetch jobs.
+	 */
+	void cancel() {
+		fGeneration.incrementAndGet();
+		fQueue.clear();
+		Job.getJobManager().cancel(this);
+	}
+
+	/**
+	 * Cancels all jobs and resets the number of prefetched nodes, for a new input.
+	 */
+	void reset() {
+		cancel();
+		fPrefetchedCount.set(0);
+	}
+}
@@ -62,6 +62,8 @@ import org.eclipse.jdt.internal.ui.util.ExceptionHandler;
 public class CallHierarchyUI {
     private static final int DEFAULT_MAX_CALL_DEPTH= 10;
     private static final String PREF_MAX_CALL_DEPTH = "PREF_MAX_CALL_DEPTH"; //$NON-NLS-1$
+    private static final int MAX_PREFETCH_DEPTH= 5;
+    private static final String PREF_PREFETCH_DEPTH = "PREF_PREFETCH_DEPTH"; //$NON-NLS-1$
 
     private static CallHierarchyUI fgInstance;
     private int fViewCount= 0;
@@ -106,6 +108,35 @@ public class CallHierarchyUI {
         settings.setValue(PREF_MAX_CALL_DEPTH, maxCallDepth);
     }
 
+    /**
+     * Returns the number of levels below an expanded node whose children are searched in
+     * the background before they are expanded.
+     *
+     * @return the prefetch depth, <code>0</code> if children are only searched when expanded
+     * @since 3.32
+     */
+    public int getPrefetchDepth() {
+        IPreferenceStore settings = JavaPlugin.getDefault().getPreferenceStore();
+        int prefetchDepth = settings.getInt(PREF_PREFETCH_DEPTH);
+        if (prefetchDepth < 0 || prefetchDepth > MAX_PREFETCH_DEPTH) {
+            prefetchDepth= 0;
+        }
+
+        return prefetchDepth;
+    }
+
+    /**
+     * Sets the prefetch depth.
+     *
+     * @param prefetchDepth the prefetch depth
+     * @see #getPrefetchDepth()
+     * @since 3.32
+     */
+    public void setPrefetchDepth(int prefetchDepth) {
+        IPreferenceStore settings = JavaPlugin.getDefault().getPreferenceStore();
+        settings.setValue(PREF_PREFETCH_DEPTH, prefetchDepth);
+    }
+
     public static void jumpToMember(IJavaElement element) {
         if (element != null) {
             try {
@@ -1261,6 +1261,17 @@ public class CallHierarchyViewPart extends ViewPart implements ICallHierarchyVie
         fCancelSearchAction.setEnabled(enabled);
     }
 
+	/**
+	 * Shows the number of nodes whose children have been searched in the background.
+	 *
+	 * @param count the number of prefetched nodes
+	 * @since 3.32
+	 */
+	void setPrefetchedCount(int count) {
+		getViewSite().getActionBars().getStatusLineManager().setMessage(
+				Messages.format(CallHierarchyMessages.CallHierarchyViewPart_prefetched, Integer.valueOf(count)));
+	}
+
     /**
      * Returns the call hierarchy viewer.
      *
@@ -68,7 +68,7 @@ public class DeferredMethodWrapper extends MethodWrapperWorkbenchAdapter impleme
         this.fProvider = provider;
     }
 
-    private Object getCalls(IProgressMonitor monitor) {
+    private MethodWrapper[] getCalls(IProgressMonitor monitor) {
         return getMethodWrapper().getCalls(monitor);
     }
 
@@ -77,8 +77,13 @@ public class DeferredMethodWrapper extends MethodWrapperWorkbenchAdapter impleme
     	final DeferredMethodWrapper deferredMethodWrapper= (DeferredMethodWrapper)object;
     	try {
             fProvider.startFetching();
-            JavaCore.runReadOnly(() -> collector.add((Object[]) deferredMethodWrapper.getCalls(monitor), monitor));
+            MethodWrapper[] calls= JavaCore.callReadOnly(() -> {
+            	MethodWrapper[] children= deferredMethodWrapper.getCalls(monitor);
+            	collector.add((Object[]) children, monitor);
+            	return children;
+            });
             collector.done();
+            fProvider.prefetch(calls);
         } catch (OperationCanceledException e) {
         	final MethodWrapper methodWrapper= deferredMethodWrapper.getMethodWrapper();
 			if (!CallHierarchyContentProvider.isExpandWithConstructors(methodWrapper)) {
@@ -40,6 +40,7 @@ class FiltersDialog extends StatusDialog {
     private Button fFilterOnNames;
     private Text fNames;
     private Text fMaxCallDepth;
+    private Text fPrefetchDepth;
     private Button fFilterTestCode;
 
 
@@ -92,6 +93,19 @@ class FiltersDialog extends StatusDialog {
         GridData gridData = new GridData();
         gridData.widthHint = convertWidthInCharsToPixels(10);
         fMaxCallDepth.setLayoutData(gridData);
+
+        label= new Label(composite, SWT.NONE);
+        label.setFont(composite.getFont());
+        label.setText(CallHierarchyMessages.FiltersDialog_prefetchDepth);
+
+        fPrefetchDepth = new Text(composite, SWT.SINGLE | SWT.BORDER);
+        fPrefetchDepth.setFont(composite.getFont());
+        fPrefetchDepth.setTextLimit(6);
+        fPrefetchDepth.addModifyListener(e -> validateInput());
+
+        gridData = new GridData();
+        gridData.widthHint = convertWidthInCharsToPixels(10);
+        fPrefetchDepth.setLayoutData(gridData);
     }
 
     private void createNamesArea(Composite parent) {
@@ -163,6 +177,7 @@ class FiltersDialog extends StatusDialog {
         int maxCallDepth = Integer.parseInt(this.fMaxCallDepth.getText());
 
         CallHierarchyUI.getDefault().setMaxCallDepth(maxCallDepth);
+        CallHierarchyUI.getDefault().setPrefetchDepth(Integer.parseInt(fPrefetchDepth.getText()));
         CallHierarchy.getDefault().setFilters(fNames.getText());
         CallHierarchy.getDefault().setFilterEnabled(fFilterOnNames.getSelection());
         CallHierarchy.getDefault().setFilterTestCode(fFilterTestCode.getSelection());
@@ -173,6 +188,7 @@ class FiltersDialog extends StatusDialog {
      */
     private void updateUIFromFilter() {
       fMaxCallDepth.setText(String.valueOf(CallHierarchyUI.getDefault().getMaxCallDepth()));
+      fPrefetchDepth.setText(String.valueOf(CallHierarchyUI.getDefault().getPrefetchDepth()));
       fNames.setText(CallHierarchy.getDefault().getFilters());
       fFilterOnNames.setSelection(CallHierarchy.getDefault().isFilterEnabled());
       fFilterTestCode.setSelection(CallHierarchy.getDefault().isFilterTestCode());
@@ -199,14 +215,21 @@ class FiltersDialog extends StatusDialog {
     }
 
     private boolean isMaxCallDepthValid() {
-        String text= fMaxCallDepth.getText();
+        return isInRange(fMaxCallDepth.getText(), 1, 99);
+    }
+
+    private boolean isPrefetchDepthValid() {
+        return isInRange(fPrefetchDepth.getText(), 0, 5);
+    }
+
+    private static boolean isInRange(String text, int min, int max) {
         if (text.length() == 0)
             return false;
 
         try {
-            int maxCallDepth= Integer.parseInt(text);
+            int value= Integer.parseInt(text);
 
-            return (maxCallDepth >= 1 && maxCallDepth <= 99);
+            return (value >= min && value <= max);
         } catch (NumberFormatException e) {
             return false;
         }
@@ -216,6 +239,8 @@ class FiltersDialog extends StatusDialog {
         StatusInfo status= new StatusInfo();
         if (!isMaxCallDepthValid()) {
             status.setError(CallHierarchyMessages.FiltersDialog_messageMaxCallDepthInvalid);
+        } else if (!isPrefetchDepthValid()) {
+            status.setError(CallHierarchyMessages.FiltersDialog_messagePrefetchDepthInvalid);
         }
         updateStatus(status);
     }
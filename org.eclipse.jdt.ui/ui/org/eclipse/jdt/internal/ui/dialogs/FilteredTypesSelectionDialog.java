@@ -540,8 +540,9 @@ public class FilteredTypesSelectionDialog extends FilteredItemsSelectionDialog i
 	}
 
 	/*
-	 * We only have to ensure history consistency here since the search engine
-	 * takes care of working copies.
+	 * We only have to ensure the search indices are up to date here since the
+	 * search engine takes care of working copies. The history entries are validated
+	 * when they are shown, see TypeItemsFilter#isConsistentItem(Object).
 	 */
 	private static class ConsistencyRunnable implements IRunnableWithProgress {
 		@Override
@@ -553,21 +554,13 @@ public class FilteredTypesSelectionDialog extends FilteredItemsSelectionDialog i
 			}
 			OpenTypeHistory history= OpenTypeHistory.getInstance();
 			if (fgFirstTime || history.isEmpty()) {
-				if (history.needConsistencyCheck()) {
-					SubMonitor subMonitor= SubMonitor.convert(monitor,JavaUIMessages.TypeSelectionDialog_progress_consistency, 10 );
-					refreshSearchIndices(subMonitor.split(9));
-					history.checkConsistency(subMonitor.split(1));
-				} else {
-					refreshSearchIndices(monitor);
-				}
+				refreshSearchIndices(monitor);
 				fgFirstTime= false;
-			} else {
-				history.checkConsistency(monitor);
 			}
 		}
 		public static boolean needsExecution() {
 			OpenTypeHistory history= OpenTypeHistory.getInstance();
-			return fgFirstTime || history.isEmpty() || history.needConsistencyCheck();
+			return fgFirstTime || history.isEmpty();
 		}
 		private void refreshSearchIndices(IProgressMonitor monitor) throws InvocationTargetException {
 			try {
@@ -987,7 +980,7 @@ public class FilteredTypesSelectionDialog extends FilteredItemsSelectionDialog i
 
 		@Override
 		public boolean isConsistentItem(Object item) {
-			return true;
+			return OpenTypeHistory.getInstance().validate((TypeNameMatch) item);
 		}
 
 		@Override
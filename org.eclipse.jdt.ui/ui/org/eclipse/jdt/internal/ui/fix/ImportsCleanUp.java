@@ -38,13 +38,28 @@ public class ImportsCleanUp extends AbstractCleanUp {
 
 	private CodeGenerationSettings fCodeGeneratorSettings;
 	private RefactoringStatus fStatus;
+	private final ImportsFix.BulkContext fBulkContext;
 
 	public ImportsCleanUp(Map<String, String> options) {
-		super(options);
+		this(options, null);
     }
 
+	/**
+	 * Creates a clean up for a bulk organize imports run, which shares the types found for
+	 * unresolved simple names and the choices for ambiguous ones among all compilation units.
+	 *
+	 * @param options the clean up options
+	 * @param bulkContext the state shared by the compilation units of the run, or <code>null</code>
+	 * @since 3.32
+	 */
+	public ImportsCleanUp(Map<String, String> options, ImportsFix.BulkContext bulkContext) {
+		super(options);
+		fBulkContext= bulkContext;
+	}
+
 	public ImportsCleanUp() {
 		super();
+		fBulkContext= null;
     }
 
 	@Override
@@ -60,7 +75,7 @@ public class ImportsCleanUp extends AbstractCleanUp {
     		return null;
 
 		return ImportsFix.createCleanUp(compilationUnit, fCodeGeneratorSettings,
-				isEnabled(CleanUpConstants.ORGANIZE_IMPORTS), fStatus);
+				isEnabled(CleanUpConstants.ORGANIZE_IMPORTS), fStatus, fBulkContext);
 	}
 
     @Override
@@ -14,8 +14,9 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.ui.fix;
 
-import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import java.text.MessageFormat;
 
@@ -32,6 +33,7 @@ import org.eclipse.debug.core.model.IBreakpoint;
 import org.eclipse.ltk.core.refactoring.RefactoringStatus;
 
 import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.dom.CompilationUnit;
 
 import org.eclipse.jdt.internal.corext.fix.CleanUpConstants;
@@ -45,7 +47,11 @@ import org.eclipse.jdt.internal.core.manipulation.util.BasicElementLabels;
 
 public class SortMembersCleanUp extends AbstractCleanUp {
 
-	private HashSet<IResource> fTouchedFiles;
+	/**
+	 * The files changed by the current run. <code>createFix</code> may be called concurrently
+	 * for different compilation units, see <code>CleanUpRefactoring#setParallelism(int)</code>.
+	 */
+	private Set<IResource> fTouchedFiles;
 
 	public SortMembersCleanUp() {
 		super();
@@ -55,6 +61,12 @@ public class SortMembersCleanUp extends AbstractCleanUp {
 		super(options);
 	}
 
+	@Override
+	public RefactoringStatus checkPreConditions(IJavaProject project, ICompilationUnit[] compilationUnits, IProgressMonitor monitor) throws CoreException {
+		fTouchedFiles= ConcurrentHashMap.newKeySet();
+		return super.checkPreConditions(project, compilationUnits, monitor);
+	}
+
 	@Override
 	public ICleanUpFix createFix(CleanUpContext context) throws CoreException {
 		CompilationUnit compilationUnit= context.getAST();
@@ -63,18 +75,17 @@ public class SortMembersCleanUp extends AbstractCleanUp {
 
 		boolean sortMembers= isEnabled(CleanUpConstants.SORT_MEMBERS);
 		ICleanUpFix fix= SortMembersFix.createCleanUp(compilationUnit, sortMembers, sortMembers && isEnabled(CleanUpConstants.SORT_MEMBERS_ALL));
-		if (fix != null) {
-			if (fTouchedFiles == null) {
-				fTouchedFiles= new HashSet<>();
-			}
-			fTouchedFiles.add(((ICompilationUnit)compilationUnit.getJavaElement()).getResource());
+		Set<IResource> touchedFiles= fTouchedFiles;
+		if (fix != null && touchedFiles != null) {
+			touchedFiles.add(((ICompilationUnit)compilationUnit.getJavaElement()).getResource());
 		}
 		return fix;
 	}
 
 	@Override
 	public RefactoringStatus checkPostConditions(IProgressMonitor monitor) throws CoreException {
-		if (fTouchedFiles == null) {
+		if (fTouchedFiles == null || fTouchedFiles.isEmpty()) {
+			fTouchedFiles= null;
 			return super.checkPostConditions(monitor);
 		} else {
 			if (monitor == null)
@@ -19,6 +19,8 @@ import org.eclipse.jface.resource.ColorRegistry;
 
 import org.eclipse.ui.PlatformUI;
 
+import org.eclipse.jdt.core.dom.IBinding;
+
 import org.eclipse.jdt.ui.JavaUI;
 
 
@@ -27,6 +29,42 @@ import org.eclipse.jdt.ui.JavaUI;
  */
 public abstract class SemanticHighlighting extends SemanticHighlightingCore {
 
+	/**
+	 * Token kind of literals, see {@link #getConsumedTokenKinds()}.
+	 * @since 3.32
+	 */
+	public static final int LITERAL= 1;
+
+	/**
+	 * Token kind of simple names without a binding, see {@link #getConsumedTokenKinds()}.
+	 * @since 3.32
+	 */
+	public static final int UNRESOLVED_NAME= 1 << 1;
+
+	/**
+	 * Token kind of simple names with a type binding, see {@link #getConsumedTokenKinds()}.
+	 * @since 3.32
+	 */
+	public static final int TYPE_NAME= getNameKind(IBinding.TYPE);
+
+	/**
+	 * Token kind of simple names with a variable binding, see {@link #getConsumedTokenKinds()}.
+	 * @since 3.32
+	 */
+	public static final int VARIABLE_NAME= getNameKind(IBinding.VARIABLE);
+
+	/**
+	 * Token kind of simple names with a method binding, see {@link #getConsumedTokenKinds()}.
+	 * @since 3.32
+	 */
+	public static final int METHOD_NAME= getNameKind(IBinding.METHOD);
+
+	/**
+	 * All token kinds, see {@link #getConsumedTokenKinds()}.
+	 * @since 3.32
+	 */
+	public static final int ALL_TOKENS= -1;
+
 	/**
 	 * @return the preference key, will be augmented by a prefix and a suffix for each preference
 	 */
@@ -76,6 +114,31 @@ public abstract class SemanticHighlighting extends SemanticHighlightingCore {
 	 */
 	public abstract boolean isEnabledByDefault();
 
+	/**
+	 * Returns the kinds of tokens this highlighting can consume, as a combination of
+	 * {@link #LITERAL}, {@link #UNRESOLVED_NAME} and {@link #getNameKind(int)} of binding
+	 * kinds. The reconciler only asks the highlighting about tokens of these kinds, so the
+	 * result must include every kind for which {@link #consumes(SemanticToken)} or
+	 * {@link #consumesLiteral(SemanticToken)} may return <code>true</code>.
+	 *
+	 * @return the token kinds, {@link #ALL_TOKENS} by default
+	 * @since 3.32
+	 */
+	public int getConsumedTokenKinds() {
+		return ALL_TOKENS;
+	}
+
+	/**
+	 * Returns the token kind of simple names with a binding of the given kind.
+	 *
+	 * @param bindingKind the binding kind, see {@link IBinding#getKind()}
+	 * @return the token kind, <code>0</code> if the binding kind is not known
+	 * @since 3.32
+	 */
+	public static int getNameKind(int bindingKind) {
+		return bindingKind > 0 && bindingKind < 30 ? 1 << (bindingKind + 1) : 0;
+	}
+
 	private String getThemeColorKey() {
 		return JavaUI.ID_PLUGIN + "." + getPreferenceKey() + "Highlighting";  //$NON-NLS-1$//$NON-NLS-2$
 	}
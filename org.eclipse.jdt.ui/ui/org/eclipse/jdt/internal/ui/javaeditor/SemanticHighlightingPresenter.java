@@ -47,11 +47,68 @@ import org.eclipse.jdt.internal.ui.text.JavaPresentationReconciler;
 public class SemanticHighlightingPresenter extends SemanticHighlightingPresenterCore
 	implements ITextPresentationListener, ITextInputListener, IDocumentListener {
 
+	/**
+	 * A range of the document that changed, kept up to date with later document changes.
+	 */
+	private static class DirtyRange {
+		/** Start offset, <code>-1</code> if nothing changed */
+		int fStart= -1;
+		/** End offset, exclusive */
+		int fEnd;
+		/** <code>true</code> iff the changed range is not known */
+		boolean fAll;
+
+		void add(int start, int end) {
+			if (fStart == -1) {
+				fStart= start;
+				fEnd= end;
+			} else {
+				fStart= Math.min(fStart, start);
+				fEnd= Math.max(fEnd, end);
+			}
+		}
+
+		void add(DirtyRange range) {
+			fAll|= range.fAll;
+			if (range.fStart != -1)
+				add(range.fStart, range.fEnd);
+		}
+
+		void update(DocumentEvent event) {
+			if (fStart == -1)
+				return;
+			int eventOffset= event.getOffset();
+			int eventEnd= eventOffset + event.getLength();
+			int deltaLength= (event.getText() != null ? event.getText().length() : 0) - event.getLength();
+			if (fEnd < eventOffset)
+				return;
+			if (fStart > eventEnd) {
+				fStart+= deltaLength;
+				fEnd+= deltaLength;
+			} else {
+				fStart= Math.min(fStart, eventOffset);
+				fEnd= Math.max(fEnd, eventEnd) + deltaLength;
+			}
+		}
+
+		void clear() {
+			fStart= -1;
+			fAll= false;
+		}
+	}
+
 	/** The source viewer this semantic highlighting reconciler is installed on */
 	private JavaSourceViewer fSourceViewer;
 	/** The background presentation reconciler */
 	private JavaPresentationReconciler fPresentationReconciler;
 
+	/** Lock for {@link #fDirtyRange} and {@link #fReconcilingRange} */
+	private final Object fDirtyRangeLock= new Object();
+	/** The range changed since the last reconcile */
+	private final DirtyRange fDirtyRange= new DirtyRange();
+	/** The range taken by the running reconcile */
+	private final DirtyRange fReconcilingRange= new DirtyRange();
+
 	/**
 	 * Creates and returns a new highlighted position with the given offset, length and highlighting.
 	 * <p>
@@ -170,8 +227,11 @@ public class SemanticHighlightingPresenter extends SemanticHighlightingPresenter
 
 		// TODO: double-check consistency with document.getPositions(...)
 		// TODO: reuse removed positions
-		if (isCanceled())
+		if (isCanceled()) {
+			// the positions of the reconciled region are lost, reconcile everything next time
+			invalidateDirtyRegion();
 			return;
+		}
 
 		IDocument document= fSourceViewer.getDocument();
 		if (document == null)
@@ -344,6 +404,63 @@ public class SemanticHighlightingPresenter extends SemanticHighlightingPresenter
 	 */
 	@Override
 	public void documentChanged(DocumentEvent event) {
+		String text= event.getText();
+		synchronized (fDirtyRangeLock) {
+			fDirtyRange.update(event);
+			fReconcilingRange.update(event);
+			fDirtyRange.add(event.getOffset(), event.getOffset() + (text != null ? text.length() : 0));
+		}
+	}
+
+	/**
+	 * Returns the range of the document that changed since the last reconcile and marks it as
+	 * being reconciled. The reconcile must report its end with
+	 * {@link #dirtyRegionReconciled(boolean)}.
+	 * <p>
+	 * NOTE: Called from background thread.
+	 * </p>
+	 *
+	 * @return the changed range, or <code>null</code> if it is not known or nothing changed,
+	 *         in which case the whole document must be reconciled
+	 * @since 3.32
+	 */
+	public IRegion takeDirtyRegion() {
+		synchronized (fDirtyRangeLock) {
+			fReconcilingRange.add(fDirtyRange);
+			fDirtyRange.clear();
+			if (fReconcilingRange.fAll || fReconcilingRange.fStart == -1)
+				return null;
+			return new Region(fReconcilingRange.fStart, fReconcilingRange.fEnd - fReconcilingRange.fStart);
+		}
+	}
+
+	/**
+	 * Ends the reconcile of the range returned by {@link #takeDirtyRegion()}.
+	 * <p>
+	 * NOTE: Called from background thread.
+	 * </p>
+	 *
+	 * @param success <code>true</code> if the positions of the range have been updated,
+	 *            <code>false</code> if the range must be reconciled again
+	 * @since 3.32
+	 */
+	public void dirtyRegionReconciled(boolean success) {
+		synchronized (fDirtyRangeLock) {
+			if (!success)
+				fDirtyRange.add(fReconcilingRange);
+			fReconcilingRange.clear();
+		}
+	}
+
+	/**
+	 * Requires the next reconcile to reconcile the whole document.
+	 *
+	 * @since 3.32
+	 */
+	public void invalidateDirtyRegion() {
+		synchronized (fDirtyRangeLock) {
+			fDirtyRange.fAll= true;
+		}
 	}
 
 	/**
@@ -485,6 +602,7 @@ public class SemanticHighlightingPresenter extends SemanticHighlightingPresenter
 		synchronized (fPositionLock) {
 			fPositions.clear();
 		}
+		invalidateDirtyRegion();
 	}
 
 	/**
@@ -15,6 +15,7 @@
 package org.eclipse.jdt.internal.ui.javaeditor;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.eclipse.swt.widgets.Display;
@@ -26,6 +27,7 @@ import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.jobs.Job;
 
 import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IRegion;
 import org.eclipse.jface.text.ITextInputListener;
 import org.eclipse.jface.text.Position;
 import org.eclipse.jface.text.TextPresentation;
@@ -37,13 +39,18 @@ import org.eclipse.jdt.core.ITypeRoot;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.dom.AST;
 import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.Block;
 import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.core.dom.ConstructorInvocation;
 import org.eclipse.jdt.core.dom.Expression;
 import org.eclipse.jdt.core.dom.GuardedPattern;
+import org.eclipse.jdt.core.dom.IBinding;
 import org.eclipse.jdt.core.dom.IMethodBinding;
+import org.eclipse.jdt.core.dom.Initializer;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
 import org.eclipse.jdt.core.dom.Modifier;
 import org.eclipse.jdt.core.dom.Modifier.ModifierKeyword;
+import org.eclipse.jdt.core.dom.NodeFinder;
 import org.eclipse.jdt.core.dom.RecordDeclaration;
 import org.eclipse.jdt.core.dom.SimpleName;
 import org.eclipse.jdt.core.dom.SimpleType;
@@ -79,9 +86,8 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 		@Override
 		protected boolean visitLiteral(Expression node) {
 			fToken.update(node);
-			for (int i= 0, n= fJobSemanticHighlightings.length; i < n; i++) {
-				SemanticHighlighting semanticHighlighting= fJobSemanticHighlightings[i];
-				if (fJobHighlightings[i].isEnabled() && semanticHighlighting.consumesLiteral(fToken)) {
+			for (int i : fJobDispatchTable.fLiteralHighlightings) {
+				if (fJobSemanticHighlightings[i].consumesLiteral(fToken)) {
 					int offset= node.getStartPosition();
 					int length= node.getLength();
 					if (offset > -1 && length > 0)
@@ -137,12 +143,10 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 				int offset= node.getStartPosition();
 				int length= node.getLength();
 				if (offset > -1 && length > 0) {
-					for (int i= 0; i < fJobSemanticHighlightings.length; i++) {
-						SemanticHighlighting semanticHighlighting= fJobSemanticHighlightings[i];
-						if (semanticHighlighting instanceof RestrictedIdentifiersHighlighting) {
-							addPosition(offset, length, fJobHighlightings[i]);
-							return false;
-						}
+					Highlighting highlighting= fJobDispatchTable.fRestrictedIdentifiersHighlighting;
+					if (highlighting != null) {
+						addPosition(offset, length, highlighting);
+						return false;
 					}
 				}
 			}
@@ -156,12 +160,10 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 				int offset= node.getStartPosition();
 				int length= 5; // length of 'yield'
 				if (offset > -1 && length > 0) {
-					for (int i= 0; i < fJobSemanticHighlightings.length; i++) {
-						SemanticHighlighting semanticHighlighting= fJobSemanticHighlightings[i];
-						if (semanticHighlighting instanceof RestrictedIdentifiersHighlighting) {
-							addPosition(offset, length, fJobHighlightings[i]);
-							return true;
-						}
+					Highlighting highlighting= fJobDispatchTable.fRestrictedIdentifiersHighlighting;
+					if (highlighting != null) {
+						addPosition(offset, length, highlighting);
+						return true;
 					}
 				}
 			}
@@ -175,12 +177,10 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 				int offset= node.getRestrictedIdentifierStartPosition();
 				int length= 6; // length of 'record'
 				if (offset > -1 && length > 0) {
-					for (int i= 0; i < fJobSemanticHighlightings.length; i++) {
-						SemanticHighlighting semanticHighlighting= fJobSemanticHighlightings[i];
-						if (semanticHighlighting instanceof RestrictedIdentifiersHighlighting) {
-							addPosition(offset, length, fJobHighlightings[i]);
-							return true;
-						}
+					Highlighting highlighting= fJobDispatchTable.fRestrictedIdentifiersHighlighting;
+					if (highlighting != null) {
+						addPosition(offset, length, highlighting);
+						return true;
 					}
 				}
 			}
@@ -194,12 +194,10 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 					int offset= node.getRestrictedIdentifierStartPosition();
 					int length= 7; // length of 'permits'
 					if (offset > -1) {
-						for (int i= 0; i < fJobSemanticHighlightings.length; i++) {
-							SemanticHighlighting semanticHighlighting= fJobSemanticHighlightings[i];
-							if (semanticHighlighting instanceof RestrictedIdentifiersHighlighting) {
-								addPosition(offset, length, fJobHighlightings[i]);
-								return true;
-							}
+						Highlighting highlighting= fJobDispatchTable.fRestrictedIdentifiersHighlighting;
+						if (highlighting != null) {
+							addPosition(offset, length, highlighting);
+							return true;
 						}
 					}
 				}
@@ -224,12 +222,10 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 					return true;
 				}
 				if (offset > -1 && length > 0) {
-					for (int i= 0; i < fJobSemanticHighlightings.length; i++) {
-						SemanticHighlighting semanticHighlighting= fJobSemanticHighlightings[i];
-						if (semanticHighlighting instanceof RestrictedIdentifiersHighlighting) {
-							addPosition(offset, length, fJobHighlightings[i]);
-							return false;
-						}
+					Highlighting highlighting= fJobDispatchTable.fRestrictedIdentifiersHighlighting;
+					if (highlighting != null) {
+						addPosition(offset, length, highlighting);
+						return false;
 					}
 				}
 			}
@@ -241,10 +237,11 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 		 */
 		@Override
 		public boolean visit(SimpleName node) {
+			if (!fJobDispatchTable.fHasNameHighlightings)
+				return false;
 			fToken.update(node);
-			for (int i= 0, n= fJobSemanticHighlightings.length; i < n; i++) {
-				SemanticHighlighting semanticHighlighting= fJobSemanticHighlightings[i];
-				if (fJobHighlightings[i].isEnabled() && semanticHighlighting.consumes(fToken)) {
+			for (int i : fJobDispatchTable.getNameHighlightings(fToken.getBinding())) {
+				if (fJobSemanticHighlightings[i].consumes(fToken)) {
 					int offset= node.getStartPosition();
 					int length= node.getLength();
 					if (offset > -1 && length > 0)
@@ -264,8 +261,9 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 		 */
 		private void addPosition(int offset, int length, Highlighting highlighting) {
 			boolean isExisting= false;
-			// TODO: use binary search
-			for (int i= 0, n= fRemovedPositions.size(); i < n; i++) {
+			for (int i= indexOfRemovedPosition(offset), n= fRemovedPositions.size(); i < n; i++) {
+				if (fRemovedOffsets != null && fRemovedOffsets[i] > offset)
+					break;
 				HighlightedPosition position= (HighlightedPosition) fRemovedPositions.get(i);
 				if (position == null)
 					continue;
@@ -290,8 +288,9 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 		 */
 		@Override
 		protected void retainPositions(int offset, int length) {
-			// TODO: use binary search
-			for (int i= 0, n= fRemovedPositions.size(); i < n; i++) {
+			for (int i= indexOfRemovedPosition(offset), n= fRemovedPositions.size(); i < n; i++) {
+				if (fRemovedOffsets != null && fRemovedOffsets[i] >= offset + length)
+					break;
 				HighlightedPosition position= (HighlightedPosition) fRemovedPositions.get(i);
 				if (position != null && position.isContained(offset, length)) {
 					fRemovedPositions.set(i, null);
@@ -307,12 +306,10 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 					int offset= node.getRestrictedIdentifierStartPosition();
 					int length= 4; // length of 'when'
 					if (offset > -1) {
-						for (int i= 0; i < fJobSemanticHighlightings.length; i++) {
-							SemanticHighlighting semanticHighlighting= fJobSemanticHighlightings[i];
-							if (semanticHighlighting instanceof RestrictedIdentifiersHighlighting) {
-								addPosition(offset, length, fJobHighlightings[i]);
-								return true;
-							}
+						Highlighting highlighting= fJobDispatchTable.fRestrictedIdentifiersHighlighting;
+						if (highlighting != null) {
+							addPosition(offset, length, highlighting);
+							return true;
 						}
 					}
 				}
@@ -323,6 +320,80 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 		}
 	}
 
+	/**
+	 * The enabled highlightings that may consume a token, by the kind of the token. See
+	 * {@link SemanticHighlighting#getConsumedTokenKinds()}. The highlightings of a kind keep
+	 * their order, so the first one that consumes a token is the same as when asking all.
+	 */
+	private static final class DispatchTable {
+
+		/** The semantic highlightings the table was built for */
+		private final SemanticHighlighting[] fSemanticHighlightings;
+		/** Indices of the enabled highlightings by token kind bit */
+		private final int[][] fHighlightingsByKind= new int[Integer.SIZE][];
+		/** Indices of all enabled highlightings */
+		private final int[] fAllHighlightings;
+		/** Indices of the enabled highlightings that may consume literals */
+		private final int[] fLiteralHighlightings;
+		/** <code>true</code> if an enabled highlighting may consume simple names */
+		private final boolean fHasNameHighlightings;
+		/** The enabled deprecated member highlighting, or <code>null</code> */
+		private final Highlighting fDeprecatedMemberHighlighting;
+		/** The restricted identifiers highlighting, or <code>null</code> */
+		private final Highlighting fRestrictedIdentifiersHighlighting;
+
+		DispatchTable(SemanticHighlighting[] semanticHighlightings, Highlighting[] highlightings) {
+			fSemanticHighlightings= semanticHighlightings;
+			// the token kinds of the enabled highlightings, 0 for the disabled ones
+			int[] kinds= new int[semanticHighlightings.length];
+			int nameKinds= 0;
+			Highlighting deprecatedMember= null;
+			Highlighting restrictedIdentifiers= null;
+			for (int i= 0; i < semanticHighlightings.length; i++) {
+				SemanticHighlighting semanticHighlighting= semanticHighlightings[i];
+				if (highlightings[i].isEnabled()) {
+					kinds[i]= semanticHighlighting.getConsumedTokenKinds();
+					nameKinds|= kinds[i] & ~SemanticHighlighting.LITERAL;
+					if (deprecatedMember == null && semanticHighlighting instanceof DeprecatedMemberHighlighting)
+						deprecatedMember= highlightings[i];
+				}
+				// restricted identifiers are collected from their nodes regardless of the enablement
+				if (restrictedIdentifiers == null && semanticHighlighting instanceof RestrictedIdentifiersHighlighting)
+					restrictedIdentifiers= highlightings[i];
+			}
+			for (int bit= 0; bit < fHighlightingsByKind.length; bit++)
+				fHighlightingsByKind[bit]= select(kinds, 1 << bit);
+			fAllHighlightings= select(kinds, SemanticHighlighting.ALL_TOKENS);
+			fLiteralHighlightings= fHighlightingsByKind[Integer.numberOfTrailingZeros(SemanticHighlighting.LITERAL)];
+			fHasNameHighlightings= nameKinds != 0;
+			fDeprecatedMemberHighlighting= deprecatedMember;
+			fRestrictedIdentifiersHighlighting= restrictedIdentifiers;
+		}
+
+		private static int[] select(int[] kinds, int kind) {
+			int[] indices= new int[kinds.length];
+			int n= 0;
+			for (int i= 0; i < kinds.length; i++) {
+				if ((kinds[i] & kind) != 0)
+					indices[n++]= i;
+			}
+			return Arrays.copyOf(indices, n);
+		}
+
+		/**
+		 * Returns the indices of the highlightings that may consume a simple name.
+		 *
+		 * @param binding the binding of the simple name, or <code>null</code>
+		 * @return the indices of the highlightings
+		 */
+		int[] getNameHighlightings(IBinding binding) {
+			int kind= binding == null ? SemanticHighlighting.UNRESOLVED_NAME : SemanticHighlighting.getNameKind(binding.getKind());
+			if (kind == 0)
+				return fAllHighlightings;
+			return fHighlightingsByKind[Integer.numberOfTrailingZeros(kind)];
+		}
+	}
+
 	/** Position collector */
 	private PositionCollector fCollector= new PositionCollector();
 
@@ -343,6 +414,11 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 	private List<Position> fRemovedPositions= new ArrayList<>();
 	/** Number of removed positions */
 	private int fNOfRemovedPositions;
+	/**
+	 * Offsets of the removed positions when reconciling started, or <code>null</code> if the
+	 * positions were not ordered by offset.
+	 */
+	private int[] fRemovedOffsets;
 
 	/** Background job */
 	private Job fJob;
@@ -372,6 +448,22 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 	 * @since 3.5
 	 */
 	private Highlighting fJobDeprecatedMemberHighlighting;
+	/** Dispatch table - cache for background thread, only valid during {@link #reconciled(CompilationUnit, boolean, IProgressMonitor)} */
+	private DispatchTable fJobDispatchTable;
+
+	/**
+	 * The dispatch table of the installed highlightings, <code>null</code> if it must be
+	 * rebuilt, e.g. after the enablement of a highlighting changed.
+	 */
+	private volatile DispatchTable fDispatchTable;
+
+	/**
+	 * Counts the invalidations of {@link #fDispatchTable}, so that a job which built a table
+	 * before an invalidation does not store it. Guarded by {@link #fDispatchTableLock}.
+	 */
+	private int fDispatchTableGeneration= 0;
+
+	private final Object fDispatchTableLock= new Object();
 
 	/*
 	 * @see org.eclipse.jdt.internal.ui.text.java.IJavaReconcilingListener#aboutToBeReconciled()
@@ -397,30 +489,28 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 		fJobSemanticHighlightings= fSemanticHighlightings;
 		fJobHighlightings= fHighlightings;
 
+		boolean success= false;
 		try {
 			if (fJobPresenter == null || fJobSemanticHighlightings == null || fJobHighlightings == null)
 				return;
 
+			// take the dirty region before the cancel state, so that changes the AST misses are reconciled again
+			IRegion dirtyRegion= fJobPresenter.takeDirtyRegion();
+
 			fJobPresenter.setCanceled(progressMonitor.isCanceled());
 
 			if (ast == null || fJobPresenter.isCanceled())
 				return;
 
-			ASTNode[] subtrees= getAffectedSubtrees(ast);
+			ASTNode[] subtrees= getAffectedSubtrees(ast, forced ? null : dirtyRegion);
 			if (subtrees.length == 0)
 				return;
 
-			startReconcilingPositions();
+			startReconcilingPositions(subtrees);
 
 			if (!fJobPresenter.isCanceled()) {
-				fJobDeprecatedMemberHighlighting= null;
-				for (int i= 0, n= fJobSemanticHighlightings.length; i < n; i++) {
-					SemanticHighlighting semanticHighlighting= fJobSemanticHighlightings[i];
-					if (fJobHighlightings[i].isEnabled() && semanticHighlighting instanceof DeprecatedMemberHighlighting) {
-						fJobDeprecatedMemberHighlighting= fJobHighlightings[i];
-						break;
-					}
-				}
+				fJobDispatchTable= getDispatchTable(fJobSemanticHighlightings, fJobHighlightings);
+				fJobDeprecatedMemberHighlighting= fJobDispatchTable.fDeprecatedMemberHighlighting;
 				reconcilePositions(subtrees);
 			}
 
@@ -428,15 +518,20 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 			if (!fJobPresenter.isCanceled())
 				textPresentation= fJobPresenter.createPresentation(fAddedPositions, fRemovedPositions);
 
-			if (!fJobPresenter.isCanceled())
+			if (!fJobPresenter.isCanceled()) {
 				updatePresentation(textPresentation, fAddedPositions, fRemovedPositions);
+				success= true;
+			}
 
 			stopReconcilingPositions();
 		} finally {
+			if (fJobPresenter != null)
+				fJobPresenter.dirtyRegionReconciled(success);
 			fJobPresenter= null;
 			fJobSemanticHighlightings= null;
 			fJobHighlightings= null;
 			fJobDeprecatedMemberHighlighting= null;
+			fJobDispatchTable= null;
 			synchronized (fReconcileLock) {
 				fIsReconciling= false;
 			}
@@ -444,20 +539,134 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 	}
 
 	/**
+	 * Returns the dispatch table of the given highlightings, building it if the enablement of
+	 * the highlightings changed since it was built.
+	 *
+	 * @param semanticHighlightings the semantic highlightings
+	 * @param highlightings the highlightings
+	 * @return the dispatch table
+	 */
+	private DispatchTable getDispatchTable(SemanticHighlighting[] semanticHighlightings, Highlighting[] highlightings) {
+		DispatchTable table= fDispatchTable;
+		if (table == null || table.fSemanticHighlightings != semanticHighlightings) {
+			int generation;
+			synchronized (fDispatchTableLock) {
+				generation= fDispatchTableGeneration;
+			}
+			table= new DispatchTable(semanticHighlightings, highlightings);
+			synchronized (fDispatchTableLock) {
+				// a table built from a stale enablement is used once, but not kept
+				if (generation == fDispatchTableGeneration)
+					fDispatchTable= table;
+			}
+		}
+		return table;
+	}
+
+	/**
+	 * Drops the dispatch table, so that it is rebuilt by the next reconcile.
+	 */
+	private void invalidateDispatchTable() {
+		synchronized (fDispatchTableLock) {
+			fDispatchTableGeneration++;
+			fDispatchTable= null;
+		}
+	}
+
+	/**
+	 * Returns the subtrees whose positions must be reconciled. Changes inside the body of a
+	 * method or initializer cannot affect the highlighting outside of the body, so if all
+	 * changes are inside one body, only the body is returned.
+	 *
 	 * @param node Root node
+	 * @param dirtyRegion the region changed since the last reconcile, or <code>null</code> if not known
 	 * @return Array of subtrees that may be affected by past document changes
 	 */
-	private ASTNode[] getAffectedSubtrees(ASTNode node) {
-		// TODO: only return nodes which are affected by document changes - would require an 'anchor' concept for taking distant effects into account
+	private ASTNode[] getAffectedSubtrees(ASTNode node, IRegion dirtyRegion) {
+		if (dirtyRegion != null) {
+			Block body= getEnclosingBody(node, dirtyRegion);
+			if (body != null)
+				return new ASTNode[] { body };
+		}
 		return new ASTNode[] { node };
 	}
 
+	/**
+	 * Returns the innermost body of a method or initializer that strictly contains the given
+	 * region, i.e. without its braces.
+	 *
+	 * @param root Root node
+	 * @param region the region
+	 * @return the body, or <code>null</code> if there is none or if the parser had to recover
+	 *         the body or one of its ancestors
+	 */
+	private static Block getEnclosingBody(ASTNode root, IRegion region) {
+		ASTNode node= NodeFinder.perform(root, region.getOffset(), region.getLength());
+		while (node != null && !(node instanceof Block && isBody((Block) node) && node.getStartPosition() < region.getOffset()
+				&& region.getOffset() + region.getLength() < node.getStartPosition() + node.getLength()))
+			node= node.getParent();
+		if (node == null)
+			return null;
+		Block body= (Block) node;
+		for (; node != null; node= node.getParent()) {
+			if ((node.getFlags() & (ASTNode.MALFORMED | ASTNode.RECOVERED)) != 0)
+				return null;
+		}
+		return body;
+	}
+
+	private static boolean isBody(Block block) {
+		ASTNode parent= block.getParent();
+		return parent instanceof MethodDeclaration || parent instanceof Initializer;
+	}
+
 	/**
 	 * Start reconciling positions.
+	 *
+	 * @param subtrees the AST subtrees
 	 */
-	private void startReconcilingPositions() {
-		fJobPresenter.addAllPositions(fRemovedPositions);
+	private void startReconcilingPositions(ASTNode[] subtrees) {
+		for (ASTNode subtree : subtrees) {
+			if (subtree.getParent() == null)
+				fJobPresenter.addAllPositions(fRemovedPositions);
+			else
+				fJobPresenter.addPositions(fRemovedPositions, subtree.getStartPosition(), subtree.getLength());
+		}
 		fNOfRemovedPositions= fRemovedPositions.size();
+
+		int[] offsets= new int[fNOfRemovedPositions];
+		for (int i= 0; i < offsets.length; i++) {
+			offsets[i]= fRemovedPositions.get(i).getOffset();
+			if (i > 0 && offsets[i] < offsets[i - 1]) {
+				// a concurrent document change, search linearly
+				offsets= null;
+				break;
+			}
+		}
+		fRemovedOffsets= offsets;
+	}
+
+	/**
+	 * Returns the index of the first removed position with an offset equal or greater than the
+	 * given offset, or <code>0</code> if the offsets are not known.
+	 *
+	 * @param offset the offset
+	 * @return the index
+	 */
+	private int indexOfRemovedPosition(int offset) {
+		int[] offsets= fRemovedOffsets;
+		if (offsets == null)
+			return 0;
+		int i= -1;
+		int j= offsets.length;
+		while (j - i > 1) {
+			int k= (i + j) >> 1;
+			if (offsets[k] >= offset)
+				j= k;
+			else
+				i= k;
+		}
+		return j;
 	}
 
 	/**
@@ -466,10 +675,6 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 	 * @param subtrees the AST subtrees
 	 */
 	private void reconcilePositions(ASTNode[] subtrees) {
-		// FIXME: remove positions not covered by subtrees
-
-
-
 		for (ASTNode subtree : subtrees)
 			subtree.accept(fCollector);
 		List<Position> oldPositions= fRemovedPositions;
@@ -524,6 +729,7 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 	private void stopReconcilingPositions() {
 		fRemovedPositions.clear();
 		fNOfRemovedPositions= 0;
+		fRemovedOffsets= null;
 		fAddedPositions.clear();
 	}
 
@@ -539,6 +745,7 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 		fPresenter= presenter;
 		fSemanticHighlightings= semanticHighlightings;
 		fHighlightings= highlightings;
+		invalidateDispatchTable();
 
 		fEditor= editor;
 		fSourceViewer= sourceViewer;
@@ -589,6 +796,7 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 		fSourceViewer= null;
 		fSemanticHighlightings= null;
 		fHighlightings= null;
+		invalidateDispatchTable();
 		fPresenter= null;
 	}
 
@@ -675,6 +883,9 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 	 * @since 3.2
 	 */
 	public void refresh() {
+		invalidateDispatchTable();
+		if (fPresenter != null)
+			fPresenter.invalidateDirtyRegion();
 		scheduleJob();
 	}
 }
@@ -258,6 +258,14 @@ public class SemanticHighlightings {
 			return JavaEditorMessages.SemanticHighlighting_staticFinalField;
 		}
 
+		/*
+		 * @see org.eclipse.jdt.internal.ui.javaeditor.SemanticHighlighting#getConsumedTokenKinds()
+		 */
+		@Override
+		public int getConsumedTokenKinds() {
+			return VARIABLE_NAME;
+		}
+
 		/*
 		 * @see org.eclipse.jdt.internal.ui.javaeditor.SemanticHighlighting#consumes(org.eclipse.jdt.internal.ui.javaeditor.SemanticToken)
 		 */
@@ -321,6 +329,14 @@ public class SemanticHighlightings {
 			return JavaEditorMessages.SemanticHighlighting_staticField;
 		}
 
+		/*
+		 * @see org.eclipse.jdt.internal.ui.javaeditor.SemanticHighlighting#getConsumedTokenKinds()
+		 */
+		@Override
+		public int getConsumedTokenKinds() {
+			return VARIABLE_NAME;
+		}
+
 		/*
 		 * @see org.eclipse.jdt.internal.ui.javaeditor.SemanticHighlighting#consumes(org.eclipse.jdt.internal.ui.javaeditor.SemanticToken)
 		 */
@@ -384,6 +400,14 @@ public class SemanticHighlightings {
 			return JavaEditorMessages.SemanticHighlighting_field;
 		}
 
+		/*
+		 * @see org.eclipse.jdt.internal.ui.javaeditor.SemanticHighlighting#getConsumedTokenKinds()
+		 */
+		@Override
+		public int getConsumedTokenKinds() {
+			return VARIABLE_NAME;
+		}
+
 		/*
 		 * @see org.eclipse.jdt.internal.ui.javaeditor.SemanticHighlighting#consumes(org.eclipse.jdt.internal.ui.javaeditor.SemanticToken)
 		 */
@@ -447,6 +471,14 @@ public class SemanticHighlightings {
 			return JavaEditorMessages.SemanticHighlighting_autoboxing;
 		}
 
+		/*
+		 * @see org.eclipse.jdt.internal.ui.javaeditor.SemanticHighlighting#getConsumedTokenKinds()
+		 */
+		@Override
+		public int getConsumedTokenKinds() {
+			return ALL_TOKENS;
+		}
+
 		/*
 		 * @see org.eclipse.jdt.internal.ui.javaeditor.SemanticHighlighting#consumesLiteral(org.eclipse.jdt.internal.ui.javaeditor.SemanticToken)
 		 */
@@ -555,6 +587,15 @@ public class SemanticHighlightings {
 			return JavaEditorMessages.SemanticHighlighting_methodDeclaration;
 		}
 
+		/*
+		 * @see org.eclipse.jdt.internal.ui.javaeditor.SemanticHighlighting#getConsumedTokenKinds()
+		 */
+		@Override
+		public int getConsumedTokenKinds() {
+			// declared names only, their binding is a method binding
+			return METHOD_NAME | UNRESOLVED_NAME;
+		}
+
 		/*
 		 * @see org.eclipse.jdt.internal.ui.javaeditor.ISemanticHighlighting#isMatched(org.eclipse.jdt.core.dom.ASTNode)
 		 */
@@ -618,6 +659,14 @@ public class SemanticHighlightings {
 			return JavaEditorMessages.SemanticHighlighting_staticMethodInvocation;
 		}
 
+		/*
+		 * @see org.eclipse.jdt.internal.ui.javaeditor.SemanticHighlighting#getConsumedTokenKinds()
+		 */
+		@Override
+		public int getConsumedTokenKinds() {
+			return METHOD_NAME;
+		}
+
 		/*
 		 * @see org.eclipse.jdt.internal.ui.javaeditor.ISemanticHighlighting#isMatched(org.eclipse.jdt.core.dom.ASTNode)
 		 */
@@ -686,6 +735,14 @@ public class SemanticHighlightings {
 			return JavaEditorMessages.SemanticHighlighting_annotationElementReference;
 		}
 
+		/*
+		 * @see org.eclipse.jdt.internal.ui.javaeditor.SemanticHighlighting#getConsumedTokenKinds()
+		 */
+		@Override
+		public int getConsumedTokenKinds() {
+			return METHOD_NAME;
+		}
+
 		/*
 		 * @see org.eclipse.jdt.internal.ui.javaeditor.ISemanticHighlighting#isMatched(org.eclipse.jdt.core.dom.ASTNode)
 		 */
@@ -756,6 +813,14 @@ public class SemanticHighlightings {
 			return JavaEditorMessages.SemanticHighlighting_abstractMethodInvocation;
 		}
 
+		/*
+		 * @see org.eclipse.jdt.internal.ui.javaeditor.SemanticHighlighting#getConsumedTokenKinds()
+		 */
+		@Override
+		public int getConsumedTokenKinds() {
+			return METHOD_NAME;
+		}
+
 		/*
 		 * @see org.eclipse.jdt.internal.ui.javaeditor.ISemanticHighlighting#isMatched(org.eclipse.jdt.core.dom.ASTNode)
 		 */
@@ -834,6 +899,14 @@ public class SemanticHighlightings {
 			return JavaEditorMessages.SemanticHighlighting_inheritedMethodInvocation;
 		}
 
+		/*
+		 * @see org.eclipse.jdt.internal.ui.javaeditor.SemanticHighlighting#getConsumedTokenKinds()
+		 */
+		@Override
+		public int getConsumedTokenKinds() {
+			return METHOD_NAME;
+		}
+
 		/*
 		 * @see org.eclipse.jdt.internal.ui.javaeditor.ISemanticHighlighting#isMatched(org.eclipse.jdt.core.dom.ASTNode)
 		 */
@@ -909,6 +982,15 @@ public class SemanticHighlightings {
 			return JavaEditorMessages.SemanticHighlighting_method;
 		}
 
+		/*
+		 * @see org.eclipse.jdt.internal.ui.javaeditor.SemanticHighlighting#getConsumedTokenKinds()
+		 */
+		@Override
+		public int getConsumedTokenKinds() {
+			// the type name of a class instance creation stands for the constructor
+			return METHOD_NAME | TYPE_NAME | UNRESOLVED_NAME;
+		}
+
 		/*
 		 * @see org.eclipse.jdt.internal.ui.javaeditor.ISemanticHighlighting#isMatched(org.eclipse.jdt.core.dom.ASTNode)
 		 */
@@ -972,6 +1054,15 @@ public class SemanticHighlightings {
 			return JavaEditorMessages.SemanticHighlighting_localVariableDeclaration;
 		}
 
+		/*
+		 * @see org.eclipse.jdt.internal.ui.javaeditor.SemanticHighlighting#getConsumedTokenKinds()
+		 */
+		@Override
+		public int getConsumedTokenKinds() {
+			// declared names only, their binding is a variable binding
+			return VARIABLE_NAME | UNRESOLVED_NAME;
+		}
+
 		/*
 		 * @see org.eclipse.jdt.internal.ui.javaeditor.SemanticHighlighting#consumes(org.eclipse.jdt.internal.ui.javaeditor.SemanticToken)
 		 */
@@ -1043,6 +1134,14 @@ public class SemanticHighlightings {
 			return JavaEditorMessages.SemanticHighlighting_localVariable;
 		}
 
+		/*
+		 * @see org.eclipse.jdt.internal.ui.javaeditor.SemanticHighlighting#getConsumedTokenKinds()
+		 */
+		@Override
+		public int getConsumedTokenKinds() {
+			return VARIABLE_NAME;
+		}
+
 		/*
 		 * @see org.eclipse.jdt.internal.ui.javaeditor.SemanticHighlighting#consumes(org.eclipse.jdt.internal.ui.javaeditor.SemanticToken)
 		 */
@@ -1110,6 +1209,14 @@ public class SemanticHighlightings {
 			return JavaEditorMessages.SemanticHighlighting_parameterVariable;
 		}
 
+		/*
+		 * @see org.eclipse.jdt.internal.ui.javaeditor.SemanticHighlighting#getConsumedTokenKinds()
+		 */
+		@Override
+		public int getConsumedTokenKinds() {
+			return VARIABLE_NAME;
+		}
+
 		/*
 		 * @see org.eclipse.jdt.internal.ui.javaeditor.SemanticHighlighting#consumes(org.eclipse.jdt.internal.ui.javaeditor.SemanticToken)
 		 */
@@ -1186,6 +1293,14 @@ public class SemanticHighlightings {
 			return JavaEditorMessages.SemanticHighlighting_deprecatedMember;
 		}
 
+		/*
+		 * @see org.eclipse.jdt.internal.ui.javaeditor.SemanticHighlighting#getConsumedTokenKinds()
+		 */
+		@Override
+		public int getConsumedTokenKinds() {
+			return ALL_TOKENS & ~LITERAL;
+		}
+
 		/*
 		 * @see org.eclipse.jdt.internal.ui.javaeditor.SemanticHighlighting#consumes(org.eclipse.jdt.internal.ui.javaeditor.SemanticToken)
 		 */
@@ -1272,6 +1387,14 @@ public class SemanticHighlightings {
 			return JavaEditorMessages.SemanticHighlighting_typeVariables;
 		}
 
+		/*
+		 * @see org.eclipse.jdt.internal.ui.javaeditor.SemanticHighlighting#getConsumedTokenKinds()
+		 */
+		@Override
+		public int getConsumedTokenKinds() {
+			return TYPE_NAME;
+		}
+
 		/*
 		 * @see org.eclipse.jdt.internal.ui.javaeditor.SemanticHighlighting#consumes(org.eclipse.jdt.internal.ui.javaeditor.SemanticToken)
 		 */
@@ -1344,6 +1467,14 @@ public class SemanticHighlightings {
 			return JavaEditorMessages.SemanticHighlighting_classes;
 		}
 
+		/*
+		 * @see org.eclipse.jdt.internal.ui.javaeditor.SemanticHighlighting#getConsumedTokenKinds()
+		 */
+		@Override
+		public int getConsumedTokenKinds() {
+			return TYPE_NAME;
+		}
+
 		/*
 		 * @see org.eclipse.jdt.internal.ui.javaeditor.SemanticHighlighting#consumes(org.eclipse.jdt.internal.ui.javaeditor.SemanticToken)
 		 */
@@ -1423,6 +1554,14 @@ public class SemanticHighlightings {
 			return JavaEditorMessages.SemanticHighlighting_enums;
 		}
 
+		/*
+		 * @see org.eclipse.jdt.internal.ui.javaeditor.SemanticHighlighting#getConsumedTokenKinds()
+		 */
+		@Override
+		public int getConsumedTokenKinds() {
+			return TYPE_NAME;
+		}
+
 		/*
 		 * @see org.eclipse.jdt.internal.ui.javaeditor.SemanticHighlighting#consumes(org.eclipse.jdt.internal.ui.javaeditor.SemanticToken)
 		 */
@@ -1503,6 +1642,14 @@ public class SemanticHighlightings {
 			return JavaEditorMessages.SemanticHighlighting_interfaces;
 		}
 
+		/*
+		 * @see org.eclipse.jdt.internal.ui.javaeditor.SemanticHighlighting#getConsumedTokenKinds()
+		 */
+		@Override
+		public int getConsumedTokenKinds() {
+			return TYPE_NAME;
+		}
+
 		/*
 		 * @see org.eclipse.jdt.internal.ui.javaeditor.SemanticHighlighting#consumes(org.eclipse.jdt.internal.ui.javaeditor.SemanticToken)
 		 */
@@ -1582,6 +1729,14 @@ public class SemanticHighlightings {
 			return JavaEditorMessages.SemanticHighlighting_annotations;
 		}
 
+		/*
+		 * @see org.eclipse.jdt.internal.ui.javaeditor.SemanticHighlighting#getConsumedTokenKinds()
+		 */
+		@Override
+		public int getConsumedTokenKinds() {
+			return TYPE_NAME;
+		}
+
 		/*
 		 * @see org.eclipse.jdt.internal.ui.javaeditor.SemanticHighlighting#consumes(org.eclipse.jdt.internal.ui.javaeditor.SemanticToken)
 		 */
@@ -1662,6 +1817,14 @@ public class SemanticHighlightings {
 			return JavaEditorMessages.SemanticHighlighting_typeArguments;
 		}
 
+		/*
+		 * @see org.eclipse.jdt.internal.ui.javaeditor.SemanticHighlighting#getConsumedTokenKinds()
+		 */
+		@Override
+		public int getConsumedTokenKinds() {
+			return ALL_TOKENS & ~LITERAL;
+		}
+
 		/*
 		 * @see org.eclipse.jdt.internal.ui.javaeditor.SemanticHighlighting#consumes(org.eclipse.jdt.internal.ui.javaeditor.SemanticToken)
 		 */
@@ -1738,6 +1901,14 @@ public class SemanticHighlightings {
 			return JavaEditorMessages.SemanticHighlighting_numbers;
 		}
 
+		/*
+		 * @see org.eclipse.jdt.internal.ui.javaeditor.SemanticHighlighting#getConsumedTokenKinds()
+		 */
+		@Override
+		public int getConsumedTokenKinds() {
+			return LITERAL;
+		}
+
 		/*
 		 * @see org.eclipse.jdt.internal.ui.javaeditor.SemanticHighlighting#consumes(org.eclipse.jdt.internal.ui.javaeditor.SemanticToken)
 		 */
@@ -1810,6 +1981,14 @@ public class SemanticHighlightings {
 			return JavaEditorMessages.SemanticHighlighting_abstractClasses;
 		}
 
+		/*
+		 * @see org.eclipse.jdt.internal.ui.javaeditor.SemanticHighlighting#getConsumedTokenKinds()
+		 */
+		@Override
+		public int getConsumedTokenKinds() {
+			return TYPE_NAME;
+		}
+
 		/*
 		 * @see org.eclipse.jdt.internal.ui.javaeditor.SemanticHighlighting#consumes(org.eclipse.jdt.internal.ui.javaeditor.SemanticToken)
 		 */
@@ -1895,6 +2074,14 @@ public class SemanticHighlightings {
 			return JavaEditorMessages.SemanticHighlighting_inheritedField;
 		}
 
+		/*
+		 * @see org.eclipse.jdt.internal.ui.javaeditor.SemanticHighlighting#getConsumedTokenKinds()
+		 */
+		@Override
+		public int getConsumedTokenKinds() {
+			return VARIABLE_NAME;
+		}
+
 		/*
 		 * @see org.eclipse.jdt.internal.ui.javaeditor.ISemanticHighlighting#isMatched(org.eclipse.jdt.core.dom.ASTNode)
 		 */
@@ -1951,6 +2138,15 @@ public class SemanticHighlightings {
 			return JavaEditorMessages.SemanticHighlighting_restrictedIdentifiers;
 		}
 
+		/*
+		 * @see org.eclipse.jdt.internal.ui.javaeditor.SemanticHighlighting#getConsumedTokenKinds()
+		 */
+		@Override
+		public int getConsumedTokenKinds() {
+			// restricted identifiers are collected from their nodes, not from tokens
+			return 0;
+		}
+
 		@Override
 		public boolean consumes(SemanticToken token) {
 			return false;
@@ -46,8 +46,11 @@ import org.eclipse.jdt.core.JavaCore;
 
 import org.eclipse.jdt.ui.PreferenceConstants;
 
+import org.eclipse.jdt.internal.corext.callhierarchy.CallHierarchy;
+
 import org.eclipse.jdt.internal.ui.IJavaHelpContextIds;
 import org.eclipse.jdt.internal.ui.JavaPlugin;
+import org.eclipse.jdt.internal.ui.actions.CleanUpAction;
 import org.eclipse.jdt.internal.ui.dialogs.OptionalMessageDialog;
 import org.eclipse.jdt.internal.ui.refactoring.RefactoringSavePreferences;
 import org.eclipse.jdt.internal.ui.util.SWTUtil;
@@ -71,6 +74,7 @@ public class JavaBasePreferencePage extends PreferencePage implements IWorkbench
 	private static final String DOUBLE_CLICK_EXPANDS= PreferenceConstants.DOUBLE_CLICK_EXPANDS;
 
     private static final String OPEN_CALL_HIERARCHY_IMPLEMENTORS= "PREF_USE_IMPLEMENTORS"; //$NON-NLS-1$ //org.eclipse.jdt.internal.corext.callhierarchy.CallHierarchy.PREF_USE_IMPLEMENTORS
+    private static final String OPEN_CALL_HIERARCHY_INDEX= "PREF_USE_CALL_GRAPH_INDEX"; //$NON-NLS-1$ //org.eclipse.jdt.internal.corext.callhierarchy.CallHierarchy.PREF_USE_CALL_GRAPH_INDEX
 
 
 	private ArrayList<Button> fCheckBoxes;
@@ -133,6 +137,45 @@ public class JavaBasePreferencePage extends PreferencePage implements IWorkbench
 		return button;
 	}
 
+	private Text addNumberField(Composite parent, String label, String key) {
+		Composite composite= new Composite(parent, SWT.NONE);
+		GridLayout layout= new GridLayout(2, false);
+		layout.marginWidth= 0;
+		layout.marginHeight= 0;
+		composite.setLayout(layout);
+		composite.setLayoutData(new GridData(GridData.FILL_HORIZONTAL));
+
+		Label labelControl= new Label(composite, SWT.NONE);
+		labelControl.setText(label);
+
+		Text text= new Text(composite, SWT.BORDER | SWT.SINGLE);
+		GridData gd= new GridData(GridData.HORIZONTAL_ALIGN_BEGINNING);
+		gd.widthHint= convertWidthInCharsToPixels(6);
+		text.setLayoutData(gd);
+		text.setData(key);
+		text.setText(getPreferenceStore().getString(key));
+		text.addModifyListener(e -> validateNumberFields());
+
+		fTextControls.add(text);
+		return text;
+	}
+
+	private void validateNumberFields() {
+		for (Text text : fTextControls) {
+			try {
+				if (Integer.parseInt(text.getText().trim()) >= 0)
+					continue;
+			} catch (NumberFormatException e) {
+				// reported below
+			}
+			setErrorMessage(PreferencesMessages.JavaBasePreferencePage_invalid_number);
+			setValid(false);
+			return;
+		}
+		setErrorMessage(null);
+		setValid(true);
+	}
+
 	@Override
 	protected Control createContents(Composite parent) {
 		initializeDialogUnits(parent);
@@ -177,6 +220,7 @@ public class JavaBasePreferencePage extends PreferencePage implements IWorkbench
 		callHierarchyGroup.setLayoutData(new GridData(GridData.FILL_HORIZONTAL));
 		callHierarchyGroup.setText(PreferencesMessages.JavaBasePreferencePage_openCallHierarchy);
 		addCheckBox(callHierarchyGroup, PreferencesMessages.JavaBasePreferencePage_showCalleeImplementations, null, OPEN_CALL_HIERARCHY_IMPLEMENTORS);
+		addCheckBox(callHierarchyGroup, PreferencesMessages.JavaBasePreferencePage_useCallGraphIndex, null, OPEN_CALL_HIERARCHY_INDEX);
 
 		Group refactoringGroup= new Group(result, SWT.NONE);
 		refactoringGroup.setLayout(new GridLayout());
@@ -190,6 +234,7 @@ public class JavaBasePreferencePage extends PreferencePage implements IWorkbench
 				PreferencesMessages.JavaBasePreferencePage_refactoring_lightweight,
 				null,
 				PreferenceConstants.REFACTOR_LIGHTWEIGHT);
+		addNumberField(refactoringGroup, PreferencesMessages.JavaBasePreferencePage_clean_up_threads, CleanUpAction.PREF_CLEAN_UP_THREADS);
 
 		Group group= new Group(result, SWT.NONE);
 		group.setLayout(new GridLayout());
@@ -286,6 +331,7 @@ public class JavaBasePreferencePage extends PreferencePage implements IWorkbench
 			buttonPreferenceStore.setValue(key, button.getSelection());
 		}
 		IPreferenceStore store= getPreferenceStore();
+		CallHierarchy.setCallGraphIndexEnabled(store.getBoolean(OPEN_CALL_HIERARCHY_INDEX));
 		for (Button button : fRadioButtons) {
 			if (button.getSelection()) {
 				String[] info= (String[]) button.getData();
@@ -294,7 +340,7 @@ public class JavaBasePreferencePage extends PreferencePage implements IWorkbench
 		}
 		for (Text text : fTextControls) {
 			String key= (String) text.getData();
-			store.setValue(key, text.getText());
+			store.setValue(key, text.getText().trim());
 		}
 
 		JavaPlugin.flushInstanceScope();
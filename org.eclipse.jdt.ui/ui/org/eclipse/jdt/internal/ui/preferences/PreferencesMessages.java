@@ -112,6 +112,8 @@ public final class PreferencesMessages extends NLS {
 	public static String JavaBasePreferencePage_refactoring_lightweight;
 	public static String JavaBasePreferencePage_refactoring_title;
 	public static String JavaBasePreferencePage_refactoring_auto_save;
+	public static String JavaBasePreferencePage_clean_up_threads;
+	public static String JavaBasePreferencePage_invalid_number;
 	public static String JavaBasePreferencePage_search;
 	public static String JavaBasePreferencePage_search_small_menu;
 	public static String JavaBasePreferencePage_search_enable_parallel;
@@ -221,6 +223,7 @@ public final class PreferencesMessages extends NLS {
 	public static String JavaBasePreferencePage_openTypeHierarchy;
 	public static String JavaBasePreferencePage_openCallHierarchy;
 	public static String JavaBasePreferencePage_showCalleeImplementations;
+	public static String JavaBasePreferencePage_useCallGraphIndex;
 	public static String JavaBasePreferencePage_inView;
 	public static String JavaBasePreferencePage_inPerspective;
 	public static String JavaEditorPreferencePage_quickassist_lightbulb;
@@ -49,6 +49,7 @@ import org.eclipse.jdt.core.search.TypeNameMatch;
 import org.eclipse.jdt.internal.core.manipulation.util.BasicElementLabels;
 import org.eclipse.jdt.internal.corext.util.JavaModelUtil;
 import org.eclipse.jdt.internal.corext.util.Messages;
+import org.eclipse.jdt.internal.corext.util.TypeNameResolutionCache;
 
 import org.eclipse.jdt.launching.JavaRuntime;
 
@@ -121,13 +122,23 @@ public class DefaultClasspathFixProcessor extends ClasspathFixProcessor {
 			typeName= null;
 		}
 
-		IJavaSearchScope scope= SearchEngine.createWorkspaceScope();
 		ArrayList<TypeNameMatch> res= new ArrayList<>();
-		TypeNameMatchCollector requestor= new TypeNameMatchCollector(res);
-		int matchMode= SearchPattern.R_EXACT_MATCH | SearchPattern.R_CASE_SENSITIVE;
-		new SearchEngine().searchAllTypeNames(packageName, matchMode, typeName,
-				matchMode, IJavaSearchConstants.TYPE, scope, requestor,
-				IJavaSearchConstants.WAIT_UNTIL_READY_TO_SEARCH, null);
+		if (typeName != null) {
+			// the types of a simple name are shared with the other quick fixes
+			String qualifier= packageName != null ? new String(packageName) : null;
+			for (TypeNameMatch curr : TypeNameResolutionCache.getDefault().findTypes(null, new String(typeName), IJavaSearchConstants.WAIT_UNTIL_READY_TO_SEARCH, null)) {
+				if (qualifier == null || qualifier.equals(curr.getPackageName())) {
+					res.add(curr);
+				}
+			}
+		} else {
+			IJavaSearchScope scope= SearchEngine.createWorkspaceScope();
+			TypeNameMatchCollector requestor= new TypeNameMatchCollector(res);
+			int matchMode= SearchPattern.R_EXACT_MATCH | SearchPattern.R_CASE_SENSITIVE;
+			new SearchEngine().searchAllTypeNames(packageName, matchMode, typeName,
+					matchMode, IJavaSearchConstants.TYPE, scope, requestor,
+					IJavaSearchConstants.WAIT_UNTIL_READY_TO_SEARCH, null);
+		}
 
 		if (res.isEmpty()) {
 			return;
@@ -14,10 +14,10 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.NullProgressMonitor;
@@ -43,6 +43,7 @@ import org.eclipse.jdt.ui.text.java.IJavaCompletionProposal;
 import org.eclipse.jdt.ui.text.java.IJavaCompletionProposalComputer;
 import org.eclipse.jdt.ui.text.java.JavaContentAssistInvocationContext;
 
+import org.eclipse.jdt.internal.ui.JavaPlugin;
 import org.eclipse.jdt.internal.ui.text.Chain;
 import org.eclipse.jdt.internal.ui.text.ChainElement;
 import org.eclipse.jdt.internal.ui.text.ChainElementAnalyzer;
@@ -54,6 +55,11 @@ public class ChainCompletionProposalComputer implements IJavaCompletionProposalC
 
 	public static final String CATEGORY_ID= "org.eclipse.jdt.ui.javaChainProposalCategory"; //$NON-NLS-1$
 
+	/**
+	 * Interval in nanoseconds at which the progress monitor is checked while waiting for the search.
+	 */
+	private static final long POLL_INTERVAL= TimeUnit.MILLISECONDS.toNanos(50);
+
 	private JavaContentAssistInvocationContext ctx;
 
 	private CompletionProposalCollector collector;
@@ -74,7 +80,7 @@ public class ChainCompletionProposalComputer implements IJavaCompletionProposalC
 		if (!shouldPerformCompletionOnExpectedType()) {
 			return Collections.emptyList();
 		}
-		return executeCallChainSearch();
+		return executeCallChainSearch(monitor);
 	}
 
 	private boolean initializeRequiredContext(final ContentAssistInvocationContext context) {
@@ -151,7 +157,15 @@ public class ChainCompletionProposalComputer implements IJavaCompletionProposalC
 		return String.valueOf(element.getElementName()).startsWith(prefix);
 	}
 
-	private List<ICompletionProposal> executeCallChainSearch() {
+	/**
+	 * Runs the search on the pool shared by all chain searches and waits for it until the
+	 * configured timeout elapses or the monitor is canceled. The chains found until then are
+	 * returned in either case.
+	 *
+	 * @param monitor the progress monitor, may be <code>null</code>
+	 * @return the proposals
+	 */
+	private List<ICompletionProposal> executeCallChainSearch(final IProgressMonitor monitor) {
 		final int maxChains, minDepth, maxDepth;
 		try {
 			maxChains= Integer.parseInt(JavaManipulation.getPreference(PreferenceConstants.PREF_MAX_CHAINS, ctx.getProject()));
@@ -173,25 +187,46 @@ public class ChainCompletionProposalComputer implements IJavaCompletionProposalC
 
 		final List<ChainType> expectedTypes= ChainElementAnalyzer.resolveBindingsForExpectedTypes(ctx.getProject(), ctx.getCoreContext());
 		final ChainFinder finder= new ChainFinder(expectedTypes, Arrays.asList(excludedTypes), invocationType);
-		final ExecutorService executor= Executors.newSingleThreadExecutor();
+		Future<?> future= ChainFinder.getPool().submit(() -> {
+			if (findEntrypoints()) {
+				finder.startChainSearch(entrypoints, maxChains, minDepth, maxDepth);
+			}
+		});
+
+		long timeout;
+		try {
+			timeout= Long.parseLong(JavaManipulation.getPreference(PreferenceConstants.PREF_CHAIN_TIMEOUT, ctx.getProject()));
+		} catch (NumberFormatException e) {
+			timeout = 1;
+		}
+		final long deadline= System.nanoTime() + TimeUnit.SECONDS.toNanos(timeout);
 		try {
-			Future<?> future= executor.submit(() -> {
-				if (findEntrypoints()) {
-					finder.startChainSearch(entrypoints, maxChains, minDepth, maxDepth);
+			while (true) {
+				if (monitor != null && monitor.isCanceled()) {
+					finder.cancel();
+					break;
+				}
+				long remaining= deadline - System.nanoTime();
+				if (remaining <= 0) {
+					throw new TimeoutException();
+				}
+				try {
+					future.get(Math.min(remaining, POLL_INTERVAL), TimeUnit.NANOSECONDS);
+					break;
+				} catch (TimeoutException e) {
+					// check the monitor again
 				}
-			});
-
-			long timeout;
-			try {
-				timeout= Long.parseLong(JavaManipulation.getPreference(PreferenceConstants.PREF_CHAIN_TIMEOUT, ctx.getProject()));
-			} catch (NumberFormatException e) {
-				timeout = 1;
 			}
-			future.get(timeout, TimeUnit.SECONDS);
-		} catch (final Exception e) {
+		} catch (final TimeoutException e) {
 			finder.cancel();
-			executor.shutdownNow();
 			setError("Timeout during call chain computation."); //$NON-NLS-1$
+		} catch (final ExecutionException e) {
+			finder.cancel();
+			JavaPlugin.log(e.getCause());
+			setError("Error during call chain computation."); //$NON-NLS-1$
+		} catch (InterruptedException e) {
+			finder.cancel();
+			Thread.currentThread().interrupt();
 		}
 		return buildCompletionProposals(finder.getChains());
 	}
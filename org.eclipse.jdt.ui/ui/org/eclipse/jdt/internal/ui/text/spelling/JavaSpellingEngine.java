@@ -13,6 +13,9 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.ui.text.spelling;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.eclipse.core.runtime.AssertionFailedException;
 import org.eclipse.core.runtime.IProgressMonitor;
 
@@ -28,6 +31,7 @@ import org.eclipse.jdt.ui.PreferenceConstants;
 import org.eclipse.jdt.ui.text.IJavaPartitions;
 
 import org.eclipse.jdt.internal.ui.text.spelling.engine.ISpellChecker;
+import org.eclipse.jdt.internal.ui.text.spelling.engine.ISpellEvent;
 
 
 /**
@@ -37,6 +41,11 @@ import org.eclipse.jdt.internal.ui.text.spelling.engine.ISpellChecker;
  */
 public class JavaSpellingEngine extends SpellingEngine {
 
+	/**
+	 * The number of partitions that are checked together, in parallel, before the problems
+	 * threshold is tested again.
+	 */
+	private static final int CHUNK_SIZE= 32;
 
 	/*
 	 * @see org.eclipse.jdt.internal.ui.text.spelling.SpellingEngine#check(org.eclipse.jface.text.IDocument, org.eclipse.jface.text.IRegion[], org.eclipse.jdt.internal.ui.text.spelling.engine.ISpellChecker, org.eclipse.ui.texteditor.spelling.ISpellingProblemCollector, org.eclipse.core.runtime.IProgressMonitor)
@@ -45,22 +54,88 @@ public class JavaSpellingEngine extends SpellingEngine {
 	protected void check(IDocument document, IRegion[] regions, ISpellChecker checker, ISpellingProblemCollector collector, IProgressMonitor monitor) {
 		SpellEventListener listener= new SpellEventListener(collector, document);
 		boolean isIgnoringJavaStrings= PreferenceConstants.getPreferenceStore().getBoolean(PreferenceConstants.SPELLING_IGNORE_JAVA_STRINGS);
+		SpellingPartitionCache cache= SpellingPartitionCache.getDefault();
+		boolean isCaching= cache.validate(checker);
 		try {
+			List<ITypedRegion> partitions= new ArrayList<>();
 			for (IRegion region : regions) {
 				for (ITypedRegion partition : TextUtilities.computePartitioning(document, IJavaPartitions.JAVA_PARTITIONING, region.getOffset(), region.getLength(), false)) {
 					if (monitor != null && monitor.isCanceled())
 						return;
-					if (listener.isProblemsThresholdReached())
-						return;
 					final String type= partition.getType();
 					if (isIgnoringJavaStrings && (IJavaPartitions.JAVA_STRING.equals(type) || IJavaPartitions.JAVA_MULTI_LINE_STRING.equals(type)))
 						continue;
-					if (!IDocument.DEFAULT_CONTENT_TYPE.equals(type) && !IJavaPartitions.JAVA_CHARACTER.equals(type))
-						checker.execute(listener, new SpellCheckIterator(document, partition, checker.getLocale(), monitor));
+					if (IDocument.DEFAULT_CONTENT_TYPE.equals(type) || IJavaPartitions.JAVA_CHARACTER.equals(type))
+						continue;
+					partitions.add(partition);
 				}
 			}
+
+			String lineDelimiter= TextUtilities.getDefaultLineDelimiter(document);
+			for (int start= 0; start < partitions.size(); start+= CHUNK_SIZE) {
+				List<ITypedRegion> chunk= partitions.subList(start, Math.min(partitions.size(), start + CHUNK_SIZE));
+				ISpellEvent[][] events= check(document, chunk, lineDelimiter, checker, cache, isCaching, start == 0, monitor);
+				for (ISpellEvent[] partitionEvents : events) {
+					for (ISpellEvent event : partitionEvents) {
+						if (monitor != null && monitor.isCanceled())
+							return;
+						if (listener.isProblemsThresholdReached())
+							return;
+						listener.handle(event);
+					}
+				}
+				if (listener.isProblemsThresholdReached())
+					return;
+			}
 		} catch (BadLocationException | AssertionFailedException x) {
 			// ignore: the document has been changed in another thread and will be checked again
 		}
 	}
+
+	/**
+	 * Checks partitions in parallel, or takes their spell events from the cache.
+	 *
+	 * @param document the document
+	 * @param partitions the partitions
+	 * @param lineDelimiter the default line delimiter of the document
+	 * @param checker the spell checker
+	 * @param cache the partition cache
+	 * @param isCaching <code>true</code> if the events can be cached
+	 * @param isFirst <code>true</code> for the first partitions of a check, when the
+	 *        dictionaries may have to be loaded
+	 * @param monitor the progress monitor, or <code>null</code>
+	 * @return the spell events of each partition
+	 * @throws BadLocationException if the document has changed
+	 */
+	private static ISpellEvent[][] check(IDocument document, List<ITypedRegion> partitions, String lineDelimiter, ISpellChecker checker, SpellingPartitionCache cache, boolean isCaching, boolean isFirst, IProgressMonitor monitor) throws BadLocationException {
+		ISpellEvent[][] events= new ISpellEvent[partitions.size()][];
+		List<Runnable> checks= new ArrayList<>();
+		for (int i= 0; i < events.length; i++) {
+			ITypedRegion partition= partitions.get(i);
+			final int index= i;
+			final int offset= partition.getOffset();
+			final String key= isCaching ? SpellingPartitionCache.getKey(partition.getType(), lineDelimiter, document.get(offset, partition.getLength())) : null;
+			if (key != null)
+				events[i]= cache.get(key, offset);
+			if (events[i] == null) {
+				// the iterator reads the document, the check only its copy of the partition
+				final SpellCheckIterator iterator= new SpellCheckIterator(document, partition, checker.getLocale(), monitor);
+				checks.add(() -> events[index]= cache.check(checker, iterator, key, offset, monitor));
+			}
+		}
+
+		if (!checks.isEmpty()) {
+			int first= 0;
+			if (isFirst) {
+				// the first check loads the dictionaries, the others can then share them
+				checks.get(0).run();
+				first= 1;
+			}
+			if (checks.size() - first > 1)
+				checks.subList(first, checks.size()).parallelStream().forEach(Runnable::run);
+			else if (checks.size() > first)
+				checks.get(first).run();
+		}
+		return events;
+	}
 }
@@ -0,0 +1,353 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.ui.text.spelling;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+
+import org.eclipse.jface.preference.IPreferenceStore;
+
+import org.eclipse.jdt.core.JavaCore;
+
+import org.eclipse.jdt.ui.PreferenceConstants;
+
+import org.eclipse.jdt.internal.ui.text.spelling.engine.ISpellCheckIterator;
+import org.eclipse.jdt.internal.ui.text.spelling.engine.ISpellChecker;
+import org.eclipse.jdt.internal.ui.text.spelling.engine.ISpellEvent;
+import org.eclipse.jdt.internal.ui.text.spelling.engine.ISpellEventListener;
+import org.eclipse.jdt.internal.ui.text.spelling.engine.RankedWordProposal;
+
+/**
+ * The spelling problems of the partitions checked recently, keyed by the type and the
+ * content of a partition, so that unchanged partitions need not be checked again.
+ * <p>
+ * The cache holds at most {@link #MAX_ENTRIES} partitions of at most {@link #MAX_CHARACTERS}
+ * characters in total, and drops the least recently used ones. All entries are dropped when the spell checker, its words or dictionaries,
+ * or the spelling or task tag preferences change. The cache counts the checked words
+ * and the partitions found in the cache.
+ * </p>
+ *
+ * @since 3.32
+ */
+public final class SpellingPartitionCache {
+
+	/**
+	 * The maximum number of cached partitions.
+	 */
+	public static final int MAX_ENTRIES= 5000;
+
+	/**
+	 * The maximum number of characters of the keys of all cached partitions.
+	 */
+	public static final int MAX_CHARACTERS= 4 * 1024 * 1024;
+
+	/**
+	 * A spell event relative to the start of its partition.
+	 */
+	private static final class CachedSpellEvent implements ISpellEvent {
+
+		private final ISpellChecker fChecker;
+		private final String fWord;
+		private final int fBegin;
+		private final int fEnd;
+		private final boolean fSentence;
+		private final boolean fMatch;
+
+		CachedSpellEvent(ISpellChecker checker, String word, int begin, int end, boolean sentence, boolean match) {
+			fChecker= checker;
+			fWord= word;
+			fBegin= begin;
+			fEnd= end;
+			fSentence= sentence;
+			fMatch= match;
+		}
+
+		CachedSpellEvent shift(int delta) {
+			return new CachedSpellEvent(fChecker, fWord, fBegin + delta, fEnd + delta, fSentence, fMatch);
+		}
+
+		@Override
+		public int getBegin() {
+			return fBegin;
+		}
+
+		@Override
+		public int getEnd() {
+			return fEnd;
+		}
+
+		@Override
+		public Set<RankedWordProposal> getProposals() {
+			return fChecker.getProposals(fWord, fSentence);
+		}
+
+		@Override
+		public String getWord() {
+			return fWord;
+		}
+
+		@Override
+		public boolean isMatch() {
+			return fMatch;
+		}
+
+		@Override
+		public boolean isStart() {
+			return fSentence;
+		}
+	}
+
+	/**
+	 * Counts the words returned by a spell check iterator.
+	 */
+	private static final class CountingIterator implements ISpellCheckIterator {
+
+		private final ISpellCheckIterator fIterator;
+		private int fCount;
+
+		CountingIterator(ISpellCheckIterator iterator) {
+			fIterator= iterator;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return fIterator.hasNext();
+		}
+
+		@Override
+		public String next() {
+			fCount++;
+			return fIterator.next();
+		}
+
+		@Override
+		public int getBegin() {
+			return fIterator.getBegin();
+		}
+
+		@Override
+		public int getEnd() {
+			return fIterator.getEnd();
+		}
+
+		@Override
+		public boolean startsSentence() {
+			return fIterator.startsSentence();
+		}
+
+		@Override
+		public void setIgnoreSingleLetters(boolean state) {
+			fIterator.setIgnoreSingleLetters(state);
+		}
+	}
+
+	private static final SpellingPartitionCache fgDefault= new SpellingPartitionCache();
+
+	private final LinkedHashMap<String, CachedSpellEvent[]> fEvents= new LinkedHashMap<>(16, 0.75f, true);
+
+	/** The number of characters of the keys in {@link #fEvents} */
+	private long fCharacterCount;
+
+	/** The spell checker of the cached events */
+	private ISpellChecker fChecker;
+
+	/** The configuration of the cached events, see {@link #getConfiguration(ISpellChecker)} */
+	private String fConfiguration;
+
+	private final AtomicLong fWordCount= new AtomicLong();
+	private final AtomicLong fHitCount= new AtomicLong();
+	private final AtomicLong fMissCount= new AtomicLong();
+
+	private SpellingPartitionCache() {
+	}
+
+	/**
+	 * @return the cache shared by all spelling engines
+	 */
+	public static SpellingPartitionCache getDefault() {
+		return fgDefault;
+	}
+
+	/**
+	 * Drops the cached partitions if the spell checker or its configuration changed since
+	 * they were checked.
+	 *
+	 * @param checker the spell checker
+	 * @return <code>true</code> if results of the checker can be cached
+	 */
+	public boolean validate(ISpellChecker checker) {
+		String configuration= getConfiguration(checker);
+		synchronized (fEvents) {
+			if (fChecker != checker || !configuration.equals(fConfiguration)) {
+				fEvents.clear();
+				fCharacterCount= 0;
+				fChecker= checker;
+				fConfiguration= configuration;
+			}
+		}
+		return checker.getModificationStamp() != -1;
+	}
+
+	private static String getConfiguration(ISpellChecker checker) {
+		IPreferenceStore store= PreferenceConstants.getPreferenceStore();
+		StringBuilder buf= new StringBuilder();
+		buf.append(checker.getModificationStamp()).append('\n');
+		buf.append(checker.getLocale()).append('\n');
+		for (String key : new String[] { PreferenceConstants.SPELLING_IGNORE_DIGITS, PreferenceConstants.SPELLING_IGNORE_MIXED,
+				PreferenceConstants.SPELLING_IGNORE_SENTENCE, PreferenceConstants.SPELLING_IGNORE_UPPER, PreferenceConstants.SPELLING_IGNORE_URLS,
+				PreferenceConstants.SPELLING_IGNORE_NON_LETTERS, PreferenceConstants.SPELLING_IGNORE_SINGLE_LETTERS, PreferenceConstants.SPELLING_PROBLEMS_THRESHOLD }) {
+			buf.append(store.getString(key)).append('\n');
+		}
+		buf.append(JavaCore.getOption(JavaCore.COMPILER_TASK_TAGS));
+		return buf.toString();
+	}
+
+	/**
+	 * Returns the key of a partition.
+	 *
+	 * @param type the partition type
+	 * @param lineDelimiter the default line delimiter of the document
+	 * @param content the content of the partition
+	 * @return the key
+	 */
+	public static String getKey(String type, String lineDelimiter, String content) {
+		return type + '\n' + lineDelimiter + '\n' + content;
+	}
+
+	/**
+	 * Returns the cached spell events of a partition and counts a hit or a miss.
+	 *
+	 * @param key the key of the partition
+	 * @param offset the offset of the partition in the document
+	 * @return the spell events, or <code>null</code> if the partition is not cached
+	 */
+	public ISpellEvent[] get(String key, int offset) {
+		CachedSpellEvent[] events;
+		synchronized (fEvents) {
+			events= fEvents.get(key);
+		}
+		if (events == null) {
+			fMissCount.incrementAndGet();
+			return null;
+		}
+		fHitCount.incrementAndGet();
+		ISpellEvent[] shifted= new ISpellEvent[events.length];
+		for (int i= 0; i < events.length; i++)
+			shifted[i]= events[i].shift(offset);
+		return shifted;
+	}
+
+	/**
+	 * Checks a partition and returns its spell events. The events are cached if the check
+	 * completed.
+	 *
+	 * @param checker the spell checker
+	 * @param iterator the spell check iterator of the partition
+	 * @param key the key of the partition, or <code>null</code> if the events must not be cached
+	 * @param offset the offset of the partition in the document
+	 * @param monitor the progress monitor of the check, or <code>null</code>
+	 * @return the spell events
+	 */
+	public ISpellEvent[] check(ISpellChecker checker, ISpellCheckIterator iterator, String key, int offset, IProgressMonitor monitor) {
+		List<ISpellEvent> events= new ArrayList<>();
+		CountingIterator counter= new CountingIterator(iterator);
+		ISpellEventListener listener= events::add;
+		checker.execute(listener, counter);
+		fWordCount.addAndGet(counter.fCount);
+		ISpellEvent[] result= events.toArray(new ISpellEvent[events.size()]);
+		if (key != null && (monitor == null || !monitor.isCanceled())) {
+			CachedSpellEvent[] cached= new CachedSpellEvent[result.length];
+			for (int i= 0; i < result.length; i++) {
+				ISpellEvent event= result[i];
+				cached[i]= new CachedSpellEvent(checker, event.getWord(), event.getBegin() - offset, event.getEnd() - offset, event.isStart(), event.isMatch());
+			}
+			synchronized (fEvents) {
+				if (fChecker == checker)
+					put(key, cached);
+			}
+		}
+		return result;
+	}
+
+	private void put(String key, CachedSpellEvent[] events) {
+		if (fEvents.put(key, events) == null)
+			fCharacterCount+= key.length();
+		Iterator<Map.Entry<String, CachedSpellEvent[]>> iterator= fEvents.entrySet().iterator();
+		while ((fEvents.size() > MAX_ENTRIES || fCharacterCount > MAX_CHARACTERS) && iterator.hasNext()) {
+			fCharacterCount-= iterator.next().getKey().length();
+			iterator.remove();
+		}
+	}
+
+	/**
+	 * @return the number of cached partitions
+	 */
+	public int size() {
+		synchronized (fEvents) {
+			return fEvents.size();
+		}
+	}
+
+	/**
+	 * @return the number of characters of the keys of the cached partitions
+	 */
+	public long getCharacterCount() {
+		synchronized (fEvents) {
+			return fCharacterCount;
+		}
+	}
+
+	/**
+	 * @return the number of words checked
+	 */
+	public long getWordCount() {
+		return fWordCount.get();
+	}
+
+	/**
+	 * @return the number of partitions found in the cache
+	 */
+	public long getHitCount() {
+		return fHitCount.get();
+	}
+
+	/**
+	 * @return the number of partitions not found in the cache
+	 */
+	public long getMissCount() {
+		return fMissCount.get();
+	}
+
+	/**
+	 * Drops all cached partitions and resets the counters.
+	 */
+	public void clear() {
+		synchronized (fEvents) {
+			fEvents.clear();
+			fCharacterCount= 0;
+			fChecker= null;
+			fConfiguration= null;
+		}
+		fWordCount.set(0);
+		fHitCount.set(0);
+		fMissCount.set(0);
+	}
+}
@@ -14,6 +14,7 @@
 package org.eclipse.jdt.internal.ui.text.spelling.engine;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
@@ -25,14 +26,22 @@ import java.nio.charset.Charset;
 import java.nio.charset.CharsetDecoder;
 import java.nio.charset.CodingErrorAction;
 import java.nio.charset.MalformedInputException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import org.eclipse.core.runtime.FileLocator;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
 
@@ -117,6 +126,18 @@ public abstract class AbstractSpellDictionary implements ISpellDictionary {
 	/** The phonetic hash provider */
 	private IPhoneticHashProvider fHashProvider= new DefaultPhoneticHashProvider();
 
+	/**
+	 * The compiled word list, or <code>null</code> if the words are in the hash buckets.
+	 * @since 3.32
+	 */
+	private volatile CompiledSpellDictionary fCompiled;
+
+	/**
+	 * Was the compiled word list opened without reading the word list?
+	 * @since 3.32
+	 */
+	private boolean fOpenedCompiled= false;
+
 	/** Is the dictionary already loaded? */
 	private boolean fLoaded= false;
 	/**
@@ -146,17 +167,44 @@ public abstract class AbstractSpellDictionary implements ISpellDictionary {
 	 *
 	 * @param hash
 	 *                   The hash to retrieve the candidates of
-	 * @return Array of candidates for the phonetic hash
+	 * @return List of candidates for the phonetic hash, or <code>null</code> if there are none
 	 */
-	protected final Object getCandidates(final String hash) {
-		ByteArrayWrapper hashBytes;
+	protected final List<String> getCandidates(final String hash) {
+		byte[] hashBytes;
 		try {
-			hashBytes= new ByteArrayWrapper(hash.getBytes(UTF_8));
+			hashBytes= hash.getBytes(UTF_8);
 		} catch (UnsupportedEncodingException e) {
 			JavaPlugin.log(e);
 			return null;
 		}
-		return fHashBuckets.get(hashBytes);
+		CompiledSpellDictionary compiled= fCompiled;
+		List<String> compiledCandidates= compiled != null ? compiled.getWords(hashBytes) : null;
+		Object bucket= fHashBuckets.get(new ByteArrayWrapper(hashBytes));
+		if (bucket == null)
+			return compiledCandidates;
+		List<String> candidates;
+		if (bucket instanceof byte[]) {
+			candidates= Collections.singletonList(new String((byte[]) bucket, StandardCharsets.UTF_8));
+		} else {
+			@SuppressWarnings("unchecked")
+			final ArrayList<byte[]> bucketList= (ArrayList<byte[]>)bucket;
+			candidates= new AbstractList<String>() {
+				@Override
+				public String get(int index) {
+					return new String(bucketList.get(index), StandardCharsets.UTF_8);
+				}
+
+				@Override
+				public int size() {
+					return bucketList.size();
+				}
+			};
+		}
+		if (compiledCandidates == null)
+			return candidates;
+		List<String> all= new ArrayList<>(compiledCandidates);
+		all.addAll(candidates);
+		return all;
 	}
 
 	/**
@@ -184,40 +232,14 @@ public abstract class AbstractSpellDictionary implements ISpellDictionary {
 
 			hash= hash2;
 
-			final Object candidates= getCandidates(hash);
+			final List<String> candidates= getCandidates(hash);
 			if (candidates == null)
 				continue;
-			else if (candidates instanceof byte[]) {
-				String candidate;
-				try {
-					candidate= new String((byte[])candidates, UTF_8);
-				} catch (UnsupportedEncodingException e) {
-					JavaPlugin.log(e);
-					return result;
-				}
-				distance= fDistanceAlgorithm.getDistance(word, candidate);
-				if (distance < DISTANCE_THRESHOLD) {
-					buffer.setLength(0);
-					buffer.append(candidate);
-					if (sentence)
-						buffer.setCharAt(0, Character.toUpperCase(buffer.charAt(0)));
-					result.add(new RankedWordProposal(buffer.toString(), -distance));
-				}
-				continue;
-			}
 
-			@SuppressWarnings("unchecked")
-			final ArrayList<byte[]> candidateList= (ArrayList<byte[]>)candidates;
-			int candidateSize= Math.min(500, candidateList.size()); // see https://bugs.eclipse.org/bugs/show_bug.cgi?id=195357
+			int candidateSize= Math.min(500, candidates.size()); // see https://bugs.eclipse.org/bugs/show_bug.cgi?id=195357
 			for (int offset= 0; offset < candidateSize; offset++) {
 
-				String candidate;
-				try {
-					candidate= new String(candidateList.get(offset), UTF_8);
-				} catch (UnsupportedEncodingException e) {
-					JavaPlugin.log(e);
-					return result;
-				}
+				String candidate= candidates.get(offset);
 				distance= fDistanceAlgorithm.getDistance(word, candidate);
 
 				if (distance < DISTANCE_THRESHOLD) {
@@ -255,37 +277,13 @@ public abstract class AbstractSpellDictionary implements ISpellDictionary {
 
 		StringBuilder buffer= new StringBuilder(BUFFER_CAPACITY);
 
-		final Object candidates= getCandidates(fHashProvider.getHash(word));
+		final List<String> candidates= getCandidates(fHashProvider.getHash(word));
 		if (candidates == null)
 			return;
-		else if (candidates instanceof byte[]) {
-			String candidate;
-			try {
-				candidate= new String((byte[])candidates, UTF_8);
-			} catch (UnsupportedEncodingException e) {
-				JavaPlugin.log(e);
-				return;
-			}
-			distance= fDistanceAlgorithm.getDistance(word, candidate);
-			buffer.append(candidate);
-			if (sentence)
-				buffer.setCharAt(0, Character.toUpperCase(buffer.charAt(0)));
-			result.add(new RankedWordProposal(buffer.toString(), -distance));
-			return;
-		}
 
-		@SuppressWarnings("unchecked")
-		final ArrayList<byte[]> candidateList= (ArrayList<byte[]>)candidates;
-		final ArrayList<RankedWordProposal> matches= new ArrayList<>(candidateList.size());
+		final ArrayList<RankedWordProposal> matches= new ArrayList<>(candidates.size());
 
-		for (byte[] element : candidateList) {
-			String candidate;
-			try {
-				candidate= new String(element, UTF_8);
-			} catch (UnsupportedEncodingException e) {
-				JavaPlugin.log(e);
-				return;
-			}
+		for (String candidate : candidates) {
 			distance= fDistanceAlgorithm.getDistance(word, candidate);
 
 			if (distance <= minimum) {
@@ -314,7 +312,8 @@ public abstract class AbstractSpellDictionary implements ISpellDictionary {
 	 * @since 3.3
 	 */
 	protected boolean isEmpty() {
-		return fHashBuckets.isEmpty();
+		CompiledSpellDictionary compiled= fCompiled;
+		return fHashBuckets.isEmpty() && (compiled == null || compiled.getWordCount() == 0);
 	}
 
 	/**
@@ -506,32 +505,29 @@ public abstract class AbstractSpellDictionary implements ISpellDictionary {
 			// Do nothing
 		}
 
-		final Object candidates= getCandidates(fHashProvider.getHash(word));
-		if (candidates == null)
-			return false;
-		else if (candidates instanceof byte[]) {
-			String candidate;
-			try {
-				candidate= new String((byte[])candidates, UTF_8);
-			} catch (UnsupportedEncodingException e) {
-				JavaPlugin.log(e);
-				return false;
-			}
-			if (candidate.equals(word) || candidate.equals(word.toLowerCase()))
-				return true;
-			return false;
-		}
-		@SuppressWarnings("unchecked")
-		final ArrayList<byte[]> candidateList= (ArrayList<byte[]>)candidates;
+		byte[] hashBytes;
 		byte[] wordBytes;
 		byte[] lowercaseWordBytes;
 		try {
+			hashBytes= fHashProvider.getHash(word).getBytes(UTF_8);
 			wordBytes= word.getBytes(UTF_8);
 			lowercaseWordBytes= word.toLowerCase().getBytes(UTF_8);
 		} catch (UnsupportedEncodingException e) {
 			JavaPlugin.log(e);
 			return false;
 		}
+		CompiledSpellDictionary compiled= fCompiled;
+		if (compiled != null && compiled.contains(hashBytes, wordBytes, lowercaseWordBytes))
+			return true;
+
+		final Object candidates= fHashBuckets.get(new ByteArrayWrapper(hashBytes));
+		if (candidates == null)
+			return false;
+		else if (candidates instanceof byte[])
+			return Arrays.equals((byte[]) candidates, wordBytes) || Arrays.equals((byte[]) candidates, lowercaseWordBytes);
+
+		@SuppressWarnings("unchecked")
+		final ArrayList<byte[]> candidateList= (ArrayList<byte[]>)candidates;
 		for (byte[] candidate : candidateList) {
 			if (Arrays.equals(candidate, wordBytes) || Arrays.equals(candidate, lowercaseWordBytes)) {
 				return true;
@@ -574,7 +570,7 @@ public abstract class AbstractSpellDictionary implements ISpellDictionary {
 
 	@Override
 	public synchronized final boolean isLoaded() {
-		return fLoaded || fHashBuckets.size() > 0;
+		return fLoaded || fHashBuckets.size() > 0 || fCompiled != null;
 	}
 
 	/**
@@ -589,6 +585,105 @@ public abstract class AbstractSpellDictionary implements ISpellDictionary {
 		 if (!fMustLoad)
 			 return fLoaded;
 
+		File file= getCompiledFile();
+		String stamp= file != null && url != null ? getStamp(url) : null;
+		if (stamp == null)
+			return loadWordList(url);
+
+		try {
+			fCompiled= CompiledSpellDictionary.open(file, stamp);
+			if (fCompiled != null) {
+				fMustLoad= false;
+				fOpenedCompiled= true;
+				return true;
+			}
+		} catch (IOException e) {
+			// a damaged file is compiled again
+			JavaPlugin.log(e);
+		}
+
+		if (!loadWordList(url))
+			return false;
+		try {
+			CompiledSpellDictionary.Builder builder= new CompiledSpellDictionary.Builder();
+			for (Map.Entry<ByteArrayWrapper, Object> entry : fHashBuckets.entrySet()) {
+				Object bucket= entry.getValue();
+				if (bucket instanceof byte[]) {
+					builder.add(entry.getKey().byteArray, (byte[]) bucket);
+				} else {
+					@SuppressWarnings("unchecked")
+					ArrayList<byte[]> bucketList= (ArrayList<byte[]>)bucket;
+					for (byte[] wordBytes : bucketList)
+						builder.add(entry.getKey().byteArray, wordBytes);
+				}
+			}
+			builder.write(file, stamp);
+			CompiledSpellDictionary compiled= CompiledSpellDictionary.open(file, stamp);
+			if (compiled != null) {
+				fCompiled= compiled;
+				fHashBuckets.clear();
+			}
+		} catch (IOException e) {
+			// keep the words in the hash buckets
+			JavaPlugin.log(e);
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the file that stores the compiled form of the word list of this dictionary,
+	 * see {@link CompiledSpellDictionary}. The word list is compiled when it is loaded the
+	 * first time and the compiled form is mapped instead of reading the word list as long
+	 * as the word list does not change.
+	 *
+	 * @return the file, or <code>null</code> if the word list is not compiled
+	 * @since 3.32
+	 */
+	protected File getCompiledFile() {
+		return null;
+	}
+
+	/**
+	 * Tells whether the words were read from the compiled file, see {@link #getCompiledFile()},
+	 * without reading the word list.
+	 *
+	 * @return <code>true</code> iff the dictionary is loaded from the compiled file
+	 * @since 3.32
+	 */
+	public synchronized boolean isLoadedFromCompiledFile() {
+		return fOpenedCompiled && fCompiled != null;
+	}
+
+	/**
+	 * Returns the stamp of a word list, which changes when the word list or the way it is
+	 * read changes. Word lists in bundles are resolved to files.
+	 *
+	 * @param url the URL of the word list
+	 * @return the stamp, or <code>null</code> if the word list is not a file
+	 */
+	private String getStamp(URL url) {
+		try {
+			URL fileURL= FileLocator.toFileURL(url);
+			if (!"file".equals(fileURL.getProtocol())) //$NON-NLS-1$
+				return null;
+			BasicFileAttributes attributes= Files.readAttributes(new File(fileURL.getPath()).toPath(), BasicFileAttributes.class);
+			if (!attributes.isRegularFile())
+				return null;
+			return url.toExternalForm() + '\n' + attributes.lastModifiedTime().toMillis() + '\n' + attributes.size() + '\n' + getEncoding() + '\n' + fHashProvider.getClass().getName();
+		} catch (IOException | InvalidPathException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Reads a dictionary word list into the hash buckets.
+	 *
+	 * @param url
+	 *                   The URL of the word list to load
+	 * @return <code>true</code> iff the word list could be loaded, <code>false</code>
+	 *               otherwise
+	 */
+	private boolean loadWordList(final URL url) {
 		if (url != null) {
 			InputStream stream= null;
 			int line= 0;
@@ -636,7 +731,7 @@ public abstract class AbstractSpellDictionary implements ISpellDictionary {
 					JavaPlugin.log(ex);
 				else
 					try {
-						return load(new URL(lowercaseUrlString));
+						return loadWordList(new URL(lowercaseUrlString));
 					} catch (MalformedURLException e) {
 						JavaPlugin.log(e);
 					}
@@ -698,6 +793,8 @@ public abstract class AbstractSpellDictionary implements ISpellDictionary {
 		fLoaded= false;
 		fMustLoad= true;
 		fHashBuckets.clear();
+		fCompiled= null;
+		fOpenedCompiled= false;
 	}
 
 	@Override
@@ -0,0 +1,396 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.ui.text.spelling.engine;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The compiled, read-only form of a word list, stored in a file and memory-mapped.
+ * <p>
+ * The words are sorted and front-coded in blocks of {@link #BLOCK_SIZE} words, each block
+ * starting with a complete word. A sorted index of the phonetic hashes refers to the words
+ * of each hash, in the order in which they were added. Lookups decode the words from the
+ * mapped file and create no objects per word unless a word is returned.
+ * </p>
+ * <p>
+ * The file starts with a stamp of the word list it was compiled from. {@link #open(File, String)}
+ * returns <code>null</code> if the stamp differs, in which case the word list must be compiled
+ * again. The header is read before the file is mapped, so that an outdated file is not
+ * mapped.
+ * </p>
+ *
+ * @since 3.32
+ */
+public final class CompiledSpellDictionary {
+
+	/**
+	 * Collects the words of a word list and writes the compiled form.
+	 */
+	public static final class Builder {
+
+		private final List<byte[]> fWords= new ArrayList<>();
+
+		private final List<byte[]> fHashes= new ArrayList<>();
+
+		/**
+		 * Adds a word. Words with the same hash are returned in the order in which they were
+		 * added.
+		 *
+		 * @param hash the UTF-8 encoded phonetic hash of the word
+		 * @param word the UTF-8 encoded word
+		 */
+		public void add(byte[] hash, byte[] word) {
+			fHashes.add(hash);
+			fWords.add(word);
+		}
+
+		/**
+		 * Writes the compiled form of the added words. The file is replaced atomically if the
+		 * file system supports it.
+		 *
+		 * @param file the file
+		 * @param stamp the stamp of the word list
+		 * @throws IOException if the file cannot be written
+		 */
+		public void write(File file, String stamp) throws IOException {
+			int wordCount= fWords.size();
+			Integer[] order= new Integer[wordCount];
+			for (int i= 0; i < wordCount; i++)
+				order[i]= Integer.valueOf(i);
+			Arrays.sort(order, (a, b) -> Arrays.compareUnsigned(fWords.get(a.intValue()), fWords.get(b.intValue())));
+			int[] rank= new int[wordCount];
+			for (int i= 0; i < wordCount; i++)
+				rank[order[i].intValue()]= i;
+
+			ByteArrayOutputStream words= new ByteArrayOutputStream();
+			int[] blockOffsets= new int[(wordCount + BLOCK_SIZE - 1) / BLOCK_SIZE];
+			byte[] previous= null;
+			for (int i= 0; i < wordCount; i++) {
+				byte[] word= fWords.get(order[i].intValue());
+				int prefix= 0;
+				if (i % BLOCK_SIZE == 0) {
+					blockOffsets[i / BLOCK_SIZE]= words.size();
+				} else {
+					int max= Math.min(previous.length, word.length);
+					while (prefix < max && previous[prefix] == word[prefix])
+						prefix++;
+				}
+				writeVarInt(words, prefix);
+				writeVarInt(words, word.length - prefix);
+				words.write(word, prefix, word.length - prefix);
+				previous= word;
+			}
+
+			Map<byte[], List<Integer>> buckets= new TreeMap<>(Arrays::compareUnsigned);
+			for (int i= 0; i < wordCount; i++)
+				buckets.computeIfAbsent(fHashes.get(i), h -> new ArrayList<>()).add(Integer.valueOf(rank[i]));
+
+			ByteArrayOutputStream hashes= new ByteArrayOutputStream();
+			int[] hashOffsets= new int[buckets.size() + 1];
+			int[] postingStarts= new int[buckets.size() + 1];
+			int[] postings= new int[wordCount];
+			int bucket= 0;
+			int posting= 0;
+			for (Map.Entry<byte[], List<Integer>> entry : buckets.entrySet()) {
+				hashOffsets[bucket]= hashes.size();
+				postingStarts[bucket]= posting;
+				hashes.write(entry.getKey(), 0, entry.getKey().length);
+				for (Integer id : entry.getValue())
+					postings[posting++]= id.intValue();
+				bucket++;
+			}
+			hashOffsets[bucket]= hashes.size();
+			postingStarts[bucket]= posting;
+
+			File temp= new File(file.getPath() + ".tmp"); //$NON-NLS-1$
+			File parent= file.getParentFile();
+			if (parent != null)
+				parent.mkdirs();
+			try (DataOutputStream out= new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp.toPath())))) {
+				byte[] stampBytes= stamp.getBytes(StandardCharsets.UTF_8);
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+				out.writeInt(stampBytes.length);
+				out.write(stampBytes);
+				out.writeInt(wordCount);
+				out.writeInt(blockOffsets.length);
+				out.writeInt(buckets.size());
+				writeInts(out, blockOffsets);
+				writeInts(out, hashOffsets);
+				writeInts(out, postingStarts);
+				writeInts(out, postings);
+				out.writeInt(words.size());
+				words.writeTo(out);
+				out.writeInt(hashes.size());
+				hashes.writeTo(out);
+			}
+			try {
+				Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+
+		private static void writeVarInt(ByteArrayOutputStream out, int value) {
+			while ((value & ~0x7f) != 0) {
+				out.write((value & 0x7f) | 0x80);
+				value>>>= 7;
+			}
+			out.write(value);
+		}
+
+		private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+			for (int value : values)
+				out.writeInt(value);
+		}
+	}
+
+	/** The number of words per front-coded block */
+	public static final int BLOCK_SIZE= 16;
+
+	private static final int MAGIC= 0x4A445344;
+
+	private static final int VERSION= 1;
+
+	/** The mapped file */
+	private final ByteBuffer fBuffer;
+
+	private final int fWordCount;
+
+	private final int fBucketCount;
+
+	/** Positions of the sections in the buffer */
+	private final int fBlockOffsets;
+	private final int fHashOffsets;
+	private final int fPostingStarts;
+	private final int fPostings;
+	private final int fWords;
+	private final int fHashes;
+
+	private CompiledSpellDictionary(ByteBuffer buffer, int position) {
+		fBuffer= buffer;
+		fWordCount= buffer.getInt(position);
+		int blockCount= buffer.getInt(position + 4);
+		fBucketCount= buffer.getInt(position + 8);
+		fBlockOffsets= position + 12;
+		fHashOffsets= fBlockOffsets + 4 * blockCount;
+		fPostingStarts= fHashOffsets + 4 * (fBucketCount + 1);
+		fPostings= fPostingStarts + 4 * (fBucketCount + 1);
+		fWords= fPostings + 4 * fWordCount + 4;
+		fHashes= fWords + buffer.getInt(fWords - 4) + 4;
+		if (fHashes > buffer.limit() || fHashes + buffer.getInt(fHashes - 4) != buffer.limit())
+			throw new IllegalArgumentException("Damaged dictionary"); //$NON-NLS-1$
+	}
+
+	/**
+	 * Maps a compiled dictionary.
+	 *
+	 * @param file the file
+	 * @param stamp the stamp of the current word list
+	 * @return the dictionary, or <code>null</code> if the file does not exist, was compiled
+	 *         from another word list or by another version
+	 * @throws IOException if the file cannot be read or is damaged
+	 */
+	public static CompiledSpellDictionary open(File file, String stamp) throws IOException {
+		if (!file.isFile())
+			return null;
+		byte[] stampBytes= stamp.getBytes(StandardCharsets.UTF_8);
+		int length= stampBytes.length;
+		ByteBuffer buffer;
+		try (FileChannel channel= FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			ByteBuffer header= ByteBuffer.allocate(12 + length);
+			while (header.hasRemaining() && channel.read(header) >= 0) {
+				// read until the header is complete or the file ends
+			}
+			if (header.position() < 12 || header.getInt(0) != MAGIC || header.getInt(4) != VERSION || header.getInt(8) != length
+					|| header.hasRemaining())
+				return null;
+			for (int i= 0; i < length; i++) {
+				if (header.get(12 + i) != stampBytes[i])
+					return null;
+			}
+			buffer= channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		try {
+			return new CompiledSpellDictionary(buffer, 12 + length);
+		} catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+			throw new IOException(file.getPath(), e);
+		}
+	}
+
+	/**
+	 * @return the number of words
+	 */
+	public int getWordCount() {
+		return fWordCount;
+	}
+
+	/**
+	 * Returns the index of the bucket of a phonetic hash.
+	 *
+	 * @param hash the UTF-8 encoded phonetic hash
+	 * @return the index of the bucket, or <code>-1</code> if no word has the hash
+	 */
+	public int findBucket(byte[] hash) {
+		int low= 0;
+		int high= fBucketCount - 1;
+		while (low <= high) {
+			int middle= (low + high) >>> 1;
+			int comparison= compareHash(middle, hash);
+			if (comparison < 0)
+				low= middle + 1;
+			else if (comparison > 0)
+				high= middle - 1;
+			else
+				return middle;
+		}
+		return -1;
+	}
+
+	private int compareHash(int bucket, byte[] hash) {
+		int start= fHashes + fBuffer.getInt(fHashOffsets + 4 * bucket);
+		int length= fHashes + fBuffer.getInt(fHashOffsets + 4 * (bucket + 1)) - start;
+		int n= Math.min(length, hash.length);
+		for (int i= 0; i < n; i++) {
+			int comparison= Byte.toUnsignedInt(fBuffer.get(start + i)) - Byte.toUnsignedInt(hash[i]);
+			if (comparison != 0)
+				return comparison;
+		}
+		return length - hash.length;
+	}
+
+	/**
+	 * @param bucket the index of a bucket
+	 * @return the number of words in the bucket
+	 */
+	public int getBucketSize(int bucket) {
+		return fBuffer.getInt(fPostingStarts + 4 * (bucket + 1)) - fBuffer.getInt(fPostingStarts + 4 * bucket);
+	}
+
+	/**
+	 * Returns the words with a phonetic hash. The words are decoded when accessed.
+	 *
+	 * @param hash the UTF-8 encoded phonetic hash
+	 * @return the words, or <code>null</code> if no word has the hash
+	 */
+	public List<String> getWords(byte[] hash) {
+		int bucket= findBucket(hash);
+		if (bucket == -1)
+			return null;
+		int start= fBuffer.getInt(fPostingStarts + 4 * bucket);
+		int size= getBucketSize(bucket);
+		return new AbstractList<String>() {
+			@Override
+			public String get(int index) {
+				if (index < 0 || index >= size)
+					throw new IndexOutOfBoundsException(index);
+				return getWord(fBuffer.getInt(fPostings + 4 * (start + index)));
+			}
+
+			@Override
+			public int size() {
+				return size;
+			}
+		};
+	}
+
+	/**
+	 * Tells whether the bucket of a phonetic hash contains one of the given words.
+	 *
+	 * @param hash the UTF-8 encoded phonetic hash
+	 * @param words the UTF-8 encoded words
+	 * @return <code>true</code> if one of the words has the hash
+	 */
+	public boolean contains(byte[] hash, byte[]... words) {
+		int bucket= findBucket(hash);
+		if (bucket == -1)
+			return false;
+		int start= fBuffer.getInt(fPostingStarts + 4 * bucket);
+		int end= start + getBucketSize(bucket);
+		Decoder decoder= new Decoder();
+		for (int i= start; i < end; i++) {
+			decoder.decode(fBuffer.getInt(fPostings + 4 * i));
+			for (byte[] word : words) {
+				if (Arrays.equals(decoder.fBytes, 0, decoder.fLength, word, 0, word.length))
+					return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns a word.
+	 *
+	 * @param id the index of the word in the sorted words
+	 * @return the word
+	 */
+	public String getWord(int id) {
+		Decoder decoder= new Decoder();
+		decoder.decode(id);
+		return new String(decoder.fBytes, 0, decoder.fLength, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Decodes front-coded words into a reusable buffer.
+	 */
+	private final class Decoder {
+
+		byte[] fBytes= new byte[64];
+
+		int fLength;
+
+		private int fPosition;
+
+		void decode(int id) {
+			fPosition= fWords + fBuffer.getInt(fBlockOffsets + 4 * (id / BLOCK_SIZE));
+			fLength= 0;
+			for (int i= id % BLOCK_SIZE; i >= 0; i--) {
+				int prefix= readVarInt();
+				int suffix= readVarInt();
+				fLength= prefix + suffix;
+				if (fLength > fBytes.length)
+					fBytes= Arrays.copyOf(fBytes, Math.max(fLength, 2 * fBytes.length));
+				for (int j= prefix; j < fLength; j++)
+					fBytes[j]= fBuffer.get(fPosition++);
+			}
+		}
+
+		private int readVarInt() {
+			int value= 0;
+			for (int shift= 0;; shift+= 7) {
+				byte b= fBuffer.get(fPosition++);
+				value|= (b & 0x7f) << shift;
+				if ((b & 0x80) == 0)
+					return value;
+			}
+		}
+	}
+}
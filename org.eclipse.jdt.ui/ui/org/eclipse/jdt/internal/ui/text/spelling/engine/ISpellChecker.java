@@ -110,4 +110,17 @@ public interface ISpellChecker {
 	 * @since 3.3
 	 */
 	Locale getLocale();
+
+	/**
+	 * Returns a stamp that changes whenever words are added, ignored or checked again, or
+	 * dictionaries are added or removed, i.e. whenever the result of checking a text may
+	 * change without a change of the preferences.
+	 *
+	 * @return the modification stamp, or <code>-1</code> if the checker does not track
+	 *         its modifications and its results must not be cached
+	 * @since 3.32
+	 */
+	default long getModificationStamp() {
+		return -1;
+	}
 }
@@ -13,10 +13,13 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.ui.text.spelling.engine;
 
+import java.io.File;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.Locale;
 
+import org.eclipse.jdt.internal.ui.JavaPlugin;
+
 
 /**
  * Platform wide read-only locale sensitive dictionary for spell checking.
@@ -25,6 +28,9 @@ import java.util.Locale;
  */
 public class LocaleSensitiveSpellDictionary extends AbstractSpellDictionary {
 
+	/** The folder of the compiled dictionaries in the state location of the JDT UI plug-in */
+	private static final String COMPILED_FOLDER= "dictionaries"; //$NON-NLS-1$
+
 	/** The locale of this dictionary */
 	private final Locale fLocale;
 
@@ -58,6 +64,11 @@ public class LocaleSensitiveSpellDictionary extends AbstractSpellDictionary {
 		return new URL(fLocation, fLocale.toString() + ".dictionary");  //$NON-NLS-1$
 	}
 
+	@Override
+	protected File getCompiledFile() {
+		return JavaPlugin.getDefault().getStateLocation().append(COMPILED_FOLDER).append(fLocale.toString() + ".dictionary").toFile(); //$NON-NLS-1$
+	}
+
 	@Override
 	protected int getInitialSize() {
 		return 32 * 1024;